@@ -0,0 +1,106 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 写入进行中的读取延迟：回滚日志（TRUNCATE）与 WAL 对比
+ * 写线程不停地提交"批量修改数量"的事务（每个事务持有写锁一段时间），主测试线程读取查询页的第一页
+ * 回滚日志模式下读取要等写事务提交，WAL 模式下读取使用另一个连接，不受写入影响
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadUnderWriteBenchmarkTest {
+
+    private static final String TAG = "ReadUnderWrite";
+    private static final String DB_NAME = "read_under_write_benchmark";
+    private static final int ITEM_COUNT = 5_000;
+    // 每个写事务修改的行数
+    private static final int ROWS_PER_WRITE = 200;
+    private static final int READS = 200;
+
+    @Test
+    public void walReadsDoNotWaitForWriter() throws InterruptedException {
+        long[] truncate = measure(RoomDatabase.JournalMode.TRUNCATE);
+        long[] wal = measure(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING);
+
+        Log.i(TAG, "TRUNCATE: p50=" + percentile(truncate, 50) / 1000 + "us p95=" + percentile(truncate, 95) / 1000 + "us");
+        Log.i(TAG, "WAL: p50=" + percentile(wal, 50) / 1000 + "us p95=" + percentile(wal, 95) / 1000 + "us");
+        assertTrue("WAL 下写入期间的读取 p95 不应慢于回滚日志",
+                percentile(wal, 95) <= percentile(truncate, 95));
+    }
+
+    /**
+     * 在指定日志模式的新数据库上测量写入期间的读取耗时（纳秒）
+     */
+    private long[] measure(RoomDatabase.JournalMode journalMode) throws InterruptedException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        AppDatabase db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addCallback(AppDatabase.FTS_SYNC_CALLBACK)
+                .addCallback(AppDatabase.WAL_CALLBACK)
+                .setJournalMode(journalMode)
+                .build();
+        try {
+            db.runInTransaction(() -> {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    db.itemDao().insertItem(new Item("物品" + i, null, null, null, null, "", null, i % 10));
+                }
+            });
+
+            AtomicBoolean stop = new AtomicBoolean(false);
+            AtomicInteger writes = new AtomicInteger();
+            Thread writer = new Thread(() -> {
+                SupportSQLiteDatabase sqLite = db.getOpenHelper().getWritableDatabase();
+                int offset = 0;
+                while (!stop.get()) {
+                    int from = offset;
+                    db.runInTransaction(() -> sqLite.execSQL("UPDATE item SET quantity = quantity + 1 WHERE id > ? AND id <= ?",
+                            new Object[]{from, from + ROWS_PER_WRITE}));
+                    offset = (offset + ROWS_PER_WRITE) % ITEM_COUNT;
+                    writes.incrementAndGet();
+                }
+            }, "benchmark-writer");
+            writer.start();
+            // 等写入开始
+            while (writes.get() == 0) {
+                Thread.sleep(1);
+            }
+
+            long[] samples = new long[READS];
+            for (int i = 0; i < READS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                db.itemDao().queryItemsPageBefore(null, null, Long.MAX_VALUE, ItemPager.DEFAULT_PAGE_SIZE);
+                samples[i] = SystemClock.elapsedRealtimeNanos() - start;
+            }
+            stop.set(true);
+            writer.join();
+            Log.i(TAG, journalMode + ": " + writes.get() + " write transactions during " + READS + " reads");
+            return samples;
+        } finally {
+            db.close();
+            context.deleteDatabase(DB_NAME);
+        }
+    }
+
+    private static long percentile(long[] samples, int percent) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.homeinventorymanager;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 底部导航切换耗时：每次新建页面（原 replace 方式）与创建一次后显示/隐藏（现方式）对比
+ * 一次切换的耗时 = 提交并执行 Fragment 事务 + 对页面容器做一次完整的 measure/layout（含新建页面时的 inflate）
+ * 页面中的异步数据库查询不在主线程执行，不计入
+ */
+@RunWith(AndroidJUnit4.class)
+public class TabSwitchLatencyTest {
+
+    private static final String TAG = "TabSwitchLatency";
+    private static final int[] TABS = {R.id.nav_add, R.id.nav_query, R.id.nav_modify, R.id.nav_setting};
+    // 每种方式切换的轮数（每轮依次切换全部标签页）
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void showHide_reusesFragmentsAndIsFasterThanReplace() {
+        long[] replace = measure(true);
+        long[] showHide = measure(false);
+
+        long replaceMedian = median(replace);
+        long showHideMedian = median(showHide);
+        Log.i(TAG, "replace: median=" + replaceMedian / 1000 + "us p90=" + percentile(replace, 90) / 1000 + "us");
+        Log.i(TAG, "show/hide: median=" + showHideMedian / 1000 + "us p90=" + percentile(showHide, 90) / 1000 + "us");
+        assertTrue("显示/隐藏切换的中位耗时(" + showHideMedian + "ns)不应超过每次新建(" + replaceMedian + "ns)",
+                showHideMedian <= replaceMedian);
+    }
+
+    @Test
+    public void showHide_keepsSameInstance() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            Fragment[] first = new Fragment[1];
+            scenario.onActivity(activity -> {
+                select(activity, R.id.nav_query);
+                first[0] = visibleTab(activity);
+                select(activity, R.id.nav_setting);
+                select(activity, R.id.nav_query);
+                assertSame(first[0], visibleTab(activity));
+            });
+        }
+    }
+
+    /**
+     * 在新启动的主界面中按轮切换标签页，返回每次切换的耗时（纳秒，不含第一轮预热）
+     * @param recreate true=模拟原实现，每次 replace 一个新建的页面
+     */
+    private long[] measure(boolean recreate) {
+        long[] samples = new long[ROUNDS * TABS.length];
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            for (int round = -1; round < ROUNDS; round++) {
+                for (int i = 0; i < TABS.length; i++) {
+                    int tab = TABS[i];
+                    long[] elapsed = new long[1];
+                    scenario.onActivity(activity -> {
+                        long start = SystemClock.elapsedRealtimeNanos();
+                        if (recreate) {
+                            activity.getSupportFragmentManager().beginTransaction()
+                                    .replace(R.id.fragment_container, MainActivity.createTab(tab))
+                                    .commitNow();
+                        } else {
+                            select(activity, tab);
+                        }
+                        layoutContainer(activity);
+                        elapsed[0] = SystemClock.elapsedRealtimeNanos() - start;
+                    });
+                    // 等待异步加载完成后的主线程工作结束，不干扰下一次测量
+                    InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+                    if (round >= 0) {
+                        samples[round * TABS.length + i] = elapsed[0];
+                    }
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static void select(MainActivity activity, int tab) {
+        BottomNavigationView navigation = activity.findViewById(R.id.bottom_navigation);
+        navigation.setSelectedItemId(tab);
+        activity.getSupportFragmentManager().executePendingTransactions();
+    }
+
+    private static void layoutContainer(MainActivity activity) {
+        View container = activity.findViewById(R.id.fragment_container);
+        container.measure(View.MeasureSpec.makeMeasureSpec(container.getWidth(), View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(container.getHeight(), View.MeasureSpec.EXACTLY));
+        container.layout(container.getLeft(), container.getTop(), container.getRight(), container.getBottom());
+    }
+
+    private static Fragment visibleTab(MainActivity activity) {
+        FragmentManager fragmentManager = activity.getSupportFragmentManager();
+        for (Fragment fragment : fragmentManager.getFragments()) {
+            if (fragment.isAdded() && !fragment.isHidden() && fragment.getId() == R.id.fragment_container) {
+                return fragment;
+            }
+        }
+        return null;
+    }
+
+    private static long median(long[] samples) {
+        return percentile(samples, 50);
+    }
+
+    private static long percentile(long[] samples, int percent) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.homeinventorymanager;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.LiveData;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import android.content.Context;
 
 import com.example.homeinventorymanager.bean.ItemImage; // 新增：导入ItemImage实体类
@@ -11,9 +16,19 @@ import com.example.homeinventorymanager.dao.ItemImageDao; // 新增：导入Item
 /**
  * 升级后的Room数据库（移除主线程查询，支持异步操作）
  * 新增：支持物品图片关联表（ItemImage）
+ * 版本3：为 item、item_image、sub_category 的筛选列添加索引
+ * 版本4：新增物品全文检索表 item_fts（FTS4）
+ * 版本5：item.validDate 由 yyyy-MM-dd 文本改为 epoch-day 整数，并添加索引
+ * 版本6：item_image 新增缩略图路径列，并为 image_path 添加索引
+ * 版本7：item_image 新增内容哈希、来源 Uri 列（ImageStore 按内容去重）
+ * 版本8：sub_category -> category、item_image -> item 外键（ON DELETE CASCADE）
+ * 版本9：item 的分类/子分类/位置由名称改为整数外键 categoryId/subCategoryId/locationId，item_fts 改为自带内容
+ * 版本10：item 的文本数量 itemCount 改为整数 quantity，新增单位 unit、低库存阈值 lowStockThreshold
+ * 版本11：item 新增 (categoryId, id) 索引，仅按分类分页时按索引顺序返回
  */
-@Database(entities = {Item.class, Category.class, SubCategory.class, StorageLocation.class, ItemImage.class}, // 新增：添加ItemImage.class到实体数组
-        version = 2,
+@Database(entities = {Item.class, Category.class, SubCategory.class, StorageLocation.class, ItemImage.class, // 新增：添加ItemImage.class到实体数组
+        ItemFts.class},
+        version = 11,
         exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "item_database";
@@ -26,6 +41,325 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract ItemDao itemDao();
     public abstract ItemImageDao itemImageDao(); // 新增：声明ItemImageDao方法（核心修复）
 
+    /**
+     * 监听数据表变化（分页列表、全文检索等无法直接返回 LiveData 的查询使用）
+     * @param tables 表名，如 "item"
+     * @return 表被写入后发出新版本号的 LiveData（只分发给前台页面，后台期间的变化合并为一次）
+     */
+    public LiveData<Long> observeTables(String... tables) {
+        return new TableChangeLiveData(getInvalidationTracker(), tables);
+    }
+
+    /**
+     * 版本2 -> 3：新增索引（索引名需与 Room 按实体注解生成的名称一致）
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_category_location_id` ON `item` (`category`, `location`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_location_id` ON `item` (`location`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_item_id` ON `item_image` (`item_id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_sub_category_parentCategoryId` ON `sub_category` (`parentCategoryId`)");
+        }
+    };
+
+    /**
+     * 版本3 -> 4：创建 FTS4 影子表及同步触发器（语句与 Room 为 ItemFts 生成的一致），并用已有物品重建索引
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `item_fts` USING FTS4(`itemName` TEXT, `description` TEXT, `category` TEXT, `subCategory` TEXT, `location` TEXT, tokenize=icu, content=`item`)");
+            createLegacyItemFtsTriggers(database);
+            database.execSQL("INSERT INTO `item_fts`(`item_fts`) VALUES('rebuild')");
+        }
+    };
+
+    /**
+     * 版本4 -> 5：SQLite 不能直接修改列类型，重建 item 表并把 validDate 转换为 epoch-day
+     * 无法识别的日期置为 NULL（未设置）；删表会一并删除索引和全文检索同步触发器，改名后重新创建
+     * id 原样复制，item_fts 中的 docid 仍然对应，无需重建全文索引
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `item_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `itemName` TEXT, `category` TEXT, `subCategory` TEXT, `location` TEXT, `validDate` INTEGER, `description` TEXT, `itemCount` TEXT, `imagePath` TEXT)");
+            database.execSQL("INSERT INTO `item_new` (`id`, `itemName`, `category`, `subCategory`, `location`, `validDate`, `description`, `itemCount`, `imagePath`) " +
+                    "SELECT `id`, `itemName`, `category`, `subCategory`, `location`, " +
+                    "CASE WHEN trim(`validDate`) GLOB '[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]' " +
+                    "THEN CAST(julianday(trim(`validDate`)) - 2440587.5 AS INTEGER) ELSE NULL END, " +
+                    "`description`, `itemCount`, `imagePath` FROM `item`");
+            database.execSQL("DROP TABLE `item`");
+            database.execSQL("ALTER TABLE `item_new` RENAME TO `item`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_category_location_id` ON `item` (`category`, `location`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_location_id` ON `item` (`location`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_validDate` ON `item` (`validDate`)");
+            createLegacyItemFtsTriggers(database);
+        }
+    };
+
+    /**
+     * 版本5 -> 6：新增缩略图路径列（已有图片为 NULL，预览时回退到原图并在后台补生成）
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `item_image` ADD COLUMN `thumb_small_path` TEXT");
+            database.execSQL("ALTER TABLE `item_image` ADD COLUMN `thumb_large_path` TEXT");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_image_path` ON `item_image` (`image_path`)");
+        }
+    };
+
+    /**
+     * 版本6 -> 7：新增内容哈希、来源 Uri 列（已有图片为 NULL，仍按原路径引用，不参与去重）
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `item_image` ADD COLUMN `content_hash` TEXT");
+            database.execSQL("ALTER TABLE `item_image` ADD COLUMN `source_uri` TEXT");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_content_hash` ON `item_image` (`content_hash`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_source_uri` ON `item_image` (`source_uri`)");
+        }
+    };
+
+    /**
+     * 版本7 -> 8：SQLite 不能给已有表添加外键，重建 sub_category 与 item_image（建表语句与 Room 生成的一致）
+     * 父分类不存在的子分类（在默认分类下添加的）：先按 parentCategoryName 补建分类再关联，不丢数据
+     * 物品已不存在的图片记录不再复制，对应文件由清理任务删除
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("INSERT INTO `category` (`categoryName`) " +
+                    "SELECT DISTINCT s.`parentCategoryName` FROM `sub_category` s " +
+                    "WHERE s.`parentCategoryName` IS NOT NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM `category` c WHERE c.`id` = s.`parentCategoryId`) " +
+                    "AND NOT EXISTS (SELECT 1 FROM `category` c WHERE c.`categoryName` = s.`parentCategoryName`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `sub_category_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `subCategoryName` TEXT, `parentCategoryId` INTEGER NOT NULL, `parentCategoryName` TEXT, " +
+                    "FOREIGN KEY(`parentCategoryId`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("INSERT INTO `sub_category_new` (`id`, `subCategoryName`, `parentCategoryId`, `parentCategoryName`) " +
+                    "SELECT `id`, `subCategoryName`, `parentId`, `parentCategoryName` FROM (" +
+                    "SELECT s.`id`, s.`subCategoryName`, s.`parentCategoryName`, COALESCE(" +
+                    "(SELECT c.`id` FROM `category` c WHERE c.`id` = s.`parentCategoryId`), " +
+                    "(SELECT c.`id` FROM `category` c WHERE c.`categoryName` = s.`parentCategoryName` ORDER BY c.`id` LIMIT 1)) AS `parentId` " +
+                    "FROM `sub_category` s) WHERE `parentId` IS NOT NULL");
+            database.execSQL("DROP TABLE `sub_category`");
+            database.execSQL("ALTER TABLE `sub_category_new` RENAME TO `sub_category`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_sub_category_parentCategoryId` ON `sub_category` (`parentCategoryId`)");
+
+            database.execSQL("CREATE TABLE IF NOT EXISTS `item_image_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `item_id` INTEGER NOT NULL, `image_path` TEXT, `thumb_small_path` TEXT, `thumb_large_path` TEXT, `content_hash` TEXT, `source_uri` TEXT, " +
+                    "FOREIGN KEY(`item_id`) REFERENCES `item`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("INSERT INTO `item_image_new` (`id`, `item_id`, `image_path`, `thumb_small_path`, `thumb_large_path`, `content_hash`, `source_uri`) " +
+                    "SELECT `id`, `item_id`, `image_path`, `thumb_small_path`, `thumb_large_path`, `content_hash`, `source_uri` FROM `item_image` i " +
+                    "WHERE EXISTS (SELECT 1 FROM `item` WHERE `item`.`id` = i.`item_id`)");
+            database.execSQL("DROP TABLE `item_image`");
+            database.execSQL("ALTER TABLE `item_image_new` RENAME TO `item_image`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_item_id` ON `item_image` (`item_id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_image_path` ON `item_image` (`image_path`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_content_hash` ON `item_image` (`content_hash`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_image_source_uri` ON `item_image` (`source_uri`)");
+        }
+    };
+
+    /**
+     * 版本8 -> 9：item 的分类/子分类/位置名称改为整数外键，重建 item 表（建表语句与 Room 生成的一致）
+     * 1. 物品引用、但分类/位置表中没有的名称先补建（下拉列表中的默认选项），子分类补建在同名分类下
+     * 2. 按名称换算为ID（同名取最早的一条；"暂无子分类"等占位文本为 NULL），id 原样复制
+     * 3. item_fts 由外部内容表改为自带内容（名称不再在 item 中），删除旧触发器，用联表得到的名称重建索引
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("INSERT INTO `category` (`categoryName`) " +
+                    "SELECT DISTINCT i.`category` FROM `item` i WHERE i.`category` IS NOT NULL AND i.`category` <> '' " +
+                    "AND NOT EXISTS (SELECT 1 FROM `category` c WHERE c.`categoryName` = i.`category`)");
+            database.execSQL("INSERT INTO `storage_location` (`locationName`) " +
+                    "SELECT DISTINCT i.`location` FROM `item` i WHERE i.`location` IS NOT NULL AND i.`location` <> '' " +
+                    "AND NOT EXISTS (SELECT 1 FROM `storage_location` l WHERE l.`locationName` = i.`location`)");
+            database.execSQL("INSERT INTO `sub_category` (`subCategoryName`, `parentCategoryId`, `parentCategoryName`) " +
+                    "SELECT DISTINCT i.`subCategory`, c.`id`, c.`categoryName` FROM `item` i " +
+                    "JOIN `category` c ON c.`id` = (SELECT MIN(`id`) FROM `category` WHERE `categoryName` = i.`category`) " +
+                    "WHERE i.`subCategory` IS NOT NULL AND i.`subCategory` <> '' AND i.`subCategory` <> '" + NO_SUB_CATEGORY + "' " +
+                    "AND NOT EXISTS (SELECT 1 FROM `sub_category` s WHERE s.`subCategoryName` = i.`subCategory` AND s.`parentCategoryId` = c.`id`)");
+
+            database.execSQL("CREATE TABLE IF NOT EXISTS `item_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `itemName` TEXT, `categoryId` INTEGER, `subCategoryId` INTEGER, `locationId` INTEGER, " +
+                    "`validDate` INTEGER, `description` TEXT, `itemCount` TEXT, `imagePath` TEXT, " +
+                    "FOREIGN KEY(`categoryId`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL , " +
+                    "FOREIGN KEY(`subCategoryId`) REFERENCES `sub_category`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL , " +
+                    "FOREIGN KEY(`locationId`) REFERENCES `storage_location`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL )");
+            database.execSQL("INSERT INTO `item_new` (`id`, `itemName`, `categoryId`, `subCategoryId`, `locationId`, `validDate`, `description`, `itemCount`, `imagePath`) " +
+                    "SELECT `id`, `itemName`, `categoryId`, " +
+                    "(SELECT s.`id` FROM `sub_category` s WHERE s.`subCategoryName` = t.`subCategory` " +
+                    "ORDER BY s.`parentCategoryId` IS t.`categoryId` DESC, s.`id` LIMIT 1), " +
+                    "`locationId`, `validDate`, `description`, `itemCount`, `imagePath` FROM (" +
+                    "SELECT i.*, (SELECT MIN(c.`id`) FROM `category` c WHERE c.`categoryName` = i.`category`) AS `categoryId`, " +
+                    "(SELECT MIN(l.`id`) FROM `storage_location` l WHERE l.`locationName` = i.`location`) AS `locationId` " +
+                    "FROM `item` i) t");
+            // 删表会一并删除旧的索引和 room_fts_content_sync_* 触发器
+            database.execSQL("DROP TABLE `item`");
+            database.execSQL("ALTER TABLE `item_new` RENAME TO `item`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_categoryId_locationId_id` ON `item` (`categoryId`, `locationId`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_locationId_id` ON `item` (`locationId`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_subCategoryId` ON `item` (`subCategoryId`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_validDate` ON `item` (`validDate`)");
+
+            database.execSQL("DROP TABLE IF EXISTS `item_fts`");
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `item_fts` USING FTS4(`itemName` TEXT, `description` TEXT, `category` TEXT, `subCategory` TEXT, `location` TEXT, tokenize=icu)");
+            database.execSQL("INSERT INTO `item_fts` (`docid`, `itemName`, `description`, `category`, `subCategory`, `location`) " +
+                    "SELECT item.`id`, item.`itemName`, item.`description`, category.`categoryName`, sub_category.`subCategoryName`, storage_location.`locationName` " +
+                    "FROM `item` LEFT JOIN `category` ON category.`id` = item.`categoryId` " +
+                    "LEFT JOIN `sub_category` ON sub_category.`id` = item.`subCategoryId` " +
+                    "LEFT JOIN `storage_location` ON storage_location.`id` = item.`locationId`");
+            createItemFtsTriggers(database);
+        }
+    };
+
+    /**
+     * 版本9 -> 10：item.itemCount（文本）改为整数 quantity + 单位 unit，新增 lowStockThreshold，重建 item 表
+     * 以数字开头的旧值拆成数量和单位（"3" -> 3、"2瓶" -> 2 + 瓶），其余（空、非数字）为未设置，与 InventoryCsv.setLegacyCount 一致
+     * 数字后紧跟小数点、千分位、分数或范围符号的（"2.5瓶"、"1,000"、"1/2袋"、"2-3个"）不是整数数量，
+     * 不拆分（否则会变成 2 + ".5瓶"），数量为未设置，原文整体保存在单位中，不丢失信息
+     */
+    // 旧文本数量中紧跟在数字后、说明它不是整数数量的字符：范围、小数点、千分位、分数（'-' 放在最前，GLOB 字符集中按字面匹配）
+    static final String LEGACY_COUNT_JOINERS = "-.,/~，．";
+    // 去掉开头的数字后，剩余部分以上述字符开头
+    private static final String LEGACY_COUNT_NOT_INTEGER =
+            "trim(ltrim(trim(`itemCount`), '0123456789')) GLOB '[" + LEGACY_COUNT_JOINERS + "]*'";
+
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // 分类/位置表上的同步触发器引用了 item，先删除，重建完成后与 item 上的触发器一起重新创建
+            dropItemFtsTriggers(database);
+            database.execSQL("CREATE TABLE IF NOT EXISTS `item_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `itemName` TEXT, `categoryId` INTEGER, `subCategoryId` INTEGER, `locationId` INTEGER, " +
+                    "`validDate` INTEGER, `description` TEXT, `quantity` INTEGER, `unit` TEXT, `lowStockThreshold` INTEGER, `imagePath` TEXT, " +
+                    "FOREIGN KEY(`categoryId`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL , " +
+                    "FOREIGN KEY(`subCategoryId`) REFERENCES `sub_category`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL , " +
+                    "FOREIGN KEY(`locationId`) REFERENCES `storage_location`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL )");
+            database.execSQL("INSERT INTO `item_new` (`id`, `itemName`, `categoryId`, `subCategoryId`, `locationId`, `validDate`, `description`, " +
+                    "`quantity`, `unit`, `lowStockThreshold`, `imagePath`) " +
+                    "SELECT `id`, `itemName`, `categoryId`, `subCategoryId`, `locationId`, `validDate`, `description`, " +
+                    "CASE WHEN trim(`itemCount`) GLOB '[0-9]*' AND NOT " + LEGACY_COUNT_NOT_INTEGER + " " +
+                    "THEN CAST(trim(`itemCount`) AS INTEGER) END, " +
+                    "CASE WHEN trim(`itemCount`) GLOB '[0-9]*' AND NOT " + LEGACY_COUNT_NOT_INTEGER + " " +
+                    "THEN NULLIF(trim(ltrim(trim(`itemCount`), '0123456789')), '') " +
+                    "WHEN trim(`itemCount`) GLOB '[0-9]*' THEN trim(`itemCount`) END, " +
+                    "NULL, `imagePath` FROM `item`");
+            database.execSQL("DROP TABLE `item`");
+            database.execSQL("ALTER TABLE `item_new` RENAME TO `item`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_categoryId_locationId_id` ON `item` (`categoryId`, `locationId`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_locationId_id` ON `item` (`locationId`, `id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_subCategoryId` ON `item` (`subCategoryId`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_validDate` ON `item` (`validDate`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_lowStockThreshold_quantity` ON `item` (`lowStockThreshold`, `quantity`)");
+            createItemFtsTriggers(database);
+        }
+    };
+
+    /**
+     * 版本10 -> 11：新增 (categoryId, id) 索引（仅按分类的键集分页不再扫描 (categoryId, locationId, id) 后排序）
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_item_categoryId_id` ON `item` (`categoryId`, `id`)");
+        }
+    };
+
+    // 没有子分类可选时下拉列表显示的占位文本（不是真正的子分类：保存为 NULL，旧版保存的该文本迁移时换算为 NULL）
+    static final String NO_SUB_CATEGORY = "暂无子分类";
+
+    /**
+     * 打开数据库时确保全文检索同步触发器存在（新建、破坏性重建的数据库由此创建，已存在时不做任何事）
+     */
+    public static final RoomDatabase.Callback FTS_SYNC_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            createItemFtsTriggers(db);
+        }
+    };
+
+    // WAL 文件在检查点之后截断到的上限（字节），避免一次大批量导入后 -wal 文件一直占用空间
+    static final long JOURNAL_SIZE_LIMIT_BYTES = 4L * 1024 * 1024;
+    // 自动检查点阈值（页数，SQLite 默认值，显式设置便于和 DbMaintenance 的空闲检查点对照）
+    static final int WAL_AUTOCHECKPOINT_PAGES = 1000;
+
+    /**
+     * WAL 参数：在主连接（写连接）上设置，检查点都由写连接执行
+     * PRAGMA 会返回结果行，需用 query 执行并关闭游标
+     */
+    public static final RoomDatabase.Callback WAL_CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            db.query("PRAGMA journal_size_limit = " + JOURNAL_SIZE_LIMIT_BYTES).close();
+            db.query("PRAGMA wal_autocheckpoint = " + WAL_AUTOCHECKPOINT_PAGES).close();
+        }
+    };
+
+    /**
+     * 创建 item_fts 的同步触发器（版本9起）
+     * 物品增删改时写入联表得到的名称；分类/子分类/位置改名时更新引用它的行，删除前把引用它的行置空
+     */
+    static void createItemFtsTriggers(SupportSQLiteDatabase database) {
+        String insertNew = "INSERT INTO `item_fts` (`docid`, `itemName`, `description`, `category`, `subCategory`, `location`) " +
+                "SELECT NEW.`id`, NEW.`itemName`, NEW.`description`, " +
+                "(SELECT `categoryName` FROM `category` WHERE `id` = NEW.`categoryId`), " +
+                "(SELECT `subCategoryName` FROM `sub_category` WHERE `id` = NEW.`subCategoryId`), " +
+                "(SELECT `locationName` FROM `storage_location` WHERE `id` = NEW.`locationId`); ";
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `item_fts_sync_AFTER_INSERT` AFTER INSERT ON `item` BEGIN " + insertNew + "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `item_fts_sync_AFTER_UPDATE` AFTER UPDATE ON `item` BEGIN " +
+                "DELETE FROM `item_fts` WHERE `docid` = OLD.`id`; " + insertNew + "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `item_fts_sync_AFTER_DELETE` AFTER DELETE ON `item` BEGIN " +
+                "DELETE FROM `item_fts` WHERE `docid` = OLD.`id`; END");
+        createNameSyncTriggers(database, "category", "categoryName", "categoryId", "category");
+        createNameSyncTriggers(database, "sub_category", "subCategoryName", "subCategoryId", "subCategory");
+        createNameSyncTriggers(database, "storage_location", "locationName", "locationId", "location");
+    }
+
+    /**
+     * 删除 createItemFtsTriggers 创建的全部触发器（重建 item 表前使用）
+     */
+    static void dropItemFtsTriggers(SupportSQLiteDatabase database) {
+        database.execSQL("DROP TRIGGER IF EXISTS `item_fts_sync_AFTER_INSERT`");
+        database.execSQL("DROP TRIGGER IF EXISTS `item_fts_sync_AFTER_UPDATE`");
+        database.execSQL("DROP TRIGGER IF EXISTS `item_fts_sync_AFTER_DELETE`");
+        for (String table : new String[]{"category", "sub_category", "storage_location"}) {
+            database.execSQL("DROP TRIGGER IF EXISTS `item_fts_sync_" + table + "_AFTER_UPDATE`");
+            database.execSQL("DROP TRIGGER IF EXISTS `item_fts_sync_" + table + "_BEFORE_DELETE`");
+        }
+    }
+
+    /**
+     * 名称表的改名/删除触发器（按 item 上的ID索引找到引用的物品）
+     */
+    private static void createNameSyncTriggers(SupportSQLiteDatabase database, String table, String nameColumn,
+                                               String idColumn, String ftsColumn) {
+        String referencing = "WHERE `docid` IN (SELECT `id` FROM `item` WHERE `" + idColumn + "` = OLD.`id`); ";
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `item_fts_sync_" + table + "_AFTER_UPDATE` AFTER UPDATE OF `" + nameColumn + "` ON `" + table + "` BEGIN " +
+                "UPDATE `item_fts` SET `" + ftsColumn + "` = NEW.`" + nameColumn + "` " + referencing + "END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS `item_fts_sync_" + table + "_BEFORE_DELETE` BEFORE DELETE ON `" + table + "` BEGIN " +
+                "UPDATE `item_fts` SET `" + ftsColumn + "` = NULL " + referencing + "END");
+    }
+
+    /**
+     * 版本4~8 的 item -> item_fts 内容同步触发器（item_fts 为外部内容表时 Room 生成的语句，只在旧版本迁移中使用）
+     */
+    static void createLegacyItemFtsTriggers(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_BEFORE_UPDATE BEFORE UPDATE ON `item` BEGIN DELETE FROM `item_fts` WHERE `docid`=OLD.`rowid`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_BEFORE_DELETE BEFORE DELETE ON `item` BEGIN DELETE FROM `item_fts` WHERE `docid`=OLD.`rowid`; END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_AFTER_UPDATE AFTER UPDATE ON `item` BEGIN INSERT INTO `item_fts`(`docid`, `itemName`, `description`, `category`, `subCategory`, `location`) VALUES (NEW.`rowid`, NEW.`itemName`, NEW.`description`, NEW.`category`, NEW.`subCategory`, NEW.`location`); END");
+        database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_item_fts_AFTER_INSERT AFTER INSERT ON `item` BEGIN INSERT INTO `item_fts`(`docid`, `itemName`, `description`, `category`, `subCategory`, `location`) VALUES (NEW.`rowid`, NEW.`itemName`, NEW.`description`, NEW.`category`, NEW.`subCategory`, NEW.`location`); END");
+    }
+
+    /**
+     * 测试时替换单例（如内存数据库），传 null 恢复默认
+     */
+    @VisibleForTesting
+    public static synchronized void setInstanceForTesting(AppDatabase database) {
+        INSTANCE = database;
+    }
+
     public static synchronized AppDatabase getInstance(Context context) {
         if (INSTANCE == null) {
             INSTANCE = Room.databaseBuilder(
@@ -34,8 +368,20 @@ public abstract class AppDatabase extends RoomDatabase {
                             DATABASE_NAME
                     )
                     // 关键：删除 allowMainThreadQueries() 这一行，禁用主线程数据库操作
+                    .addMigrations(MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11)
+                    .addCallback(FTS_SYNC_CALLBACK)
+                    .addCallback(WAL_CALLBACK)
+                    // 显式使用 WAL：查询页的长列表读取与编辑页的写入并发进行，读不等写
+                    .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
                     .fallbackToDestructiveMigration()
+                    // Room 内部的异步查询/事务也走 DbExecutor 的读池/写池，保证单写多读
+                    .setQueryExecutor(DbExecutor.getInstance().readExecutor())
+                    .setTransactionExecutor(DbExecutor.getInstance().writeExecutor())
+                    // 每条语句的耗时统计（设置页诊断面板）；回调必须在执行语句的线程上同步执行
+                    .setQueryCallback(QueryMetrics.getInstance().queryCallback(), Runnable::run)
                     .build();
+            // 空闲时执行 WAL 检查点和 PRAGMA optimize
+            DbMaintenance.getInstance().install(INSTANCE);
         }
         return INSTANCE;
     }
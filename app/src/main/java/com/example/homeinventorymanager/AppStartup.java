@@ -0,0 +1,173 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动流程：进程启动时（InventoryApplication.onCreate）立即在数据库读线程上打开数据库（含迁移检查）、
+ * 执行首屏的热点查询（预编译语句、加载数据页）并加载分类缓存，不再等第一个页面发起查询时才打开
+ * 完成后发出就绪信号（主线程 observeReady()，子线程 awaitReady()）；预热失败也会发出，页面自己的查询会再报告错误
+ * 各阶段相对进程启动的耗时记录在 getPhases() 中并输出到日志，用于跟踪冷启动回退
+ */
+public final class AppStartup {
+
+    private static final String TAG = "AppStartup";
+
+    private static volatile AppStartup INSTANCE;
+
+    private final Context appContext;
+    // 进程启动时刻（elapsedRealtime，毫秒）
+    private final long processStartMs;
+    private final List<Phase> phases = new ArrayList<>();
+    private long lastPhaseMs;
+    private boolean started = false;
+    private final CountDownLatch readyLatch = new CountDownLatch(1);
+    private final MutableLiveData<Boolean> ready = new MutableLiveData<>(false);
+
+    /**
+     * 启动阶段：名称、距进程启动的时间、距上一阶段的耗时（毫秒）
+     */
+    public static final class Phase {
+        public final String name;
+        public final long sinceProcessStartMs;
+        public final long durationMs;
+
+        Phase(String name, long sinceProcessStartMs, long durationMs) {
+            this.name = name;
+            this.sinceProcessStartMs = sinceProcessStartMs;
+            this.durationMs = durationMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + " +" + durationMs + "ms (" + sinceProcessStartMs + "ms)";
+        }
+    }
+
+    @VisibleForTesting
+    AppStartup(Context context, long processStartMs) {
+        this.appContext = context.getApplicationContext();
+        this.processStartMs = processStartMs;
+        this.lastPhaseMs = processStartMs;
+    }
+
+    /**
+     * 开始预热（只执行一次；Application 中调用，其他地方调用时若尚未开始则补上）
+     */
+    public static AppStartup start(Context context) {
+        if (INSTANCE == null) {
+            synchronized (AppStartup.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppStartup(context, Process.getStartElapsedRealtime());
+                }
+            }
+        }
+        INSTANCE.startWarmUp();
+        return INSTANCE;
+    }
+
+    public static AppStartup getInstance(Context context) {
+        return start(context);
+    }
+
+    private void startWarmUp() {
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        markPhase("application_created");
+        // 界面读取优先级：首屏的查询反正要等数据库打开，排在最前面
+        DbExecutor.getInstance().execute(null, DbExecutor.Priority.UI_READ, () -> {
+            warmUp();
+            return null;
+        }, null);
+    }
+
+    /**
+     * 打开数据库 -> 加载分类缓存 -> 首屏热点查询，最后发出就绪信号
+     * 同一连接上执行过的语句会留在 SQLite 连接的语句缓存中，数据页留在页缓存中
+     */
+    @WorkerThread
+    void warmUp() {
+        try {
+            AppDatabase db = AppDatabase.getInstance(appContext);
+            markPhase("db_built");
+            // 首次打开时执行建表/迁移
+            db.getOpenHelper().getWritableDatabase();
+            markPhase("db_opened");
+            TaxonomyRepository.getInstance(appContext).reload();
+            markPhase("taxonomy_loaded");
+            // 查询/修改页面的第一页、录入页面的补货提示
+            db.itemDao().queryItemsPageBefore(null, null, Long.MAX_VALUE, ItemPager.DEFAULT_PAGE_SIZE);
+            db.itemDao().countLowStockItems();
+            markPhase("queries_warmed");
+        } catch (RuntimeException e) {
+            Log.e(TAG, "数据库预热失败", e);
+        } finally {
+            readyLatch.countDown();
+            ready.postValue(true);
+        }
+    }
+
+    /**
+     * 记录一个启动阶段（同名阶段只记录第一次，例如 Activity 重建时不会重复记录首屏完成）
+     * @return 是否为首次记录
+     */
+    public synchronized boolean markPhase(String name) {
+        for (Phase phase : phases) {
+            if (phase.name.equals(name)) {
+                return false;
+            }
+        }
+        long now = SystemClock.elapsedRealtime();
+        Phase phase = new Phase(name, now - processStartMs, now - lastPhaseMs);
+        phases.add(phase);
+        lastPhaseMs = now;
+        Log.i(TAG, phase.toString());
+        return true;
+    }
+
+    /**
+     * 已记录的启动阶段（按时间顺序）
+     */
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    public boolean isReady() {
+        return readyLatch.getCount() == 0;
+    }
+
+    /**
+     * 就绪信号（主线程监听；预热完成后为 true）
+     */
+    public LiveData<Boolean> observeReady() {
+        return ready;
+    }
+
+    /**
+     * 在子线程等待预热完成
+     * @return 超时前是否已就绪
+     */
+    @WorkerThread
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        return readyLatch.await(timeout, unit);
+    }
+}
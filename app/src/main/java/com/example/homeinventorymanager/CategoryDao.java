@@ -1,9 +1,11 @@
 package com.example.homeinventorymanager;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Upsert;
 
 import java.util.List;
 
@@ -12,19 +14,31 @@ import java.util.List;
  */
 @Dao
 public interface CategoryDao {
-    // 新增分类
+    // 新增分类（返回新分类的ID）
     @Insert
-    void insertCategory(Category category);
+    long insertCategory(Category category);
+
+    // 批量写入分类（CSV 导入使用，保留原ID，ID 已存在时更新）
+    @Upsert
+    void upsertCategories(List<Category> categories);
 
     // 查询所有分类（按ID升序）
     @Query("SELECT * FROM category ORDER BY id ASC")
     List<Category> queryAllCategories();
 
+    // 监听所有分类（category 表变化时自动重新查询，仅在页面可见时执行）
+    @Query("SELECT * FROM category ORDER BY id ASC")
+    LiveData<List<Category>> observeAllCategories();
+
+    // 按名称查找分类ID（同名取最早的一条，不存在时为 null）
+    @Query("SELECT id FROM category WHERE categoryName = :categoryName ORDER BY id ASC LIMIT 1")
+    Integer queryCategoryIdByName(String categoryName);
+
     // 根据ID查询分类
     @Query("SELECT * FROM category WHERE id = :categoryId")
     Category queryCategoryById(int categoryId);
 
-    // 删除分类
+    // 删除分类（子分类由外键 ON DELETE CASCADE 在同一条语句中删除）
     @Delete
     void deleteCategory(Category category);
 
@@ -0,0 +1,201 @@
+package com.example.homeinventorymanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * CSV 编解码（RFC 4180）：写入时按需加引号，读取时逐条解析记录（引号内可以包含逗号、引号和换行）
+ * 约定：null 写为空字段（不加引号），空字符串写为 ""，读回时可以区分两者
+ * 纯 Java 实现，不依赖 Android，可在 JVM 测试和基准测试中直接使用
+ */
+public final class CsvCodec {
+
+    // UTF-8 BOM：写在文件开头，便于表格软件识别中文编码；读取时自动跳过
+    public static final char BOM = '\uFEFF';
+
+    private CsvCodec() {
+    }
+
+    /**
+     * 追加一个字段（不含分隔符）
+     * 含逗号、引号、换行或以 # 开头时加引号，字段中的引号写两遍
+     * @param value 字段值（null 写为空字段）
+     */
+    public static void appendField(StringBuilder out, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        if (value.length() == 0) {
+            out.append("\"\"");
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * 字段是否需要加引号（以 # 开头的字段也加引号，避免与分段标记行混淆）
+     */
+    static boolean needsQuotes(CharSequence value) {
+        if (value.charAt(0) == '#') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 流式记录读取器：自带字符缓冲区，一次只保留当前一条记录，内存占用与文件大小无关
+     */
+    public static final class RecordReader implements Closeable {
+
+        private static final int EOF = -1;
+
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private boolean started;
+        // 当前字段内容（所有字段复用）
+        private final StringBuilder field = new StringBuilder(64);
+        // 最近一条记录的第一个字段是否带引号（用于识别分段标记行）
+        private boolean firstFieldQuoted;
+        // 当前行号（从1开始，用于错误提示）
+        private int lineNumber = 1;
+
+        public RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * 读取下一条记录
+         * @param fields 输出：记录中的字段（先清空；空字段为 null，"" 为空字符串）
+         * @return false=已到文件末尾
+         * @throws IOException 读取失败，或引号不匹配等格式错误
+         */
+        public boolean readRecord(List<String> fields) throws IOException {
+            fields.clear();
+            if (!started) {
+                started = true;
+                if (peek() == BOM) {
+                    position++;
+                }
+            }
+            int c = next();
+            if (c == EOF) {
+                return false;
+            }
+            while (true) {
+                field.setLength(0);
+                boolean quoted = c == '"';
+                if (quoted) {
+                    c = readQuoted();
+                } else {
+                    while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                        field.append((char) c);
+                        c = next();
+                    }
+                }
+                if (fields.isEmpty()) {
+                    firstFieldQuoted = quoted;
+                }
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+
+                if (c == ',') {
+                    c = next();
+                    continue;
+                }
+                if (c == '\r' && peek() == '\n') {
+                    next();
+                }
+                if (c != EOF) {
+                    lineNumber++;
+                }
+                return true;
+            }
+        }
+
+        /**
+         * 读取引号内的内容（开头的引号已读取），返回闭合引号之后的字符
+         */
+        private int readQuoted() throws IOException {
+            int startLine = lineNumber;
+            while (true) {
+                int c = next();
+                if (c == EOF) {
+                    throw new IOException("第" + startLine + "行：引号未闭合");
+                }
+                if (c == '"') {
+                    c = next();
+                    if (c == '"') {
+                        field.append('"');
+                        continue;
+                    }
+                    if (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                        throw new IOException("第" + lineNumber + "行：引号后出现多余字符");
+                    }
+                    return c;
+                }
+                if (c == '\n') {
+                    lineNumber++;
+                }
+                field.append((char) c);
+            }
+        }
+
+        public boolean isFirstFieldQuoted() {
+            return firstFieldQuoted;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        private int next() throws IOException {
+            if (position >= limit && !fill()) {
+                return EOF;
+            }
+            return buffer[position++];
+        }
+
+        private int peek() throws IOException {
+            if (position >= limit && !fill()) {
+                return EOF;
+            }
+            return buffer[position];
+        }
+
+        private boolean fill() throws IOException {
+            int count = in.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = count;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
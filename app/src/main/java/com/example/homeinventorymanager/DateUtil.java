@@ -1,17 +1,90 @@
 package com.example.homeinventorymanager;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 
 /**
- * 日期工具类：计算有效期间隔、判断是否过期/即将过期
+ * 日期工具类：yyyy-MM-dd 与 epoch-day（1970-01-01 起的天数）相互转换、计算有效期间隔、判断是否过期/即将过期
+ * 线程安全（无共享的可变格式化对象），解析只做字符运算、不创建对象；按天计算，不受夏令时影响
+ * java.time 在 minSdk 24 上由 core library desugaring 提供
  */
-public class DateUtil {
-    // 统一日期格式（和我们选择的日期格式一致：yyyy-MM-dd）
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA);
+public final class DateUtil {
+
+    // 解析失败（为空、"未设置"或格式错误）时 parseEpochDay 的返回值
+    public static final int INVALID_DAY = Integer.MIN_VALUE;
+
+    // 缓存的"今天"（不可变对象整体替换，任意线程读取都是一致的）
+    private static volatile Today cachedToday;
+
+    private DateUtil() {
+    }
+
+    /**
+     * 解析 yyyy-MM-dd 为 epoch-day（不分配任何对象）
+     * 允许首尾空白；月、日必须是两位数字，日期必须真实存在（如 2023-02-29 无效）
+     * @param text 日期字符串
+     * @return epoch-day；无法解析时返回 INVALID_DAY
+     */
+    public static int parseEpochDay(CharSequence text) {
+        if (text == null) {
+            return INVALID_DAY;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            return INVALID_DAY;
+        }
+        int year = parseDigits(text, start, 4);
+        int month = parseDigits(text, start + 5, 2);
+        int day = parseDigits(text, start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DAY;
+        }
+        return epochDayOf(year, month, day);
+    }
+
+    /**
+     * 把 yyyy-MM-dd 转换为 epoch-day（实体字段使用，null 表示未设置）
+     * @param dateStr 日期字符串（yyyy-MM-dd）
+     * @return epoch-day；为空、"未设置"或格式错误时返回 null
+     */
+    public static Long toEpochDay(String dateStr) {
+        int epochDay = parseEpochDay(dateStr);
+        return epochDay == INVALID_DAY ? null : Long.valueOf(epochDay);
+    }
+
+    /**
+     * 把 epoch-day 转换为 yyyy-MM-dd
+     * @param epochDay epoch-day（null 表示未设置）
+     * @return 日期字符串；未设置时返回空字符串
+     */
+    public static String formatEpochDay(Long epochDay) {
+        if (epochDay == null) {
+            return "";
+        }
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    /**
+     * 今天（本地时区）的 epoch-day
+     * 结果按天缓存，同一天内的调用只读取一次系统时间；跨过零点（或系统时间被调回）后重新计算
+     */
+    public static int todayEpochDay() {
+        long now = System.currentTimeMillis();
+        Today today = cachedToday;
+        if (today == null || now < today.startMillis || now >= today.endMillis) {
+            today = Today.at(now, ZoneId.systemDefault());
+            cachedToday = today;
+        }
+        return today.epochDay;
+    }
 
     /**
      * 计算目标日期（有效期）与当前日期的间隔天数
@@ -19,26 +92,11 @@ public class DateUtil {
      * @return 间隔天数：正数=未来日期（未过期），负数=已过期，0=当天，-1=日期格式错误
      */
     public static int getDayInterval(String targetDateStr) {
-        // 加强空值判断：避免传入 null 导致后续报错
-        if (targetDateStr == null || targetDateStr.trim().isEmpty() || targetDateStr.equals("未设置")) {
+        int targetDay = parseEpochDay(targetDateStr);
+        if (targetDay == INVALID_DAY) {
             return -1;
         }
-
-        try {
-            // 解析目标日期（有效期）
-            Date targetDate = DATE_FORMAT.parse(targetDateStr);
-            // 获取当前日期（忽略时分秒，只比较年月日）
-            Date currentDate = new Date();
-            String currentDateStr = DATE_FORMAT.format(currentDate);
-            currentDate = DATE_FORMAT.parse(currentDateStr);
-
-            // 计算毫秒数差值，转换为天数
-            long timeDiff = targetDate.getTime() - currentDate.getTime();
-            return (int) (timeDiff / (1000 * 60 * 60 * 24));
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return -1; // 日期格式错误返回-1，不抛出异常
-        }
+        return targetDay - todayEpochDay();
     }
 
     /**
@@ -47,8 +105,8 @@ public class DateUtil {
      * @return true=已过期，false=未过期/无有效期
      */
     public static boolean isExpired(String validDateStr) {
-        int dayInterval = getDayInterval(validDateStr);
-        return dayInterval != -1 && dayInterval < 0;
+        int validDay = parseEpochDay(validDateStr);
+        return validDay != INVALID_DAY && validDay < todayEpochDay();
     }
 
     /**
@@ -57,7 +115,70 @@ public class DateUtil {
      * @return true=7天内即将过期，false=非即将过期/无有效期
      */
     public static boolean isWillExpireIn7Days(String validDateStr) {
-        int dayInterval = getDayInterval(validDateStr);
-        return dayInterval != -1 && dayInterval >= 0 && dayInterval <= 7;
+        int validDay = parseEpochDay(validDateStr);
+        if (validDay == INVALID_DAY) {
+            return false;
+        }
+        int dayInterval = validDay - todayEpochDay();
+        return dayInterval >= 0 && dayInterval <= 7;
+    }
+
+    /**
+     * 年月日转换为 epoch-day（纯整数运算，以 0000-03-01 为纪元、每 400 年 146097 天，与 LocalDate.toEpochDay 一致）
+     * @param month 1-12
+     */
+    static int epochDayOf(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    /**
+     * 解析固定位数的十进制数字，遇到非数字字符返回 -1
+     */
+    private static int parseDigits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 某一天及其在本地时区的起止时间（毫秒），用于判断缓存是否仍是"今天"
+     */
+    private static final class Today {
+        final int epochDay;
+        final long startMillis;
+        final long endMillis;
+
+        private Today(int epochDay, long startMillis, long endMillis) {
+            this.epochDay = epochDay;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        static Today at(long nowMillis, ZoneId zone) {
+            LocalDate date = Instant.ofEpochMilli(nowMillis).atZone(zone).toLocalDate();
+            // 按时区规则取当天零点和次日零点，夏令时切换日的长度不是 24 小时
+            long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new Today((int) date.toEpochDay(), start, end);
+        }
     }
-}
\ No newline at end of file
+}
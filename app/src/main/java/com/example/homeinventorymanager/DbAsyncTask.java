@@ -1,31 +1,71 @@
 package com.example.homeinventorymanager;
 
 import android.content.Context;
-import android.os.AsyncTask;
-import android.widget.Toast;
 
-public abstract class DbAsyncTask<Params, Progress, Result> extends AsyncTask<Params, Progress, Result> {
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * 数据库异步任务（兼容层）：保留原 AsyncTask 风格的 doInBackground/execute/OnDbOperationListener 写法，
+ * 实际执行交给 DbExecutor（单写多读线程池），便于各页面逐个迁移
+ * 未指定优先级时按写任务处理（串行执行，与原 AsyncTask 串行执行器行为一致）
+ */
+public abstract class DbAsyncTask<Params, Progress, Result> {
 
     protected Context mContext;
     private OnDbOperationListener<Result> mListener;
+    @Nullable
+    private final LifecycleOwner mLifecycleOwner;
+    private final DbExecutor.Priority mPriority;
+    private DbExecutor.DbCall<Result> mCall;
 
     public DbAsyncTask(Context context, OnDbOperationListener<Result> listener) {
+        this(context, null, DbExecutor.Priority.WRITE, listener);
+    }
+
+    /**
+     * @param lifecycleOwner 绑定的生命周期，销毁后不再回调（Fragment 传 getViewLifecycleOwner()）
+     * @param priority 任务优先级（读取用 UI_READ，写入用 WRITE）
+     */
+    public DbAsyncTask(Context context, @Nullable LifecycleOwner lifecycleOwner,
+                       DbExecutor.Priority priority, OnDbOperationListener<Result> listener) {
         this.mContext = context.getApplicationContext();
+        this.mLifecycleOwner = lifecycleOwner;
+        this.mPriority = priority;
         this.mListener = listener;
     }
 
-    @Override
     protected abstract Result doInBackground(Params... params);
 
-    @Override
     protected void onPostExecute(Result result) {
-        super.onPostExecute(result);
         if (mListener != null) {
             mListener.onDbOperationCompleted(result);
         }
     }
 
+    /**
+     * 提交到 DbExecutor 执行（与 AsyncTask.execute 用法一致）
+     */
+    @SafeVarargs
+    public final DbAsyncTask<Params, Progress, Result> execute(Params... params) {
+        mCall = DbExecutor.getInstance().execute(mLifecycleOwner, mPriority,
+                () -> doInBackground(params),
+                this::onPostExecute);
+        return this;
+    }
+
+    /**
+     * 取消任务（未执行的读取不再执行，所有任务不再回调）
+     */
+    public final boolean cancel() {
+        return mCall != null && mCall.cancel();
+    }
+
+    public final boolean isCancelled() {
+        return mCall != null && mCall.isCancelled();
+    }
+
     public interface OnDbOperationListener<Result> {
         void onDbOperationCompleted(Result result);
     }
-}
\ No newline at end of file
+}
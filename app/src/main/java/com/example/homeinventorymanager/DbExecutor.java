@@ -0,0 +1,368 @@
+package com.example.homeinventorymanager;
+
+import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据库专用执行器（替代已废弃的 AsyncTask 串行执行器）
+ * 单写多读：写操作全部串行在唯一的写线程上，读操作由固定大小的读线程池并发执行，慢写入不会阻塞界面读取
+ * 同一线程池内按优先级调度（界面读取优先于后台任务），同优先级按提交顺序执行
+ * 读写之间的优先级靠线程池分离实现：界面读取不会排在写入之后；读线程使用默认系统优先级、写线程使用后台优先级，
+ * 读写线程同时就绪时系统也优先调度读取
+ * 支持绑定 Fragment/Activity 生命周期自动取消，结果统一回调到主线程
+ */
+public final class DbExecutor {
+
+    /**
+     * 任务优先级：决定任务进入读池还是写池，以及在池内的排队顺序
+     */
+    public enum Priority {
+        UI_READ(false, 0), // 界面正在等待的读取（列表、下拉框）
+        BACKGROUND_READ(false, 1), // 后台读取（预热、统计等）
+        WRITE(true, 0), // 用户触发的写入（新增、修改、删除）
+        BACKGROUND_WRITE(true, 1); // 后台写入（清理、批量导入等）
+
+        final boolean isWrite;
+        final int rank;
+
+        Priority(boolean isWrite, int rank) {
+            this.isWrite = isWrite;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * 任务结果回调（主线程执行）
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+
+        default void onError(Throwable error) {
+            error.printStackTrace();
+        }
+    }
+
+    // 系统未提供 WAL 连接池大小时的默认值（与 AOSP 的 db_connection_pool_size 一致）
+    private static final int DEFAULT_WAL_CONNECTION_POOL_SIZE = 4;
+    // 读线程数：按CPU至少2个、最多4个，且不超过 WAL 连接池中可供读取的连接数（多出的读线程只会排队等连接）
+    static final int READER_COUNT = Math.max(1, Math.min(walReaderConnections(),
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1))));
+    // 空闲线程存活时间（秒）
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    private static volatile DbExecutor INSTANCE;
+
+    private final ThreadPoolExecutor readPool;
+    private final ThreadPoolExecutor writePool;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicLong sequence = new AtomicLong();
+    // 已开始/已结束的写任务数（所有写入都经过写线程，见 writeStamp）
+    private final AtomicLong writesStarted = new AtomicLong();
+    private final AtomicLong writesFinished = new AtomicLong();
+
+    private DbExecutor() {
+        readPool = new ThreadPoolExecutor(READER_COUNT, READER_COUNT, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                new NamedThreadFactory("db-read", android.os.Process.THREAD_PRIORITY_DEFAULT));
+        readPool.allowCoreThreadTimeOut(true);
+        writePool = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                new NamedThreadFactory("db-write", android.os.Process.THREAD_PRIORITY_BACKGROUND));
+        writePool.allowCoreThreadTimeOut(true);
+    }
+
+    public static DbExecutor getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DbExecutor.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DbExecutor();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 提交数据库任务
+     * @param owner 绑定的生命周期（可为null）；销毁时未执行的读取会被移出队列，所有任务都不再回调
+     * @param priority 任务优先级
+     * @param work 子线程执行的数据库操作
+     * @param callback 主线程回调（可为null）
+     * @return 任务句柄，可手动取消
+     */
+    public <T> DbCall<T> execute(@Nullable LifecycleOwner owner, @NonNull Priority priority,
+                                 @NonNull Callable<T> work, @Nullable Callback<T> callback) {
+        DbCall<T> call = new DbCall<>(this, priority, sequence.getAndIncrement(), work, callback, owner,
+                QueryMetrics.getInstance().screenOf(owner));
+        call.attachLifecycle();
+        if (!call.isCancelled() || priority.isWrite) {
+            poolFor(priority).execute(call);
+        }
+        return call;
+    }
+
+    /**
+     * 界面读取的便捷方法
+     */
+    public <T> DbCall<T> read(@Nullable LifecycleOwner owner, @NonNull Callable<T> work, @Nullable Callback<T> callback) {
+        return execute(owner, Priority.UI_READ, work, callback);
+    }
+
+    /**
+     * 用户写入的便捷方法
+     */
+    public <T> DbCall<T> write(@Nullable LifecycleOwner owner, @NonNull Callable<T> work, @Nullable Callback<T> callback) {
+        return execute(owner, Priority.WRITE, work, callback);
+    }
+
+    /**
+     * 读池的 Executor 视图（提供给 Room 的 setQueryExecutor）
+     */
+    public Executor readExecutor() {
+        return command -> readPool.execute(wrap(command, Priority.UI_READ));
+    }
+
+    /**
+     * 写池的 Executor 视图（提供给 Room 的 setTransactionExecutor）
+     */
+    public Executor writeExecutor() {
+        return command -> writePool.execute(wrap(command, Priority.WRITE));
+    }
+
+    private DbCall<Void> wrap(Runnable command, Priority priority) {
+        return new DbCall<>(this, priority, sequence.getAndIncrement(), () -> {
+            command.run();
+            return null;
+        }, null, null, null);
+    }
+
+    /**
+     * 写入戳：没有写任务正在执行时返回已开始的写任务数，否则返回 -1
+     * 读线程上跨多条语句的读取（如导出）用它确认读到的是同一个快照：框架的事务都在写连接上以 IMMEDIATE/EXCLUSIVE 开始，
+     * 读线程无法开启只读事务；读取前取戳、读取后 isUnchangedSince(戳) 为 true，说明期间没有任何写入
+     */
+    public long writeStamp() {
+        long started = writesStarted.get();
+        return writesFinished.get() == started ? started : -1;
+    }
+
+    /**
+     * 取得 stamp 之后是否没有新的写任务开始（stamp 为 -1 时始终为 false）
+     */
+    public boolean isUnchangedSince(long stamp) {
+        return stamp >= 0 && writesStarted.get() == stamp;
+    }
+
+    /**
+     * WAL 模式下可同时供读取使用的连接数：系统连接池大小减去写入占用的主连接
+     */
+    static int walReaderConnections() {
+        int poolSize = DEFAULT_WAL_CONNECTION_POOL_SIZE;
+        try {
+            Resources system = Resources.getSystem();
+            int id = system.getIdentifier("db_connection_pool_size", "integer", "android");
+            if (id != 0) {
+                poolSize = system.getInteger(id);
+            }
+        } catch (Resources.NotFoundException e) {
+            // 使用默认值
+        }
+        return Math.max(1, poolSize - 1);
+    }
+
+    private ThreadPoolExecutor poolFor(Priority priority) {
+        return priority.isWrite ? writePool : readPool;
+    }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * 单个数据库任务：可比较（按优先级+提交顺序），可取消
+     */
+    public static final class DbCall<T> implements Runnable, Comparable<DbCall<?>> {
+        private final DbExecutor executor;
+        private final Priority priority;
+        private final long seq;
+        private final Callable<T> work;
+        @Nullable
+        private final Callback<T> callback;
+        @Nullable
+        private final LifecycleOwner owner;
+        // 调用页面（SQL 耗时统计用，null=后台任务）
+        @Nullable
+        private final String screen;
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private DefaultLifecycleObserver lifecycleObserver;
+
+        DbCall(DbExecutor executor, Priority priority, long seq, Callable<T> work,
+               @Nullable Callback<T> callback, @Nullable LifecycleOwner owner, @Nullable String screen) {
+            this.executor = executor;
+            this.priority = priority;
+            this.seq = seq;
+            this.work = work;
+            this.callback = callback;
+            this.owner = owner;
+            this.screen = screen;
+        }
+
+        @Override
+        public void run() {
+            // 已取消的读取不再执行；写入即使取消也照常执行，避免丢失用户数据
+            if (cancelled.get() && !priority.isWrite) {
+                return;
+            }
+            T result = null;
+            Throwable error = null;
+            QueryMetrics metrics = QueryMetrics.getInstance();
+            metrics.beginTask(screen);
+            if (priority.isWrite) {
+                executor.writesStarted.incrementAndGet();
+            }
+            try {
+                result = work.call();
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                if (priority.isWrite) {
+                    executor.writesFinished.incrementAndGet();
+                }
+                metrics.endTask(result);
+            }
+            deliver(result, error);
+        }
+
+        /**
+         * 取消任务：尚未执行的读取直接移出队列；写入仍会执行，只是不再回调
+         * @return true=本次调用完成了取消
+         */
+        public boolean cancel() {
+            if (!cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            if (!priority.isWrite) {
+                executor.readPool.remove(this);
+            }
+            detachLifecycle();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        private void deliver(@Nullable T result, @Nullable Throwable error) {
+            if (callback == null) {
+                if (error != null) {
+                    error.printStackTrace();
+                }
+                if (owner != null) {
+                    executor.mainHandler.post(this::detachLifecycle);
+                }
+                return;
+            }
+            executor.mainHandler.post(() -> {
+                detachLifecycle();
+                if (cancelled.get()) {
+                    return;
+                }
+                if (owner != null && owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                    return;
+                }
+                if (error != null) {
+                    callback.onError(error);
+                } else {
+                    callback.onResult(result);
+                }
+            });
+        }
+
+        void attachLifecycle() {
+            if (owner == null) {
+                return;
+            }
+            if (isMainThread()) {
+                doAttach();
+            } else {
+                executor.mainHandler.post(this::doAttach);
+            }
+        }
+
+        private void doAttach() {
+            if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                cancel();
+                return;
+            }
+            lifecycleObserver = new DefaultLifecycleObserver() {
+                @Override
+                public void onDestroy(@NonNull LifecycleOwner source) {
+                    cancel();
+                }
+            };
+            owner.getLifecycle().addObserver(lifecycleObserver);
+        }
+
+        private void detachLifecycle() {
+            if (owner == null || lifecycleObserver == null) {
+                return;
+            }
+            if (isMainThread()) {
+                owner.getLifecycle().removeObserver(lifecycleObserver);
+                lifecycleObserver = null;
+            } else {
+                executor.mainHandler.post(this::detachLifecycle);
+            }
+        }
+
+        @Override
+        public int compareTo(DbCall<?> other) {
+            if (priority.rank != other.priority.rank) {
+                return Integer.compare(priority.rank, other.priority.rank);
+            }
+            return Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * 带名称的线程工厂（便于在性能分析工具中识别数据库线程）
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        // 线程的系统调度优先级（android.os.Process.THREAD_PRIORITY_*）
+        private final int osPriority;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix, int osPriority) {
+            this.prefix = prefix;
+            this.osPriority = osPriority;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                android.os.Process.setThreadPriority(osPriority);
+                runnable.run();
+            }, prefix + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
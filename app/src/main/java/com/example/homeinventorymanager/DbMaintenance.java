@@ -0,0 +1,160 @@
+package com.example.homeinventorymanager;
+
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.room.InvalidationTracker;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库空闲维护：最后一次写入后持续 IDLE_DELAY_MS 没有新的写入时，在写线程上执行
+ * PRAGMA wal_checkpoint(TRUNCATE)（把 WAL 合并回数据库文件并截断，读取不再需要扫描很长的 WAL）
+ * 和 PRAGMA optimize（距上次超过 OPTIMIZE_INTERVAL_MS 时，按需更新查询规划器的统计信息）
+ * 连续写入（如 CSV 导入）期间只会不断推迟，不会打断写入；检查点不写入业务表，不会再次触发自身
+ */
+public final class DbMaintenance {
+
+    private static final String TAG = "DbMaintenance";
+    // 写入后空闲多久执行维护
+    static final long IDLE_DELAY_MS = TimeUnit.SECONDS.toMillis(10);
+    // PRAGMA optimize 的最小间隔
+    static final long OPTIMIZE_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static volatile DbMaintenance INSTANCE;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable idleTask = this::runWhenIdle;
+    private AppDatabase db;
+    // 上次执行 optimize 的时间（elapsedRealtime，0=本进程未执行过）
+    private long lastOptimizeMs = 0;
+    @Nullable
+    private volatile Result lastResult;
+
+    /**
+     * 一次维护的结果：检查点返回的 busy/WAL 帧数/已写回帧数、是否执行了 optimize、耗时
+     */
+    public static final class Result {
+        public final boolean busy;
+        public final int walFrames;
+        public final int checkpointedFrames;
+        public final boolean optimized;
+        public final long durationMs;
+
+        Result(boolean busy, int walFrames, int checkpointedFrames, boolean optimized, long durationMs) {
+            this.busy = busy;
+            this.walFrames = walFrames;
+            this.checkpointedFrames = checkpointedFrames;
+            this.optimized = optimized;
+            this.durationMs = durationMs;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "checkpoint " + checkpointedFrames + "/" + walFrames + " frames" + (busy ? " (busy)" : "")
+                    + (optimized ? ", optimized" : "") + ", " + durationMs + "ms";
+        }
+    }
+
+    @VisibleForTesting
+    DbMaintenance() {
+    }
+
+    public static DbMaintenance getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DbMaintenance.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DbMaintenance();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 监听所有业务表的写入（数据库单例创建后调用一次）
+     * 注册会同步数据库中的临时触发器，放到写线程执行
+     */
+    synchronized void install(AppDatabase database) {
+        if (db != null) {
+            return;
+        }
+        db = database;
+        InvalidationTracker.Observer observer = new InvalidationTracker.Observer(
+                "item", "item_image", "category", "sub_category", "storage_location") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                onWrite();
+            }
+        };
+        DbExecutor.getInstance().writeExecutor().execute(() -> database.getInvalidationTracker().addObserver(observer));
+    }
+
+    /**
+     * 有写入提交：重新开始计时（任意线程调用）
+     */
+    void onWrite() {
+        mainHandler.removeCallbacks(idleTask);
+        mainHandler.postDelayed(idleTask, IDLE_DELAY_MS);
+    }
+
+    private void runWhenIdle() {
+        AppDatabase database = db;
+        if (database == null) {
+            return;
+        }
+        // 后台写入优先级：用户的写入先执行
+        DbExecutor.getInstance().execute(null, DbExecutor.Priority.BACKGROUND_WRITE,
+                () -> runMaintenance(database, SystemClock.elapsedRealtime()), null);
+    }
+
+    /**
+     * 执行检查点，必要时执行 optimize（写线程执行，期间没有其他写入；读取照常进行）
+     */
+    @WorkerThread
+    @VisibleForTesting
+    Result runMaintenance(AppDatabase database, long now) {
+        long start = SystemClock.elapsedRealtime();
+        SupportSQLiteDatabase sqLite = database.getOpenHelper().getWritableDatabase();
+        boolean busy = false;
+        int walFrames = 0;
+        int checkpointedFrames = 0;
+        // 非 WAL 模式下返回 0/-1/-1
+        try (Cursor cursor = sqLite.query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            if (cursor.moveToFirst()) {
+                busy = cursor.getInt(0) != 0;
+                walFrames = cursor.getInt(1);
+                checkpointedFrames = cursor.getInt(2);
+            }
+        }
+        boolean optimized = false;
+        if (lastOptimizeMs == 0 || now - lastOptimizeMs >= OPTIMIZE_INTERVAL_MS) {
+            // 旧版本 SQLite（3.18 之前）不认识该 PRAGMA，会直接忽略
+            sqLite.query("PRAGMA optimize").close();
+            lastOptimizeMs = now;
+            optimized = true;
+        }
+        Result result = new Result(busy, walFrames, checkpointedFrames, optimized, SystemClock.elapsedRealtime() - start);
+        lastResult = result;
+        Log.i(TAG, result.toString());
+        return result;
+    }
+
+    /**
+     * 最近一次维护的结果（本进程尚未执行过时为 null）
+     */
+    @Nullable
+    public Result getLastResult() {
+        return lastResult;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 有效期提醒调度：每天最多运行一次 ExpiryReminderWorker（唯一周期任务，重复调度不会叠加）
+ * 首次运行安排在下一个提醒时刻（默认上午9点），之后每 24 小时一次，电量低时推迟
+ */
+public final class ExpiryReminderScheduler {
+
+    static final String WORK_NAME = "expiry_reminder";
+    // 默认提醒范围：7天内到期
+    public static final int DEFAULT_HORIZON_DAYS = ItemDao.EXPIRING_SOON_DAYS;
+    // 每天的提醒时刻
+    static final LocalTime REMIND_AT = LocalTime.of(9, 0);
+
+    private static final String PREFS_NAME = "expiry_reminder";
+    private static final String KEY_HORIZON_DAYS = "horizon_days";
+
+    private ExpiryReminderScheduler() {
+    }
+
+    /**
+     * 应用启动时调用：已调度时保持原计划不变
+     */
+    public static void schedule(Context context) {
+        enqueue(context, getHorizonDays(context), ExistingPeriodicWorkPolicy.KEEP);
+    }
+
+    /**
+     * 修改提醒范围（天），并用新参数更新已有的周期任务
+     */
+    public static void setHorizonDays(Context context, int horizonDays) {
+        int days = Math.max(0, horizonDays);
+        prefs(context).edit().putInt(KEY_HORIZON_DAYS, days).apply();
+        enqueue(context, days, ExistingPeriodicWorkPolicy.UPDATE);
+    }
+
+    public static int getHorizonDays(Context context) {
+        return prefs(context).getInt(KEY_HORIZON_DAYS, DEFAULT_HORIZON_DAYS);
+    }
+
+    private static void enqueue(Context context, int horizonDays, ExistingPeriodicWorkPolicy policy) {
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(WORK_NAME, policy, buildRequest(horizonDays, ZonedDateTime.now(ZoneId.systemDefault())));
+    }
+
+    /**
+     * 构建每天一次的周期任务
+     * @param now 当前时间（用于计算到下一个提醒时刻的延迟）
+     */
+    static PeriodicWorkRequest buildRequest(int horizonDays, ZonedDateTime now) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresBatteryNotLow(true)
+                .build();
+        return new PeriodicWorkRequest.Builder(ExpiryReminderWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(constraints)
+                .setInitialDelay(delayUntilNextReminder(now).toMillis(), TimeUnit.MILLISECONDS)
+                .setInputData(new Data.Builder().putInt(ExpiryReminderWorker.KEY_HORIZON_DAYS, horizonDays).build())
+                .addTag(WORK_NAME)
+                .build();
+    }
+
+    /**
+     * 距离下一个提醒时刻的时长（今天已过提醒时刻则为明天）
+     */
+    static Duration delayUntilNextReminder(ZonedDateTime now) {
+        ZonedDateTime next = now.with(REMIND_AT);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        return Duration.between(now, next);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.homeinventorymanager;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 有效期提醒后台任务（由 ExpiryReminderScheduler 每天调度一次）
+ * 用 validDate 索引查询"今天 ~ 今天+N天"内到期的物品，分批读取（内存占用与物品总数无关），汇总成一条通知
+ */
+public class ExpiryReminderWorker extends Worker {
+
+    // 输入：提醒范围（天）
+    public static final String KEY_HORIZON_DAYS = "horizon_days";
+    // 输出：本次统计到的即将过期物品数量
+    public static final String KEY_EXPIRING_COUNT = "expiring_count";
+
+    static final String CHANNEL_ID = "expiry_reminder";
+    static final int NOTIFICATION_ID = 1001;
+    // 每批读取的行数
+    static final int CHUNK_SIZE = 200;
+    // 通知中最多列出的物品数（其余只计数）
+    static final int MAX_LINES = 5;
+
+    public ExpiryReminderWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int horizonDays = getInputData().getInt(KEY_HORIZON_DAYS, ExpiryReminderScheduler.DEFAULT_HORIZON_DAYS);
+        int today = DateUtil.todayEpochDay();
+        try {
+            Summary summary = collect(AppDatabase.getInstance(getApplicationContext()).itemDao(),
+                    today, today + Math.max(0, horizonDays));
+            if (summary.count == 0) {
+                // 没有即将过期的物品：撤掉昨天的提醒
+                NotificationManagerCompat.from(getApplicationContext()).cancel(NOTIFICATION_ID);
+            } else {
+                showNotification(summary, today);
+            }
+            return Result.success(new Data.Builder().putInt(KEY_EXPIRING_COUNT, summary.count).build());
+        } catch (Exception e) {
+            // 不重试：retry 会按退避策略在当天多次唤醒设备，失败后等下一个周期（明天）再运行
+            e.printStackTrace();
+            return Result.failure();
+        }
+    }
+
+    /**
+     * 分批统计到期物品：每批最多 CHUNK_SIZE 行，只保留前 MAX_LINES 个物品用于展示；任务被系统停止时提前结束
+     */
+    private Summary collect(ItemDao itemDao, long fromDay, long toDay) {
+        Summary summary = new Summary();
+        long afterDay = fromDay - 1;
+        long afterId = 0;
+        while (!isStopped()) {
+            List<ItemDetail> chunk = itemDao.queryItemsExpiringBetweenPage(fromDay, toDay, afterDay, afterId, CHUNK_SIZE);
+            for (ItemDetail item : chunk) {
+                if (summary.firstItems.size() < MAX_LINES) {
+                    summary.firstItems.add(item);
+                }
+            }
+            summary.count += chunk.size();
+            if (chunk.size() < CHUNK_SIZE) {
+                break;
+            }
+            ItemDetail last = chunk.get(chunk.size() - 1);
+            afterDay = last.getValidDate();
+            afterId = last.getId();
+        }
+        return summary;
+    }
+
+    private void showNotification(Summary summary, int today) {
+        Context context = getApplicationContext();
+        // Android 13 及以上未授予通知权限时不发送
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        createChannel(context);
+
+        String title = summary.count + " 件物品即将过期";
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setBigContentTitle(title);
+        for (ItemDetail item : summary.firstItems) {
+            style.addLine(describe(item, today));
+        }
+        if (summary.count > summary.firstItems.size()) {
+            style.setSummaryText("另有 " + (summary.count - summary.firstItems.size()) + " 件");
+        }
+
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_baseline_notifications_24)
+                .setContentTitle(title)
+                .setContentText(describe(summary.firstItems.get(0), today))
+                .setStyle(style)
+                .setNumber(summary.count)
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true)
+                // 每天只提醒一次，同一通知原地更新，不重复响铃
+                .setOnlyAlertOnce(true)
+                .setPriority(NotificationCompat.PRIORITY_DEFAULT);
+        NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+    }
+
+    /**
+     * 通知中的一行：物品名称（+ 位置）+ 剩余天数；未设置位置时不显示空括号
+     */
+    static String describe(ItemDetail item, int today) {
+        long daysLeft = item.getValidDate() - today;
+        String when = daysLeft == 0 ? "今天到期" : daysLeft + " 天后到期";
+        String location = item.getLocationName();
+        return location.isEmpty()
+                ? item.getItemName() + " " + when
+                : item.getItemName() + "（" + location + "）" + when;
+    }
+
+    private static void createChannel(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                context.getString(R.string.expiry_channel_name), NotificationManager.IMPORTANCE_DEFAULT);
+        channel.setDescription(context.getString(R.string.expiry_channel_description));
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+        if (manager != null) {
+            manager.createNotificationChannel(channel);
+        }
+    }
+
+    /**
+     * 统计结果：总数 + 用于展示的前几个物品
+     */
+    static final class Summary {
+        int count;
+        final List<ItemDetail> firstItems = new ArrayList<>(MAX_LINES);
+    }
+}
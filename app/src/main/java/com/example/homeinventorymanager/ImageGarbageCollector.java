@@ -0,0 +1,292 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+import com.example.homeinventorymanager.utils.ImageStore;
+import com.example.homeinventorymanager.utils.ImageUtils;
+import com.example.homeinventorymanager.utils.ThumbnailStore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 孤立图片清理（由 ImageGcWorker 在后台执行），分两个阶段、每次只处理一批：
+ * 1. 按 id 分批扫描 item_image，删除所属物品已不存在的记录，以及这些记录中不再被引用的文件
+ * 2. 按文件名分批扫描应用自己的照片目录，删除没有任何记录引用的文件和中断遗留的临时文件
+ * 每批处理完立即把进度写入 SharedPreferences（commit），进程被杀后从上一批之后继续，已完成的批次不会重做
+ * 只删除应用自己目录中的文件，相册等外部路径即使不再被引用也不会删除
+ */
+final class ImageGarbageCollector {
+
+    // 每批处理的记录数 / 文件数
+    static final int BATCH_SIZE = 200;
+    // 比这更新的文件不删除：刚拍摄或刚选择、尚未保存记录的图片
+    static final long MIN_FILE_AGE_MS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String PREFS_NAME = "image_gc";
+    private static final String KEY_PHASE = "phase";
+    private static final String KEY_LAST_ROW_ID = "last_row_id";
+    private static final String KEY_DIR = "dir";
+    private static final String KEY_LAST_FILE = "last_file";
+    private static final String KEY_BYTES = "bytes";
+    private static final String KEY_ROWS = "rows";
+    private static final String KEY_FILES = "files";
+
+    private static final int PHASE_ROWS = 0;
+    private static final int PHASE_FILES = 1;
+    private static final int PHASE_DONE = 2;
+
+    // 中断遗留的临时文件（缩略图/存入图片的 .tmp、转码的 .transcode）
+    private static final String[] TEMP_SUFFIXES = {".tmp", ".transcode"};
+
+    private final AppDatabase db;
+    private final SharedPreferences prefs;
+    private final long now;
+    // 应用自己的照片目录（固定顺序）
+    private final List<File> dirs;
+    private final Set<String> dirPaths = new HashSet<>();
+
+    private int phase;
+    private long lastRowId;
+    private String dir;
+    private String lastFile;
+    private long bytes;
+    private int rows;
+    private int files;
+    // 当前目录排好序的文件名（每次运行每个目录只列一次）
+    private String[] names;
+
+    /**
+     * 清理结果（整轮累计，包括进程被杀之前已完成的批次）
+     */
+    static final class Report {
+        final long bytesReclaimed;
+        final int rowsDeleted;
+        final int filesDeleted;
+
+        Report(long bytesReclaimed, int rowsDeleted, int filesDeleted) {
+            this.bytesReclaimed = bytesReclaimed;
+            this.rowsDeleted = rowsDeleted;
+            this.filesDeleted = filesDeleted;
+        }
+    }
+
+    /**
+     * 读取上次保存的进度
+     * @param now 当前时间（判断文件是否足够旧）
+     */
+    ImageGarbageCollector(Context context, AppDatabase db, long now) {
+        this.db = db;
+        this.prefs = prefs(context);
+        this.now = now;
+        this.dirs = managedDirs(context);
+        for (File managed : dirs) {
+            dirPaths.add(managed.getAbsolutePath());
+        }
+        phase = prefs.getInt(KEY_PHASE, PHASE_ROWS);
+        lastRowId = prefs.getLong(KEY_LAST_ROW_ID, 0);
+        dir = prefs.getString(KEY_DIR, null);
+        lastFile = prefs.getString(KEY_LAST_FILE, null);
+        bytes = prefs.getLong(KEY_BYTES, 0);
+        rows = prefs.getInt(KEY_ROWS, 0);
+        files = prefs.getInt(KEY_FILES, 0);
+    }
+
+    /**
+     * 处理一批并保存进度
+     * @return true=还有未处理的批次
+     */
+    @WorkerThread
+    boolean runBatch() {
+        if (phase == PHASE_ROWS) {
+            collectRows();
+        } else if (phase == PHASE_FILES) {
+            collectFiles();
+        }
+        save();
+        return phase != PHASE_DONE;
+    }
+
+    /**
+     * 一轮清理结束：返回本轮累计结果，进度归零（下次从头开始）
+     */
+    Report finish() {
+        Report report = new Report(bytes, rows, files);
+        prefs.edit().clear().commit();
+        return report;
+    }
+
+    private void collectRows() {
+        Long windowEnd = db.itemImageDao().queryImageIdWindowEnd(lastRowId, BATCH_SIZE);
+        if (windowEnd == null) {
+            phase = PHASE_FILES;
+            return;
+        }
+        List<ItemImage> orphans = db.itemImageDao().queryOrphanImagesInRange(lastRowId, windowEnd);
+        if (!orphans.isEmpty()) {
+            List<Long> ids = new ArrayList<>(orphans.size());
+            Set<String> paths = new LinkedHashSet<>();
+            for (ItemImage image : orphans) {
+                ids.add(image.getId());
+                addIfNotNull(paths, image.getImagePath());
+                addIfNotNull(paths, image.getThumbSmallPath());
+                addIfNotNull(paths, image.getThumbLargePath());
+            }
+            // 先删记录再删文件：中途被杀时最多留下无人引用的文件，由第二阶段清理
+            rows += db.itemImageDao().deleteItemImagesByIds(ids);
+            deleteUnreferenced(paths);
+        }
+        lastRowId = windowEnd;
+    }
+
+    private void collectFiles() {
+        int dirIndex = indexOfDir(dir);
+        if (dirIndex < 0) {
+            // 首次进入该阶段，或目录列表发生了变化（如外部存储被移除）：从第一个目录开始
+            dirIndex = 0;
+            lastFile = null;
+        }
+        if (dirIndex >= dirs.size()) {
+            phase = PHASE_DONE;
+            return;
+        }
+        File current = dirs.get(dirIndex);
+        dir = current.getAbsolutePath();
+        if (names == null) {
+            String[] listed = current.list();
+            names = listed == null ? new String[0] : listed;
+            Arrays.sort(names);
+        }
+        int start = lastFile == null ? 0 : firstAfter(names, lastFile);
+        if (start >= names.length) {
+            // 当前目录处理完，下一批进入下一个目录
+            names = null;
+            lastFile = null;
+            if (dirIndex + 1 < dirs.size()) {
+                dir = dirs.get(dirIndex + 1).getAbsolutePath();
+            } else {
+                phase = PHASE_DONE;
+            }
+            return;
+        }
+        int end = Math.min(start + BATCH_SIZE, names.length);
+        List<String> candidates = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            File file = new File(current, names[i]);
+            if (!file.isFile() || now - file.lastModified() < MIN_FILE_AGE_MS) {
+                continue;
+            }
+            if (isTempFile(names[i])) {
+                delete(file);
+            } else {
+                candidates.add(file.getAbsolutePath());
+            }
+        }
+        deleteUnreferenced(candidates);
+        lastFile = names[end - 1];
+    }
+
+    /**
+     * 删除应用目录中、不再被任何记录引用的文件（本次运行中刚存入的图片跳过）
+     */
+    private void deleteUnreferenced(Iterable<String> paths) {
+        List<String> owned = new ArrayList<>();
+        for (String path : paths) {
+            File parent = new File(path).getParentFile();
+            if (parent != null && dirPaths.contains(parent.getAbsolutePath()) && !ImageStore.isRecentlyImported(path)) {
+                owned.add(path);
+            }
+        }
+        if (owned.isEmpty()) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>(db.itemImageDao().queryReferencedImagePaths(owned));
+        referenced.addAll(db.itemImageDao().queryReferencedThumbnailPaths(owned));
+        referenced.addAll(db.itemDao().queryReferencedImagePaths(owned));
+        for (String path : owned) {
+            if (!referenced.contains(path)) {
+                delete(new File(path));
+            }
+        }
+    }
+
+    private void delete(File file) {
+        long length = file.length();
+        if (file.delete()) {
+            bytes += length;
+            files++;
+        }
+    }
+
+    private void save() {
+        prefs.edit()
+                .putInt(KEY_PHASE, phase)
+                .putLong(KEY_LAST_ROW_ID, lastRowId)
+                .putString(KEY_DIR, dir)
+                .putString(KEY_LAST_FILE, lastFile)
+                .putLong(KEY_BYTES, bytes)
+                .putInt(KEY_ROWS, rows)
+                .putInt(KEY_FILES, files)
+                .commit();
+    }
+
+    private int indexOfDir(String path) {
+        if (path == null) {
+            return -1;
+        }
+        for (int i = 0; i < dirs.size(); i++) {
+            if (dirs.get(i).getAbsolutePath().equals(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 应用自己的照片目录：内容寻址存储、私有缩略图目录、拍照目录
+     */
+    static List<File> managedDirs(Context context) {
+        List<File> dirs = new ArrayList<>();
+        dirs.add(ImageStore.imageDir(context));
+        dirs.add(ThumbnailStore.privateThumbnailDir(context));
+        dirs.addAll(ImageUtils.photoDirs(context));
+        return dirs;
+    }
+
+    /**
+     * 有序数组中第一个大于 name 的位置
+     */
+    private static int firstAfter(String[] sorted, String name) {
+        int index = Arrays.binarySearch(sorted, name);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static boolean isTempFile(String name) {
+        for (String suffix : TEMP_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addIfNotNull(Set<String> paths, String path) {
+        if (path != null) {
+            paths.add(path);
+        }
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 孤立图片清理调度：每天最多运行一次 ImageGcWorker（唯一周期任务，重复调度不会叠加）
+ * 只在充电且电量充足时运行，不和前台使用争抢磁盘
+ */
+public final class ImageGcScheduler {
+
+    static final String WORK_NAME = "image_gc";
+
+    private ImageGcScheduler() {
+    }
+
+    /**
+     * 应用启动时调用：已调度时保持原计划不变
+     */
+    public static void schedule(Context context) {
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, buildRequest());
+    }
+
+    static PeriodicWorkRequest buildRequest() {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresCharging(true)
+                .setRequiresBatteryNotLow(true)
+                .build();
+        return new PeriodicWorkRequest.Builder(ImageGcWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(constraints)
+                .addTag(WORK_NAME)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+/**
+ * 孤立图片清理后台任务（由 ImageGcScheduler 每天调度一次）
+ * 逐批执行 ImageGarbageCollector，任务被系统停止或进程被杀时进度已保存，下次运行从中断处继续
+ */
+public class ImageGcWorker extends Worker {
+
+    private static final String TAG = "ImageGcWorker";
+
+    // 输出：本轮回收的字节数、删除的记录数、删除的文件数
+    public static final String KEY_BYTES_RECLAIMED = "bytes_reclaimed";
+    public static final String KEY_ROWS_DELETED = "rows_deleted";
+    public static final String KEY_FILES_DELETED = "files_deleted";
+
+    public ImageGcWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        try {
+            ImageGarbageCollector collector = new ImageGarbageCollector(context,
+                    AppDatabase.getInstance(context), System.currentTimeMillis());
+            while (collector.runBatch()) {
+                if (isStopped()) {
+                    // 进度已保存，下次运行继续
+                    return Result.retry();
+                }
+            }
+            ImageGarbageCollector.Report report = collector.finish();
+            Log.i(TAG, "回收 " + report.bytesReclaimed + " 字节，删除 " + report.rowsDeleted
+                    + " 条图片记录、" + report.filesDeleted + " 个文件");
+            return Result.success(new Data.Builder()
+                    .putLong(KEY_BYTES_RECLAIMED, report.bytesReclaimed)
+                    .putInt(KEY_ROWS_DELETED, report.rowsDeleted)
+                    .putInt(KEY_FILES_DELETED, report.filesDeleted)
+                    .build());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.homeinventorymanager;
+
+import android.app.Application;
+
+/**
+ * 应用入口：进程启动时立即在后台打开数据库并预热（见 AppStartup），并跟踪当前页面（SQL 耗时按页面统计，见 QueryMetrics）
+ */
+public class InventoryApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        registerActivityLifecycleCallbacks(QueryMetrics.getInstance().screenTracker());
+        AppStartup.start(this);
+    }
+}
@@ -0,0 +1,491 @@
+package com.example.homeinventorymanager;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 物品数据库的 CSV 备份与恢复
+ * 导出：逐表遍历 Cursor，一行一行写入缓冲输出流，不在内存中构建 List<Item>，内存占用与数据量无关
+ * 导入：逐条解析记录，每 BATCH_SIZE 行在一个事务中批量写入（保留原ID，ID 已存在时更新）
+ * 文件格式：每张表一段，"#表名" 一行 + 列名一行 + 数据行；数据行按列名对应，缺少的列按未设置处理
+ * 表按被引用的顺序写入，外键约束在导入过程中始终成立；物品的分类/子分类/位置为ID列（旧版文件中的名称列导入时换算为ID）
+ * 导入在 DbExecutor 的写线程执行；导出（exportSnapshotTo）在读线程执行，不占用写线程，也不持有写锁：
+ * 先导出到本地临时文件，期间没有写入即为同一快照，再把临时文件复制到（可能很慢的）目标输出流
+ */
+public final class InventoryCsv {
+
+    // 每个事务写入的行数
+    static final int BATCH_SIZE = 500;
+    // 表的顺序：被引用的表在前，导入时按同样的顺序写入
+    static final String[] TABLES = {"category", "sub_category", "storage_location", "item", "item_image"};
+
+    // 输出缓冲区大小：导出时每次最多向输出流写入这么多字节
+    static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    // 一致性导出的尝试次数：每次导出期间都有写入时，最后在事务中导出一次
+    static final int SNAPSHOT_ATTEMPTS = 3;
+
+    private static final char SECTION_MARK = '#';
+
+    private InventoryCsv() {
+    }
+
+    /**
+     * 导出所有表的一致快照（在 DbExecutor 的读线程执行）
+     * 导出到临时文件前后检查写入戳：期间有写任务执行时重新导出；连续 SNAPSHOT_ATTEMPTS 次都有写入穿插时，
+     * 最后一次在事务中导出（只在写本地文件期间阻塞写入）。之后复制到 out 时不再访问数据库
+     * @param spool 临时文件（覆盖写入，由调用方删除）
+     * @param out 输出流（导出完成后刷新，不关闭）
+     * @return 导出的数据行数（不含分段标记和列名行）
+     */
+    @WorkerThread
+    public static int exportSnapshotTo(AppDatabase db, File spool, OutputStream out) throws IOException {
+        DbExecutor executor = DbExecutor.getInstance();
+        int rows = -1;
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS && rows < 0; attempt++) {
+            long stamp = executor.writeStamp();
+            int exported;
+            try (OutputStream file = new FileOutputStream(spool)) {
+                exported = exportTo(db, file);
+            }
+            if (executor.isUnchangedSince(stamp)) {
+                rows = exported;
+            }
+        }
+        if (rows < 0) {
+            try (OutputStream file = new FileOutputStream(spool)) {
+                // IOException 由 runInTransaction 原样抛出
+                rows = db.runInTransaction(() -> exportTo(db, file));
+            }
+        }
+        byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(spool)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * 导出所有表（逐表读取，不开启事务：各表之间的一致性由调用方保证，见 exportSnapshotTo）
+     * @param out 输出流（导出完成后刷新，不关闭）
+     * @return 导出的数据行数（不含分段标记和列名行）
+     */
+    @WorkerThread
+    public static int exportTo(AppDatabase db, OutputStream out) throws IOException {
+        return exportTo(out, table -> db.query(new SimpleSQLiteQuery("SELECT * FROM `" + table + "` ORDER BY id")));
+    }
+
+    /**
+     * 按 TABLES 的顺序逐表写出 source 提供的 Cursor（测试可以不经过数据库直接提供数据）
+     */
+    static int exportTo(OutputStream out, TableSource source) throws IOException {
+        Writer writer = new OutputStreamWriter(new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE), StandardCharsets.UTF_8);
+        LineWriter lineWriter = new LineWriter(writer);
+        writer.write(CsvCodec.BOM);
+        int rows = 0;
+        for (String table : TABLES) {
+            try (Cursor cursor = source.open(table)) {
+                rows += exportTable(table, cursor, lineWriter);
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static int exportTable(String table, Cursor cursor, LineWriter out) throws IOException {
+        StringBuilder line = out.line;
+        line.setLength(0);
+        line.append(SECTION_MARK).append(table);
+        out.writeLine();
+
+        int rows = 0;
+        int columnCount = cursor.getColumnCount();
+        line.setLength(0);
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            CsvCodec.appendField(line, cursor.getColumnName(i));
+        }
+        out.writeLine();
+
+        while (cursor.moveToNext()) {
+            line.setLength(0);
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                switch (cursor.getType(i)) {
+                    case Cursor.FIELD_TYPE_NULL:
+                        break;
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        // 整数直接追加，不经过 String
+                        line.append(cursor.getLong(i));
+                        break;
+                    default:
+                        CsvCodec.appendField(line, cursor.getString(i));
+                        break;
+                }
+            }
+            out.writeLine();
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * 导入 exportTo 生成的文件（未知的表整段跳过）
+     * @param in 输入流（不关闭）
+     * @return 写入的数据行数
+     * @throws IOException 读取失败或文件格式错误（格式错误之前的批次已经写入）
+     */
+    @WorkerThread
+    public static int importFrom(AppDatabase db, InputStream in) throws IOException {
+        CsvCodec.RecordReader reader = new CsvCodec.RecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> fields = new ArrayList<>(16);
+        TableImporter<?> importer = null;
+        boolean inSection = false;
+        int rows = 0;
+        try {
+            while (reader.readRecord(fields)) {
+                if (isSectionMark(reader, fields)) {
+                    if (importer != null) {
+                        rows += importer.finish();
+                    }
+                    importer = importerFor(db, fields.get(0).substring(1));
+                    inSection = true;
+                    continue;
+                }
+                if (fields.size() == 1 && fields.get(0) == null) {
+                    // 空行
+                    continue;
+                }
+                if (!inSection) {
+                    throw new IOException("第" + reader.getLineNumber() + "行：缺少分段标记（#表名）");
+                }
+                if (importer == null) {
+                    // 未知的表
+                    continue;
+                }
+                if (!importer.hasHeader()) {
+                    importer.readHeader(fields);
+                } else {
+                    importer.add(fields);
+                }
+            }
+            if (importer != null) {
+                rows += importer.finish();
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("第" + reader.getLineNumber() + "行：数字格式错误", e);
+        } catch (SQLiteConstraintException e) {
+            // 外键：子分类的父分类、图片所属的物品不存在（出错的批次整体回滚）
+            throw new IOException("第" + reader.getLineNumber() + "行之前：引用了不存在的记录", e);
+        }
+        return rows;
+    }
+
+    private static boolean isSectionMark(CsvCodec.RecordReader reader, List<String> fields) {
+        if (fields.size() != 1 || reader.isFirstFieldQuoted()) {
+            return false;
+        }
+        String first = fields.get(0);
+        return first != null && first.length() > 1 && first.charAt(0) == SECTION_MARK;
+    }
+
+    private static TableImporter<?> importerFor(AppDatabase db, String table) {
+        switch (table) {
+            case "category":
+                return new TableImporter<Category>(db, "id", "categoryName") {
+                    @Override
+                    Category parse() {
+                        Category category = new Category(text(1));
+                        category.setId((int) number(0, 0));
+                        return category;
+                    }
+
+                    @Override
+                    void insert(List<Category> batch) {
+                        db.categoryDao().upsertCategories(batch);
+                    }
+                };
+            case "sub_category":
+                return new TableImporter<SubCategory>(db, "id", "subCategoryName", "parentCategoryId", "parentCategoryName") {
+                    @Override
+                    SubCategory parse() {
+                        SubCategory subCategory = new SubCategory(text(1), (int) number(2, 0), text(3));
+                        subCategory.setId((int) number(0, 0));
+                        return subCategory;
+                    }
+
+                    @Override
+                    void insert(List<SubCategory> batch) {
+                        db.subCategoryDao().upsertSubCategories(batch);
+                    }
+                };
+            case "storage_location":
+                return new TableImporter<StorageLocation>(db, "id", "locationName") {
+                    @Override
+                    StorageLocation parse() {
+                        StorageLocation location = new StorageLocation(text(1));
+                        location.setId((int) number(0, 0));
+                        return location;
+                    }
+
+                    @Override
+                    void insert(List<StorageLocation> batch) {
+                        db.storageLocationDao().upsertStorageLocations(batch);
+                    }
+                };
+            case "item":
+                // 旧版备份和手工编辑的文件中是名称列（category/subCategory/location），没有ID列时按名称换算（不存在时新建）；
+                // 旧版的文本数量列 itemCount 在没有 quantity 列时拆成数量和单位
+                return new TableImporter<ItemDetail>(db, "id", "itemName", "categoryId", "subCategoryId", "locationId",
+                        "validDate", "description", "quantity", "unit", "lowStockThreshold", "imagePath",
+                        "category", "subCategory", "location", "itemCount") {
+                    private final TaxonomyResolver resolver = new TaxonomyResolver(db);
+
+                    @Override
+                    ItemDetail parse() {
+                        ItemDetail item = new ItemDetail();
+                        item.setId(number(0, 0));
+                        item.setItemName(text(1));
+                        item.setCategoryId(optionalInt(2));
+                        item.setSubCategoryId(optionalInt(3));
+                        item.setLocationId(optionalInt(4));
+                        item.setValidDate(epochDay(5));
+                        item.setDescription(text(6));
+                        item.setQuantity(optionalInt(7));
+                        item.setUnit(text(8));
+                        item.setLowStockThreshold(optionalInt(9));
+                        item.setImagePath(text(10));
+                        item.setCategoryName(text(11));
+                        item.setSubCategoryName(text(12));
+                        item.setLocationName(text(13));
+                        if (item.getQuantity() == null) {
+                            setLegacyCount(item, text(14));
+                        }
+                        return item;
+                    }
+
+                    @Override
+                    void insert(List<ItemDetail> batch) {
+                        for (ItemDetail item : batch) {
+                            if (item.getCategoryId() == null) {
+                                item.setCategoryId(resolver.categoryId(item.getCategoryName()));
+                            }
+                            if (item.getSubCategoryId() == null) {
+                                item.setSubCategoryId(resolver.subCategoryId(item.getCategoryId(), item.getCategoryName(), item.getSubCategoryName()));
+                            }
+                            if (item.getLocationId() == null) {
+                                item.setLocationId(resolver.locationId(item.getLocationName()));
+                            }
+                        }
+                        db.itemDao().upsertItems(new ArrayList<Item>(batch));
+                    }
+                };
+            case "item_image":
+                return new TableImporter<ItemImage>(db, "id", "item_id", "image_path", "thumb_small_path", "thumb_large_path",
+                        "content_hash", "source_uri") {
+                    @Override
+                    ItemImage parse() {
+                        ItemImage image = new ItemImage();
+                        image.setId(number(0, 0));
+                        image.setItemId(number(1, 0));
+                        image.setImagePath(text(2));
+                        image.setThumbSmallPath(text(3));
+                        image.setThumbLargePath(text(4));
+                        image.setContentHash(text(5));
+                        image.setSourceUri(text(6));
+                        return image;
+                    }
+
+                    @Override
+                    void insert(List<ItemImage> batch) {
+                        db.itemImageDao().upsertItemImages(batch);
+                    }
+                };
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 单张表的导入：按列名定位字段，攒满 BATCH_SIZE 行写入一次
+     */
+    private abstract static class TableImporter<T> {
+        final AppDatabase db;
+        private final String[] columns;
+        // columns[i] 在数据行中的位置（-1=文件中没有这一列）
+        private int[] positions;
+        private List<String> current;
+        private final List<T> batch = new ArrayList<>(BATCH_SIZE);
+        private int count;
+
+        TableImporter(AppDatabase db, String... columns) {
+            this.db = db;
+            this.columns = columns;
+        }
+
+        boolean hasHeader() {
+            return positions != null;
+        }
+
+        void readHeader(List<String> header) {
+            positions = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                positions[i] = header.indexOf(columns[i]);
+            }
+        }
+
+        void add(List<String> fields) {
+            current = fields;
+            batch.add(parse());
+            current = null;
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * 写入剩余的行
+         * @return 本表写入的总行数
+         */
+        int finish() {
+            flush();
+            return count;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            db.runInTransaction(() -> insert(batch));
+            count += batch.size();
+            batch.clear();
+        }
+
+        /**
+         * 把当前数据行转换为实体（通过 text/number/epochDay 读取字段）
+         */
+        abstract T parse();
+
+        /**
+         * 写入一批实体（已在事务中）
+         */
+        abstract void insert(List<T> batch);
+
+        String text(int column) {
+            int position = positions[column];
+            return position < 0 || position >= current.size() ? null : current.get(position);
+        }
+
+        long number(int column, long defaultValue) {
+            String value = text(column);
+            return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+        }
+
+        /**
+         * 可为空的整数列：ID、数量等（空字段或文件中没有这一列为 null）
+         */
+        Integer optionalInt(int column) {
+            String value = text(column);
+            return value == null || value.isEmpty() ? null : Integer.valueOf(value.trim());
+        }
+
+        /**
+         * 有效期：导出文件中是 epoch-day，手工编辑的文件也可以写 yyyy-MM-dd
+         */
+        Long epochDay(int column) {
+            String value = text(column);
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            int day = DateUtil.parseEpochDay(value);
+            return day != DateUtil.INVALID_DAY ? Long.valueOf(day) : Long.valueOf(value.trim());
+        }
+    }
+
+    /**
+     * 旧版文本数量（如 "3"、"2瓶"）：开头的数字为数量，其余为单位（单位列为空时才使用）；没有数字开头时不设置数量
+     * 数字后紧跟 AppDatabase.LEGACY_COUNT_JOINERS 中字符的（"2.5瓶"、"1,000"）不设置数量，原文整体作为单位保留
+     * 与 AppDatabase.MIGRATION_9_10 的换算规则一致
+     */
+    static void setLegacyCount(Item item, String itemCount) {
+        if (itemCount == null) {
+            return;
+        }
+        String value = itemCount.trim();
+        int end = 0;
+        while (end < value.length() && value.charAt(end) >= '0' && value.charAt(end) <= '9') {
+            end++;
+        }
+        if (end == 0) {
+            return;
+        }
+        String unit = value.substring(end).trim();
+        if (!unit.isEmpty() && AppDatabase.LEGACY_COUNT_JOINERS.indexOf(unit.charAt(0)) >= 0) {
+            if (item.getUnit().isEmpty()) {
+                item.setUnit(value);
+            }
+            return;
+        }
+        item.setQuantity(Integer.valueOf(value.substring(0, end)));
+        if (item.getUnit().isEmpty() && !unit.isEmpty()) {
+            item.setUnit(unit);
+        }
+    }
+
+    /**
+     * 导出时每张表的数据来源（返回的 Cursor 由 exportTo 关闭）
+     */
+    interface TableSource {
+        Cursor open(String table);
+    }
+
+    /**
+     * 逐行写出：复用同一个 StringBuilder 和字符数组，每行不产生临时 String
+     */
+    private static final class LineWriter {
+        final StringBuilder line = new StringBuilder(256);
+        private final Writer writer;
+        private char[] chars = new char[256];
+
+        LineWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void writeLine() throws IOException {
+            line.append('\n');
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            line.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+        }
+    }
+}
@@ -1,38 +1,64 @@
 package com.example.homeinventorymanager;
 
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "item") // 与你的表名保持一致
+@Entity(tableName = "item", // 与你的表名保持一致
+        indices = {
+                // 分类+位置筛选，末尾带 id 使 ORDER BY id DESC 直接按索引顺序返回
+                @Index(value = {"categoryId", "locationId", "id"}),
+                // 仅按分类筛选（上面的索引中 locationId 隔在中间，按 id 排序需要临时 B 树）
+                @Index(value = {"categoryId", "id"}),
+                // 仅按位置筛选
+                @Index(value = {"locationId", "id"}),
+                // 删除子分类时按该索引把引用置空；分类改名时按索引同步全文检索
+                @Index(value = {"subCategoryId"}),
+                // 过期/即将过期查询、按有效期排序
+                @Index(value = {"validDate"}),
+                // 低库存查询：只扫描设置了阈值的物品，数量比较直接在索引中完成
+                @Index(value = {"lowStockThreshold", "quantity"})
+        },
+        // 分类/子分类/位置被删除时，物品保留、对应ID置为 NULL（未设置）
+        foreignKeys = {
+                @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "categoryId",
+                        onDelete = ForeignKey.SET_NULL),
+                @ForeignKey(entity = SubCategory.class, parentColumns = "id", childColumns = "subCategoryId",
+                        onDelete = ForeignKey.SET_NULL),
+                @ForeignKey(entity = StorageLocation.class, parentColumns = "id", childColumns = "locationId",
+                        onDelete = ForeignKey.SET_NULL)
+        })
 public class Item {
     @PrimaryKey(autoGenerate = true)
     private long id; // 自增主键
     private String itemName; // 物品名称
-    private String category; // 分类
-    private String subCategory; // 子分类
-    private String location; // 存放位置
-    private String validDate; // 有效期
+    private Integer categoryId; // 分类ID（category.id，null=未设置；名称通过 ItemDetail 联表查询）
+    private Integer subCategoryId; // 子分类ID（sub_category.id）
+    private Integer locationId; // 存放位置ID（storage_location.id）
+    private Long validDate; // 有效期（epoch-day：1970-01-01 起的天数，null=未设置；可直接在 SQL 中比较）
     private String description; // 描述
-    // ========== 新增：物品数量字段（解决 setItemCount 报错核心） ==========
-    private String itemCount; // 物品剩余数量
+    private Integer quantity; // 剩余数量（整数，null=未设置；可直接在 SQL 中求和、比较、排序）
+    private String unit; // 数量单位（如"瓶"、"包"，可为空）
+    private Integer lowStockThreshold; // 低库存阈值（数量不高于该值时需要补货，null=不提醒）
     // ========== 新增：图片本地路径字段 ==========
     private String imagePath; // 存储图片的本地绝对路径，默认为null
 
     // 无参构造（Room 必需，保留不变，不添加@Ignore）
     public Item() {}
 
-    // 带参构造（添加@Ignore注解，消除Room多构造方法警告，补充 itemCount 参数）
+    // 带参构造（添加@Ignore注解，消除Room多构造方法警告）
     @Ignore
-    public Item(String itemName, String category, String subCategory, String location, String validDate, String description, String imagePath, String itemCount) {
+    public Item(String itemName, Integer categoryId, Integer subCategoryId, Integer locationId, String validDate, String description, String imagePath, Integer quantity) {
         this.itemName = itemName;
-        this.category = category;
-        this.subCategory = subCategory;
-        this.location = location;
-        this.validDate = validDate;
+        this.categoryId = categoryId;
+        this.subCategoryId = subCategoryId;
+        this.locationId = locationId;
+        this.validDate = DateUtil.toEpochDay(validDate);
         this.description = description;
         this.imagePath = imagePath;
-        this.itemCount = itemCount; // 给数量字段赋值
+        this.quantity = quantity;
     }
 
     // ========== 新增 imagePath 的 getter/setter 方法 ==========
@@ -44,13 +70,54 @@ public class Item {
         this.imagePath = imagePath;
     }
 
-    // ========== 新增 itemCount 的 getter/setter 方法（解决报错核心） ==========
-    public String getItemCount() {
-        return itemCount == null ? "" : itemCount; // 空值兜底，避免空指针
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getUnit() {
+        return unit == null ? "" : unit;
     }
 
-    public void setItemCount(String itemCount) {
-        this.itemCount = itemCount; // 对应 ItemAddFragment 中的调用方法
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public Integer getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public void setLowStockThreshold(Integer lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    // 数量 + 单位（界面显示用，如"3瓶"），未设置时为空字符串
+    public String getQuantityText() {
+        return quantity == null ? "" : quantity + getUnit();
+    }
+
+    // 低库存：设置了阈值且数量不高于阈值（与 ItemDao.queryLowStockItems 的条件一致）
+    public boolean isLowStock() {
+        return quantity != null && lowStockThreshold != null && quantity <= lowStockThreshold;
+    }
+
+    /**
+     * 界面输入的数量/阈值文本 -> 整数
+     * @return 空白时为 null
+     * @throws NumberFormatException 不是非负整数
+     */
+    public static Integer parseQuantity(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        int value = Integer.parseInt(text.trim());
+        if (value < 0) {
+            throw new NumberFormatException("negative quantity: " + text);
+        }
+        return value;
     }
 
     // 你的原有字段 getter/setter 方法（保留不变，完整保留）
@@ -70,38 +137,47 @@ public class Item {
         this.itemName = itemName;
     }
 
-    public String getCategory() {
-        return category == null ? "" : category;
+    public Integer getCategoryId() {
+        return categoryId;
     }
 
-    public void setCategory(String category) {
-        this.category = category;
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
     }
 
-    public String getSubCategory() {
-        return subCategory == null ? "" : subCategory;
+    public Integer getSubCategoryId() {
+        return subCategoryId;
     }
 
-    public void setSubCategory(String subCategory) {
-        this.subCategory = subCategory;
+    public void setSubCategoryId(Integer subCategoryId) {
+        this.subCategoryId = subCategoryId;
     }
 
-    public String getLocation() {
-        return location == null ? "" : location;
+    public Integer getLocationId() {
+        return locationId;
     }
 
-    public void setLocation(String location) {
-        this.location = location;
+    public void setLocationId(Integer locationId) {
+        this.locationId = locationId;
     }
 
-    public String getValidDate() {
-        return validDate == null ? "" : validDate;
+    public Long getValidDate() {
+        return validDate;
     }
 
-    public void setValidDate(String validDate) {
+    public void setValidDate(Long validDate) {
         this.validDate = validDate;
     }
 
+    // 有效期的 yyyy-MM-dd 形式（界面显示/输入用），未设置时为空字符串
+    public String getValidDateText() {
+        return DateUtil.formatEpochDay(validDate);
+    }
+
+    public void setValidDateText(String validDateText) {
+        this.validDate = DateUtil.toEpochDay(validDateText);
+    }
+
     public String getDescription() {
         return description == null ? "" : description;
     }
@@ -30,6 +30,9 @@ import androidx.fragment.app.Fragment;
 import com.bumptech.glide.Glide;
 import com.example.homeinventorymanager.bean.ItemImage;
 import com.example.homeinventorymanager.databinding.FragmentItemAddBinding;
+import com.example.homeinventorymanager.utils.ImageStore;
+import com.example.homeinventorymanager.utils.PhotoTranscoder;
+import com.example.homeinventorymanager.utils.ThumbnailStore;
 
 import java.io.File;
 import java.io.IOException;
@@ -49,10 +52,8 @@ public class ItemAddFragment extends Fragment {
     // 视图绑定对象
     private FragmentItemAddBinding binding;
 
-    // 动态数据列表
-    private List<Category> categoryList;
-    private List<SubCategory> subCategoryList;
-    private List<StorageLocation> storageLocationList;
+    // 分类、子分类、位置（共享缓存的不可变快照）
+    private TaxonomySnapshot taxonomy;
 
     // 适配器
     private ArrayAdapter<String> categoryAdapter;
@@ -64,6 +65,8 @@ public class ItemAddFragment extends Fragment {
     private static final int REQUEST_CAMERA_PERMISSION = 1002;
     private static final int REQUEST_PICK_IMAGE = 1003;
     private static final int REQUEST_TAKE_PHOTO = 1004;
+    // 预览格子边长（像素），按此选择缩略图档位
+    private static final int PREVIEW_SIZE = 300;
     private String currentImagePath;
     private List<String> imagePathList = new ArrayList<>();
 
@@ -78,6 +81,7 @@ public class ItemAddFragment extends Fragment {
         bindValidDateClickListener();
         bindSaveButtonClickListener();
         bindAddPhotoButtonClickListener();
+        observePhotoProgress();
 
         return binding.getRoot();
     }
@@ -86,10 +90,6 @@ public class ItemAddFragment extends Fragment {
      * 初始化下拉列表数据与适配器
      */
     private void initSpinnerData() {
-        categoryList = new ArrayList<>();
-        subCategoryList = new ArrayList<>();
-        storageLocationList = new ArrayList<>();
-
         // 分类适配器
         categoryAdapter = new ArrayAdapter<>(
                 requireActivity(),
@@ -121,10 +121,10 @@ public class ItemAddFragment extends Fragment {
         binding.spCategory.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                if (categoryList.isEmpty()) {
+                if (position < 0 || position >= taxonomy.categories.size()) {
                     return;
                 }
-                Category selectedCategory = categoryList.get(position);
+                Category selectedCategory = taxonomy.categories.get(position);
                 refreshSubCategoryByParentId(selectedCategory.getId());
             }
 
@@ -133,68 +133,25 @@ public class ItemAddFragment extends Fragment {
             }
         });
 
-        // 异步加载数据
-        loadCustomDataFromDbAsync();
+        // 从共享缓存同步填充（不查询数据库），缓存更新（启动预加载完成、设置页增删）时重新填充
+        TaxonomyRepository repository = TaxonomyRepository.getInstance(requireActivity().getApplicationContext());
+        applyTaxonomy(repository.getSnapshot());
+        repository.observe().observe(getViewLifecycleOwner(), this::applyTaxonomy);
     }
 
     /**
-     * 异步加载分类、子分类、位置数据
+     * 用快照填充分类、子分类、位置下拉列表（同一快照只填充一次）
      */
-    private void loadCustomDataFromDbAsync() {
-        new DbAsyncTask<Void, Void, Void>(requireActivity().getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<Void>() {
-                    @Override
-                    public void onDbOperationCompleted(Void aVoid) {
-                        refreshCategorySpinner();
-                        refreshLocationSpinner();
-
-                        if (!categoryList.isEmpty()) {
-                            refreshSubCategoryByParentId(categoryList.get(0).getId());
-                        }
-                    }
-                }) {
-            @Override
-            protected Void doInBackground(Void... voids) {
-                AppDatabase db = AppDatabase.getInstance(mContext);
-
-                // 加载分类
-                List<Category> dbCategories = db.categoryDao().queryAllCategories();
-                if (dbCategories != null && !dbCategories.isEmpty()) {
-                    categoryList.addAll(dbCategories);
-                } else {
-                    String[] defaultCategories = {"食品", "日用品", "家电", "服饰", "其他"};
-                    for (String name : defaultCategories) {
-                        categoryList.add(new Category(name));
-                    }
-                }
-
-                // 加载子分类
-                List<SubCategory> dbSubCategories = db.subCategoryDao().queryAllSubCategories();
-                if (dbSubCategories != null && !dbSubCategories.isEmpty()) {
-                    subCategoryList.addAll(dbSubCategories);
-                } else {
-                    if (!categoryList.isEmpty()) {
-                        String[] defaultSubCategories = {"零食", "生鲜", "调味品", "清洁用品", "洗漱用品", "其他"};
-                        Category defaultParent = categoryList.get(0);
-                        for (String name : defaultSubCategories) {
-                            subCategoryList.add(new SubCategory(name, defaultParent.getId(), defaultParent.getCategoryName()));
-                        }
-                    }
-                }
-
-                // 加载存放位置
-                List<StorageLocation> dbLocations = db.storageLocationDao().queryAllStorageLocations();
-                if (dbLocations != null && !dbLocations.isEmpty()) {
-                    storageLocationList.addAll(dbLocations);
-                } else {
-                    String[] defaultLocations = {"冰箱", "厨房橱柜", "卫生间", "卧室衣柜", "客厅书架", "阳台", "其他"};
-                    for (String name : defaultLocations) {
-                        storageLocationList.add(new StorageLocation(name));
-                    }
-                }
-                return null;
-            }
-        }.execute();
+    private void applyTaxonomy(TaxonomySnapshot snapshot) {
+        if (snapshot == taxonomy) {
+            return;
+        }
+        taxonomy = snapshot;
+        refreshCategorySpinner();
+        refreshLocationSpinner();
+        if (!taxonomy.categories.isEmpty()) {
+            refreshSubCategoryByParentId(taxonomy.categories.get(0).getId());
+        }
     }
 
     /**
@@ -202,7 +159,7 @@ public class ItemAddFragment extends Fragment {
      */
     private void refreshCategorySpinner() {
         categoryAdapter.clear();
-        for (Category c : categoryList) {
+        for (Category c : taxonomy.categories) {
             categoryAdapter.add(c.getCategoryName());
         }
         categoryAdapter.notifyDataSetChanged();
@@ -213,13 +170,11 @@ public class ItemAddFragment extends Fragment {
      */
     private void refreshSubCategoryByParentId(int parentCategoryId) {
         subCategoryAdapter.clear();
-        for (SubCategory sc : subCategoryList) {
-            if (sc.getParentCategoryId() == parentCategoryId) {
-                subCategoryAdapter.add(sc.getSubCategoryName());
-            }
+        for (SubCategory sc : taxonomy.subCategoriesOf(parentCategoryId)) {
+            subCategoryAdapter.add(sc.getSubCategoryName());
         }
         if (subCategoryAdapter.getCount() == 0) {
-            subCategoryAdapter.add("暂无子分类");
+            subCategoryAdapter.add(AppDatabase.NO_SUB_CATEGORY);
         }
         subCategoryAdapter.notifyDataSetChanged();
     }
@@ -229,7 +184,7 @@ public class ItemAddFragment extends Fragment {
      */
     private void refreshLocationSpinner() {
         locationAdapter.clear();
-        for (StorageLocation l : storageLocationList) {
+        for (StorageLocation l : taxonomy.locations) {
             locationAdapter.add(l.getLocationName());
         }
         locationAdapter.notifyDataSetChanged();
@@ -273,6 +228,8 @@ public class ItemAddFragment extends Fragment {
             String category = binding.spCategory.getSelectedItem() != null ? binding.spCategory.getSelectedItem().toString() : "";
             String subCategory = binding.spSubCategory.getSelectedItem() != null ? binding.spSubCategory.getSelectedItem().toString() : "";
             String itemCount = binding.etItemCount.getText() != null ? binding.etItemCount.getText().toString().trim() : "";
+            String unit = binding.etItemUnit.getText() != null ? binding.etItemUnit.getText().toString().trim() : "";
+            String threshold = binding.etLowStockThreshold.getText() != null ? binding.etLowStockThreshold.getText().toString().trim() : "";
             String location = binding.spLocation.getSelectedItem() != null ? binding.spLocation.getSelectedItem().toString() : "";
             String validDate = binding.etValidDate.getText() != null ? binding.etValidDate.getText().toString().trim() : "";
             String itemDesc = binding.etItemDesc.getText() != null ? binding.etItemDesc.getText().toString().trim() : "";
@@ -282,28 +239,40 @@ public class ItemAddFragment extends Fragment {
                 Toast.makeText(requireActivity(), "物品名称不能为空！", Toast.LENGTH_SHORT).show();
                 return;
             }
+            Integer quantity;
+            Integer lowStockThreshold;
+            try {
+                quantity = Item.parseQuantity(itemCount);
+                lowStockThreshold = Item.parseQuantity(threshold);
+            } catch (NumberFormatException e) {
+                Toast.makeText(requireActivity(), "数量和低库存提醒需为非负整数！", Toast.LENGTH_SHORT).show();
+                return;
+            }
 
-            // 构建物品对象
-            Item newItem = new Item();
+            // 构建物品对象（分类/子分类/位置先记下名称，保存时在后台换算为ID）
+            ItemDetail newItem = new ItemDetail();
             newItem.setItemName(itemName);
-            newItem.setCategory(category);
-            newItem.setSubCategory(subCategory);
-            newItem.setItemCount(itemCount);
-            newItem.setLocation(location);
-            newItem.setValidDate(validDate);
+            newItem.setCategoryName(category);
+            newItem.setSubCategoryName(subCategory);
+            newItem.setQuantity(quantity);
+            newItem.setUnit(unit);
+            newItem.setLowStockThreshold(lowStockThreshold);
+            newItem.setLocationName(location);
+            newItem.setValidDateText(validDate);
             newItem.setDescription(itemDesc);
             if (currentImagePath != null && !currentImagePath.isEmpty()) {
                 newItem.setImagePath(currentImagePath);
             }
+            // 复制一份：保存完成前输入框可能已被清空
+            List<String> paths = new ArrayList<>(imagePathList);
 
             // 异步保存物品
-            new DbAsyncTask<Item, Void, Long>(requireActivity().getApplicationContext(),
+            new DbAsyncTask<ItemDetail, Void, Long>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                     new DbAsyncTask.OnDbOperationListener<Long>() {
                         @Override
                         public void onDbOperationCompleted(Long itemId) {
                             if (itemId != null && itemId > 0) {
                                 Toast.makeText(requireActivity(), "物品新增成功！", Toast.LENGTH_SHORT).show();
-                                saveItemImages(itemId);
                                 clearInputFields();
                             } else {
                                 Toast.makeText(requireActivity(), "物品新增失败！", Toast.LENGTH_SHORT).show();
@@ -311,15 +280,27 @@ public class ItemAddFragment extends Fragment {
                         }
                     }) {
                 @Override
-                protected Long doInBackground(Item... items) {
+                protected Long doInBackground(ItemDetail... items) {
                     try {
                         if (items == null || items.length == 0) {
                             return -1L;
                         }
-                        Item item = items[0];
+                        ItemDetail item = items[0];
                         AppDatabase db = AppDatabase.getInstance(mContext);
-                        long itemId = db.itemDao().insertItem(item);
-                        item.setId(itemId); // 此时Item的id为long类型，无类型错误
+                        // 图片记录先在事务外准备好（读取缩略图等文件操作不占用写事务）
+                        List<ItemImage> itemImages = new ArrayList<>(paths.size());
+                        for (String path : paths) {
+                            itemImages.add(ImageStore.newItemImage(mContext, path));
+                        }
+                        // 名称换算为ID（默认选项在表中还不存在时一并新建）、新增物品、写入图片在同一事务中，只提交一次
+                        TaxonomyResolver resolver = new TaxonomyResolver(db);
+                        long itemId = db.runInTransaction(() -> {
+                            resolver.assign(item, item.getCategoryName(), item.getSubCategoryName(), item.getLocationName());
+                            return db.itemDao().insertItemWithImages(item, itemImages);
+                        });
+                        if (resolver.hasCreatedRows()) {
+                            TaxonomyRepository.getInstance(mContext).reload();
+                        }
                         return itemId;
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -333,10 +314,10 @@ public class ItemAddFragment extends Fragment {
         binding.btnSaveItem.setOnLongClickListener(v -> {
             Context context = requireActivity();
 
-            new DbAsyncTask<Void, Void, List<Item>>(context.getApplicationContext(),
-                    new DbAsyncTask.OnDbOperationListener<List<Item>>() {
+            new DbAsyncTask<Void, Void, List<ItemDetail>>(context.getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.UI_READ,
+                    new DbAsyncTask.OnDbOperationListener<List<ItemDetail>>() {
                         @Override
-                        public void onDbOperationCompleted(List<Item> allItems) {
+                        public void onDbOperationCompleted(List<ItemDetail> allItems) {
                             if (allItems == null || allItems.isEmpty()) {
                                 Toast.makeText(context, "暂无已录入物品！", Toast.LENGTH_LONG).show();
                                 return;
@@ -344,15 +325,15 @@ public class ItemAddFragment extends Fragment {
 
                             StringBuilder sb = new StringBuilder();
                             for (int i = 0; i < allItems.size(); i++) {
-                                Item item = allItems.get(i);
+                                ItemDetail item = allItems.get(i);
                                 if (item == null) continue;
                                 sb.append("【物品").append(i + 1).append("】\n");
                                 sb.append("名称：").append(item.getItemName() == null ? "未设置" : item.getItemName()).append("\n");
-                                sb.append("分类：").append(item.getCategory() == null ? "未设置" : item.getCategory())
-                                        .append("-").append(item.getSubCategory() == null ? "未设置" : item.getSubCategory()).append("\n");
-                                sb.append("数量：").append(item.getItemCount() == null ? "未设置" : item.getItemCount()).append("\n");
-                                sb.append("位置：").append(item.getLocation() == null ? "未设置" : item.getLocation()).append("\n");
-                                sb.append("有效期：").append(item.getValidDate() == null || item.getValidDate().isEmpty() ? "未设置" : item.getValidDate()).append("\n\n");
+                                sb.append("分类：").append(item.getCategoryName().isEmpty() ? "未设置" : item.getCategoryName())
+                                        .append("-").append(item.getSubCategoryName().isEmpty() ? "未设置" : item.getSubCategoryName()).append("\n");
+                                sb.append("数量：").append(item.getQuantity() == null ? "未设置" : item.getQuantityText()).append("\n");
+                                sb.append("位置：").append(item.getLocationName().isEmpty() ? "未设置" : item.getLocationName()).append("\n");
+                                sb.append("有效期：").append(item.getValidDate() == null ? "未设置" : item.getValidDateText()).append("\n\n");
                             }
 
                             new AlertDialog.Builder(context)
@@ -363,15 +344,32 @@ public class ItemAddFragment extends Fragment {
                         }
                     }) {
                 @Override
-                protected List<Item> doInBackground(Void... voids) {
+                protected List<ItemDetail> doInBackground(Void... voids) {
                     AppDatabase db = AppDatabase.getInstance(mContext);
-                    return db.itemDao().queryAllItems();
+                    return db.itemDao().queryAllItemDetails();
                 }
             }.execute();
             return true;
         });
     }
 
+    /**
+     * 照片转码进度：显示处理进度，积压过多时暂停添加新照片
+     */
+    private void observePhotoProgress() {
+        PhotoTranscoder.getInstance().getProgress().observe(getViewLifecycleOwner(), progress -> {
+            if (progress.isIdle()) {
+                binding.tvPhotoProgress.setVisibility(View.GONE);
+            } else {
+                binding.tvPhotoProgress.setVisibility(View.VISIBLE);
+                binding.tvPhotoProgress.setText(progress.isSaturated()
+                        ? "照片处理中 " + progress.finished + "/" + progress.total + "，请稍候再添加"
+                        : "照片处理中 " + progress.finished + "/" + progress.total);
+            }
+            binding.btnAddPhoto.setEnabled(!progress.isSaturated());
+        });
+    }
+
     /**
      * 绑定添加图片按钮事件
      */
@@ -498,16 +496,23 @@ public class ItemAddFragment extends Fragment {
             if (requestCode == REQUEST_TAKE_PHOTO) {
                 if (currentImagePath != null) {
                     imagePathList.add(currentImagePath);
-                    addImageToPreview(currentImagePath);
+                    addImageToPreview(currentImagePath, true);
                 }
             } else if (requestCode == REQUEST_PICK_IMAGE && data != null) {
                 Uri selectedImageUri = data.getData();
                 if (selectedImageUri != null) {
-                    String imagePath = getPathFromUri(selectedImageUri);
-                    if (imagePath != null) {
-                        imagePathList.add(imagePath);
-                        addImageToPreview(imagePath);
-                    }
+                    // 复制到应用存储（按内容去重），不再引用相册中的文件路径
+                    ImageStore.importAsync(requireActivity(), selectedImageUri, (uri, image) -> {
+                        if (binding == null) {
+                            return;
+                        }
+                        if (image == null) {
+                            Toast.makeText(requireActivity(), "无法读取所选图片！", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        imagePathList.add(image.path);
+                        addImageToPreview(image.path, false);
+                    });
                 }
             }
         }
@@ -515,72 +520,46 @@ public class ItemAddFragment extends Fragment {
 
     /**
      * 添加图片到预览容器（与布局中llImageContainer完全匹配）
+     * 先显示占位图，后台生成缩略图后加载缩略图，不解码原图；拍摄的照片先转码（缩小、摆正）再生成缩略图
+     * @param fromCamera true=应用自己拍摄的照片（可以转码替换），false=相册中的图片（不修改）
      */
-    private void addImageToPreview(String imagePath) {
+    private void addImageToPreview(String imagePath, boolean fromCamera) {
         ImageView imageView = new ImageView(requireActivity());
         LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                300, 300);
+                PREVIEW_SIZE, PREVIEW_SIZE);
         params.setMargins(8, 8, 8, 8);
         imageView.setLayoutParams(params);
         imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
-
-        // 加载图片
-        Glide.with(this)
-                .load(new File(imagePath))
-                .placeholder(android.R.drawable.ic_menu_gallery)
-                .error(android.R.drawable.ic_menu_report_image)
-                .into(imageView);
+        imageView.setImageResource(android.R.drawable.ic_menu_gallery);
 
         // 无找不到符号错误，与布局id匹配
         binding.llImageContainer.addView(imageView);
-    }
 
-    /**
-     * Uri转文件路径
-     */
-    private String getPathFromUri(Uri uri) {
-        String path = null;
-        if (uri.getScheme().equals("content")) {
-            String[] projection = {MediaStore.Images.Media.DATA};
-            try (android.database.Cursor cursor = requireActivity().getContentResolver().query(uri, projection, null, null, null)) {
-                if (cursor != null && cursor.moveToFirst()) {
-                    int columnIndex = cursor.getColumnIndexOrThrow(MediaStore.Images.Media.DATA);
-                    path = cursor.getString(columnIndex);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        } else if (uri.getScheme().equals("file")) {
-            path = uri.getPath();
+        if (fromCamera) {
+            Context appContext = requireActivity().getApplicationContext();
+            PhotoTranscoder.getInstance().transcodeAsync(imagePath, (path, success) -> loadThumbnail(appContext, imageView, path));
+        } else {
+            loadThumbnail(requireActivity(), imageView, imagePath);
         }
-        return path;
     }
 
     /**
-     * 保存图片到数据库
+     * 生成缩略图并加载到预览控件
      */
-    private void saveItemImages(Long itemId) {
-        if (itemId == null || itemId <= 0 || imagePathList.isEmpty()) return;
-
-        new DbAsyncTask<Void, Void, Void>(requireActivity().getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<Void>() {
-                    @Override
-                    public void onDbOperationCompleted(Void aVoid) {
-                        Toast.makeText(requireActivity(), "图片保存成功！", Toast.LENGTH_SHORT).show();
-                    }
-                }) {
-            @Override
-            protected Void doInBackground(Void... voids) {
-                AppDatabase db = AppDatabase.getInstance(mContext);
-                for (String path : imagePathList) {
-                    ItemImage itemImage = new ItemImage();
-                    itemImage.setItemId(itemId);
-                    itemImage.setImagePath(path);
-                    db.itemImageDao().insertItemImage(itemImage);
-                }
-                return null;
+    private void loadThumbnail(Context context, ImageView imageView, String imagePath) {
+        ThumbnailStore.generateAsync(context, imagePath, (originalPath, thumbnails) -> {
+            // 页面已销毁或预览已清空时不再加载
+            if (binding == null || imageView.getParent() == null) {
+                return;
             }
-        }.execute();
+            String path = thumbnails == null ? originalPath
+                    : (PREVIEW_SIZE <= ThumbnailStore.SIZE_SMALL ? thumbnails.smallPath : thumbnails.largePath);
+            Glide.with(this)
+                    .load(new File(path))
+                    .placeholder(android.R.drawable.ic_menu_gallery)
+                    .error(android.R.drawable.ic_menu_report_image)
+                    .into(imageView);
+        });
     }
 
     /**
@@ -589,6 +568,8 @@ public class ItemAddFragment extends Fragment {
     private void clearInputFields() {
         binding.etItemName.setText("");
         binding.etItemCount.setText("");
+        binding.etItemUnit.setText("");
+        binding.etLowStockThreshold.setText("");
         binding.etValidDate.setText("");
         binding.etItemDesc.setText("");
         binding.llImageContainer.removeAllViews();
@@ -1,32 +1,329 @@
 package com.example.homeinventorymanager;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface ItemDao {
+    // 筛选下拉列表中的"全部"选项（不限制该条件，查询时对应 null）
+    String FILTER_ALL = "全部";
+    // 物品 + 分类/子分类/位置名称（ItemDetail），名称按主键联表，不影响 item 上索引的使用
+    String DETAIL_COLUMNS = "item.*, category.categoryName AS categoryName, " +
+            "sub_category.subCategoryName AS subCategoryName, storage_location.locationName AS locationName";
+    String DETAIL_JOINS = "LEFT JOIN category ON category.id = item.categoryId " +
+            "LEFT JOIN sub_category ON sub_category.id = item.subCategoryId " +
+            "LEFT JOIN storage_location ON storage_location.id = item.locationId ";
+    String DETAIL_FROM = " FROM item " + DETAIL_JOINS;
+    // "即将过期"的天数范围（含今天起的第 N 天）
+    int EXPIRING_SOON_DAYS = 7;
+    // 检索时模糊匹配补充的结果数上限（只计全文检索未命中的物品）
+    int SUBSTRING_MATCH_LIMIT = 100;
+
     // 原有方法全部保留，无需修改（Insert/Update会自动适配新增的imagePath字段）
     @Insert
     long insertItem(Item item);
 
+    /**
+     * 批量新增物品（一次调用只编译一次 INSERT 语句；调用方负责包在事务中）
+     * @return 新物品的ID（与参数顺序一致）
+     */
+    @Insert
+    List<Long> insertItems(List<Item> items);
+
+    /**
+     * 新增物品及其图片：一个事务、一次提交（不再是物品 1 次 + 每张图片 1 次），中途失败整体回滚，不会留下没有图片的物品
+     * @param images 图片记录（所属物品ID由本方法填写），可为空列表
+     * @return 新物品的ID
+     */
+    @Transaction
+    default long insertItemWithImages(Item item, List<ItemImage> images) {
+        long itemId = insertItem(item);
+        item.setId(itemId);
+        if (!images.isEmpty()) {
+            for (ItemImage image : images) {
+                image.setItemId(itemId);
+            }
+            insertItemImageList(images);
+        }
+        return itemId;
+    }
+
+    /**
+     * 修改物品并同步其图片：一个事务中更新物品、删除不在列表中的旧图片记录、插入新图片记录
+     * @param images 物品当前的全部图片：已保存的记录（id 不为 0）保留不动，新记录（id 为 0）插入
+     */
+    @Transaction
+    default void updateItemWithImages(Item item, List<ItemImage> images) {
+        updateItem(item);
+        List<Long> keptIds = new ArrayList<>(images.size());
+        List<ItemImage> added = new ArrayList<>(images.size());
+        for (ItemImage image : images) {
+            if (image.getId() == 0) {
+                image.setItemId(item.getId());
+                added.add(image);
+            } else {
+                keptIds.add(image.getId());
+            }
+        }
+        deleteItemImagesExcept(item.getId(), keptIds);
+        if (!added.isEmpty()) {
+            insertItemImageList(added);
+        }
+    }
+
+    // 批量插入图片记录（同 ItemImageDao.insertItemImageList，放在本 DAO 中供上面的事务方法调用）
+    @Insert
+    void insertItemImageList(List<ItemImage> itemImageList);
+
+    // 删除物品中不在 keptIds 内的图片记录（按 item_id 索引定位；文件由 ImageStore 引用计数/清理任务回收）
+    @Query("DELETE FROM item_image WHERE item_id = :itemId AND id NOT IN (:keptIds)")
+    void deleteItemImagesExcept(long itemId, List<Long> keptIds);
+
+    /**
+     * 批量写入物品（CSV 导入使用，保留原ID，ID 已存在时更新；FTS 索引由触发器同步）
+     */
+    @Upsert
+    void upsertItems(List<Item> items);
+
     @Query("SELECT * FROM item ORDER BY id DESC")
     List<Item> queryAllItems();
 
-    @Query("SELECT * FROM item WHERE " +
-            "(:nameKey IS '' OR itemName LIKE '%' || :nameKey || '%') " +
-            "AND (:category IS '全部' OR category = :category) " +
-            "AND (:location IS '全部' OR location = :location) " +
-            "ORDER BY id DESC")
-    List<Item> queryItemsByCondition(String nameKey, String category, String location);
+    // 全部物品（带名称，展示用）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "ORDER BY item.id DESC")
+    List<ItemDetail> queryAllItemDetails();
+
+    /**
+     * 多条件查询（名称关键词+分类+位置）
+     * 按实际生效的筛选条件分派到对应的 SQL：形如 (:categoryId IS NULL OR categoryId = :categoryId) 的写法
+     * 会让 SQLite 放弃索引，拆开后分类/位置筛选都能走 item 表上的整数复合索引
+     * @param categoryId 分类ID（null=不限）
+     * @param locationId 位置ID（null=不限）
+     */
+    default List<ItemDetail> queryItemsByCondition(String nameKey, Integer categoryId, Integer locationId) {
+        String key = nameKey == null ? "" : nameKey;
+        if (categoryId != null && locationId != null) {
+            return queryItemsByCategoryAndLocation(key, categoryId, locationId);
+        } else if (categoryId != null) {
+            return queryItemsByCategory(key, categoryId);
+        } else if (locationId != null) {
+            return queryItemsByLocation(key, locationId);
+        }
+        return queryItemsByName(key);
+    }
+
+    // 分类+位置筛选（索引 categoryId, locationId, id）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.categoryId = :categoryId AND item.locationId = :locationId " +
+            "AND (:nameKey = '' OR item.itemName LIKE '%' || :nameKey || '%') " +
+            "ORDER BY item.id DESC")
+    List<ItemDetail> queryItemsByCategoryAndLocation(String nameKey, int categoryId, int locationId);
+
+    // 仅分类筛选（索引 categoryId, locationId, id 的前缀）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.categoryId = :categoryId " +
+            "AND (:nameKey = '' OR item.itemName LIKE '%' || :nameKey || '%') " +
+            "ORDER BY item.id DESC")
+    List<ItemDetail> queryItemsByCategory(String nameKey, int categoryId);
+
+    // 仅位置筛选（索引 locationId, id）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.locationId = :locationId " +
+            "AND (:nameKey = '' OR item.itemName LIKE '%' || :nameKey || '%') " +
+            "ORDER BY item.id DESC")
+    List<ItemDetail> queryItemsByLocation(String nameKey, int locationId);
+
+    // 仅名称关键词（前置通配符的 LIKE 无法使用索引，为全表扫描）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE (:nameKey = '' OR item.itemName LIKE '%' || :nameKey || '%') " +
+            "ORDER BY item.id DESC")
+    List<ItemDetail> queryItemsByName(String nameKey);
+
+    // ========== 键集分页（keyset）：按 id 倒序，每页从上一页的边界 id 继续，不使用 OFFSET ==========
+
+    /**
+     * 加载比 beforeId 更旧（id 更小）的一页，按 id 倒序
+     * @param categoryId 分类ID（null=不限）
+     * @param locationId 位置ID（null=不限）
+     * @param beforeId 边界id（首页传 Long.MAX_VALUE）
+     */
+    default List<ItemDetail> queryItemsPageBefore(Integer categoryId, Integer locationId, long beforeId, int limit) {
+        if (categoryId != null && locationId != null) {
+            return queryItemsPageBeforeByCategoryAndLocation(categoryId, locationId, beforeId, limit);
+        } else if (categoryId != null) {
+            return queryItemsPageBeforeByCategory(categoryId, beforeId, limit);
+        } else if (locationId != null) {
+            return queryItemsPageBeforeByLocation(locationId, beforeId, limit);
+        }
+        return queryAllItemsPageBefore(beforeId, limit);
+    }
+
+    /**
+     * 加载比 afterId 更新（id 更大）的一页，按 id 升序返回（靠近 afterId 的在前）
+     */
+    default List<ItemDetail> queryItemsPageAfter(Integer categoryId, Integer locationId, long afterId, int limit) {
+        if (categoryId != null && locationId != null) {
+            return queryItemsPageAfterByCategoryAndLocation(categoryId, locationId, afterId, limit);
+        } else if (categoryId != null) {
+            return queryItemsPageAfterByCategory(categoryId, afterId, limit);
+        } else if (locationId != null) {
+            return queryItemsPageAfterByLocation(locationId, afterId, limit);
+        }
+        return queryAllItemsPageAfter(afterId, limit);
+    }
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.id < :beforeId ORDER BY item.id DESC LIMIT :limit")
+    List<ItemDetail> queryAllItemsPageBefore(long beforeId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.id > :afterId ORDER BY item.id ASC LIMIT :limit")
+    List<ItemDetail> queryAllItemsPageAfter(long afterId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.categoryId = :categoryId AND item.locationId = :locationId " +
+            "AND item.id < :beforeId ORDER BY item.id DESC LIMIT :limit")
+    List<ItemDetail> queryItemsPageBeforeByCategoryAndLocation(int categoryId, int locationId, long beforeId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.categoryId = :categoryId AND item.locationId = :locationId " +
+            "AND item.id > :afterId ORDER BY item.id ASC LIMIT :limit")
+    List<ItemDetail> queryItemsPageAfterByCategoryAndLocation(int categoryId, int locationId, long afterId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.categoryId = :categoryId AND item.id < :beforeId ORDER BY item.id DESC LIMIT :limit")
+    List<ItemDetail> queryItemsPageBeforeByCategory(int categoryId, long beforeId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.categoryId = :categoryId AND item.id > :afterId ORDER BY item.id ASC LIMIT :limit")
+    List<ItemDetail> queryItemsPageAfterByCategory(int categoryId, long afterId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.locationId = :locationId AND item.id < :beforeId ORDER BY item.id DESC LIMIT :limit")
+    List<ItemDetail> queryItemsPageBeforeByLocation(int locationId, long beforeId, int limit);
+
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.locationId = :locationId AND item.id > :afterId ORDER BY item.id ASC LIMIT :limit")
+    List<ItemDetail> queryItemsPageAfterByLocation(int locationId, long afterId, int limit);
+
+    /**
+     * 全文检索（名称、描述、分类、子分类、位置），按相关度排序，支持前缀匹配；
+     * 之后总是用名称/描述的模糊匹配补充全文检索未命中的物品（排在检索结果之后，新的在前）
+     * ICU 按词切分中文，词中间的片段（如用"奶"搜"牛奶"）无法命中；只在检索结果为空时才模糊匹配的话，
+     * 同一物品能否搜到取决于其他物品是否恰好命中，因此每次都做模糊匹配
+     * 取舍：模糊匹配没有索引可用，最坏情况下扫描一遍 item 表（补充结果不足上限时）；
+     * 结果数限制为 SUBSTRING_MATCH_LIMIT，超出部分不返回。n-gram 分词能让片段也走全文索引，
+     * 但 Android 自带的 FTS4 没有该分词器，自建 n-gram 列会使索引成倍增大，家庭物品数量下扫描的代价更小
+     * @param keyword 关键词（多个关键词用空格分隔，需同时命中；模糊匹配按整个关键词匹配）
+     * @param categoryId 分类ID（null=不限）
+     * @param locationId 位置ID（null=不限）
+     */
+    @Transaction
+    default List<ItemDetail> searchItems(String keyword, Integer categoryId, Integer locationId) {
+        String matchQuery = ItemSearch.toMatchQuery(keyword);
+        if (matchQuery.isEmpty()) {
+            return queryItemsByCondition("", categoryId, locationId);
+        }
+        List<ItemDetail> results = ItemSearch.rank(searchItemsByMatch(matchQuery, categoryId, locationId));
+        results.addAll(queryItemsBySubstring(keyword.trim(), matchQuery, categoryId, locationId, SUBSTRING_MATCH_LIMIT));
+        return results;
+    }
+
+    // FTS 命中行数量很少，从命中结果出发按主键取物品，分类/位置条件在命中结果上过滤即可
+    @Query("SELECT " + DETAIL_COLUMNS + ", matchinfo(item_fts, 'pcnx') AS matchInfo " +
+            "FROM item_fts JOIN item ON item.id = item_fts.rowid " + DETAIL_JOINS +
+            "WHERE item_fts MATCH :matchQuery " +
+            "AND (:categoryId IS NULL OR item.categoryId = :categoryId) " +
+            "AND (:locationId IS NULL OR item.locationId = :locationId)")
+    List<ItemSearchResult> searchItemsByMatch(String matchQuery, Integer categoryId, Integer locationId);
+
+    // 全文检索的补充：名称或描述模糊匹配、且未被全文检索命中的物品（按主键倒序扫描，取够 limit 条即停止）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM +
+            "WHERE (item.itemName LIKE '%' || :keyword || '%' OR item.description LIKE '%' || :keyword || '%') " +
+            "AND item.id NOT IN (SELECT rowid FROM item_fts WHERE item_fts MATCH :matchQuery) " +
+            "AND (:categoryId IS NULL OR item.categoryId = :categoryId) " +
+            "AND (:locationId IS NULL OR item.locationId = :locationId) " +
+            "ORDER BY item.id DESC LIMIT :limit")
+    List<ItemDetail> queryItemsBySubstring(String keyword, String matchQuery, Integer categoryId, Integer locationId, int limit);
+
+    // ========== 有效期查询（validDate 为 epoch-day，走 validDate 索引，过期状态在 SQL 中判断） ==========
+
+    /**
+     * 已过期物品（有效期早于今天），最早过期的在前
+     * @param today 今天的 epoch-day（DateUtil.todayEpochDay()）
+     */
+    @Query("SELECT * FROM item WHERE validDate < :today ORDER BY validDate ASC")
+    List<Item> queryExpiredItems(long today);
+
+    /**
+     * 从今天起 days 天内（含）到期的物品，最早到期的在前
+     */
+    default List<Item> queryItemsExpiringWithin(int days) {
+        long today = DateUtil.todayEpochDay();
+        return queryItemsExpiringBetween(today, today + days);
+    }
+
+    @Query("SELECT * FROM item WHERE validDate BETWEEN :fromDay AND :toDay ORDER BY validDate ASC")
+    List<Item> queryItemsExpiringBetween(long fromDay, long toDay);
+
+    /**
+     * 分批读取指定日期范围内到期的物品（按 validDate, id 键集分页，每批从上一批最后一行之后继续）
+     * 首批传 afterDay = fromDay - 1、afterId = 0
+     */
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.validDate BETWEEN :fromDay AND :toDay " +
+            "AND (item.validDate > :afterDay OR (item.validDate = :afterDay AND item.id > :afterId)) " +
+            "ORDER BY item.validDate ASC, item.id ASC LIMIT :limit")
+    List<ItemDetail> queryItemsExpiringBetweenPage(long fromDay, long toDay, long afterDay, long afterId, int limit);
+
+    // 设置了有效期的物品，按有效期升序（直接按 validDate 索引顺序读取，无需排序）
+    @Query("SELECT * FROM item WHERE validDate IS NOT NULL ORDER BY validDate ASC")
+    List<Item> queryItemsSortedByExpiry();
+
+    // 已过期物品数量
+    @Query("SELECT COUNT(*) FROM item WHERE validDate < :today")
+    int countExpiredItems(long today);
+
+    // 指定日期范围内到期的物品数量
+    @Query("SELECT COUNT(*) FROM item WHERE validDate BETWEEN :fromDay AND :toDay")
+    int countItemsExpiringBetween(long fromDay, long toDay);
+
+    // ========== 数量统计（quantity 为整数，求和、比较直接在 SQL 中完成，只返回汇总后的少量行） ==========
+
+    /**
+     * 低库存物品：设置了阈值且数量不高于阈值，缺得最多的在前
+     * 阈值都是非负整数，写成 lowStockThreshold >= 0 的范围条件（IS NOT NULL 不能作为索引范围），
+     * 走 (lowStockThreshold, quantity) 索引只读取设置了阈值的物品，数量比较在索引中完成
+     */
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.lowStockThreshold >= 0 " +
+            "AND item.quantity <= item.lowStockThreshold " +
+            "ORDER BY item.quantity - item.lowStockThreshold ASC, item.id DESC")
+    List<ItemDetail> queryLowStockItems();
+
+    // 低库存物品数量（条件与 queryLowStockItems 一致）
+    @Query("SELECT COUNT(*) FROM item WHERE lowStockThreshold >= 0 AND quantity <= lowStockThreshold")
+    int countLowStockItems();
+
+    // 各分类的数量合计（按分类 + 单位分组，未设置分类的物品汇总在 groupId 为 null 的行）
+    @Query("SELECT item.categoryId AS groupId, category.categoryName AS name, IFNULL(item.unit, '') AS unit, " +
+            "COUNT(*) AS itemCount, IFNULL(SUM(item.quantity), 0) AS totalQuantity " +
+            "FROM item LEFT JOIN category ON category.id = item.categoryId " +
+            "GROUP BY item.categoryId, IFNULL(item.unit, '') " +
+            "ORDER BY category.categoryName, unit")
+    List<QuantityTotal> queryQuantityTotalsByCategory();
+
+    // 各存放位置的数量合计（按位置 + 单位分组）
+    @Query("SELECT item.locationId AS groupId, storage_location.locationName AS name, IFNULL(item.unit, '') AS unit, " +
+            "COUNT(*) AS itemCount, IFNULL(SUM(item.quantity), 0) AS totalQuantity " +
+            "FROM item LEFT JOIN storage_location ON storage_location.id = item.locationId " +
+            "GROUP BY item.locationId, IFNULL(item.unit, '') " +
+            "ORDER BY storage_location.locationName, unit")
+    List<QuantityTotal> queryQuantityTotalsByLocation();
 
     @Query("DELETE FROM item")
     void deleteAllItems();
 
+    // 给定路径中仍被旧版单图字段 imagePath 引用的路径（图片清理时使用，没有索引，只在后台按批调用）
+    @Query("SELECT DISTINCT imagePath FROM item WHERE imagePath IN (:paths)")
+    List<String> queryReferencedImagePaths(List<String> paths);
+
     @Delete
     void deleteItem(Item item);
 
@@ -35,4 +332,12 @@ public interface ItemDao {
 
     @Query("SELECT * FROM item WHERE id = :itemId")
     Item queryItemById(int itemId);
-}
\ No newline at end of file
+
+    // 单个物品（带名称，编辑页面回显下拉列表使用）
+    @Query("SELECT " + DETAIL_COLUMNS + DETAIL_FROM + "WHERE item.id = :itemId")
+    ItemDetail queryItemDetailById(long itemId);
+
+    // 监听单个物品（物品被修改或删除时自动重新查询，删除后为 null）
+    @Query("SELECT * FROM item WHERE id = :itemId")
+    LiveData<Item> observeItemById(long itemId);
+}
@@ -0,0 +1,40 @@
+package com.example.homeinventorymanager;
+
+/**
+ * 物品 + 分类/子分类/位置名称（列表、检索、提醒等展示用的联表投影）
+ * item 表只保存ID，名称由 ItemDao 中的查询 LEFT JOIN 分类/子分类/位置表得到，改名后无需改写物品
+ * 保存时可直接作为 Item 传给 insertItem/updateItem（名称字段不会写入 item 表）
+ */
+public class ItemDetail extends Item {
+    private String categoryName; // 分类名称（未设置或已被删除时为 null）
+    private String subCategoryName; // 子分类名称
+    private String locationName; // 存放位置名称
+
+    public ItemDetail() {
+    }
+
+    // getter & setter（空值兜底，界面直接显示）
+    public String getCategoryName() {
+        return categoryName == null ? "" : categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public String getSubCategoryName() {
+        return subCategoryName == null ? "" : subCategoryName;
+    }
+
+    public void setSubCategoryName(String subCategoryName) {
+        this.subCategoryName = subCategoryName;
+    }
+
+    public String getLocationName() {
+        return locationName == null ? "" : locationName;
+    }
+
+    public void setLocationName(String locationName) {
+        this.locationName = locationName;
+    }
+}
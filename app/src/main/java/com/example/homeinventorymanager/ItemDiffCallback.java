@@ -0,0 +1,36 @@
+package com.example.homeinventorymanager;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
+
+/**
+ * 物品列表差异比较（ListAdapter 在后台线程计算差异，只刷新真正变化的行）
+ * 同一物品：id 相同；内容相同：列表上展示的字段都未变化
+ */
+public class ItemDiffCallback extends DiffUtil.ItemCallback<ItemDetail> {
+
+    public static final ItemDiffCallback INSTANCE = new ItemDiffCallback();
+
+    private ItemDiffCallback() {
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull ItemDetail oldItem, @NonNull ItemDetail newItem) {
+        return oldItem.getId() == newItem.getId();
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull ItemDetail oldItem, @NonNull ItemDetail newItem) {
+        return Objects.equals(oldItem.getItemName(), newItem.getItemName())
+                && Objects.equals(oldItem.getCategoryName(), newItem.getCategoryName())
+                && Objects.equals(oldItem.getSubCategoryName(), newItem.getSubCategoryName())
+                && Objects.equals(oldItem.getLocationName(), newItem.getLocationName())
+                && Objects.equals(oldItem.getValidDate(), newItem.getValidDate())
+                && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                && Objects.equals(oldItem.getQuantity(), newItem.getQuantity())
+                && Objects.equals(oldItem.getUnit(), newItem.getUnit())
+                && Objects.equals(oldItem.getLowStockThreshold(), newItem.getLowStockThreshold());
+    }
+}
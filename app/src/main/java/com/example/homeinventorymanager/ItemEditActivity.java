@@ -3,8 +3,6 @@ package com.example.homeinventorymanager;
 import android.app.DatePickerDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
@@ -15,14 +13,21 @@ import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.Spinner;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.bumptech.glide.Glide;
+import com.example.homeinventorymanager.bean.ItemImage;
+import com.example.homeinventorymanager.utils.ImageStore;
 import com.example.homeinventorymanager.utils.ImageUtils;
+import com.example.homeinventorymanager.utils.PhotoTranscoder;
+import com.example.homeinventorymanager.utils.ThumbnailStore;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
@@ -35,24 +40,27 @@ import java.util.List;
 public class ItemEditActivity extends AppCompatActivity {
 
     // 原有控件声明
-    private EditText etEditName, etEditCount, etEditValidDate, etEditDesc;
+    private EditText etEditName, etEditCount, etEditUnit, etEditLowStock, etEditValidDate, etEditDesc;
     private Spinner spEditCategory, spEditSubCategory, spEditLocation;
 
     // 新增：图片相关控件
     private LinearLayout llImageContainer; // 图片预览容器
     private View btnAddImage; // 添加图片按钮
+    private TextView tvPhotoProgress; // 照片转码进度
 
     // 新增：图片请求码
     private static final int REQUEST_CODE_CAMERA = 1001;
     private static final int REQUEST_CODE_GALLERY = 1002;
+    // 预览格子边长（像素），按此选择缩略图档位
+    private static final int PREVIEW_SIZE = 200;
 
     // 新增：图片路径列表（存储当前物品的所有图片路径）
     private List<String> imagePathList = new ArrayList<>();
+    // 已保存的图片记录（保存时按路径复用，只插入新添加的图片）
+    private List<ItemImage> savedImages = new ArrayList<>();
 
-    // 原有动态数据列表
-    private List<Category> categoryList;
-    private List<SubCategory> subCategoryList;
-    private List<StorageLocation> storageLocationList;
+    // 分类/子分类/位置（共享缓存的不可变快照）
+    private TaxonomySnapshot taxonomy;
 
     // 原有动态适配器
     private ArrayAdapter<String> categoryAdapter;
@@ -60,13 +68,8 @@ public class ItemEditActivity extends AppCompatActivity {
     private ArrayAdapter<String> locationAdapter;
 
     // 原有要编辑的物品ID和对象
-    private int itemId;
-    private Item editItem;
-
-    // 原有兜底默认数据
-    private String[] defaultCategories = {"食品", "日用品", "家电", "服饰", "其他"};
-    private String[] defaultSubCategories = {"零食", "生鲜", "调味品", "清洁用品", "洗漱用品", "其他"};
-    private String[] defaultLocations = {"冰箱", "厨房橱柜", "卫生间", "卧室衣柜", "客厅书架", "阳台", "其他"};
+    private long itemId;
+    private ItemDetail editItem;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -76,7 +79,8 @@ public class ItemEditActivity extends AppCompatActivity {
         // 1. 获取传递过来的物品ID
         Intent intent = getIntent();
         if (intent != null) {
-            itemId = intent.getIntExtra("ITEM_ID", -1);
+            // 列表页传入的是 long（Item.getId()），按 int 读取会一直得到默认值
+            itemId = intent.getLongExtra("ITEM_ID", -1);
         }
 
         // 2. 校验物品ID有效性
@@ -103,6 +107,7 @@ public class ItemEditActivity extends AppCompatActivity {
 
         // 新增：8. 绑定添加图片按钮点击事件 + 初始化图片相关逻辑
         bindAddImageClickListener();
+        observePhotoProgress();
     }
 
     /**
@@ -112,6 +117,8 @@ public class ItemEditActivity extends AppCompatActivity {
         // 原有控件初始化
         etEditName = findViewById(R.id.et_edit_name);
         etEditCount = findViewById(R.id.et_edit_count);
+        etEditUnit = findViewById(R.id.et_edit_unit);
+        etEditLowStock = findViewById(R.id.et_edit_low_stock);
         etEditValidDate = findViewById(R.id.et_edit_valid_date);
         etEditDesc = findViewById(R.id.et_edit_desc);
         spEditCategory = findViewById(R.id.sp_edit_category);
@@ -121,17 +128,13 @@ public class ItemEditActivity extends AppCompatActivity {
         // 新增：图片相关控件初始化
         llImageContainer = findViewById(R.id.ll_image_container);
         btnAddImage = findViewById(R.id.btn_add_image);
+        tvPhotoProgress = findViewById(R.id.tv_photo_progress);
     }
 
     /**
      * 原有逻辑：初始化下拉列表（动态加载+分类-子分类联动），保持不变
      */
     private void initSpinners() {
-        // 初始化动态数据列表
-        categoryList = new ArrayList<>();
-        subCategoryList = new ArrayList<>();
-        storageLocationList = new ArrayList<>();
-
         // 1. 分类Spinner适配器（动态）
         categoryAdapter = new ArrayAdapter<>(this,
                 android.R.layout.simple_spinner_item,
@@ -160,11 +163,11 @@ public class ItemEditActivity extends AppCompatActivity {
         spEditCategory.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                if (categoryList.isEmpty()) {
+                if (position < 0 || position >= taxonomy.categories.size()) {
                     return;
                 }
                 // 获取选中的父分类
-                Category selectedCategory = categoryList.get(position);
+                Category selectedCategory = taxonomy.categories.get(position);
                 // 刷新子分类列表（仅展示该父分类下的子分类）
                 refreshSubCategoryByParentId(selectedCategory.getId());
             }
@@ -174,81 +177,34 @@ public class ItemEditActivity extends AppCompatActivity {
             }
         });
 
-        // 5. 异步加载自定义数据（从数据库读取，避免主线程阻塞）
-        loadCustomDataFromDbAsync();
+        // 5. 从共享缓存同步填充（不查询数据库），缓存更新时重新填充
+        TaxonomyRepository repository = TaxonomyRepository.getInstance(getApplicationContext());
+        applyTaxonomy(repository.getSnapshot());
+        repository.observe().observe(this, this::applyTaxonomy);
     }
 
     /**
-     * 原有逻辑：异步加载自定义分类/子分类/位置数据，保持不变
+     * 用快照填充分类、子分类、位置下拉列表（同一快照只填充一次）
      */
-    private void loadCustomDataFromDbAsync() {
-        new DbAsyncTask<Void, Void, Void>(getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<Void>() {
-                    @Override
-                    public void onDbOperationCompleted(Void aVoid) {
-                        // 主线程刷新Spinner（UI操作必须在主线程）
-                        refreshCategorySpinner();
-                        refreshLocationSpinner();
-
-                        // 初始化子分类（默认选中第一个分类的子分类）
-                        if (!categoryList.isEmpty()) {
-                            refreshSubCategoryByParentId(categoryList.get(0).getId());
-
-                            // 若物品数据已加载，重新匹配Spinner选中状态
-                            if (editItem != null) {
-                                setSpinnerSelection(spEditCategory, editItem.getCategory(), categoryAdapter);
-                                setSpinnerSelection(spEditSubCategory, editItem.getSubCategory(), subCategoryAdapter);
-                                setSpinnerSelection(spEditLocation, editItem.getLocation(), locationAdapter);
-                            }
-                        }
-                    }
-                }) {
-            @Override
-            protected Void doInBackground(Void... voids) {
-                // 子线程执行数据库查询，不阻塞主线程
-                AppDatabase db = AppDatabase.getInstance(mContext);
-
-                // 1. 加载分类
-                categoryList.clear();
-                List<Category> dbCategories = db.categoryDao().queryAllCategories();
-                if (dbCategories != null && !dbCategories.isEmpty()) {
-                    categoryList.addAll(dbCategories);
-                } else {
-                    // 兜底默认分类
-                    for (String name : defaultCategories) {
-                        categoryList.add(new Category(name));
-                    }
-                }
-
-                // 2. 加载所有子分类（用于联动筛选）
-                subCategoryList.clear();
-                List<SubCategory> dbSubCategories = db.subCategoryDao().queryAllSubCategories();
-                if (dbSubCategories != null && !dbSubCategories.isEmpty()) {
-                    subCategoryList.addAll(dbSubCategories);
-                } else {
-                    // 兜底默认子分类
-                    if (!categoryList.isEmpty()) {
-                        Category defaultParent = categoryList.get(0);
-                        for (String name : defaultSubCategories) {
-                            subCategoryList.add(new SubCategory(name, defaultParent.getId(), defaultParent.getCategoryName()));
-                        }
-                    }
-                }
-
-                // 3. 加载存放位置
-                storageLocationList.clear();
-                List<StorageLocation> dbLocations = db.storageLocationDao().queryAllStorageLocations();
-                if (dbLocations != null && !dbLocations.isEmpty()) {
-                    storageLocationList.addAll(dbLocations);
-                } else {
-                    // 兜底默认位置
-                    for (String name : defaultLocations) {
-                        storageLocationList.add(new StorageLocation(name));
-                    }
-                }
-                return null;
+    private void applyTaxonomy(TaxonomySnapshot snapshot) {
+        if (snapshot == taxonomy) {
+            return;
+        }
+        taxonomy = snapshot;
+        refreshCategorySpinner();
+        refreshLocationSpinner();
+
+        // 初始化子分类（默认选中第一个分类的子分类）
+        if (!taxonomy.categories.isEmpty()) {
+            refreshSubCategoryByParentId(taxonomy.categories.get(0).getId());
+
+            // 若物品数据已加载，重新匹配Spinner选中状态
+            if (editItem != null) {
+                setSpinnerSelection(spEditCategory, editItem.getCategoryName(), categoryAdapter);
+                setSpinnerSelection(spEditSubCategory, editItem.getSubCategoryName(), subCategoryAdapter);
+                setSpinnerSelection(spEditLocation, editItem.getLocationName(), locationAdapter);
             }
-        }.execute();
+        }
     }
 
     /**
@@ -256,7 +212,7 @@ public class ItemEditActivity extends AppCompatActivity {
      */
     private void refreshCategorySpinner() {
         categoryAdapter.clear();
-        for (Category c : categoryList) {
+        for (Category c : taxonomy.categories) {
             categoryAdapter.add(c.getCategoryName());
         }
         categoryAdapter.notifyDataSetChanged();
@@ -267,16 +223,14 @@ public class ItemEditActivity extends AppCompatActivity {
      */
     private void refreshSubCategoryByParentId(int parentCategoryId) {
         subCategoryAdapter.clear();
-        for (SubCategory sc : subCategoryList) {
-            if (sc.getParentCategoryId() == parentCategoryId) {
-                subCategoryAdapter.add(sc.getSubCategoryName());
-            }
+        for (SubCategory sc : taxonomy.subCategoriesOf(parentCategoryId)) {
+            subCategoryAdapter.add(sc.getSubCategoryName());
         }
         subCategoryAdapter.notifyDataSetChanged();
 
         // 若无子分类，添加兜底选项
         if (subCategoryAdapter.getCount() == 0) {
-            subCategoryAdapter.add("暂无子分类");
+            subCategoryAdapter.add(AppDatabase.NO_SUB_CATEGORY);
             subCategoryAdapter.notifyDataSetChanged();
         }
     }
@@ -286,7 +240,7 @@ public class ItemEditActivity extends AppCompatActivity {
      */
     private void refreshLocationSpinner() {
         locationAdapter.clear();
-        for (StorageLocation l : storageLocationList) {
+        for (StorageLocation l : taxonomy.locations) {
             locationAdapter.add(l.getLocationName());
         }
         locationAdapter.notifyDataSetChanged();
@@ -296,10 +250,10 @@ public class ItemEditActivity extends AppCompatActivity {
      * 原有逻辑：异步加载要编辑的物品数据并填充到控件，新增：加载物品图片
      */
     private void loadItemDataAsync() {
-        new DbAsyncTask<Void, Void, Item>(getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<Item>() {
+        new DbAsyncTask<Void, Void, ItemDetail>(getApplicationContext(), ItemEditActivity.this, DbExecutor.Priority.UI_READ,
+                new DbAsyncTask.OnDbOperationListener<ItemDetail>() {
                     @Override
-                    public void onDbOperationCompleted(Item resultItem) {
+                    public void onDbOperationCompleted(ItemDetail resultItem) {
                         // 主线程处理物品数据并填充控件
                         editItem = resultItem;
 
@@ -312,66 +266,70 @@ public class ItemEditActivity extends AppCompatActivity {
 
                         // 填充数据到控件（原有逻辑，保持不变）
                         etEditName.setText(editItem.getItemName() == null ? "" : editItem.getItemName());
-                        etEditCount.setText(editItem.getItemCount() == null ? "" : editItem.getItemCount());
-                        etEditValidDate.setText(editItem.getValidDate() == null ? "" : editItem.getValidDate());
+                        etEditCount.setText(editItem.getQuantity() == null ? "" : String.valueOf(editItem.getQuantity()));
+                        etEditUnit.setText(editItem.getUnit());
+                        etEditLowStock.setText(editItem.getLowStockThreshold() == null ? "" : String.valueOf(editItem.getLowStockThreshold()));
+                        etEditValidDate.setText(editItem.getValidDateText());
                         etEditDesc.setText(editItem.getDescription() == null ? "" : editItem.getDescription());
 
                         // 设置Spinner选中状态（原有逻辑，保持不变）
-                        setSpinnerSelection(spEditCategory, editItem.getCategory(), categoryAdapter);
-                        setSpinnerSelection(spEditSubCategory, editItem.getSubCategory(), subCategoryAdapter);
-                        setSpinnerSelection(spEditLocation, editItem.getLocation(), locationAdapter);
+                        setSpinnerSelection(spEditCategory, editItem.getCategoryName(), categoryAdapter);
+                        setSpinnerSelection(spEditSubCategory, editItem.getSubCategoryName(), subCategoryAdapter);
+                        setSpinnerSelection(spEditLocation, editItem.getLocationName(), locationAdapter);
 
                         // 新增：加载当前物品的已保存图片路径并展示
                         loadItemImagesAsync();
                     }
                 }) {
             @Override
-            protected Item doInBackground(Void... voids) {
-                // 子线程执行数据库查询
+            protected ItemDetail doInBackground(Void... voids) {
+                // 子线程执行数据库查询（带分类/子分类/位置名称，用于回显下拉列表）
                 AppDatabase db = AppDatabase.getInstance(mContext);
-                return db.itemDao().queryItemById(itemId);
+                return db.itemDao().queryItemDetailById(itemId);
             }
         }.execute();
     }
 
     /**
-     * 新增：异步加载物品图片路径并展示图片
+     * 新增：异步加载物品图片记录（含缩略图路径）并展示图片
      */
     private void loadItemImagesAsync() {
-        new DbAsyncTask<Void, Void, List<String>>(getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<List<String>>() {
+        new DbAsyncTask<Void, Void, List<ItemImage>>(getApplicationContext(), ItemEditActivity.this, DbExecutor.Priority.UI_READ,
+                new DbAsyncTask.OnDbOperationListener<List<ItemImage>>() {
                     @Override
-                    public void onDbOperationCompleted(List<String> resultPaths) {
+                    public void onDbOperationCompleted(List<ItemImage> resultImages) {
                         // 主线程更新图片列表并展示
-                        if (resultPaths != null && !resultPaths.isEmpty()) {
+                        if (resultImages != null && !resultImages.isEmpty()) {
+                            savedImages = resultImages;
                             imagePathList.clear();
-                            imagePathList.addAll(resultPaths);
+                            for (ItemImage image : resultImages) {
+                                imagePathList.add(image.getImagePath());
+                            }
                             // 加载并展示所有已保存的图片
-                            loadAndShowSavedImages();
+                            loadAndShowSavedImages(resultImages);
                         }
                     }
                 }) {
             @Override
-            protected List<String> doInBackground(Void... voids) {
-                // 子线程查询当前物品的所有图片路径（需根据你的数据库设计调整，此处为示例）
+            protected List<ItemImage> doInBackground(Void... voids) {
+                // 子线程查询当前物品的所有图片记录
                 AppDatabase db = AppDatabase.getInstance(mContext);
-                // 假设你有ItemImageDao，用于查询物品关联的图片路径
-                // 请根据你的实际数据库表结构修改此方法
-                return db.itemImageDao().queryImagePathsByItemId(itemId);
+                return db.itemImageDao().queryImagesByItemId(itemId);
             }
         }.execute();
     }
 
     /**
-     * 新增：加载并展示所有已保存的图片
+     * 新增：加载并展示所有已保存的图片（有缩略图的直接加载缩略图，旧数据没有缩略图的在后台补生成）
      */
-    private void loadAndShowSavedImages() {
+    private void loadAndShowSavedImages(List<ItemImage> images) {
         // 先清空图片容器，避免重复展示
         llImageContainer.removeAllViews();
-        // 遍历图片路径列表，逐个添加预览
-        if (imagePathList != null && !imagePathList.isEmpty()) {
-            for (String imagePath : imagePathList) {
-                addImageToContainer(imagePath);
+        for (ItemImage image : images) {
+            if (image.getThumbSmallPath() != null) {
+                loadPreview(addPreviewView(), ThumbnailStore.choosePath(image, PREVIEW_SIZE), image.getImagePath());
+            } else {
+                addImageToContainer(image.getImagePath());
             }
         }
     }
@@ -431,6 +389,23 @@ public class ItemEditActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * 照片转码进度：显示处理进度，积压过多时暂停添加新照片
+     */
+    private void observePhotoProgress() {
+        PhotoTranscoder.getInstance().getProgress().observe(this, progress -> {
+            if (progress.isIdle()) {
+                tvPhotoProgress.setVisibility(View.GONE);
+            } else {
+                tvPhotoProgress.setVisibility(View.VISIBLE);
+                tvPhotoProgress.setText(progress.isSaturated()
+                        ? "照片处理中 " + progress.finished + "/" + progress.total + "，请稍候再添加"
+                        : "照片处理中 " + progress.finished + "/" + progress.total);
+            }
+            btnAddImage.setEnabled(!progress.isSaturated());
+        });
+    }
+
     /**
      * 新增：弹出图片选择对话框
      */
@@ -478,22 +453,27 @@ public class ItemEditActivity extends AppCompatActivity {
                     if (cameraPath != null && !cameraPath.isEmpty()) {
                         // 添加到图片列表
                         imagePathList.add(cameraPath);
-                        // 预览图片
-                        addImageToContainer(cameraPath);
+                        // 预览图片（先转码再生成缩略图）
+                        addImageToContainer(cameraPath, true);
                         // 重置当前照片路径
                         ImageUtils.currentPhotoPath = null;
                     }
                     break;
                 case REQUEST_CODE_GALLERY:
-                    // 图库选择返回：获取图片Uri并转换为路径
+                    // 图库选择返回：通过 ContentResolver 复制到应用存储（按内容去重）
                     if (data != null && data.getData() != null) {
                         Uri imageUri = data.getData();
-                        // 简单转换为路径（实际项目可优化为获取真实路径）
-                        String galleryPath = getImagePathFromUri(imageUri);
-                        if (galleryPath != null && !galleryPath.isEmpty()) {
-                            imagePathList.add(galleryPath);
-                            addImageToContainer(galleryPath);
-                        }
+                        ImageStore.importAsync(this, imageUri, (uri, image) -> {
+                            if (isDestroyed()) {
+                                return;
+                            }
+                            if (image == null) {
+                                Toast.makeText(ItemEditActivity.this, "无法读取所选图片！", Toast.LENGTH_SHORT).show();
+                                return;
+                            }
+                            imagePathList.add(image.path);
+                            addImageToContainer(image.path);
+                        });
                     }
                     break;
             }
@@ -501,36 +481,68 @@ public class ItemEditActivity extends AppCompatActivity {
     }
 
     /**
-     * 新增：向容器中添加图片预览
-     * @param imagePath 图片路径
+     * 新增：向容器中添加图片预览（先显示占位图，后台生成缩略图后加载缩略图，不在主线程解码原图）
+     * @param imagePath 原图路径
      */
     private void addImageToContainer(String imagePath) {
-        // 创建ImageView用于预览图片
+        addImageToContainer(imagePath, false);
+    }
+
+    /**
+     * @param fromCamera true=应用自己拍摄的照片，先转码（缩小、摆正）替换原文件，再生成缩略图
+     */
+    private void addImageToContainer(String imagePath, boolean fromCamera) {
+        ImageView imageView = addPreviewView();
+        if (fromCamera) {
+            PhotoTranscoder.getInstance().transcodeAsync(imagePath, (path, success) -> loadThumbnail(imageView, path));
+        } else {
+            loadThumbnail(imageView, imagePath);
+        }
+    }
+
+    /**
+     * 生成缩略图并加载到预览控件
+     */
+    private void loadThumbnail(ImageView imageView, String imagePath) {
+        ThumbnailStore.generateAsync(this, imagePath, (originalPath, thumbnails) -> {
+            // 页面已关闭或预览已清空时不再加载
+            if (isDestroyed() || imageView.getParent() == null) {
+                return;
+            }
+            loadPreview(imageView, thumbnails == null ? originalPath : thumbnails.smallPath, originalPath);
+        });
+    }
+
+    /**
+     * 创建预览用的 ImageView 并添加到容器
+     */
+    private ImageView addPreviewView() {
         ImageView imageView = new ImageView(this);
         // 设置图片参数（自适应大小，避免变形）
         LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                200, // 宽度
-                200, // 高度
+                PREVIEW_SIZE, // 宽度
+                PREVIEW_SIZE, // 高度
                 1.0f
         );
         params.setMargins(10, 10, 10, 10);
         imageView.setLayoutParams(params);
         imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
-        // 加载图片
-        Bitmap bitmap = BitmapFactory.decodeFile(imagePath);
-        if (bitmap != null) {
-            imageView.setImageBitmap(bitmap);
-        }
-        // 添加到容器
+        imageView.setImageResource(android.R.drawable.ic_menu_gallery);
         llImageContainer.addView(imageView);
+        return imageView;
     }
 
     /**
-     * 新增：从Uri获取图片路径（简化版，适配大部分设备）
+     * 加载预览图（Glide 在后台解码并按控件尺寸采样）；缩略图文件丢失时回退到原图
      */
-    private String getImagePathFromUri(Uri uri) {
-        return uri.getPath();
-        // 实际项目中可扩展为：通过ContentResolver获取真实文件路径
+    private void loadPreview(ImageView imageView, String path, String originalPath) {
+        Glide.with(this)
+                .load(new File(path))
+                .placeholder(android.R.drawable.ic_menu_gallery)
+                .error(Glide.with(this)
+                        .load(new File(originalPath))
+                        .error(android.R.drawable.ic_menu_report_image))
+                .into(imageView);
     }
 
     /**
@@ -543,6 +555,8 @@ public class ItemEditActivity extends AppCompatActivity {
             String newCategory = spEditCategory.getSelectedItem() != null ? spEditCategory.getSelectedItem().toString() : "";
             String newSubCategory = spEditSubCategory.getSelectedItem() != null ? spEditSubCategory.getSelectedItem().toString() : "";
             String newCount = etEditCount.getText() != null ? etEditCount.getText().toString().trim() : "";
+            String newUnit = etEditUnit.getText() != null ? etEditUnit.getText().toString().trim() : "";
+            String newLowStock = etEditLowStock.getText() != null ? etEditLowStock.getText().toString().trim() : "";
             String newLocation = spEditLocation.getSelectedItem() != null ? spEditLocation.getSelectedItem().toString() : "";
             String newValidDate = etEditValidDate.getText() != null ? etEditValidDate.getText().toString().trim() : "";
             String newDesc = etEditDesc.getText() != null ? etEditDesc.getText().toString().trim() : "";
@@ -552,6 +566,15 @@ public class ItemEditActivity extends AppCompatActivity {
                 Toast.makeText(ItemEditActivity.this, "物品名称不能为空！", Toast.LENGTH_SHORT).show();
                 return;
             }
+            Integer newQuantity;
+            Integer newThreshold;
+            try {
+                newQuantity = Item.parseQuantity(newCount);
+                newThreshold = Item.parseQuantity(newLowStock);
+            } catch (NumberFormatException e) {
+                Toast.makeText(ItemEditActivity.this, "数量和低库存提醒需为非负整数！", Toast.LENGTH_SHORT).show();
+                return;
+            }
 
             // 3. 校验编辑物品对象有效性
             if (editItem == null) {
@@ -561,20 +584,25 @@ public class ItemEditActivity extends AppCompatActivity {
 
             // 4. 更新物品对象（原有逻辑，保持不变）
             editItem.setItemName(newName);
-            editItem.setCategory(newCategory);
-            editItem.setSubCategory(newSubCategory);
-            editItem.setItemCount(newCount);
-            editItem.setLocation(newLocation);
-            editItem.setValidDate(newValidDate);
+            editItem.setCategoryName(newCategory);
+            editItem.setSubCategoryName(newSubCategory);
+            editItem.setQuantity(newQuantity);
+            editItem.setUnit(newUnit);
+            editItem.setLowStockThreshold(newThreshold);
+            editItem.setLocationName(newLocation);
+            editItem.setValidDateText(newValidDate);
             editItem.setDescription(newDesc);
 
-            // 5. 异步更新数据库（原有逻辑，保持不变）
-            new DbAsyncTask<Item, Void, Boolean>(ItemEditActivity.this, new DbAsyncTask.OnDbOperationListener<Boolean>() {
+            // 复制一份：保存过程中仍可能继续添加图片
+            List<String> paths = new ArrayList<>(imagePathList);
+            List<ItemImage> knownImages = savedImages;
+
+            // 5. 异步更新数据库（物品和图片一起保存）
+            new DbAsyncTask<ItemDetail, Void, Boolean>(ItemEditActivity.this, ItemEditActivity.this, DbExecutor.Priority.WRITE, new DbAsyncTask.OnDbOperationListener<Boolean>() {
                 @Override
                 public void onDbOperationCompleted(Boolean isSuccess) {
                     // 主线程更新UI（提示结果+关闭页面）
                     if (isSuccess) {
-                        // 可选：此处可添加图片路径的保存逻辑（将imagePathList同步到数据库）
                         Toast.makeText(ItemEditActivity.this, "修改保存成功！", Toast.LENGTH_SHORT).show();
                         finish(); // 保存成功后返回上一级页面
                     } else {
@@ -583,15 +611,36 @@ public class ItemEditActivity extends AppCompatActivity {
                 }
             }) {
                 @Override
-                protected Boolean doInBackground(Item... items) {
+                protected Boolean doInBackground(ItemDetail... items) {
                     // 子线程执行数据库更新操作
                     try {
                         if (items == null || items.length == 0) {
                             return false;
                         }
-                        Item itemToUpdate = items[0];
+                        ItemDetail itemToUpdate = items[0];
                         AppDatabase db = AppDatabase.getInstance(mContext);
-                        db.itemDao().updateItem(itemToUpdate);
+                        // 已保存的图片沿用原记录，新添加的在事务外准备好记录
+                        List<ItemImage> itemImages = new ArrayList<>(paths.size());
+                        for (String path : paths) {
+                            ItemImage known = null;
+                            for (ItemImage image : knownImages) {
+                                if (path.equals(image.getImagePath())) {
+                                    known = image;
+                                    break;
+                                }
+                            }
+                            itemImages.add(known != null ? known : ImageStore.newItemImage(mContext, path));
+                        }
+                        // 名称换算为ID、更新物品、同步图片在同一事务中
+                        TaxonomyResolver resolver = new TaxonomyResolver(db);
+                        db.runInTransaction(() -> {
+                            resolver.assign(itemToUpdate, itemToUpdate.getCategoryName(),
+                                    itemToUpdate.getSubCategoryName(), itemToUpdate.getLocationName());
+                            db.itemDao().updateItemWithImages(itemToUpdate, itemImages);
+                        });
+                        if (resolver.hasCreatedRows()) {
+                            TaxonomyRepository.getInstance(mContext).reload();
+                        }
                         return true; // 更新成功返回true
                     } catch (Exception e) {
                         e.printStackTrace();
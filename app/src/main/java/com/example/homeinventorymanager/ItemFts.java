@@ -0,0 +1,80 @@
+package com.example.homeinventorymanager;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * 物品全文检索表（FTS4，自带内容）
+ * item 表只保存分类/子分类/位置的ID，检索用的名称保存在本表中，由 AppDatabase.createItemFtsTriggers 创建的触发器维护：
+ * 增删改物品时写入联表得到的名称，分类/子分类/位置改名时更新引用它的行，无需手动维护
+ * 使用 ICU 分词器：按词切分中文（如"牛奶饮料" -> "牛奶"、"饮料"），英文/数字按单词切分
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_ICU)
+@Entity(tableName = "item_fts")
+public class ItemFts {
+    // FTS 表的 rowid（docid）与 item.id 一致
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowid;
+
+    private String itemName; // 物品名称
+    private String description; // 描述
+    private String category; // 分类名称
+    private String subCategory; // 子分类名称
+    private String location; // 存放位置名称
+
+    public ItemFts() {
+    }
+
+    // getter & setter
+    public long getRowid() {
+        return rowid;
+    }
+
+    public void setRowid(long rowid) {
+        this.rowid = rowid;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getSubCategory() {
+        return subCategory;
+    }
+
+    public void setSubCategory(String subCategory) {
+        this.subCategory = subCategory;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+}
@@ -1,18 +1,19 @@
 package com.example.homeinventorymanager;
 
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.BaseAdapter;
-import android.widget.ListView;
 import android.widget.TextView;
-import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,9 +21,11 @@ import java.util.List;
  */
 public class ItemModifyFragment extends Fragment {
 
-    private ListView lvModifyList;
-    private List<Item> itemList; // 所有物品列表
-    private ItemModifyAdapter itemAdapter;
+    private RecyclerView rvModifyList;
+    private LinearLayoutManager layoutManager;
+    private ItemModifyAdapter itemAdapter; // 持有当前分页窗口内的物品列表
+    private ItemPager itemPager; // 分页加载器（内存只保留固定页数）
+    private boolean reloadWhenShown = false; // 页面隐藏期间物品表有变化，显示时再刷新
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
@@ -31,122 +34,170 @@ public class ItemModifyFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_item_modify, container, false);
 
         // 初始化控件
-        lvModifyList = view.findViewById(R.id.lv_modify_list);
-
-        // 初始化数据列表和适配器
-        itemList = new ArrayList<>();
-        itemAdapter = new ItemModifyAdapter();
-        lvModifyList.setAdapter(itemAdapter);
-
-        // 异步加载所有物品
-        loadAllItemsAsync();
+        rvModifyList = view.findViewById(R.id.rv_modify_list);
+        layoutManager = new LinearLayoutManager(requireActivity());
+        // 视图销毁时把行视图归还到共享缓存池，切换回来时直接复用
+        layoutManager.setRecycleChildrenOnDetach(true);
+        rvModifyList.setLayoutManager(layoutManager);
+        if (requireActivity() instanceof MainActivity) {
+            rvModifyList.setRecycledViewPool(((MainActivity) requireActivity()).getItemViewPool());
+        }
 
-        // 绑定列表点击事件（跳转编辑页面）
-        bindListViewClickListener();
+        // 初始化适配器（点击跳转编辑页面）
+        itemAdapter = new ItemModifyAdapter(this::openItemEdit);
+        rvModifyList.setAdapter(itemAdapter);
+
+        // 初始化分页加载并加载第一页
+        initItemPager();
+        itemPager.refresh();
+
+        // 物品表有变化（如在编辑页面保存）时才重新加载当前窗口，回到页面时不再无条件重新查询
+        // 切换到其他标签页期间的变化，在切换回来时合并为一次刷新
+        AppDatabase.getInstance(requireActivity().getApplicationContext())
+                .observeTables("item")
+                .observe(getViewLifecycleOwner(), version -> {
+                    if (isHidden()) {
+                        reloadWhenShown = true;
+                    } else {
+                        itemPager.reload();
+                    }
+                });
 
         return view;
     }
 
     /**
-     * 异步加载所有物品（避免主线程阻塞）
+     * 切换回本标签页：隐藏期间物品表有变化时才刷新，否则直接显示已加载的列表
      */
-    private void loadAllItemsAsync() {
-        new DbAsyncTask<Void, Void, List<Item>>(requireActivity().getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<List<Item>>() {
-                    @Override
-                    public void onDbOperationCompleted(List<Item> result) {
-                        // 刷新列表
-                        itemList.clear();
-                        if (result != null && !result.isEmpty()) {
-                            itemList.addAll(result);
-                        }
-                        itemAdapter.notifyDataSetChanged();
-                    }
-                }) {
-            @Override
-            protected List<Item> doInBackground(Void... voids) {
-                // 子线程查询所有物品
-                AppDatabase db = AppDatabase.getInstance(mContext);
-                return db.itemDao().queryAllItems(); // 确保ItemDao中有该查询方法
-            }
-        }.execute();
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (!hidden && reloadWhenShown && itemPager != null) {
+            reloadWhenShown = false;
+            itemPager.reload();
+        }
     }
 
     /**
-     * 绑定列表点击事件，跳转ItemEditActivity
+     * 初始化分页加载器（键集分页，滚动到窗口边缘时异步加载相邻页，避免一次加载全部物品）
      */
-    private void bindListViewClickListener() {
-        lvModifyList.setOnItemClickListener((parent, view, position, id) -> {
-            // 空安全判断
-            if (position < 0 || position >= itemList.size()) {
-                Toast.makeText(requireActivity(), "获取物品失败！", Toast.LENGTH_SHORT).show();
-                return;
+    private void initItemPager() {
+        final Context appContext = requireActivity().getApplicationContext();
+        itemPager = new ItemPager(getViewLifecycleOwner(), new ItemPager.PageLoader() {
+            @Override
+            public List<ItemDetail> loadBefore(long beforeId, int limit) {
+                return AppDatabase.getInstance(appContext).itemDao()
+                        .queryItemsPageBefore(null, null, beforeId, limit);
             }
-            Item selectedItem = itemList.get(position);
-            if (selectedItem == null) {
-                Toast.makeText(requireActivity(), "获取物品失败！", Toast.LENGTH_SHORT).show();
-                return;
+
+            @Override
+            public List<ItemDetail> loadAfter(long afterId, int limit) {
+                return AppDatabase.getInstance(appContext).itemDao()
+                        .queryItemsPageAfter(null, null, afterId, limit);
+            }
+        }, (items, reset) -> {
+            // 提交新列表：后台计算差异，只刷新变化的行，可见行保持不动
+            if (reset) {
+                itemAdapter.submitList(items, () -> rvModifyList.scrollToPosition(0));
+            } else {
+                itemAdapter.submitList(items);
             }
+        });
 
-            // 跳转编辑页面，传递物品ID（和ItemQueryFragment一致）
-            Intent intent = new Intent(requireActivity(), ItemEditActivity.class);
-            intent.putExtra("ITEM_ID", selectedItem.getId());
-            startActivity(intent);
+        rvModifyList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int firstVisible = layoutManager.findFirstVisibleItemPosition();
+                if (firstVisible != RecyclerView.NO_POSITION) {
+                    itemPager.onScrolled(firstVisible, layoutManager.getChildCount());
+                }
+            }
         });
     }
 
     /**
-     * 自定义适配器：展示物品名称
+     * 点击物品，跳转ItemEditActivity
      */
-    private class ItemModifyAdapter extends BaseAdapter {
+    private void openItemEdit(ItemDetail selectedItem) {
+        // 跳转编辑页面，传递物品ID（和ItemQueryFragment一致）
+        Intent intent = new Intent(requireActivity(), ItemEditActivity.class);
+        intent.putExtra("ITEM_ID", selectedItem.getId());
+        startActivity(intent);
+    }
 
-        @Override
-        public int getCount() {
-            return itemList.size();
+    /**
+     * 列表行点击回调
+     */
+    interface OnItemClickListener {
+        void onItemClick(ItemDetail item);
+    }
+
+    /**
+     * 自定义适配器：展示物品名称（差异刷新 + 稳定ID，ViewHolder 不持有 Fragment 引用，可放入共享缓存池）
+     */
+    static class ItemModifyAdapter extends ListAdapter<ItemDetail, ItemModifyAdapter.ViewHolder> {
+
+        // 以行布局作为视图类型，共享缓存池中不会与其他列表混用
+        private static final int VIEW_TYPE = android.R.layout.simple_list_item_1;
+
+        private final OnItemClickListener clickListener;
+
+        ItemModifyAdapter(OnItemClickListener clickListener) {
+            super(ItemDiffCallback.INSTANCE);
+            this.clickListener = clickListener;
+            setHasStableIds(true);
         }
 
         @Override
-        public Object getItem(int position) {
-            return itemList.get(position);
+        public long getItemId(int position) {
+            return getItem(position).getId();
         }
 
         @Override
-        public long getItemId(int position) {
-            return position;
+        public int getItemViewType(int position) {
+            return VIEW_TYPE;
         }
 
+        @NonNull
         @Override
-        public View getView(int position, View convertView, ViewGroup parent) {
-            ViewHolder viewHolder;
-            if (convertView == null) {
-                convertView = LayoutInflater.from(parent.getContext()).inflate(
-                        android.R.layout.simple_list_item_1, parent, false);
-                viewHolder = new ViewHolder();
-                viewHolder.tvItemName = convertView.findViewById(android.R.id.text1);
-                convertView.setTag(viewHolder);
-            } else {
-                viewHolder = (ViewHolder) convertView.getTag();
-            }
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(VIEW_TYPE, parent, false);
+            return new ViewHolder(view);
+        }
 
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder viewHolder, int position) {
             // 填充数据
-            Item item = itemList.get(position);
+            ItemDetail item = getItem(position);
             String itemName = item.getItemName() == null ? "未命名物品" : item.getItemName();
             viewHolder.tvItemName.setText(itemName);
-
-            return convertView;
         }
 
-        class ViewHolder {
-            TextView tvItemName;
+        /**
+         * 分发点击事件（位置失效时忽略，避免越界）
+         */
+        void dispatchClick(int position) {
+            if (position == RecyclerView.NO_POSITION || position >= getItemCount()) {
+                return;
+            }
+            ItemDetail item = getItem(position);
+            if (item != null) {
+                clickListener.onItemClick(item);
+            }
         }
-    }
 
-    /**
-     * 页面恢复时刷新列表（确保返回后数据最新）
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        loadAllItemsAsync();
+        static class ViewHolder extends RecyclerView.ViewHolder {
+            final TextView tvItemName;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                tvItemName = itemView.findViewById(android.R.id.text1);
+                itemView.setOnClickListener(v -> {
+                    if (getBindingAdapter() instanceof ItemModifyAdapter) {
+                        ((ItemModifyAdapter) getBindingAdapter()).dispatchClick(getBindingAdapterPosition());
+                    }
+                });
+            }
+        }
     }
 }
\ No newline at end of file
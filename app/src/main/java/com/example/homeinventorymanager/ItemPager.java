@@ -0,0 +1,251 @@
+package com.example.homeinventorymanager;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * 物品列表分页加载器（键集分页 + 固定页数窗口）
+ * 列表按 id 倒序展示：向下滚动加载更旧的一页，向上滚动时重新加载之前被移出窗口的较新数据
+ * 内存中最多保留 maxPages 页，超过后丢弃离可见区域最远的一页，内存占用与物品总数无关
+ */
+public class ItemPager {
+
+    /**
+     * 分页数据源（在数据库线程中调用）
+     */
+    public interface PageLoader {
+        // 加载 id 小于 beforeId 的一页，按 id 倒序
+        List<ItemDetail> loadBefore(long beforeId, int limit);
+
+        // 加载 id 大于 afterId 的一页，按 id 升序
+        List<ItemDetail> loadAfter(long afterId, int limit);
+    }
+
+    /**
+     * 数据变化回调（主线程）
+     */
+    public interface Listener {
+        /**
+         * @param items 当前窗口内全部物品的快照（按 id 倒序，每次回调都是新的列表，可直接交给 ListAdapter）
+         * @param reset true=重新查询，列表应回到顶部
+         */
+        void onItemsChanged(List<ItemDetail> items, boolean reset);
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGES = 5;
+    // 距离窗口边缘多少行时开始预加载
+    private static final int PREFETCH_DISTANCE = 15;
+
+    @Nullable
+    private final LifecycleOwner lifecycleOwner;
+    private final PageLoader loader;
+    private final Listener listener;
+    private final int pageSize;
+    private final int maxPages;
+
+    private final ArrayDeque<List<ItemDetail>> pages = new ArrayDeque<>();
+    private final List<ItemDetail> items = new ArrayList<>();
+    // 同一时间只允许一个加载任务，保证窗口内的页始终连续
+    private boolean loading = false;
+    // 窗口尾部已是最旧的数据
+    private boolean reachedEnd = false;
+    // 窗口头部已是最新的数据
+    private boolean reachedStart = true;
+    // 每次重新查询递增，丢弃过期的加载结果
+    private int generation = 0;
+
+    public ItemPager(@Nullable LifecycleOwner lifecycleOwner, PageLoader loader, Listener listener) {
+        this(lifecycleOwner, loader, listener, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public ItemPager(@Nullable LifecycleOwner lifecycleOwner, PageLoader loader, Listener listener,
+                     int pageSize, int maxPages) {
+        this.lifecycleOwner = lifecycleOwner;
+        this.loader = loader;
+        this.listener = listener;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+    }
+
+    /**
+     * 重新查询：清空窗口，从最新的一页开始加载
+     */
+    public void refresh() {
+        final int gen = ++generation;
+        load(gen, () -> loader.loadBefore(Long.MAX_VALUE, pageSize), result -> {
+            pages.clear();
+            List<ItemDetail> page = nonNull(result);
+            if (!page.isEmpty()) {
+                pages.addLast(page);
+            }
+            reachedEnd = page.size() < pageSize;
+            reachedStart = true;
+            rebuildItems();
+            listener.onItemsChanged(snapshot(), true);
+        });
+    }
+
+    /**
+     * 原地重新加载当前窗口（数据可能已被修改），尽量保持滚动位置
+     */
+    public void reload() {
+        if (items.isEmpty()) {
+            refresh();
+            return;
+        }
+        final int gen = ++generation;
+        final long oldHeadId = items.get(0).getId();
+        final int windowSize = Math.max(items.size(), pageSize);
+        final long beforeId = reachedStart ? Long.MAX_VALUE : oldHeadId + 1;
+        load(gen, () -> loader.loadBefore(beforeId, windowSize), result -> {
+            List<ItemDetail> window = nonNull(result);
+            pages.clear();
+            for (int start = 0; start < window.size(); start += pageSize) {
+                pages.addLast(new ArrayList<>(window.subList(start, Math.min(window.size(), start + pageSize))));
+            }
+            reachedEnd = window.size() < windowSize;
+            rebuildItems();
+            listener.onItemsChanged(snapshot(), false);
+        });
+    }
+
+    /**
+     * 列表滚动时调用，接近窗口边缘时加载相邻的一页
+     * @param firstVisible 第一个可见行
+     * @param visibleCount 可见行数
+     */
+    public void onScrolled(int firstVisible, int visibleCount) {
+        if (loading || items.isEmpty()) {
+            return;
+        }
+        if (!reachedEnd && firstVisible + visibleCount >= items.size() - PREFETCH_DISTANCE) {
+            loadOlder();
+        } else if (!reachedStart && firstVisible <= PREFETCH_DISTANCE) {
+            loadNewer();
+        }
+    }
+
+    /**
+     * 从窗口中移除物品（删除成功后调用，无需重新查询）
+     */
+    public void remove(ItemDetail item) {
+        if (item == null) {
+            return;
+        }
+        for (Iterator<List<ItemDetail>> it = pages.iterator(); it.hasNext(); ) {
+            List<ItemDetail> page = it.next();
+            if (removeById(page, item.getId())) {
+                if (page.isEmpty()) {
+                    it.remove();
+                }
+                break;
+            }
+        }
+        rebuildItems();
+        listener.onItemsChanged(snapshot(), false);
+    }
+
+    public List<ItemDetail> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    private void loadOlder() {
+        final int gen = generation;
+        final long lastId = items.get(items.size() - 1).getId();
+        load(gen, () -> loader.loadBefore(lastId, pageSize), result -> {
+            List<ItemDetail> page = nonNull(result);
+            reachedEnd = page.size() < pageSize;
+            if (page.isEmpty()) {
+                return;
+            }
+            pages.addLast(page);
+            if (pages.size() > maxPages) {
+                pages.removeFirst();
+                reachedStart = false;
+            }
+            rebuildItems();
+            listener.onItemsChanged(snapshot(), false);
+        });
+    }
+
+    private void loadNewer() {
+        final int gen = generation;
+        final long firstId = items.get(0).getId();
+        load(gen, () -> loader.loadAfter(firstId, pageSize), result -> {
+            List<ItemDetail> page = new ArrayList<>(nonNull(result));
+            reachedStart = page.size() < pageSize;
+            if (page.isEmpty()) {
+                return;
+            }
+            // 数据源按升序返回，翻转为倒序后放到窗口头部
+            Collections.reverse(page);
+            pages.addFirst(page);
+            if (pages.size() > maxPages) {
+                pages.removeLast();
+                reachedEnd = false;
+            }
+            rebuildItems();
+            listener.onItemsChanged(snapshot(), false);
+        });
+    }
+
+    /**
+     * 在读池中执行一次加载，结果回到主线程；过期结果丢弃，出错时释放加载状态
+     */
+    private void load(int gen, Callable<List<ItemDetail>> work, Consumer<List<ItemDetail>> onLoaded) {
+        loading = true;
+        DbExecutor.getInstance().read(lifecycleOwner, work, new DbExecutor.Callback<List<ItemDetail>>() {
+            @Override
+            public void onResult(List<ItemDetail> result) {
+                if (gen != generation) {
+                    return;
+                }
+                loading = false;
+                onLoaded.accept(nonNull(result));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                error.printStackTrace();
+                if (gen == generation) {
+                    loading = false;
+                }
+            }
+        });
+    }
+
+    private void rebuildItems() {
+        items.clear();
+        for (List<ItemDetail> page : pages) {
+            items.addAll(page);
+        }
+    }
+
+    // 列表差异在后台线程计算，回调出去的必须是不再修改的副本
+    private List<ItemDetail> snapshot() {
+        return new ArrayList<>(items);
+    }
+
+    private static boolean removeById(List<ItemDetail> page, long id) {
+        for (int i = 0; i < page.size(); i++) {
+            if (page.get(i).getId() == id) {
+                page.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<ItemDetail> nonNull(List<ItemDetail> result) {
+        return result == null ? new ArrayList<>() : result;
+    }
+}
@@ -7,16 +7,21 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
-import android.widget.BaseAdapter;
-import android.widget.ListView;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.homeinventorymanager.bean.ItemImage;
 import com.example.homeinventorymanager.databinding.FragmentItemQueryBinding;
+import com.example.homeinventorymanager.utils.ImageStore;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,20 +34,27 @@ public class ItemQueryFragment extends Fragment {
 
     // 视图绑定对象
     private FragmentItemQueryBinding binding;
-    // 动态数据列表（移除原有固定数组）
-    private List<Category> categoryList;
-    private List<StorageLocation> storageLocationList;
+    // 分类/位置（共享缓存的不可变快照）
+    private TaxonomySnapshot taxonomy;
     // 动态适配器
     private ArrayAdapter<String> categoryAdapter;
     private ArrayAdapter<String> locationAdapter;
-    // 查询结果列表
-    private List<Item> queryResultList;
-    // 列表适配器
+    // 列表适配器（查询结果由适配器持有：getCurrentList()）
     private ItemListAdapter itemListAdapter;
-
-    // 兜底默认数据（无自定义数据时使用）
-    private String[] defaultCategories = {"全部", "食品", "日用品", "家电", "服饰", "其他"};
-    private String[] defaultLocations = {"全部", "冰箱", "厨房橱柜", "卫生间", "卧室衣柜", "客厅书架", "阳台", "其他"};
+    // 无关键词时的分页加载器（按分类/位置浏览）
+    private ItemPager itemPager;
+    // 当前是否处于分页浏览模式（false=关键词检索结果）
+    private boolean isBrowsing = false;
+    // 分页浏览的筛选条件：分类/位置ID，null=全部（在数据库线程中读取）
+    private volatile Integer browseCategoryId = null;
+    private volatile Integer browseLocationId = null;
+    // 最近一次关键词检索的条件（物品表变化时按原条件重新检索）
+    private SearchFilter lastSearch;
+    // 页面隐藏期间物品表有变化，显示时再刷新（多次变化合并为一次）
+    private boolean reloadWhenShown = false;
+
+    // 选中了兜底默认项：表中没有这条数据，也就没有物品引用它（按不存在的ID筛选，结果为空）
+    private static final int MISSING_ID = -1;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
@@ -50,38 +62,24 @@ public class ItemQueryFragment extends Fragment {
         // 初始化视图绑定
         binding = FragmentItemQueryBinding.inflate(inflater, container, false);
 
-        // 1. 初始化动态数据列表
-        initDynamicDataLists();
-
-        // 2. 初始化筛选下拉列表（动态加载，异步优化）
+        // 1. 初始化筛选下拉列表（从共享缓存填充）
         initSpinnerData();
 
-        // 3. 初始化结果列表适配器
-        initListViewAdapter();
+        // 2. 初始化结果列表（点击编辑、长按删除）
+        initResultList();
 
-        // 4. 绑定查询按钮点击事件
+        // 3. 绑定查询按钮点击事件
         bindQueryButtonClickListener();
 
-        // 5. 绑定 ListView 长按事件（异步删除功能）
-        bindListViewLongClickListener();
-
-        // 6. 绑定 ListView 点击事件（编辑功能）
-        bindListViewClickListener();
+        // 4. 首次加载全部物品，之后物品表有变化（含编辑页面的修改）时才重新加载
+        runQuery(new SearchFilter("", null, null), false);
+        observeItemChanges();
 
         return binding.getRoot();
     }
 
     /**
-     * 初始化动态数据列表
-     */
-    private void initDynamicDataLists() {
-        categoryList = new ArrayList<>();
-        storageLocationList = new ArrayList<>();
-        queryResultList = new ArrayList<>();
-    }
-
-    /**
-     * 初始化分类、位置筛选的下拉列表（核心：异步加载自定义数据，避免主线程阻塞）
+     * 初始化分类、位置筛选的下拉列表（从共享缓存同步填充，不查询数据库）
      */
     private void initSpinnerData() {
         // 1. 分类筛选 Spinner 适配器（动态）
@@ -102,87 +100,171 @@ public class ItemQueryFragment extends Fragment {
         locationAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         binding.spQueryLocation.setAdapter(locationAdapter);
 
-        // 3. 异步加载自定义筛选数据（核心修复：避免主线程阻塞）
-        loadCustomFilterDataFromDbAsync();
+        // 3. 先用当前快照填充，缓存更新（启动预加载完成、设置页增删）时重新填充
+        TaxonomyRepository repository = TaxonomyRepository.getInstance(requireActivity().getApplicationContext());
+        applyTaxonomy(repository.getSnapshot());
+        repository.observe().observe(getViewLifecycleOwner(), this::applyTaxonomy);
     }
 
     /**
-     * 异步加载自定义筛选数据（分类/位置）
+     * 用快照刷新分类、位置筛选列表（同一快照只刷新一次）
      */
-    private void loadCustomFilterDataFromDbAsync() {
-        new DbAsyncTask<Void, Void, Void>(requireActivity().getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<Void>() {
-                    @Override
-                    public void onDbOperationCompleted(Void aVoid) {
-                        // 主线程刷新Spinner适配器（UI操作必须在主线程）
-                        refreshFilterSpinnerData();
-                    }
-                }) {
-            @Override
-            protected Void doInBackground(Void... voids) {
-                // 子线程执行数据库查询，不阻塞主线程
-                AppDatabase db = AppDatabase.getInstance(mContext);
-
-                // 1. 加载分类数据
-                categoryList.clear();
-                List<Category> dbCategories = db.categoryDao().queryAllCategories();
-                if (dbCategories != null && !dbCategories.isEmpty()) {
-                    categoryList.addAll(dbCategories);
-                }
-
-                // 2. 加载位置数据
-                storageLocationList.clear();
-                List<StorageLocation> dbLocations = db.storageLocationDao().queryAllStorageLocations();
-                if (dbLocations != null && !dbLocations.isEmpty()) {
-                    storageLocationList.addAll(dbLocations);
-                }
-                return null;
-            }
-        }.execute();
+    private void applyTaxonomy(TaxonomySnapshot snapshot) {
+        if (snapshot == taxonomy) {
+            return;
+        }
+        taxonomy = snapshot;
+        refreshCategorySpinner();
+        refreshLocationSpinner();
     }
 
     /**
-     * 刷新筛选下拉列表数据（主线程执行）
+     * 刷新分类筛选列表（主线程执行，添加"全部"选项，保持原选中项）
      */
-    private void refreshFilterSpinnerData() {
-        // 1. 刷新分类筛选列表（添加"全部"选项）
+    private void refreshCategorySpinner() {
+        Object selected = binding.spQueryCategory.getSelectedItem();
         categoryAdapter.clear();
         categoryAdapter.add("全部"); // 查询专用：全部分类
-        if (!categoryList.isEmpty()) {
-            for (Category c : categoryList) {
-                categoryAdapter.add(c.getCategoryName());
-            }
-        } else {
-            // 兜底默认分类
-            for (String name : defaultCategories) {
-                categoryAdapter.add(name);
-            }
+        for (Category c : taxonomy.categories) {
+            categoryAdapter.add(c.getCategoryName());
         }
         categoryAdapter.notifyDataSetChanged();
+        restoreSelection(binding.spQueryCategory, categoryAdapter, selected);
+    }
 
-        // 2. 刷新位置筛选列表（添加"全部"选项）
+    /**
+     * 刷新位置筛选列表（主线程执行，添加"全部"选项，保持原选中项）
+     */
+    private void refreshLocationSpinner() {
+        Object selected = binding.spQueryLocation.getSelectedItem();
         locationAdapter.clear();
         locationAdapter.add("全部"); // 查询专用：全部位置
-        if (!storageLocationList.isEmpty()) {
-            for (StorageLocation l : storageLocationList) {
-                locationAdapter.add(l.getLocationName());
-            }
-        } else {
-            // 兜底默认位置
-            for (String name : defaultLocations) {
-                locationAdapter.add(name);
-            }
+        for (StorageLocation l : taxonomy.locations) {
+            locationAdapter.add(l.getLocationName());
         }
         locationAdapter.notifyDataSetChanged();
+        restoreSelection(binding.spQueryLocation, locationAdapter, selected);
+    }
+
+    /**
+     * 数据刷新后恢复下拉列表的选中项（选项已被删除时回到"全部"）
+     */
+    private void restoreSelection(Spinner spinner, ArrayAdapter<String> adapter, Object selected) {
+        int position = selected == null ? -1 : adapter.getPosition(selected.toString());
+        spinner.setSelection(Math.max(position, 0));
+    }
+
+    /**
+     * 监听物品表变化：分页浏览时原地重新加载当前窗口，关键词检索时按原条件重新检索
+     * 页面在后台（如正在编辑物品）或切换到其他标签页期间的多次修改，会在回到页面时合并为一次刷新
+     */
+    private void observeItemChanges() {
+        AppDatabase.getInstance(requireActivity().getApplicationContext())
+                .observeTables("item")
+                .observe(getViewLifecycleOwner(), version -> {
+                    if (isHidden()) {
+                        reloadWhenShown = true;
+                    } else {
+                        reloadResults();
+                    }
+                });
     }
 
     /**
-     * 初始化 ListView 适配器
+     * 按当前条件重新加载结果（保持滚动位置）
      */
-    private void initListViewAdapter() {
-        // 自定义适配器
-        itemListAdapter = new ItemListAdapter();
-        binding.lvQueryResult.setAdapter(itemListAdapter);
+    private void reloadResults() {
+        if (isBrowsing) {
+            itemPager.reload();
+        } else if (lastSearch != null) {
+            runQuery(lastSearch, false);
+        }
+    }
+
+    /**
+     * 切换回本标签页：隐藏期间物品表有变化时才刷新，否则直接显示已加载的结果
+     */
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (!hidden && reloadWhenShown && binding != null) {
+            reloadWhenShown = false;
+            reloadResults();
+        }
+    }
+
+    /**
+     * 初始化结果列表（RecyclerView + ListAdapter，数据变化时只刷新变化的行）
+     */
+    private void initResultList() {
+        RecyclerView recyclerView = binding.rvQueryResult;
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireActivity());
+        // 视图销毁时把行视图归还到共享缓存池，切换回来时直接复用
+        layoutManager.setRecycleChildrenOnDetach(true);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.addItemDecoration(new DividerItemDecoration(requireActivity(), DividerItemDecoration.VERTICAL));
+        if (requireActivity() instanceof MainActivity) {
+            recyclerView.setRecycledViewPool(((MainActivity) requireActivity()).getItemViewPool());
+        }
+
+        itemListAdapter = new ItemListAdapter(new OnItemActionListener() {
+            @Override
+            public void onItemClick(ItemDetail item) {
+                openItemEdit(item);
+            }
+
+            @Override
+            public void onItemLongClick(ItemDetail item) {
+                confirmDeleteItem(item);
+            }
+        });
+        recyclerView.setAdapter(itemListAdapter);
+
+        // 分页加载器：按 id 倒序键集分页，内存中只保留固定页数
+        final Context appContext = requireActivity().getApplicationContext();
+        itemPager = new ItemPager(getViewLifecycleOwner(), new ItemPager.PageLoader() {
+            @Override
+            public List<ItemDetail> loadBefore(long beforeId, int limit) {
+                return AppDatabase.getInstance(appContext).itemDao()
+                        .queryItemsPageBefore(browseCategoryId, browseLocationId, beforeId, limit);
+            }
+
+            @Override
+            public List<ItemDetail> loadAfter(long afterId, int limit) {
+                return AppDatabase.getInstance(appContext).itemDao()
+                        .queryItemsPageAfter(browseCategoryId, browseLocationId, afterId, limit);
+            }
+        }, this::onPagedItemsChanged);
+
+        // 滚动接近窗口边缘时加载相邻页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                int firstVisible = layoutManager.findFirstVisibleItemPosition();
+                if (isBrowsing && firstVisible != RecyclerView.NO_POSITION) {
+                    itemPager.onScrolled(firstVisible, layoutManager.getChildCount());
+                }
+            }
+        });
+    }
+
+    /**
+     * 分页数据变化（主线程）：提交新列表，差异计算在后台完成
+     * 稳定ID + DiffUtil 会保持可见行不动，窗口头部增删页时无需手动校正滚动位置
+     */
+    private void onPagedItemsChanged(List<ItemDetail> items, boolean reset) {
+        if (binding == null || !isBrowsing) {
+            return;
+        }
+        if (reset) {
+            itemListAdapter.submitList(items, () -> {
+                if (binding != null) {
+                    binding.rvQueryResult.scrollToPosition(0);
+                }
+            });
+        } else {
+            itemListAdapter.submitList(items);
+        }
     }
 
     /**
@@ -192,249 +274,293 @@ public class ItemQueryFragment extends Fragment {
         binding.btnQuery.setOnClickListener(v -> {
             // 空安全获取输入数据和选中值
             String nameKey = binding.etQueryName.getText() != null ? binding.etQueryName.getText().toString().trim() : "";
-            String selectedCategory = binding.spQueryCategory.getSelectedItem() != null ? binding.spQueryCategory.getSelectedItem().toString() : "全部";
-            String selectedLocation = binding.spQueryLocation.getSelectedItem() != null ? binding.spQueryLocation.getSelectedItem().toString() : "全部";
+            Integer categoryId = selectedCategoryId();
+            Integer locationId = selectedLocationId();
+            runQuery(new SearchFilter(nameKey, categoryId, locationId), true);
+        });
+    }
 
-            // 封装查询参数
-            String[] queryParams = {nameKey, selectedCategory, selectedLocation};
+    /**
+     * 分类筛选对应的分类ID（"全部"为 null）：下拉列表第 0 项为"全部"，之后与快照中的分类一一对应
+     */
+    private Integer selectedCategoryId() {
+        int position = binding.spQueryCategory.getSelectedItemPosition();
+        if (position <= 0) {
+            return null;
+        }
+        return position <= taxonomy.categories.size() ? savedIdOrMissing(taxonomy.categories.get(position - 1).getId()) : MISSING_ID;
+    }
 
-            // 异步执行多条件查询
-            new DbAsyncTask<String[], Void, List<Item>>(requireActivity().getApplicationContext(),
-                    new DbAsyncTask.OnDbOperationListener<List<Item>>() {
-                        @Override
-                        public void onDbOperationCompleted(List<Item> result) {
-                            // 主线程更新查询结果列表和UI
-                            queryResultList.clear();
-                            if (result != null && !result.isEmpty()) {
-                                queryResultList.addAll(result);
-                            }
-                            itemListAdapter.notifyDataSetChanged();
-                            // 提示查询结果数量
-                            Toast.makeText(requireActivity(), "查询到 " + queryResultList.size() + " 条物品数据", Toast.LENGTH_SHORT).show();
-                        }
-                    }) {
-                @Override
-                protected List<Item> doInBackground(String[]... params) {
-                    // 子线程执行数据库多条件查询
-                    try {
-                        if (params == null || params.length == 0) {
-                            return new ArrayList<>();
+    /**
+     * 位置筛选对应的位置ID（"全部"为 null）
+     */
+    private Integer selectedLocationId() {
+        int position = binding.spQueryLocation.getSelectedItemPosition();
+        if (position <= 0) {
+            return null;
+        }
+        return position <= taxonomy.locations.size() ? savedIdOrMissing(taxonomy.locations.get(position - 1).getId()) : MISSING_ID;
+    }
+
+    /**
+     * 兜底默认项的ID为 0（表中没有这条数据）
+     */
+    private static int savedIdOrMissing(int id) {
+        return id == 0 ? MISSING_ID : id;
+    }
+
+    /**
+     * 执行查询：无关键词时分页浏览，有关键词时全文检索
+     * @param showResultToast 是否提示查询结果数量（自动刷新时不提示）
+     */
+    private void runQuery(SearchFilter filter, boolean showResultToast) {
+        // 无关键词：按分类/位置分页浏览，不一次性加载全部物品
+        if (filter.nameKey.isEmpty()) {
+            isBrowsing = true;
+            lastSearch = null;
+            browseCategoryId = filter.categoryId;
+            browseLocationId = filter.locationId;
+            itemPager.refresh();
+            return;
+        }
+        isBrowsing = false;
+        lastSearch = filter;
+
+        // 异步执行多条件查询
+        new DbAsyncTask<SearchFilter, Void, List<ItemDetail>>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.UI_READ,
+                new DbAsyncTask.OnDbOperationListener<List<ItemDetail>>() {
+                    @Override
+                    public void onDbOperationCompleted(List<ItemDetail> result) {
+                        // 主线程提交查询结果（与当前列表比较差异，只刷新变化的行）
+                        List<ItemDetail> items = result == null ? new ArrayList<>() : result;
+                        itemListAdapter.submitList(items);
+                        // 提示查询结果数量
+                        if (showResultToast) {
+                            Toast.makeText(requireActivity(), "查询到 " + items.size() + " 条物品数据", Toast.LENGTH_SHORT).show();
                         }
-                        String[] args = params[0];
-                        String nameKey = args[0];
-                        String category = args[1];
-                        String location = args[2];
-                        AppDatabase db = AppDatabase.getInstance(mContext);
-                        return db.itemDao().queryItemsByCondition(nameKey, category, location);
-                    } catch (Exception e) {
-                        e.printStackTrace();
+                    }
+                }) {
+            @Override
+            protected List<ItemDetail> doInBackground(SearchFilter... params) {
+                // 子线程执行数据库多条件查询
+                try {
+                    if (params == null || params.length == 0) {
                         return new ArrayList<>();
                     }
+                    SearchFilter args = params[0];
+                    AppDatabase db = AppDatabase.getInstance(mContext);
+                    // 全文检索：名称/描述/分类/位置均可命中，按相关度排序
+                    return db.itemDao().searchItems(args.nameKey, args.categoryId, args.locationId);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return new ArrayList<>();
                 }
-            }.execute(queryParams);
-        });
+            }
+        }.execute(filter);
     }
 
     /**
-     * 绑定 ListView 长按事件，实现物品异步删除
+     * 长按物品：确认后异步删除
      */
-    private void bindListViewLongClickListener() {
-        binding.lvQueryResult.setOnItemLongClickListener((parent, view, position, id) -> {
-            // 空安全判断：避免位置越界或物品对象为空
-            if (position < 0 || position >= queryResultList.size()) {
-                Toast.makeText(requireActivity(), "获取物品数据失败！", Toast.LENGTH_SHORT).show();
-                return true;
-            }
-            Item selectedItem = queryResultList.get(position);
-            if (selectedItem == null) {
-                Toast.makeText(requireActivity(), "获取物品数据失败！", Toast.LENGTH_SHORT).show();
-                return true; // 消费长按事件
-            }
-
-            // 弹出删除确认框，防止误操作
-            new AlertDialog.Builder(requireActivity())
-                    .setTitle("删除确认")
-                    .setMessage("确定要删除【" + selectedItem.getItemName() + "】吗？删除后无法恢复！")
-                    .setPositiveButton("确定删除", (dialog, which) -> {
-                        // 异步执行删除操作
-                        new DbAsyncTask<Item, Void, Boolean>(requireActivity().getApplicationContext(),
-                                new DbAsyncTask.OnDbOperationListener<Boolean>() {
-                                    @Override
-                                    public void onDbOperationCompleted(Boolean isSuccess) {
-                                        // 主线程更新列表和提示结果
-                                        if (isSuccess) {
-                                            // 再次校验位置，避免列表已刷新导致的异常
-                                            if (position < queryResultList.size()) {
-                                                queryResultList.remove(position);
-                                                itemListAdapter.notifyDataSetChanged();
-                                            }
-                                            Toast.makeText(requireActivity(), "已删除【" + selectedItem.getItemName() + "】", Toast.LENGTH_SHORT).show();
+    private void confirmDeleteItem(ItemDetail selectedItem) {
+        // 弹出删除确认框，防止误操作
+        new AlertDialog.Builder(requireActivity())
+                .setTitle("删除确认")
+                .setMessage("确定要删除【" + selectedItem.getItemName() + "】吗？删除后无法恢复！")
+                .setPositiveButton("确定删除", (dialog, which) -> {
+                    // 异步执行删除操作
+                    new DbAsyncTask<Item, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
+                            new DbAsyncTask.OnDbOperationListener<Boolean>() {
+                                @Override
+                                public void onDbOperationCompleted(Boolean isSuccess) {
+                                    // 主线程更新列表和提示结果
+                                    if (isSuccess) {
+                                        if (isBrowsing) {
+                                            // 分页模式：从窗口中移除，无需重新查询
+                                            itemPager.remove(selectedItem);
                                         } else {
-                                            Toast.makeText(requireActivity(), "删除失败！", Toast.LENGTH_SHORT).show();
+                                            // 按ID移除（列表可能已刷新，不依赖点击时的位置），只有被删除的行会变化
+                                            List<ItemDetail> remaining = new ArrayList<>(itemListAdapter.getCurrentList());
+                                            for (int i = 0; i < remaining.size(); i++) {
+                                                if (remaining.get(i).getId() == selectedItem.getId()) {
+                                                    remaining.remove(i);
+                                                    break;
+                                                }
+                                            }
+                                            itemListAdapter.submitList(remaining);
                                         }
+                                        Toast.makeText(requireActivity(), "已删除【" + selectedItem.getItemName() + "】", Toast.LENGTH_SHORT).show();
+                                    } else {
+                                        Toast.makeText(requireActivity(), "删除失败！", Toast.LENGTH_SHORT).show();
                                     }
-                                }) {
-                            @Override
-                            protected Boolean doInBackground(Item... items) {
-                                // 子线程执行数据库删除
-                                try {
-                                    if (items == null || items.length == 0) {
-                                        return false;
-                                    }
-                                    Item item = items[0];
-                                    AppDatabase db = AppDatabase.getInstance(mContext);
-                                    db.itemDao().deleteItem(item);
-                                    return true;
-                                } catch (Exception e) {
-                                    e.printStackTrace();
+                                }
+                            }) {
+                        @Override
+                        protected Boolean doInBackground(Item... items) {
+                            // 子线程执行数据库删除
+                            try {
+                                if (items == null || items.length == 0) {
                                     return false;
                                 }
+                                Item item = items[0];
+                                AppDatabase db = AppDatabase.getInstance(mContext);
+                                List<ItemImage> images = db.itemImageDao().queryImagesByItemId(item.getId());
+                                // 图片记录由外键 ON DELETE CASCADE 随物品一并删除
+                                db.itemDao().deleteItem(item);
+                                // 没有其他物品引用的图片文件一并删除
+                                for (ItemImage image : images) {
+                                    if (image.getContentHash() != null) {
+                                        ImageStore.deleteIfUnreferenced(mContext, image.getContentHash());
+                                    }
+                                }
+                                return true;
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                                return false;
                             }
-                        }.execute(selectedItem);
-                    })
-                    .setNegativeButton("取消", null)
-                    .show();
+                        }
+                    }.execute(selectedItem);
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
 
-            return true; // 消费长按事件，避免触发点击事件
-        });
+    /**
+     * 点击物品：跳转编辑页面
+     */
+    private void openItemEdit(ItemDetail selectedItem) {
+        // 跳转编辑页面，传递物品ID
+        Intent intent = new Intent(requireActivity(), ItemEditActivity.class);
+        intent.putExtra("ITEM_ID", selectedItem.getId());
+        startActivity(intent);
     }
 
     /**
-     * 绑定 ListView 点击事件，跳转编辑页面
+     * 列表行点击/长按回调
      */
-    private void bindListViewClickListener() {
-        binding.lvQueryResult.setOnItemClickListener((parent, view, position, id) -> {
-            // 空安全判断
-            if (position < 0 || position >= queryResultList.size()) {
-                Toast.makeText(requireActivity(), "获取物品数据失败！", Toast.LENGTH_SHORT).show();
-                return;
-            }
-            Item selectedItem = queryResultList.get(position);
-            if (selectedItem == null) {
-                Toast.makeText(requireActivity(), "获取物品数据失败！", Toast.LENGTH_SHORT).show();
-                return;
-            }
+    interface OnItemActionListener {
+        void onItemClick(ItemDetail item);
 
-            // 跳转编辑页面，传递物品ID
-            Intent intent = new Intent(requireActivity(), ItemEditActivity.class);
-            intent.putExtra("ITEM_ID", selectedItem.getId());
-            startActivity(intent);
-        });
+        void onItemLongClick(ItemDetail item);
+    }
+
+    /**
+     * 查询条件：名称关键词 + 分类/位置ID（null=全部）
+     */
+    private static final class SearchFilter {
+        final String nameKey;
+        final Integer categoryId;
+        final Integer locationId;
+
+        SearchFilter(String nameKey, Integer categoryId, Integer locationId) {
+            this.nameKey = nameKey;
+            this.categoryId = categoryId;
+            this.locationId = locationId;
+        }
     }
 
     /**
-     * 自定义 ListView 适配器（修复：空安全、上下文兼容、性能优化）
+     * 查询结果适配器（ListAdapter：后台线程计算差异，只重新绑定变化的行；稳定ID取物品ID）
+     * 行视图会进入 Activity 级共享缓存池，ViewHolder 不持有 Fragment 引用，点击时通过当前绑定的适配器分发
      */
-    private class ItemListAdapter extends BaseAdapter {
+    static class ItemListAdapter extends ListAdapter<ItemDetail, ItemListAdapter.ViewHolder> {
+
+        // 以行布局作为视图类型，共享缓存池中不会与其他列表混用
+        private static final int VIEW_TYPE = android.R.layout.simple_list_item_2;
+
+        private final OnItemActionListener actionListener;
+        // 今天的 epoch-day（每次提交新列表时更新，绑定时只做整数比较，不再解析日期）
+        private long today = DateUtil.todayEpochDay();
+
+        ItemListAdapter(OnItemActionListener actionListener) {
+            super(ItemDiffCallback.INSTANCE);
+            this.actionListener = actionListener;
+            setHasStableIds(true);
+        }
 
         @Override
-        public int getCount() {
-            return queryResultList.size();
+        public long getItemId(int position) {
+            return getItem(position).getId();
         }
 
         @Override
-        public Object getItem(int position) {
-            return position < queryResultList.size() ? queryResultList.get(position) : null;
+        public int getItemViewType(int position) {
+            return VIEW_TYPE;
         }
 
         @Override
-        public long getItemId(int position) {
-            return position;
+        public void onCurrentListChanged(@NonNull List<ItemDetail> previousList, @NonNull List<ItemDetail> currentList) {
+            today = DateUtil.todayEpochDay();
         }
 
+        @NonNull
         @Override
-        public View getView(int position, View convertView, ViewGroup parent) {
-            ViewHolder viewHolder;
-            // 复用视图，提升ListView性能
-            if (convertView == null) {
-                // 使用parent.getContext()，更安全的上下文获取方式
-                convertView = LayoutInflater.from(parent.getContext()).inflate(
-                        android.R.layout.simple_list_item_2, parent, false);
-                viewHolder = new ViewHolder();
-                viewHolder.tvTitle = convertView.findViewById(android.R.id.text1);
-                viewHolder.tvSubtitle = convertView.findViewById(android.R.id.text2);
-                convertView.setTag(viewHolder);
-            } else {
-                viewHolder = (ViewHolder) convertView.getTag();
-            }
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(VIEW_TYPE, parent, false);
+            return new ViewHolder(view);
+        }
 
-            // 空安全填充数据
-            if (position < 0 || position >= queryResultList.size()) {
-                return convertView;
-            }
-            Item item = queryResultList.get(position);
-            if (item == null) {
-                return convertView;
-            }
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder viewHolder, int position) {
+            ItemDetail item = getItem(position);
 
             // 获取物品数据，空值兜底
             String itemName = item.getItemName() == null ? "" : item.getItemName();
-            String validDate = item.getValidDate() == null ? "" : item.getValidDate();
-            String category = item.getCategory() == null ? "" : item.getCategory();
-            String location = item.getLocation() == null ? "" : item.getLocation();
-
-            // 拼接副标题
-            String subtitle = category + " - " + location +
-                    " - 有效期：" + (validDate.isEmpty() ? "未设置" : validDate);
+            // 有效期判断（epoch-day 整数比较），副标题一次拼接完成
+            int expiryStatus = ItemRowText.expiryStatus(item.getValidDate(), today, ItemDao.EXPIRING_SOON_DAYS);
 
             // 设置文本内容
             viewHolder.tvTitle.setText(itemName);
-            viewHolder.tvSubtitle.setText(subtitle);
+            viewHolder.tvSubtitle.setText(ItemRowText.subtitle(item, expiryStatus, ItemDao.EXPIRING_SOON_DAYS));
 
-            // 有效期状态颜色标记（兼容上下文，避免空指针）
-            Context context = convertView.getContext();
-            if (context == null) {
-                return convertView;
-            }
+            // 已过期/即将过期：红色；正常或无有效期：默认黑色（系统颜色常量，无需资源获取）
+            int color = expiryStatus == ItemRowText.EXPIRY_NORMAL
+                    ? android.graphics.Color.BLACK : android.graphics.Color.RED;
+            viewHolder.tvTitle.setTextColor(color);
+            viewHolder.tvSubtitle.setTextColor(color);
+        }
 
-            // 系统颜色常量，无需资源获取，兼容性更好
-            int defaultBlack = android.graphics.Color.BLACK;
-            int warningRed = android.graphics.Color.RED;
-
-            // 有效期判断（空值兜底，避免DateUtil报错）
-            if (!validDate.isEmpty()) {
-                if (DateUtil.isExpired(validDate)) {
-                    // 已过期：红色+提示
-                    viewHolder.tvTitle.setTextColor(warningRed);
-                    viewHolder.tvSubtitle.setTextColor(warningRed);
-                    viewHolder.tvSubtitle.setText(subtitle + " 【已过期】");
-                } else if (DateUtil.isWillExpireIn7Days(validDate)) {
-                    // 7天内即将过期：红色+提示
-                    viewHolder.tvTitle.setTextColor(warningRed);
-                    viewHolder.tvSubtitle.setTextColor(warningRed);
-                    viewHolder.tvSubtitle.setText(subtitle + " 【7天内即将过期】");
-                } else {
-                    // 正常状态：默认黑色
-                    viewHolder.tvTitle.setTextColor(defaultBlack);
-                    viewHolder.tvSubtitle.setTextColor(defaultBlack);
-                }
+        /**
+         * 分发点击事件（位置失效时忽略，避免越界）
+         */
+        void dispatchClick(int position, boolean longClick) {
+            if (position == RecyclerView.NO_POSITION || position >= getItemCount()) {
+                return;
+            }
+            ItemDetail item = getItem(position);
+            if (item == null) {
+                return;
+            }
+            if (longClick) {
+                actionListener.onItemLongClick(item);
             } else {
-                // 无有效期：默认黑色
-                viewHolder.tvTitle.setTextColor(defaultBlack);
-                viewHolder.tvSubtitle.setTextColor(defaultBlack);
+                actionListener.onItemClick(item);
             }
-
-            return convertView;
         }
 
         /**
          * 视图持有者，避免重复findViewById
          */
-        class ViewHolder {
-            TextView tvTitle;
-            TextView tvSubtitle;
-        }
-    }
+        static class ViewHolder extends RecyclerView.ViewHolder {
+            final TextView tvTitle;
+            final TextView tvSubtitle;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                tvTitle = itemView.findViewById(android.R.id.text1);
+                tvSubtitle = itemView.findViewById(android.R.id.text2);
+                itemView.setOnClickListener(v -> dispatch(false));
+                itemView.setOnLongClickListener(v -> {
+                    dispatch(true);
+                    return true; // 消费长按事件，避免触发点击事件
+                });
+            }
 
-    /**
-     * 页面恢复时自动刷新查询结果
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        // 空安全判断，避免视图已销毁导致的异常
-        if (binding != null && binding.btnQuery != null) {
-            binding.btnQuery.performClick(); // 模拟点击查询按钮，自动刷新
+            private void dispatch(boolean longClick) {
+                if (getBindingAdapter() instanceof ItemListAdapter) {
+                    ((ItemListAdapter) getBindingAdapter()).dispatchClick(getBindingAdapterPosition(), longClick);
+                }
+            }
         }
     }
 
@@ -0,0 +1,60 @@
+package com.example.homeinventorymanager;
+
+/**
+ * 物品列表一行的文字：有效期状态 + 副标题（分类 - 位置 - 数量 - 有效期 + 补货/过期提示）
+ * 副标题一次拼接到同一个 StringBuilder 中，不再先拼出基础文本、再按状态拼接第二次
+ * 纯 Java 实现，不依赖 Android，可在 JVM 测试和基准测试中直接使用
+ */
+public final class ItemRowText {
+
+    // 有效期状态：正常（含未设置有效期）、即将过期、已过期
+    public static final int EXPIRY_NORMAL = 0;
+    public static final int EXPIRY_SOON = 1;
+    public static final int EXPIRED = 2;
+
+    private ItemRowText() {
+    }
+
+    /**
+     * 有效期状态（epoch-day 整数比较）
+     * @param validDay 有效期（epoch-day，null=未设置）
+     * @param today 今天（epoch-day）
+     * @param soonDays 剩余天数不超过该值时视为即将过期
+     */
+    public static int expiryStatus(Long validDay, long today, int soonDays) {
+        if (validDay == null) {
+            return EXPIRY_NORMAL;
+        }
+        long daysLeft = validDay - today;
+        if (daysLeft < 0) {
+            return EXPIRED;
+        }
+        return daysLeft <= soonDays ? EXPIRY_SOON : EXPIRY_NORMAL;
+    }
+
+    /**
+     * 拼接副标题
+     * @param item 物品（名称字段空值已兜底）
+     * @param expiryStatus expiryStatus() 的返回值
+     * @param soonDays 与 expiryStatus() 相同的即将过期天数，用于提示文字
+     */
+    public static String subtitle(ItemDetail item, int expiryStatus, int soonDays) {
+        String quantity = item.getQuantityText();
+        String validDate = item.getValidDateText();
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(item.getCategoryName()).append(" - ").append(item.getLocationName());
+        if (!quantity.isEmpty()) {
+            sb.append(" - 数量：").append(quantity);
+        }
+        sb.append(" - 有效期：").append(validDate.isEmpty() ? "未设置" : validDate);
+        if (item.isLowStock()) {
+            sb.append(" 【需补货】");
+        }
+        if (expiryStatus == EXPIRED) {
+            sb.append(" 【已过期】");
+        } else if (expiryStatus == EXPIRY_SOON) {
+            sb.append(" 【").append(soonDays).append("天内即将过期】");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.homeinventorymanager;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 全文检索辅助工具：把用户输入转换为 FTS4 MATCH 表达式，并根据 matchinfo 计算相关度排序
+ */
+public final class ItemSearch {
+
+    // 各列权重，顺序与 ItemFts 的列顺序一致：名称、描述、分类、子分类、位置
+    private static final double[] COLUMN_WEIGHTS = {4.0, 1.0, 2.0, 2.0, 1.5};
+    // 词频饱和参数（与 BM25 的 k1 作用相同）
+    private static final double K1 = 1.2;
+
+    private ItemSearch() {
+    }
+
+    /**
+     * 把用户输入转换为 MATCH 表达式：按空白拆分关键词，每个关键词作为带前缀匹配的短语，多个关键词之间为 AND
+     * 例："牛奶 冰箱" -> "牛奶*" "冰箱*"
+     * @param keyword 用户输入
+     * @return MATCH 表达式；输入为空（或只有特殊字符）时返回空字符串
+     */
+    public static String toMatchQuery(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(keyword.length() + 8);
+        int length = keyword.length();
+        int i = 0;
+        while (i < length) {
+            // 跳过空白
+            while (i < length && Character.isWhitespace(keyword.charAt(i))) {
+                i++;
+            }
+            int start = sb.length();
+            if (start > 0) {
+                sb.append(' ');
+            }
+            sb.append('"');
+            int termStart = sb.length();
+            while (i < length && !Character.isWhitespace(keyword.charAt(i))) {
+                char c = keyword.charAt(i++);
+                // 去掉 FTS 语法字符，避免用户输入被解析为运算符
+                if (c == '"' || c == '*' || c == '(' || c == ')' || c == ':' || c == '^' || c == '-') {
+                    continue;
+                }
+                sb.append(c);
+            }
+            if (sb.length() == termStart) {
+                // 关键词全部由特殊字符组成，回退
+                sb.setLength(start);
+            } else {
+                sb.append("*\"");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 按相关度从高到低排序（相关度相同按ID倒序，与普通查询的顺序一致）
+     * @param results 检索结果
+     * @return 排好序的物品列表
+     */
+    public static List<ItemDetail> rank(List<ItemSearchResult> results) {
+        if (results == null || results.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Scored> scored = new ArrayList<>(results.size());
+        for (ItemSearchResult result : results) {
+            if (result == null || result.item == null) {
+                continue;
+            }
+            scored.add(new Scored(result.item, score(result.matchInfo)));
+        }
+        Collections.sort(scored, (a, b) -> {
+            int byScore = Double.compare(b.score, a.score);
+            return byScore != 0 ? byScore : Long.compare(b.item.getId(), a.item.getId());
+        });
+        List<ItemDetail> items = new ArrayList<>(scored.size());
+        for (Scored s : scored) {
+            items.add(s.item);
+        }
+        return items;
+    }
+
+    /**
+     * 根据 matchinfo(item_fts, 'pcnx') 计算相关度
+     * 数据布局（32位无符号整数，本机字节序）：p=短语数, c=列数, n=总行数,
+     * 之后每个短语每列3个整数：本行命中次数、所有行命中次数、命中的行数
+     */
+    static double score(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 12) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+        int rowCount = buffer.getInt(8);
+        if (matchInfo.length < 12 + phraseCount * columnCount * 12) {
+            return 0;
+        }
+        double score = 0;
+        for (int p = 0; p < phraseCount; p++) {
+            for (int c = 0; c < columnCount; c++) {
+                int offset = 12 + (p * columnCount + c) * 12;
+                int hitsThisRow = buffer.getInt(offset);
+                if (hitsThisRow <= 0) {
+                    continue;
+                }
+                int docsWithHits = buffer.getInt(offset + 8);
+                double idf = Math.log(1.0 + (rowCount - docsWithHits + 0.5) / (docsWithHits + 0.5));
+                double tf = hitsThisRow * (K1 + 1) / (hitsThisRow + K1);
+                double weight = c < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[c] : 1.0;
+                score += weight * tf * idf;
+            }
+        }
+        return score;
+    }
+
+    private static final class Scored {
+        final ItemDetail item;
+        final double score;
+
+        Scored(ItemDetail item, double score) {
+            this.item = item;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.homeinventorymanager;
+
+import androidx.room.Embedded;
+
+/**
+ * 全文检索结果：物品（带分类/子分类/位置名称）+ FTS4 matchinfo 统计数据（用于计算相关度排序）
+ */
+public class ItemSearchResult {
+    @Embedded
+    public ItemDetail item;
+
+    // matchinfo(item_fts, 'pcnx') 返回的二进制统计数据
+    public byte[] matchInfo;
+}
@@ -1,10 +1,17 @@
 package com.example.homeinventorymanager;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
+import androidx.recyclerview.widget.RecyclerView;
 
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
 
 import com.example.homeinventorymanager.databinding.ActivityMainBinding;
@@ -12,8 +19,15 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class MainActivity extends AppCompatActivity {
 
+    // 通知权限请求码（有效期提醒）
+    private static final int REQUEST_NOTIFICATION_PERMISSION = 201;
+    // 底部导航页面的标签前缀（标签 = 前缀 + 菜单项ID，Activity 重建后按标签找回已恢复的页面）
+    private static final String TAB_TAG_PREFIX = "tab_";
+
     // 视图绑定对象（自动生成，对应 activity_main.xml）
     private ActivityMainBinding binding;
+    // 物品列表共享的视图缓存池（查询/修改页面切换时复用已创建的行视图）
+    private final RecyclerView.RecycledViewPool itemViewPool = new RecyclerView.RecycledViewPool();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -22,37 +36,104 @@ public class MainActivity extends AppCompatActivity {
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        // 默认显示 物品录入 Fragment
-        replaceFragment(new ItemAddFragment());
-
-        // 底部导航栏点击事件监听
-        binding.bottomNavigation.setOnItemSelectedListener(item -> {
-            int itemId = item.getItemId();
-            if (itemId == R.id.nav_add) {
-                replaceFragment(new ItemAddFragment());
-                return true;
-            } else if (itemId == R.id.nav_query) {
-                replaceFragment(new ItemQueryFragment());
-                return true;
-            } else if (itemId == R.id.nav_modify) {
-                replaceFragment(new ItemModifyFragment());
-                return true;
-            } else if (itemId == R.id.nav_setting) {
-                replaceFragment(new SettingFragment());
-                return true;
+        // 每种行布局多缓存一些视图，切换页面后首屏无需重新 inflate
+        itemViewPool.setMaxRecycledViews(android.R.layout.simple_list_item_2, 20);
+        itemViewPool.setMaxRecycledViews(android.R.layout.simple_list_item_1, 20);
+
+        // 数据库预热（打开数据库、加载分类缓存）在进程启动时已开始，完成后报告首屏完全绘制
+        AppStartup startup = AppStartup.getInstance(this);
+        startup.observeReady().observe(this, ready -> {
+            if (ready && startup.markPhase("fully_drawn")) {
+                reportFullyDrawn();
             }
-            return false;
         });
+
+        // 每天一次的有效期提醒（已调度时保持原计划）
+        ExpiryReminderScheduler.schedule(this);
+        // 每天一次的孤立图片清理（充电时运行）
+        ImageGcScheduler.schedule(this);
+        if (savedInstanceState == null) {
+            requestNotificationPermission();
+        }
+
+        // 默认显示 物品录入 Fragment（Activity 重建时 FragmentManager 已恢复各页面及其显示/隐藏状态）
+        if (savedInstanceState == null) {
+            showTab(R.id.nav_add);
+        }
+
+        // 底部导航栏点击事件监听：每个页面只创建一次，之后切换只显示/隐藏
+        binding.bottomNavigation.setOnItemSelectedListener(item -> showTab(item.getItemId()));
     }
 
     /**
-     * 替换 Fragment 工具方法（复用代码，避免冗余）
-     * @param fragment 要显示的 Fragment
+     * 切换到底部导航对应的页面（首次切换时创建，之后复用同一实例，保留滚动位置、已加载的结果和输入内容）
+     * 隐藏的页面限制在 STARTED（暂停但不销毁视图），显示的页面恢复到 RESUMED
+     * @param navItemId 底部导航菜单项ID
+     * @return 是否为已知的页面
      */
-    private void replaceFragment(Fragment fragment) {
+    boolean showTab(int navItemId) {
         FragmentManager fragmentManager = getSupportFragmentManager();
-        FragmentTransaction transaction = fragmentManager.beginTransaction();
-        transaction.replace(R.id.fragment_container, fragment); // 替换容器中的 Fragment
+        Fragment target = fragmentManager.findFragmentByTag(TAB_TAG_PREFIX + navItemId);
+        if (target == null) {
+            target = createTab(navItemId);
+            if (target == null) {
+                return false;
+            }
+        } else if (!target.isHidden()) {
+            return true; // 已是当前页面
+        }
+
+        FragmentTransaction transaction = fragmentManager.beginTransaction().setReorderingAllowed(true);
+        for (Fragment fragment : fragmentManager.getFragments()) {
+            if (fragment != target && isTab(fragment) && !fragment.isHidden()) {
+                transaction.hide(fragment);
+                transaction.setMaxLifecycle(fragment, Lifecycle.State.STARTED);
+            }
+        }
+        if (target.isAdded()) {
+            transaction.show(target);
+        } else {
+            transaction.add(R.id.fragment_container, target, TAB_TAG_PREFIX + navItemId);
+        }
+        transaction.setMaxLifecycle(target, Lifecycle.State.RESUMED);
         transaction.commit(); // 提交事务
+        return true;
+    }
+
+    /**
+     * 创建底部导航对应的页面（未知菜单项返回 null）
+     */
+    static Fragment createTab(int navItemId) {
+        if (navItemId == R.id.nav_add) {
+            return new ItemAddFragment();
+        } else if (navItemId == R.id.nav_query) {
+            return new ItemQueryFragment();
+        } else if (navItemId == R.id.nav_modify) {
+            return new ItemModifyFragment();
+        } else if (navItemId == R.id.nav_setting) {
+            return new SettingFragment();
+        }
+        return null;
+    }
+
+    private static boolean isTab(Fragment fragment) {
+        return fragment.getTag() != null && fragment.getTag().startsWith(TAB_TAG_PREFIX);
+    }
+
+    /**
+     * Android 13 及以上发送通知需要运行时权限（拒绝后提醒任务照常运行，只是不弹通知）
+     */
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.POST_NOTIFICATIONS}, REQUEST_NOTIFICATION_PERMISSION);
+        }
+    }
+
+    /**
+     * 获取物品列表共享的视图缓存池（行视图类型为行布局的资源ID，不同列表之间不会混用）
+     */
+    public RecyclerView.RecycledViewPool getItemViewPool() {
+        return itemViewPool;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.example.homeinventorymanager;
+
+/**
+ * 数量汇总行：某个分类/位置下、同一单位的物品数和数量合计（ItemDao 聚合查询的结果）
+ * 不同单位的数量不能相加，同一分组下每种单位各占一行
+ */
+public class QuantityTotal {
+    // 分类ID / 位置ID（未设置分类/位置的物品汇总在 null 这一行）
+    public Integer groupId;
+
+    // 分类/位置名称（未设置时为 null）
+    public String name;
+
+    // 数量单位（未填写时为空字符串）
+    public String unit;
+
+    // 物品条数（含未填写数量的物品）
+    public int itemCount;
+
+    // 数量合计（未填写数量的物品按 0 计）
+    public long totalQuantity;
+}
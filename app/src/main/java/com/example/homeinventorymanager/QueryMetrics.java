@@ -0,0 +1,430 @@
+package com.example.homeinventorymanager;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.room.RoomDatabase;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SQL 执行耗时统计（真机上定位慢查询，设置页的诊断面板展示）
+ * Room 的 QueryCallback 在每条语句执行前（同一线程上）回调：同一个数据库任务中，一条语句从回调开始到下一条语句的回调
+ * （或任务结束）之间的时间记为该语句的耗时，包括读取游标、转换为对象的时间
+ * 只统计经 DbExecutor 执行的任务（界面读写、Room 内部的 LiveData 查询和失效跟踪都走这里），任务结束时返回集合的，
+ * 集合大小记为最后一条语句的行数
+ * 调用页面：任务绑定 Fragment/Activity 时取其类名，绑定视图生命周期时取提交任务时正在显示的页面（ScreenTracker 跟踪），
+ * 未绑定生命周期的任务（预热、维护、Room 内部任务）记为 BACKGROUND_SCREEN
+ * 按 页面 + 语句 分别汇总：次数、总耗时、最大耗时、行数和对数分桶的耗时直方图，全部使用原子变量，记录时不加锁；
+ * 不同语句最多保留 MAX_STATEMENTS 条，超出的合并到同一条（内存有上限）
+ */
+public final class QueryMetrics {
+
+    // 不同（页面, 语句）组合的上限
+    static final int MAX_STATEMENTS = 128;
+    static final String BACKGROUND_SCREEN = "后台";
+    // 超出上限后合并统计的语句
+    static final String OTHER_STATEMENTS = "（其他语句）";
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    // 当前线程上正在执行的任务（不在 DbExecutor 任务中时为 null）
+    private final ThreadLocal<Task> currentTask = new ThreadLocal<>();
+    // 统计开始时间（System.currentTimeMillis，清空时重置）
+    private volatile long sinceMs = System.currentTimeMillis();
+    // 当前显示的页面（最近一次 onResume 的 Activity/Fragment 类名）
+    @Nullable
+    private volatile String visibleScreen;
+
+    /**
+     * 一个数据库任务中当前正在计时的语句
+     */
+    private static final class Task {
+        final String screen;
+        @Nullable
+        String sql;
+        long startNs;
+
+        Task(String screen) {
+            this.screen = screen;
+        }
+    }
+
+    @VisibleForTesting
+    QueryMetrics() {
+    }
+
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提供给 RoomDatabase.Builder.setQueryCallback（执行器必须是 Runnable::run，回调才在执行语句的线程上）
+     */
+    public RoomDatabase.QueryCallback queryCallback() {
+        return (sqlQuery, bindArgs) -> onStatement(sqlQuery, System.nanoTime());
+    }
+
+    /**
+     * 跟踪当前显示的页面（Application 中注册一次）
+     */
+    public Application.ActivityLifecycleCallbacks screenTracker() {
+        return new ScreenTracker();
+    }
+
+    /**
+     * 任务绑定的生命周期 -> 调用页面（提交任务时调用）
+     * @return null=后台任务
+     */
+    @Nullable
+    String screenOf(@Nullable LifecycleOwner owner) {
+        if (owner == null) {
+            return null;
+        }
+        if (owner instanceof Fragment || owner instanceof Activity) {
+            return owner.getClass().getSimpleName();
+        }
+        // Fragment 的视图生命周期等，无法得知所属页面
+        String screen = visibleScreen;
+        return screen != null ? screen : owner.getClass().getSimpleName();
+    }
+
+    /**
+     * DbExecutor 任务开始（任务所在线程调用）
+     * @param screen 调用页面（null=后台任务）
+     */
+    void beginTask(@Nullable String screen) {
+        currentTask.set(new Task(screen == null ? BACKGROUND_SCREEN : screen));
+    }
+
+    /**
+     * DbExecutor 任务结束：结束最后一条语句的计时
+     * @param result 任务结果（集合时记录行数）
+     */
+    void endTask(@Nullable Object result) {
+        Task task = currentTask.get();
+        if (task == null) {
+            return;
+        }
+        currentTask.remove();
+        int rows = result instanceof Collection ? ((Collection<?>) result).size() : -1;
+        finish(task, System.nanoTime(), rows);
+    }
+
+    @VisibleForTesting
+    void onStatement(String sql, long nowNs) {
+        Task task = currentTask.get();
+        if (task == null) {
+            return;
+        }
+        finish(task, nowNs, -1);
+        task.sql = sql;
+        task.startNs = nowNs;
+    }
+
+    private void finish(Task task, long nowNs, int rows) {
+        if (task.sql == null) {
+            return;
+        }
+        statsFor(task.screen, task.sql).record(nowNs - task.startNs, rows);
+        task.sql = null;
+    }
+
+    private StatementStats statsFor(String screen, String sql) {
+        String normalized = normalize(sql);
+        String key = screen + '\n' + normalized;
+        StatementStats stats = statements.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (statements.size() >= MAX_STATEMENTS) {
+            key = OTHER_STATEMENTS;
+            screen = OTHER_STATEMENTS;
+            normalized = OTHER_STATEMENTS;
+            stats = statements.get(key);
+            if (stats != null) {
+                return stats;
+            }
+        }
+        StatementStats created = new StatementStats(screen, normalized);
+        StatementStats existing = statements.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * 合并 IN (?,?,...) 的不同参数个数，避免同一条语句按参数个数拆成多条
+     */
+    static String normalize(String sql) {
+        String trimmed = sql.trim();
+        if (!trimmed.contains("?,?")) {
+            return trimmed;
+        }
+        return trimmed.replaceAll("\\?(,\\?)+", "?,...");
+    }
+
+    /**
+     * 当前统计的快照，按总耗时从高到低
+     */
+    public List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>(statements.size());
+        for (StatementStats stats : statements.values()) {
+            Entry entry = stats.toEntry();
+            if (entry.count > 0) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries, (a, b) -> Long.compare(b.totalNs, a.totalNs));
+        return entries;
+    }
+
+    public long getSinceMs() {
+        return sinceMs;
+    }
+
+    /**
+     * 清空统计（正在执行的语句仍会记录到新的统计中）
+     */
+    public void reset() {
+        statements.clear();
+        sinceMs = System.currentTimeMillis();
+    }
+
+    /**
+     * 导出为文本（诊断面板导出文件、附在问题反馈中）
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder(4096);
+        List<Entry> entries = snapshot();
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.CHINA);
+        sb.append("# SQL 耗时统计（").append(format.format(new Date(sinceMs))).append(" 至 ")
+                .append(format.format(new Date())).append("，共 ").append(entries.size()).append(" 条语句，单位毫秒）\n");
+        for (Entry entry : entries) {
+            sb.append(entry).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 记录最近 onResume 的 Activity 和 Fragment（底部导航切换标签时，显示的 Fragment 会重新 onResume）
+     */
+    private final class ScreenTracker implements Application.ActivityLifecycleCallbacks {
+
+        private final FragmentManager.FragmentLifecycleCallbacks fragmentCallbacks =
+                new FragmentManager.FragmentLifecycleCallbacks() {
+                    @Override
+                    public void onFragmentResumed(@NonNull FragmentManager fm, @NonNull Fragment f) {
+                        visibleScreen = f.getClass().getSimpleName();
+                    }
+                };
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+            if (activity instanceof FragmentActivity) {
+                ((FragmentActivity) activity).getSupportFragmentManager()
+                        .registerFragmentLifecycleCallbacks(fragmentCallbacks, true);
+            }
+        }
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+            visibleScreen = activity.getClass().getSimpleName();
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+
+    /**
+     * 一条语句的统计快照
+     */
+    public static final class Entry {
+        public final String screen;
+        public final String sql;
+        public final long count;
+        public final long totalNs;
+        public final long maxNs;
+        // 已知行数的执行次数 / 行数合计
+        public final long rowSamples;
+        public final long rows;
+        public final double p50Ms;
+        public final double p95Ms;
+        public final double p99Ms;
+
+        Entry(String screen, String sql, long count, long totalNs, long maxNs, long rowSamples, long rows,
+              double p50Ms, double p95Ms, double p99Ms) {
+            this.screen = screen;
+            this.sql = sql;
+            this.count = count;
+            this.totalNs = totalNs;
+            this.maxNs = maxNs;
+            this.rowSamples = rowSamples;
+            this.rows = rows;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+        }
+
+        public double totalMs() {
+            return totalNs / 1_000_000.0;
+        }
+
+        public double maxMs() {
+            return maxNs / 1_000_000.0;
+        }
+
+        // 平均行数（没有已知行数时为 -1）
+        public double avgRows() {
+            return rowSamples == 0 ? -1 : (double) rows / rowSamples;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "[%s] n=%d total=%.1f p50=%.2f p95=%.2f p99=%.2f max=%.2f rows=%s\n  %s",
+                    screen, count, totalMs(), p50Ms, p95Ms, p99Ms, maxMs(),
+                    rowSamples == 0 ? "-" : String.format(Locale.ROOT, "%.1f", avgRows()), sql);
+        }
+    }
+
+    /**
+     * 一条语句的累计统计（原子变量，多线程记录不加锁）
+     */
+    static final class StatementStats {
+        final String screen;
+        final String sql;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNs = new AtomicLong();
+        final AtomicLong maxNs = new AtomicLong();
+        final AtomicLong rowSamples = new AtomicLong();
+        final AtomicLong rows = new AtomicLong();
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        StatementStats(String screen, String sql) {
+            this.screen = screen;
+            this.sql = sql;
+        }
+
+        void record(long elapsedNs, int rowCount) {
+            long nanos = Math.max(0, elapsedNs);
+            count.incrementAndGet();
+            totalNs.addAndGet(nanos);
+            maxNs.accumulateAndGet(nanos, Math::max);
+            if (rowCount >= 0) {
+                rowSamples.incrementAndGet();
+                rows.addAndGet(rowCount);
+            }
+            histogram.record(nanos / 1000);
+        }
+
+        Entry toEntry() {
+            long[] buckets = histogram.copy();
+            long max = maxNs.get();
+            return new Entry(screen, sql, count.get(), totalNs.get(), max, rowSamples.get(), rows.get(),
+                    LatencyHistogram.percentileMs(buckets, 0.50, max), LatencyHistogram.percentileMs(buckets, 0.95, max),
+                    LatencyHistogram.percentileMs(buckets, 0.99, max));
+        }
+    }
+
+    /**
+     * 对数分桶的耗时直方图（微秒）：每个 2 的幂区间再等分为 4 个子桶，相对误差不超过 12.5%
+     * 桶数固定（最大约 30 分钟，更长的计入最后一个桶），每条语句约 1KB
+     */
+    static final class LatencyHistogram {
+        // 每个 2 的幂区间的子桶数（2 的 SUB_BITS 次方）
+        private static final int SUB_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int MAX_EXPONENT = 30;
+        static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long micros) {
+            buckets.incrementAndGet(indexOf(micros));
+        }
+
+        long[] copy() {
+            long[] copy = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                copy[i] = buckets.get(i);
+            }
+            return copy;
+        }
+
+        static int indexOf(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(0, micros);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return Math.min(BUCKET_COUNT - 1, (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub);
+        }
+
+        // 桶的下界（微秒）
+        static long lowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        }
+
+        /**
+         * 分位数（毫秒）：所在桶的中点，且不超过最大值
+         */
+        static double percentileMs(long[] buckets, double quantile, long maxNs) {
+            long total = 0;
+            for (long count : buckets) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    double lower = lowerBound(i);
+                    double upper = i + 1 < buckets.length ? lowerBound(i + 1) : lower * 2;
+                    return Math.min((lower + upper) / 2 / 1000.0, maxNs / 1_000_000.0);
+                }
+            }
+            return maxNs / 1_000_000.0;
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.example.homeinventorymanager;
 
 import android.app.AlertDialog;
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.graphics.Typeface;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.BaseAdapter;
+import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.fragment.app.Fragment;
 
 import com.example.homeinventorymanager.databinding.FragmentSettingBinding;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Date;
+import java.util.Locale;
 
 /**
  * 设置界面：自定义分类（带联动）、子分类、存放位置
@@ -25,10 +38,9 @@ public class SettingFragment extends Fragment {
 
     private FragmentSettingBinding binding;
 
-    // 数据列表
-    private List<Category> categoryList;
-    private List<SubCategory> subCategoryList;
-    private List<StorageLocation> storageLocationList;
+    // 分类、子分类、位置（共享缓存的不可变快照，增删后由缓存生成新快照）
+    private TaxonomySnapshot taxonomy;
+    private TaxonomyRepository repository;
 
     // 适配器
     private CategoryAdapter categoryAdapter;
@@ -36,17 +48,39 @@ public class SettingFragment extends Fragment {
     private StorageLocationAdapter storageLocationAdapter;
     private ArrayAdapter<String> parentCategorySpinnerAdapter;
 
-    // 兜底默认数据（无自定义数据时使用）
-    private String[] defaultCategories = {"食品", "日用品", "家电", "服饰", "其他"};
-    private String[] defaultSubCategories = {"零食", "生鲜", "调味品", "清洁用品", "洗漱用品", "其他"};
-    private String[] defaultLocations = {"冰箱", "厨房橱柜", "卫生间", "卧室衣柜", "客厅书架", "阳台", "其他"};
+    // CSV 备份：选择导出位置 / 选择要导入的文件（系统文件选择器）
+    private ActivityResultLauncher<String> exportCsvLauncher;
+    private ActivityResultLauncher<String[]> importCsvLauncher;
+    // 诊断面板：导出统计快照（附在问题反馈中）
+    private ActivityResultLauncher<String> exportDiagnosticsLauncher;
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        // 必须在 Fragment 创建阶段注册
+        exportCsvLauncher = registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"), uri -> {
+            if (uri != null) {
+                exportCsv(uri);
+            }
+        });
+        importCsvLauncher = registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+            if (uri != null) {
+                importCsv(uri);
+            }
+        });
+        exportDiagnosticsLauncher = registerForActivityResult(new ActivityResultContracts.CreateDocument("text/plain"), uri -> {
+            if (uri != null) {
+                exportDiagnostics(uri);
+            }
+        });
+    }
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
         binding = FragmentSettingBinding.inflate(inflater, container, false);
 
-        // 1. 初始化数据列表
+        // 1. 初始化数据（先用共享缓存的当前快照）
         initDataLists();
 
         // 2. 初始化适配器
@@ -55,22 +89,21 @@ public class SettingFragment extends Fragment {
         // 3. 绑定添加按钮点击事件
         bindAddButtonClickListeners();
 
-        // 4. 异步加载数据库数据（核心修复：避免主线程阻塞）
-        loadAllDataFromDbAsync();
+        // 4. 监听共享缓存（增删后缓存生成新快照，不重新查询三张表）
+        observeTaxonomy();
 
-        // 5. 刷新父分类Spinner（用于子分类关联）
-        refreshParentCategorySpinner();
+        // 5. 数据备份（CSV 导出/导入）
+        bindBackupButtons();
 
         return binding.getRoot();
     }
 
     /**
-     * 初始化数据列表
+     * 初始化数据（适配器直接读取快照中的不可变列表）
      */
     private void initDataLists() {
-        categoryList = new ArrayList<>();
-        subCategoryList = new ArrayList<>();
-        storageLocationList = new ArrayList<>();
+        repository = TaxonomyRepository.getInstance(requireActivity().getApplicationContext());
+        taxonomy = repository.getSnapshot();
     }
 
     /**
@@ -114,7 +147,7 @@ public class SettingFragment extends Fragment {
 
             // 避免重复添加（内存列表中校验）
             boolean isExist = false;
-            for (Category c : categoryList) {
+            for (Category c : taxonomy.categories) {
                 if (c.getCategoryName() != null && c.getCategoryName().equals(categoryName)) {
                     isExist = true;
                     break;
@@ -129,15 +162,13 @@ public class SettingFragment extends Fragment {
             Category newCategory = new Category(categoryName);
 
             // 异步插入数据库
-            new DbAsyncTask<Category, Void, Boolean>(requireActivity().getApplicationContext(),
+            new DbAsyncTask<Category, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                     new DbAsyncTask.OnDbOperationListener<Boolean>() {
                         @Override
                         public void onDbOperationCompleted(Boolean isSuccess) {
                             if (isSuccess) {
                                 // 主线程更新UI和数据
                                 binding.etAddCategory.setText("");
-                                loadAllDataFromDbAsync(); // 重新加载最新数据
-                                refreshParentCategorySpinner();
                                 Toast.makeText(requireActivity(), "分类添加成功！", Toast.LENGTH_SHORT).show();
                             } else {
                                 Toast.makeText(requireActivity(), "分类添加失败！", Toast.LENGTH_SHORT).show();
@@ -151,7 +182,9 @@ public class SettingFragment extends Fragment {
                             return false;
                         }
                         AppDatabase db = AppDatabase.getInstance(mContext);
-                        db.categoryDao().insertCategory(categories[0]);
+                        Category category = categories[0];
+                        category.setId((int) db.categoryDao().insertCategory(category));
+                        repository.onCategoryAdded(category);
                         return true;
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -179,7 +212,7 @@ public class SettingFragment extends Fragment {
 
             // 获取父分类ID
             Category parentCategory = null;
-            for (Category c : categoryList) {
+            for (Category c : taxonomy.categories) {
                 if (c.getCategoryName() != null && c.getCategoryName().equals(parentCategoryName)) {
                     parentCategory = c;
                     break;
@@ -192,7 +225,7 @@ public class SettingFragment extends Fragment {
 
             // 避免同一父分类下重复添加子分类
             boolean isSubExist = false;
-            for (SubCategory sc : subCategoryList) {
+            for (SubCategory sc : taxonomy.subCategories) {
                 if (sc.getSubCategoryName() != null && sc.getSubCategoryName().equals(subCategoryName)
                         && sc.getParentCategoryId() == parentCategory.getId()) {
                     isSubExist = true;
@@ -208,13 +241,12 @@ public class SettingFragment extends Fragment {
             SubCategory newSubCategory = new SubCategory(subCategoryName, parentCategory.getId(), parentCategoryName);
 
             // 异步插入数据库
-            new DbAsyncTask<SubCategory, Void, Boolean>(requireActivity().getApplicationContext(),
+            new DbAsyncTask<SubCategory, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                     new DbAsyncTask.OnDbOperationListener<Boolean>() {
                         @Override
                         public void onDbOperationCompleted(Boolean isSuccess) {
                             if (isSuccess) {
                                 binding.etAddSubCategory.setText("");
-                                loadAllDataFromDbAsync();
                                 Toast.makeText(requireActivity(), "子分类添加成功！", Toast.LENGTH_SHORT).show();
                             } else {
                                 Toast.makeText(requireActivity(), "子分类添加失败！", Toast.LENGTH_SHORT).show();
@@ -228,7 +260,22 @@ public class SettingFragment extends Fragment {
                             return false;
                         }
                         AppDatabase db = AppDatabase.getInstance(mContext);
-                        db.subCategoryDao().insertSubCategory(subCategories[0]);
+                        SubCategory subCategory = subCategories[0];
+                        Category parent = db.runInTransaction(() -> {
+                            // 父分类是尚未保存的默认分类时先保存，子分类的外键才能关联到它
+                            Category newParent = null;
+                            if (subCategory.getParentCategoryId() == 0) {
+                                newParent = new Category(subCategory.getParentCategoryName());
+                                newParent.setId((int) db.categoryDao().insertCategory(newParent));
+                                subCategory.setParentCategoryId(newParent.getId());
+                            }
+                            subCategory.setId((int) db.subCategoryDao().insertSubCategory(subCategory));
+                            return newParent;
+                        });
+                        if (parent != null) {
+                            repository.onCategoryAdded(parent);
+                        }
+                        repository.onSubCategoryAdded(subCategory);
                         return true;
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -249,7 +296,7 @@ public class SettingFragment extends Fragment {
 
             // 避免重复添加
             boolean isLocExist = false;
-            for (StorageLocation l : storageLocationList) {
+            for (StorageLocation l : taxonomy.locations) {
                 if (l.getLocationName() != null && l.getLocationName().equals(locationName)) {
                     isLocExist = true;
                     break;
@@ -264,13 +311,12 @@ public class SettingFragment extends Fragment {
             StorageLocation newLocation = new StorageLocation(locationName);
 
             // 异步插入数据库
-            new DbAsyncTask<StorageLocation, Void, Boolean>(requireActivity().getApplicationContext(),
+            new DbAsyncTask<StorageLocation, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                     new DbAsyncTask.OnDbOperationListener<Boolean>() {
                         @Override
                         public void onDbOperationCompleted(Boolean isSuccess) {
                             if (isSuccess) {
                                 binding.etAddLocation.setText("");
-                                loadAllDataFromDbAsync();
                                 Toast.makeText(requireActivity(), "位置添加成功！", Toast.LENGTH_SHORT).show();
                             } else {
                                 Toast.makeText(requireActivity(), "位置添加失败！", Toast.LENGTH_SHORT).show();
@@ -284,7 +330,9 @@ public class SettingFragment extends Fragment {
                             return false;
                         }
                         AppDatabase db = AppDatabase.getInstance(mContext);
-                        db.storageLocationDao().insertStorageLocation(storageLocations[0]);
+                        StorageLocation location = storageLocations[0];
+                        location.setId((int) db.storageLocationDao().insertStorageLocation(location));
+                        repository.onLocationAdded(location);
                         return true;
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -296,67 +344,166 @@ public class SettingFragment extends Fragment {
     }
 
     /**
-     * 异步从数据库加载所有数据（核心修复：避免主线程阻塞）
+     * 绑定 CSV 导出/导入按钮（及诊断面板的隐藏入口）
      */
-    private void loadAllDataFromDbAsync() {
-        new DbAsyncTask<Void, Void, Void>(requireActivity().getApplicationContext(),
-                new DbAsyncTask.OnDbOperationListener<Void>() {
-                    @Override
-                    public void onDbOperationCompleted(Void aVoid) {
-                        // 主线程刷新所有适配器（UI操作必须在主线程）
-                        categoryAdapter.notifyDataSetChanged();
-                        subCategoryAdapter.notifyDataSetChanged();
-                        storageLocationAdapter.notifyDataSetChanged();
-                        // 同步刷新父分类Spinner
-                        refreshParentCategorySpinner();
-                    }
-                }) {
-            @Override
-            protected Void doInBackground(Void... voids) {
-                // 子线程执行数据库查询
-                AppDatabase db = AppDatabase.getInstance(mContext);
-
-                // 1. 加载分类
-                categoryList.clear();
-                List<Category> dbCategories = db.categoryDao().queryAllCategories();
-                if (dbCategories != null && !dbCategories.isEmpty()) {
-                    categoryList.addAll(dbCategories);
-                } else {
-                    // 无自定义分类时，添加默认分类
-                    for (String defaultName : defaultCategories) {
-                        categoryList.add(new Category(defaultName));
-                    }
+    private void bindBackupButtons() {
+        binding.btnExportCsv.setOnClickListener(v -> exportCsvLauncher.launch("inventory_backup.csv"));
+        binding.btnImportCsv.setOnClickListener(v -> importCsvLauncher.launch(new String[]{"text/*"}));
+        // 隐藏入口：长按"数据备份"标题
+        binding.tvBackupTitle.setOnLongClickListener(v -> {
+            showDiagnostics();
+            return true;
+        });
+    }
+
+    /**
+     * 诊断面板：各 SQL 语句的耗时分位数（p50/p95/p99）、启动各阶段耗时、最近一次数据库维护结果
+     */
+    private void showDiagnostics() {
+        TextView content = new TextView(requireActivity());
+        content.setText(buildDiagnostics());
+        content.setTypeface(Typeface.MONOSPACE);
+        content.setTextSize(11);
+        content.setTextIsSelectable(true);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        content.setPadding(padding, padding, padding, padding);
+        ScrollView scrollView = new ScrollView(requireActivity());
+        scrollView.addView(content);
+
+        new AlertDialog.Builder(requireActivity())
+                .setTitle("诊断信息")
+                .setView(scrollView)
+                .setPositiveButton("导出", (dialog, which) -> {
+                    String time = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.CHINA).format(new Date());
+                    exportDiagnosticsLauncher.launch("diagnostics_" + time + ".txt");
+                })
+                .setNeutralButton("清空统计", (dialog, which) -> {
+                    QueryMetrics.getInstance().reset();
+                    Toast.makeText(requireActivity(), "已清空SQL耗时统计", Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("关闭", null)
+                .show();
+    }
+
+    private String buildDiagnostics() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("# 启动阶段（距上一阶段 / 距进程启动）\n");
+        for (AppStartup.Phase phase : AppStartup.getInstance(requireActivity().getApplicationContext()).getPhases()) {
+            sb.append(phase).append('\n');
+        }
+        DbMaintenance.Result maintenance = DbMaintenance.getInstance().getLastResult();
+        sb.append("\n# 最近一次数据库维护\n").append(maintenance == null ? "本次启动尚未执行" : maintenance.toString()).append("\n\n");
+        sb.append(QueryMetrics.getInstance().format());
+        return sb.toString();
+    }
+
+    /**
+     * 导出诊断信息到用户选择的文件（内容在点击时生成，后台线程写入）
+     */
+    private void exportDiagnostics(Uri uri) {
+        ContentResolver resolver = requireActivity().getContentResolver();
+        byte[] bytes = buildDiagnostics().getBytes(StandardCharsets.UTF_8);
+        DbExecutor.getInstance().execute(getViewLifecycleOwner(), DbExecutor.Priority.BACKGROUND_READ, () -> {
+            try (OutputStream out = resolver.openOutputStream(uri, "wt")) {
+                if (out == null) {
+                    throw new IOException("无法打开文件：" + uri);
                 }
+                out.write(bytes);
+                return bytes.length;
+            }
+        }, new DbExecutor.Callback<Integer>() {
+            @Override
+            public void onResult(Integer length) {
+                Toast.makeText(requireActivity(), "诊断信息已导出", Toast.LENGTH_SHORT).show();
+            }
 
-                // 2. 加载子分类
-                subCategoryList.clear();
-                List<SubCategory> dbSubCategories = db.subCategoryDao().queryAllSubCategories();
-                if (dbSubCategories != null && !dbSubCategories.isEmpty()) {
-                    subCategoryList.addAll(dbSubCategories);
-                } else {
-                    // 无自定义子分类时，添加默认子分类（关联默认第一个分类）
-                    if (!categoryList.isEmpty()) {
-                        Category defaultParent = categoryList.get(0);
-                        for (String defaultName : defaultSubCategories) {
-                            subCategoryList.add(new SubCategory(defaultName, defaultParent.getId(), defaultParent.getCategoryName()));
-                        }
-                    }
+            @Override
+            public void onError(Throwable error) {
+                error.printStackTrace();
+                Toast.makeText(requireActivity(), "导出失败：" + error.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    /**
+     * 导出到用户选择的文件（读线程执行：先导出一致快照到缓存目录，再写入目标文件，导出期间不阻塞保存/删除）
+     */
+    private void exportCsv(Uri uri) {
+        ContentResolver resolver = requireActivity().getContentResolver();
+        AppDatabase db = AppDatabase.getInstance(requireActivity().getApplicationContext());
+        File cacheDir = requireActivity().getCacheDir();
+        DbExecutor.getInstance().execute(getViewLifecycleOwner(), DbExecutor.Priority.BACKGROUND_READ, () -> {
+            File spool = File.createTempFile("export", ".csv", cacheDir);
+            try (OutputStream out = resolver.openOutputStream(uri, "wt")) {
+                if (out == null) {
+                    throw new IOException("无法打开文件：" + uri);
                 }
+                return InventoryCsv.exportSnapshotTo(db, spool, out);
+            } finally {
+                spool.delete();
+            }
+        }, new DbExecutor.Callback<Integer>() {
+            @Override
+            public void onResult(Integer rows) {
+                Toast.makeText(requireActivity(), "已导出 " + rows + " 条记录", Toast.LENGTH_SHORT).show();
+            }
 
-                // 3. 加载存放位置
-                storageLocationList.clear();
-                List<StorageLocation> dbLocations = db.storageLocationDao().queryAllStorageLocations();
-                if (dbLocations != null && !dbLocations.isEmpty()) {
-                    storageLocationList.addAll(dbLocations);
-                } else {
-                    // 无自定义位置时，添加默认位置
-                    for (String defaultName : defaultLocations) {
-                        storageLocationList.add(new StorageLocation(defaultName));
-                    }
+            @Override
+            public void onError(Throwable error) {
+                error.printStackTrace();
+                Toast.makeText(requireActivity(), "导出失败：" + error.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    /**
+     * 从用户选择的文件导入（分批事务写入，完成后重新加载共享缓存）
+     */
+    private void importCsv(Uri uri) {
+        ContentResolver resolver = requireActivity().getContentResolver();
+        AppDatabase db = AppDatabase.getInstance(requireActivity().getApplicationContext());
+        DbExecutor.getInstance().execute(getViewLifecycleOwner(), DbExecutor.Priority.BACKGROUND_WRITE, () -> {
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) {
+                    throw new IOException("无法打开文件：" + uri);
                 }
-                return null;
+                int rows = InventoryCsv.importFrom(db, in);
+                // 导入可能写入任意多条分类/位置，无法逐条跟踪，整体重新读取一次
+                repository.reload();
+                return rows;
+            }
+        }, new DbExecutor.Callback<Integer>() {
+            @Override
+            public void onResult(Integer rows) {
+                Toast.makeText(requireActivity(), "已导入 " + rows + " 条记录", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                error.printStackTrace();
+                Toast.makeText(requireActivity(), "导入失败：" + error.getMessage(), Toast.LENGTH_LONG).show();
             }
-        }.execute();
+        });
+    }
+
+    /**
+     * 监听共享缓存的快照（启动预加载完成、增删、导入后都会收到新快照）
+     */
+    private void observeTaxonomy() {
+        applyData(taxonomy);
+        repository.observe().observe(getViewLifecycleOwner(), this::applyData);
+    }
+
+    /**
+     * 换用新快照并刷新所有适配器（主线程执行）
+     */
+    private void applyData(TaxonomySnapshot snapshot) {
+        taxonomy = snapshot;
+        categoryAdapter.notifyDataSetChanged();
+        subCategoryAdapter.notifyDataSetChanged();
+        storageLocationAdapter.notifyDataSetChanged();
+        // 同步刷新父分类Spinner
+        refreshParentCategorySpinner();
     }
 
     /**
@@ -364,7 +511,7 @@ public class SettingFragment extends Fragment {
      */
     private void refreshParentCategorySpinner() {
         parentCategorySpinnerAdapter.clear();
-        for (Category c : categoryList) {
+        for (Category c : taxonomy.categories) {
             if (c.getCategoryName() != null) {
                 parentCategorySpinnerAdapter.add(c.getCategoryName());
             }
@@ -379,12 +526,12 @@ public class SettingFragment extends Fragment {
 
         @Override
         public int getCount() {
-            return categoryList.size();
+            return taxonomy.categories.size();
         }
 
         @Override
         public Object getItem(int position) {
-            return (position >= 0 && position < categoryList.size()) ? categoryList.get(position) : null;
+            return (position >= 0 && position < taxonomy.categories.size()) ? taxonomy.categories.get(position) : null;
         }
 
         @Override
@@ -407,10 +554,10 @@ public class SettingFragment extends Fragment {
             }
 
             // 空安全判断，避免列表越界
-            if (position < 0 || position >= categoryList.size()) {
+            if (position < 0 || position >= taxonomy.categories.size()) {
                 return convertView;
             }
-            Category category = categoryList.get(position);
+            Category category = taxonomy.categories.get(position);
             if (category == null || category.getCategoryName() == null) {
                 return convertView;
             }
@@ -418,7 +565,7 @@ public class SettingFragment extends Fragment {
 
             // 长按删除（异步操作，避免主线程阻塞）
             convertView.setOnLongClickListener(v -> {
-                Category delCategory = categoryList.get(position);
+                Category delCategory = taxonomy.categories.get(position);
                 if (delCategory == null) {
                     Toast.makeText(requireActivity(), "获取分类数据失败！", Toast.LENGTH_SHORT).show();
                     return true;
@@ -426,16 +573,14 @@ public class SettingFragment extends Fragment {
 
                 new AlertDialog.Builder(requireActivity())
                         .setTitle("删除确认")
-                        .setMessage("确定要删除分类【" + delCategory.getCategoryName() + "】吗？该分类下的子分类也会被删除！")
+                        .setMessage("确定要删除分类【" + delCategory.getCategoryName() + "】吗？该分类下的子分类也会被删除，相关物品变为未设置分类！")
                         .setPositiveButton("确定", (dialog, which) -> {
                             // 异步删除分类
-                            new DbAsyncTask<Category, Void, Boolean>(requireActivity().getApplicationContext(),
+                            new DbAsyncTask<Category, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                                     new DbAsyncTask.OnDbOperationListener<Boolean>() {
                                         @Override
                                         public void onDbOperationCompleted(Boolean isSuccess) {
                                             if (isSuccess) {
-                                                loadAllDataFromDbAsync(); // 重新加载数据
-                                                refreshParentCategorySpinner();
                                                 Toast.makeText(requireActivity(), "分类删除成功！", Toast.LENGTH_SHORT).show();
                                             } else {
                                                 Toast.makeText(requireActivity(), "分类删除失败！", Toast.LENGTH_SHORT).show();
@@ -449,8 +594,9 @@ public class SettingFragment extends Fragment {
                                             return false;
                                         }
                                         AppDatabase db = AppDatabase.getInstance(mContext);
-                                        // 删除分类
+                                        // 删除分类（子分类由外键级联删除，一条语句完成）
                                         db.categoryDao().deleteCategory(categories[0]);
+                                        repository.onCategoryDeleted(categories[0].getId());
                                         return true;
                                     } catch (Exception e) {
                                         e.printStackTrace();
@@ -479,12 +625,12 @@ public class SettingFragment extends Fragment {
 
         @Override
         public int getCount() {
-            return subCategoryList.size();
+            return taxonomy.subCategories.size();
         }
 
         @Override
         public Object getItem(int position) {
-            return (position >= 0 && position < subCategoryList.size()) ? subCategoryList.get(position) : null;
+            return (position >= 0 && position < taxonomy.subCategories.size()) ? taxonomy.subCategories.get(position) : null;
         }
 
         @Override
@@ -507,10 +653,10 @@ public class SettingFragment extends Fragment {
             }
 
             // 空安全判断
-            if (position < 0 || position >= subCategoryList.size()) {
+            if (position < 0 || position >= taxonomy.subCategories.size()) {
                 return convertView;
             }
-            SubCategory subCategory = subCategoryList.get(position);
+            SubCategory subCategory = taxonomy.subCategories.get(position);
             if (subCategory == null) {
                 return convertView;
             }
@@ -524,7 +670,7 @@ public class SettingFragment extends Fragment {
 
             // 长按删除（异步操作）
             convertView.setOnLongClickListener(v -> {
-                SubCategory delSubCategory = subCategoryList.get(position);
+                SubCategory delSubCategory = taxonomy.subCategories.get(position);
                 if (delSubCategory == null) {
                     Toast.makeText(requireActivity(), "获取子分类数据失败！", Toast.LENGTH_SHORT).show();
                     return true;
@@ -535,12 +681,11 @@ public class SettingFragment extends Fragment {
                         .setMessage("确定要删除子分类【" + delSubCategory.getSubCategoryName() + "】吗？")
                         .setPositiveButton("确定", (dialog, which) -> {
                             // 异步删除子分类
-                            new DbAsyncTask<SubCategory, Void, Boolean>(requireActivity().getApplicationContext(),
+                            new DbAsyncTask<SubCategory, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                                     new DbAsyncTask.OnDbOperationListener<Boolean>() {
                                         @Override
                                         public void onDbOperationCompleted(Boolean isSuccess) {
                                             if (isSuccess) {
-                                                loadAllDataFromDbAsync();
                                                 Toast.makeText(requireActivity(), "子分类删除成功！", Toast.LENGTH_SHORT).show();
                                             } else {
                                                 Toast.makeText(requireActivity(), "子分类删除失败！", Toast.LENGTH_SHORT).show();
@@ -555,6 +700,7 @@ public class SettingFragment extends Fragment {
                                         }
                                         AppDatabase db = AppDatabase.getInstance(mContext);
                                         db.subCategoryDao().deleteSubCategory(subCategories[0]);
+                                        repository.onSubCategoryDeleted(subCategories[0].getId());
                                         return true;
                                     } catch (Exception e) {
                                         e.printStackTrace();
@@ -584,12 +730,12 @@ public class SettingFragment extends Fragment {
 
         @Override
         public int getCount() {
-            return storageLocationList.size();
+            return taxonomy.locations.size();
         }
 
         @Override
         public Object getItem(int position) {
-            return (position >= 0 && position < storageLocationList.size()) ? storageLocationList.get(position) : null;
+            return (position >= 0 && position < taxonomy.locations.size()) ? taxonomy.locations.get(position) : null;
         }
 
         @Override
@@ -611,10 +757,10 @@ public class SettingFragment extends Fragment {
             }
 
             // 空安全判断
-            if (position < 0 || position >= storageLocationList.size()) {
+            if (position < 0 || position >= taxonomy.locations.size()) {
                 return convertView;
             }
-            StorageLocation location = storageLocationList.get(position);
+            StorageLocation location = taxonomy.locations.get(position);
             if (location == null || location.getLocationName() == null) {
                 return convertView;
             }
@@ -622,7 +768,7 @@ public class SettingFragment extends Fragment {
 
             // 长按删除（异步操作）
             convertView.setOnLongClickListener(v -> {
-                StorageLocation delLocation = storageLocationList.get(position);
+                StorageLocation delLocation = taxonomy.locations.get(position);
                 if (delLocation == null) {
                     Toast.makeText(requireActivity(), "获取位置数据失败！", Toast.LENGTH_SHORT).show();
                     return true;
@@ -630,15 +776,14 @@ public class SettingFragment extends Fragment {
 
                 new AlertDialog.Builder(requireActivity())
                         .setTitle("删除确认")
-                        .setMessage("确定要删除位置【" + delLocation.getLocationName() + "】吗？")
+                        .setMessage("确定要删除位置【" + delLocation.getLocationName() + "】吗？相关物品变为未设置位置！")
                         .setPositiveButton("确定", (dialog, which) -> {
                             // 异步删除位置
-                            new DbAsyncTask<StorageLocation, Void, Boolean>(requireActivity().getApplicationContext(),
+                            new DbAsyncTask<StorageLocation, Void, Boolean>(requireActivity().getApplicationContext(), getViewLifecycleOwner(), DbExecutor.Priority.WRITE,
                                     new DbAsyncTask.OnDbOperationListener<Boolean>() {
                                         @Override
                                         public void onDbOperationCompleted(Boolean isSuccess) {
                                             if (isSuccess) {
-                                                loadAllDataFromDbAsync();
                                                 Toast.makeText(requireActivity(), "位置删除成功！", Toast.LENGTH_SHORT).show();
                                             } else {
                                                 Toast.makeText(requireActivity(), "位置删除失败！", Toast.LENGTH_SHORT).show();
@@ -653,6 +798,7 @@ public class SettingFragment extends Fragment {
                                         }
                                         AppDatabase db = AppDatabase.getInstance(mContext);
                                         db.storageLocationDao().deleteStorageLocation(storageLocations[0]);
+                                        repository.onLocationDeleted(storageLocations[0].getId());
                                         return true;
                                     } catch (Exception e) {
                                         e.printStackTrace();
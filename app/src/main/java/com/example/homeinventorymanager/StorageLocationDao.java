@@ -1,9 +1,11 @@
 package com.example.homeinventorymanager;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Upsert;
 
 import java.util.List;
 
@@ -12,14 +14,26 @@ import java.util.List;
  */
 @Dao
 public interface StorageLocationDao {
-    // 新增存放位置
+    // 新增存放位置（返回新位置的ID）
     @Insert
-    void insertStorageLocation(StorageLocation storageLocation);
+    long insertStorageLocation(StorageLocation storageLocation);
+
+    // 批量写入存放位置（CSV 导入使用，保留原ID，ID 已存在时更新）
+    @Upsert
+    void upsertStorageLocations(List<StorageLocation> storageLocations);
 
     // 查询所有存放位置（按ID升序）
     @Query("SELECT * FROM storage_location ORDER BY id ASC")
     List<StorageLocation> queryAllStorageLocations();
 
+    // 监听所有存放位置（storage_location 表变化时自动重新查询）
+    @Query("SELECT * FROM storage_location ORDER BY id ASC")
+    LiveData<List<StorageLocation>> observeAllStorageLocations();
+
+    // 按名称查找位置ID（同名取最早的一条，不存在时为 null）
+    @Query("SELECT id FROM storage_location WHERE locationName = :locationName ORDER BY id ASC LIMIT 1")
+    Integer queryLocationIdByName(String locationName);
+
     // 删除存放位置
     @Delete
     void deleteStorageLocation(StorageLocation storageLocation);
@@ -1,13 +1,20 @@
 package com.example.homeinventorymanager;
 
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * 子分类实体类（关联父分类，如食品下的零食、化妆品下的口红）
  */
-@Entity(tableName = "sub_category")
+@Entity(tableName = "sub_category",
+        indices = {@Index("parentCategoryId")}, // 分类联动：按父分类ID查询子分类；删除分类时按该索引级联删除
+        foreignKeys = @ForeignKey(entity = Category.class,
+                parentColumns = "id",
+                childColumns = "parentCategoryId",
+                onDelete = ForeignKey.CASCADE)) // 删除分类时由 SQLite 一并删除其子分类
 public class SubCategory {
     @PrimaryKey(autoGenerate = true)
     private int id; // 主键ID
@@ -1,9 +1,11 @@
 package com.example.homeinventorymanager;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Upsert;
 
 import java.util.List;
 
@@ -12,18 +14,34 @@ import java.util.List;
  */
 @Dao
 public interface SubCategoryDao {
-    // 新增子分类
+    // 新增子分类（返回新子分类的ID）
     @Insert
-    void insertSubCategory(SubCategory subCategory);
+    long insertSubCategory(SubCategory subCategory);
+
+    // 批量写入子分类（CSV 导入使用，保留原ID，ID 已存在时更新）
+    @Upsert
+    void upsertSubCategories(List<SubCategory> subCategories);
 
     // 根据父分类ID查询子分类（核心：实现分类联动，避免跨界）
     @Query("SELECT * FROM sub_category WHERE parentCategoryId = :parentId ORDER BY id ASC")
     List<SubCategory> querySubCategoryByParentId(int parentId);
 
+    // 按名称查找父分类下的子分类ID（走 parentCategoryId 索引，不存在时为 null）
+    @Query("SELECT id FROM sub_category WHERE parentCategoryId = :parentId AND subCategoryName = :subCategoryName ORDER BY id ASC LIMIT 1")
+    Integer querySubCategoryIdByName(int parentId, String subCategoryName);
+
     // 查询所有子分类（用于设置界面展示）
     @Query("SELECT * FROM sub_category ORDER BY parentCategoryId ASC")
     List<SubCategory> queryAllSubCategories();
 
+    // 监听所有子分类（sub_category 表变化时自动重新查询）
+    @Query("SELECT * FROM sub_category ORDER BY parentCategoryId ASC")
+    LiveData<List<SubCategory>> observeAllSubCategories();
+
+    // 监听指定父分类下的子分类
+    @Query("SELECT * FROM sub_category WHERE parentCategoryId = :parentId ORDER BY id ASC")
+    LiveData<List<SubCategory>> observeSubCategoryByParentId(int parentId);
+
     // 删除子分类
     @Delete
     void deleteSubCategory(SubCategory subCategory);
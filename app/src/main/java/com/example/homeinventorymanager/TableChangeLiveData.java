@@ -0,0 +1,79 @@
+package com.example.homeinventorymanager;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.InvalidationTracker;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据表变化通知（基于 Room InvalidationTracker，用于分页列表等无法直接返回 LiveData 的查询）
+ * 关注的表被写入后发出新的版本号；LiveData 只向前台页面分发，页面不可见期间的多次变化在回到前台时合并为一次通知
+ * 首次订阅不会收到通知，页面需自行完成首次加载
+ */
+public class TableChangeLiveData extends LiveData<Long> {
+
+    private final InvalidationTracker tracker;
+    private final InvalidationTracker.Observer trackerObserver;
+    private final AtomicLong version = new AtomicLong();
+    // 是否已注册到 InvalidationTracker（只在主线程读写）
+    private boolean registered = false;
+
+    public TableChangeLiveData(InvalidationTracker tracker, String... tables) {
+        this.tracker = tracker;
+        this.trackerObserver = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changedTables) {
+                // 在 Room 的后台线程回调，切回主线程分发
+                postValue(version.incrementAndGet());
+            }
+        };
+    }
+
+    @Override
+    public void observe(@NonNull LifecycleOwner owner, @NonNull Observer<? super Long> observer) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            return;
+        }
+        super.observe(owner, observer);
+        register();
+    }
+
+    @Override
+    public void observeForever(@NonNull Observer<? super Long> observer) {
+        super.observeForever(observer);
+        register();
+    }
+
+    /**
+     * 最后一个观察者移除后（页面销毁时 LiveData 会自动移除）注销，避免泄漏
+     */
+    @Override
+    public void removeObserver(@NonNull Observer<? super Long> observer) {
+        super.removeObserver(observer);
+        if (!hasObservers()) {
+            unregister();
+        }
+    }
+
+    /**
+     * 注册/注销会同步数据库中的临时触发器，放到写线程执行（单线程，顺序与调用顺序一致）
+     */
+    private void register() {
+        if (!registered) {
+            registered = true;
+            DbExecutor.getInstance().writeExecutor().execute(() -> tracker.addObserver(trackerObserver));
+        }
+    }
+
+    private void unregister() {
+        if (registered) {
+            registered = false;
+            DbExecutor.getInstance().writeExecutor().execute(() -> tracker.removeObserver(trackerObserver));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * 分类、子分类、存放位置的进程内缓存（所有页面共用）
+ * 启动时在后台读取一次三张表，生成不可变的快照；之后设置页面的增删按写时复制生成新快照，不再重新查询
+ * 页面创建时直接从 getSnapshot() 同步填充下拉列表，快照更新时通过 observe() 收到新快照
+ * 快照中的列表和映射都不可修改，可以在任意线程读取；更新方法串行执行（通常在写线程中、数据库写入成功后调用）
+ */
+public final class TaxonomyRepository {
+
+    private static volatile TaxonomyRepository INSTANCE;
+
+    private final AppDatabase db;
+    private final MutableLiveData<TaxonomySnapshot> snapshots;
+    private volatile TaxonomySnapshot snapshot = TaxonomySnapshot.EMPTY;
+    // 快照发布次数（受 this 保护），reload 据此判断读表期间是否有更新穿插
+    private long generation;
+
+    @VisibleForTesting
+    TaxonomyRepository(AppDatabase db) {
+        this.db = db;
+        this.snapshots = new MutableLiveData<>(snapshot);
+    }
+
+    public static TaxonomyRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (TaxonomyRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TaxonomyRepository(AppDatabase.getInstance(context));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 当前快照（主线程可直接读取，不访问数据库）
+     */
+    @NonNull
+    public TaxonomySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 监听快照更新（预加载完成、设置页增删、导入后重新加载）
+     */
+    public LiveData<TaxonomySnapshot> observe() {
+        return snapshots;
+    }
+
+    /**
+     * 重新读取三张表（启动预热时由 AppStartup 调用；批量导入、保存物品时新建了分类/位置等无法逐条跟踪的写入之后调用）
+     * 读表在锁外进行；读表期间有写时复制更新穿插时，读到的结果可能不含该更新，丢弃并重新读取
+     * （更新方法在数据库写入成功之后调用，重新读取一定能读到）
+     */
+    @WorkerThread
+    public TaxonomySnapshot reload() {
+        while (true) {
+            long startGeneration;
+            synchronized (this) {
+                startGeneration = generation;
+            }
+            List<Category> categories = db.categoryDao().queryAllCategories();
+            List<SubCategory> subCategories = db.subCategoryDao().queryAllSubCategories();
+            List<StorageLocation> locations = db.storageLocationDao().queryAllStorageLocations();
+            synchronized (this) {
+                if (generation == startGeneration) {
+                    return publish(new TaxonomySnapshot(categories, subCategories, locations, true));
+                }
+            }
+        }
+    }
+
+    // ========== 写时复制：数据库写入成功后调用，复制表数据、修改后生成新快照，旧快照保持不变 ==========
+    // 新增方法可重复调用：写入之后、回调之前的 reload 可能已读到这一行，同ID的条目直接替换，不会出现两条
+
+    /**
+     * 新增了分类（ID 已由 insertCategory 回填）
+     */
+    public synchronized void onCategoryAdded(Category category) {
+        List<Category> categories = withAdded(snapshot.savedCategories, category, Category::getId);
+        publish(new TaxonomySnapshot(categories, snapshot.savedSubCategories, snapshot.savedLocations, snapshot.loaded));
+    }
+
+    /**
+     * 删除了分类（其子分类已由外键级联删除）
+     */
+    public synchronized void onCategoryDeleted(int categoryId) {
+        List<Category> categories = new ArrayList<>(snapshot.savedCategories.size());
+        for (Category category : snapshot.savedCategories) {
+            if (category.getId() != categoryId) {
+                categories.add(category);
+            }
+        }
+        List<SubCategory> subCategories = new ArrayList<>(snapshot.savedSubCategories.size());
+        for (SubCategory subCategory : snapshot.savedSubCategories) {
+            if (subCategory.getParentCategoryId() != categoryId) {
+                subCategories.add(subCategory);
+            }
+        }
+        publish(new TaxonomySnapshot(categories, subCategories, snapshot.savedLocations, snapshot.loaded));
+    }
+
+    /**
+     * 新增了子分类（与查询结果一致，按父分类ID排序）
+     */
+    public synchronized void onSubCategoryAdded(SubCategory subCategory) {
+        List<SubCategory> subCategories = withAdded(snapshot.savedSubCategories, subCategory, SubCategory::getId);
+        Collections.sort(subCategories, Comparator.comparingInt(SubCategory::getParentCategoryId));
+        publish(new TaxonomySnapshot(snapshot.savedCategories, subCategories, snapshot.savedLocations, snapshot.loaded));
+    }
+
+    public synchronized void onSubCategoryDeleted(int subCategoryId) {
+        List<SubCategory> subCategories = new ArrayList<>(snapshot.savedSubCategories.size());
+        for (SubCategory subCategory : snapshot.savedSubCategories) {
+            if (subCategory.getId() != subCategoryId) {
+                subCategories.add(subCategory);
+            }
+        }
+        publish(new TaxonomySnapshot(snapshot.savedCategories, subCategories, snapshot.savedLocations, snapshot.loaded));
+    }
+
+    public synchronized void onLocationAdded(StorageLocation location) {
+        List<StorageLocation> locations = withAdded(snapshot.savedLocations, location, StorageLocation::getId);
+        publish(new TaxonomySnapshot(snapshot.savedCategories, snapshot.savedSubCategories, locations, snapshot.loaded));
+    }
+
+    public synchronized void onLocationDeleted(int locationId) {
+        List<StorageLocation> locations = new ArrayList<>(snapshot.savedLocations.size());
+        for (StorageLocation location : snapshot.savedLocations) {
+            if (location.getId() != locationId) {
+                locations.add(location);
+            }
+        }
+        publish(new TaxonomySnapshot(snapshot.savedCategories, snapshot.savedSubCategories, locations, snapshot.loaded));
+    }
+
+    /**
+     * 复制列表并加入新条目：已有同ID的条目时原位替换，否则追加到末尾
+     */
+    private static <T> List<T> withAdded(List<T> source, T added, ToIntFunction<T> idOf) {
+        List<T> copy = new ArrayList<>(source.size() + 1);
+        int addedId = idOf.applyAsInt(added);
+        boolean replaced = false;
+        for (T entry : source) {
+            if (!replaced && idOf.applyAsInt(entry) == addedId) {
+                copy.add(added);
+                replaced = true;
+            } else {
+                copy.add(entry);
+            }
+        }
+        if (!replaced) {
+            copy.add(added);
+        }
+        return copy;
+    }
+
+    private TaxonomySnapshot publish(TaxonomySnapshot next) {
+        generation++;
+        snapshot = next;
+        snapshots.postValue(next);
+        return next;
+    }
+}
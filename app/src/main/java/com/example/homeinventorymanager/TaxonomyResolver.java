@@ -0,0 +1,113 @@
+package com.example.homeinventorymanager;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分类/子分类/位置名称 -> ID（item 表只保存ID）
+ * 下拉列表选中的是名称，其中的默认选项（表中无数据时显示）和 CSV 中手写的名称在表中可能还不存在，此时新建一条再返回其ID
+ * 结果在本实例中缓存（CSV 导入时同一名称只查一次）；需在写线程的事务中使用
+ * 新建过数据时（hasCreatedRows）调用方在事务提交后刷新 TaxonomyRepository
+ */
+final class TaxonomyResolver {
+
+    private final AppDatabase db;
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final Map<String, Integer> locationIds = new HashMap<>();
+    // 键：父分类ID + '/' + 子分类名称
+    private final Map<String, Integer> subCategoryIds = new HashMap<>();
+    private boolean createdRows = false;
+
+    TaxonomyResolver(AppDatabase db) {
+        this.db = db;
+    }
+
+    /**
+     * 按名称设置物品的分类/子分类/位置ID（名称为空时置为 null）
+     */
+    @WorkerThread
+    void assign(Item item, @Nullable String category, @Nullable String subCategory, @Nullable String location) {
+        Integer categoryId = categoryId(category);
+        item.setCategoryId(categoryId);
+        item.setSubCategoryId(subCategoryId(categoryId, category, subCategory));
+        item.setLocationId(locationId(location));
+    }
+
+    /**
+     * 分类ID（不存在时新建）
+     */
+    @Nullable
+    @WorkerThread
+    Integer categoryId(@Nullable String name) {
+        if (isBlank(name)) {
+            return null;
+        }
+        Integer id = categoryIds.get(name);
+        if (id == null) {
+            id = db.categoryDao().queryCategoryIdByName(name);
+            if (id == null) {
+                id = (int) db.categoryDao().insertCategory(new Category(name));
+                createdRows = true;
+            }
+            categoryIds.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * 父分类下的子分类ID（不存在时新建；没有父分类、或为"暂无子分类"占位文本时为 null）
+     */
+    @Nullable
+    @WorkerThread
+    Integer subCategoryId(@Nullable Integer categoryId, @Nullable String categoryName, @Nullable String name) {
+        if (categoryId == null || isBlank(name) || AppDatabase.NO_SUB_CATEGORY.equals(name)) {
+            return null;
+        }
+        String key = categoryId + "/" + name;
+        Integer id = subCategoryIds.get(key);
+        if (id == null) {
+            id = db.subCategoryDao().querySubCategoryIdByName(categoryId, name);
+            if (id == null) {
+                id = (int) db.subCategoryDao().insertSubCategory(new SubCategory(name, categoryId, categoryName));
+                createdRows = true;
+            }
+            subCategoryIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * 位置ID（不存在时新建）
+     */
+    @Nullable
+    @WorkerThread
+    Integer locationId(@Nullable String name) {
+        if (isBlank(name)) {
+            return null;
+        }
+        Integer id = locationIds.get(name);
+        if (id == null) {
+            id = db.storageLocationDao().queryLocationIdByName(name);
+            if (id == null) {
+                id = (int) db.storageLocationDao().insertStorageLocation(new StorageLocation(name));
+                createdRows = true;
+            }
+            locationIds.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * 是否新建过分类/子分类/位置
+     */
+    boolean hasCreatedRows() {
+        return createdRows;
+    }
+
+    private static boolean isBlank(@Nullable String name) {
+        return name == null || name.trim().isEmpty();
+    }
+}
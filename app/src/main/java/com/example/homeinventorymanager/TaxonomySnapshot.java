@@ -0,0 +1,90 @@
+package com.example.homeinventorymanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分类/子分类/位置的不可变快照（由 TaxonomyRepository 生成并在各页面间共享）
+ * 表中的数据（saved*）+ 实际显示的数据（表为空时替换为兜底默认数据）+ 父分类ID -> 子分类的映射
+ * 不依赖 Android，JMH 基准测试（benchmark 模块）直接编译本文件
+ */
+public final class TaxonomySnapshot {
+
+    // 兜底默认数据（表中没有数据时显示，ID 为 0，选中后由 TaxonomyResolver 在保存物品时新建）
+    static final String[] DEFAULT_CATEGORIES = {"食品", "日用品", "家电", "服饰", "其他"};
+    static final String[] DEFAULT_SUB_CATEGORIES = {"零食", "生鲜", "调味品", "清洁用品", "洗漱用品", "其他"};
+    static final String[] DEFAULT_LOCATIONS = {"冰箱", "厨房橱柜", "卫生间", "卧室衣柜", "客厅书架", "阳台", "其他"};
+
+    static final TaxonomySnapshot EMPTY = new TaxonomySnapshot(Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList(), false);
+
+    // 是否已从数据库加载（启动预加载完成前为 false）
+    public final boolean loaded;
+    // 下拉列表/设置页显示的数据（不可修改）
+    public final List<Category> categories;
+    public final List<SubCategory> subCategories;
+    public final List<StorageLocation> locations;
+    // 表中的实际数据（写时复制的基础）
+    final List<Category> savedCategories;
+    final List<SubCategory> savedSubCategories;
+    final List<StorageLocation> savedLocations;
+    private final Map<Integer, List<SubCategory>> subCategoriesByParent;
+
+    public TaxonomySnapshot(List<Category> savedCategories, List<SubCategory> savedSubCategories,
+                            List<StorageLocation> savedLocations, boolean loaded) {
+        this.loaded = loaded;
+        this.savedCategories = Collections.unmodifiableList(savedCategories);
+        this.savedSubCategories = Collections.unmodifiableList(savedSubCategories);
+        this.savedLocations = Collections.unmodifiableList(savedLocations);
+
+        List<Category> categoryView = new ArrayList<>(savedCategories);
+        if (categoryView.isEmpty()) {
+            for (String name : DEFAULT_CATEGORIES) {
+                categoryView.add(new Category(name));
+            }
+        }
+        List<SubCategory> subCategoryView = new ArrayList<>(savedSubCategories);
+        if (subCategoryView.isEmpty()) {
+            // 无自定义子分类时，默认子分类关联到第一个分类
+            Category defaultParent = categoryView.get(0);
+            for (String name : DEFAULT_SUB_CATEGORIES) {
+                subCategoryView.add(new SubCategory(name, defaultParent.getId(), defaultParent.getCategoryName()));
+            }
+        }
+        List<StorageLocation> locationView = new ArrayList<>(savedLocations);
+        if (locationView.isEmpty()) {
+            for (String name : DEFAULT_LOCATIONS) {
+                locationView.add(new StorageLocation(name));
+            }
+        }
+        this.categories = Collections.unmodifiableList(categoryView);
+        this.subCategories = Collections.unmodifiableList(subCategoryView);
+        this.locations = Collections.unmodifiableList(locationView);
+
+        // 分类联动子分类时按父分类ID直接取，不再逐个遍历全部子分类
+        Map<Integer, List<SubCategory>> byParent = new HashMap<>();
+        for (SubCategory subCategory : subCategoryView) {
+            List<SubCategory> children = byParent.get(subCategory.getParentCategoryId());
+            if (children == null) {
+                children = new ArrayList<>();
+                byParent.put(subCategory.getParentCategoryId(), children);
+            }
+            children.add(subCategory);
+        }
+        for (Map.Entry<Integer, List<SubCategory>> entry : byParent.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.subCategoriesByParent = Collections.unmodifiableMap(byParent);
+    }
+
+    /**
+     * 父分类下的子分类（按ID升序，没有时为空列表）
+     */
+    public List<SubCategory> subCategoriesOf(int parentCategoryId) {
+        List<SubCategory> children = subCategoriesByParent.get(parentCategoryId);
+        return children == null ? Collections.emptyList() : children;
+    }
+}
@@ -2,9 +2,23 @@ package com.example.homeinventorymanager.bean;
 
 import androidx.room.Entity;
 import androidx.room.ColumnInfo;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "item_image") // 你的表名，可保持不变
+import com.example.homeinventorymanager.Item;
+
+@Entity(tableName = "item_image", // 你的表名，可保持不变
+        indices = {
+                @Index("item_id"), // 按物品ID查询/删除图片
+                @Index("image_path"), // 缩略图生成后按原图路径回写
+                @Index("content_hash"), // 按内容哈希统计引用数
+                @Index("source_uri") // 再次选择同一张图片时直接复用
+        },
+        foreignKeys = @ForeignKey(entity = Item.class,
+                parentColumns = "id",
+                childColumns = "item_id",
+                onDelete = ForeignKey.CASCADE)) // 删除物品时由 SQLite 一并删除其图片记录（文件由 ImageStore/清理任务删除）
 public class ItemImage {
     // 自身主键（可选，若不需要可删除，不影响核心功能）
     @PrimaryKey(autoGenerate = true)
@@ -18,6 +32,21 @@ public class ItemImage {
     @ColumnInfo(name = "image_path")
     private String imagePath;
 
+    // 缩略图路径（最长边 200px / 600px，后台生成完成前为 null）
+    @ColumnInfo(name = "thumb_small_path")
+    private String thumbSmallPath;
+
+    @ColumnInfo(name = "thumb_large_path")
+    private String thumbLargePath;
+
+    // 图片内容的 SHA-256（十六进制）；存入 ImageStore 的图片才有，同一内容的多条记录共用一个文件
+    @ColumnInfo(name = "content_hash")
+    private String contentHash;
+
+    // 选择图片时的来源 Uri（相册等），拍摄的照片为 null
+    @ColumnInfo(name = "source_uri")
+    private String sourceUri;
+
     // 无参构造器（Room 必需，不可缺少）
     public ItemImage() {}
 
@@ -47,6 +76,38 @@ public class ItemImage {
         this.imagePath = imagePath;
     }
 
+    public String getThumbSmallPath() {
+        return thumbSmallPath;
+    }
+
+    public void setThumbSmallPath(String thumbSmallPath) {
+        this.thumbSmallPath = thumbSmallPath;
+    }
+
+    public String getThumbLargePath() {
+        return thumbLargePath;
+    }
+
+    public void setThumbLargePath(String thumbLargePath) {
+        this.thumbLargePath = thumbLargePath;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getSourceUri() {
+        return sourceUri;
+    }
+
+    public void setSourceUri(String sourceUri) {
+        this.sourceUri = sourceUri;
+    }
+
     public long getId() { // 若id字段是long，getter返回值也必须是long
         return id;
     }
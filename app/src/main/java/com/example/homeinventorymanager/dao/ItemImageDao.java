@@ -3,6 +3,7 @@ package com.example.homeinventorymanager.dao;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Upsert;
 
 import com.example.homeinventorymanager.bean.ItemImage;
 
@@ -22,6 +23,70 @@ public interface ItemImageDao {
     @Query("SELECT image_path FROM item_image WHERE item_id = :itemId")
     List<String> queryImagePathsByItemId(long itemId);
 
+    /**
+     * 根据物品ID查询图片记录（含缩略图路径，预览时按显示尺寸选择）
+     * @param itemId 物品ID
+     */
+    @Query("SELECT * FROM item_image WHERE item_id = :itemId ORDER BY id")
+    List<ItemImage> queryImagesByItemId(long itemId);
+
+    /**
+     * 回写缩略图路径（缩略图在后台生成，完成时图片记录可能已保存，也可能尚未保存）
+     * @param imagePath 原图路径
+     * @return 更新的记录数
+     */
+    @Query("UPDATE item_image SET thumb_small_path = :smallPath, thumb_large_path = :largePath WHERE image_path = :imagePath")
+    int updateThumbnails(String imagePath, String smallPath, String largePath);
+
+    /**
+     * 统计引用同一图片内容的记录数（引用数为 0 时 ImageStore 才删除文件）
+     * @param contentHash 内容哈希
+     */
+    @Query("SELECT COUNT(*) FROM item_image WHERE content_hash = :contentHash")
+    int countImagesByContentHash(String contentHash);
+
+    /**
+     * 按来源 Uri 查询最近一次存入 ImageStore 的记录（再次选择同一张图片时不必重新读取）
+     * @param sourceUri 来源 Uri
+     * @return 没有记录时为 null
+     */
+    @Query("SELECT * FROM item_image WHERE source_uri = :sourceUri AND content_hash IS NOT NULL ORDER BY id DESC LIMIT 1")
+    ItemImage queryImageBySourceUri(String sourceUri);
+
+    /**
+     * 从 afterId 之后取 limit 条记录作为一批，返回这一批的最大 id（清理任务按 id 分批推进）
+     * @return 没有更多记录时为 null
+     */
+    @Query("SELECT MAX(id) FROM (SELECT id FROM item_image WHERE id > :afterId ORDER BY id LIMIT :limit)")
+    Long queryImageIdWindowEnd(long afterId, int limit);
+
+    /**
+     * 查询 id 在 (afterId, toId] 范围内、所属物品已不存在的图片记录
+     */
+    @Query("SELECT * FROM item_image WHERE id > :afterId AND id <= :toId " +
+            "AND NOT EXISTS (SELECT 1 FROM item WHERE item.id = item_image.item_id) ORDER BY id")
+    List<ItemImage> queryOrphanImagesInRange(long afterId, long toId);
+
+    /**
+     * 查询给定路径中被记录引用为原图的路径
+     */
+    @Query("SELECT DISTINCT image_path FROM item_image WHERE image_path IN (:paths)")
+    List<String> queryReferencedImagePaths(List<String> paths);
+
+    /**
+     * 查询给定路径中被记录引用为缩略图的路径（缩略图列没有索引，只在后台清理时按批调用）
+     */
+    @Query("SELECT thumb_small_path FROM item_image WHERE thumb_small_path IN (:paths) " +
+            "UNION SELECT thumb_large_path FROM item_image WHERE thumb_large_path IN (:paths)")
+    List<String> queryReferencedThumbnailPaths(List<String> paths);
+
+    /**
+     * 按记录ID批量删除
+     * @return 删除的记录数
+     */
+    @Query("DELETE FROM item_image WHERE id IN (:ids)")
+    int deleteItemImagesByIds(List<Long> ids);
+
     /**
      * 插入单张物品图片关联记录
      * @param itemImage 物品图片对象
@@ -36,6 +101,13 @@ public interface ItemImageDao {
     @Insert
     void insertItemImageList(List<ItemImage> itemImageList);
 
+    /**
+     * 批量写入图片记录（CSV 导入使用，保留原ID，ID 已存在时更新）
+     * @param itemImageList 物品图片对象列表
+     */
+    @Upsert
+    void upsertItemImages(List<ItemImage> itemImageList);
+
     /**
      * 根据物品ID删除所有关联的图片记录
      * @param itemId 物品ID
@@ -0,0 +1,332 @@
+package com.example.homeinventorymanager.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.webkit.MimeTypeMap;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.example.homeinventorymanager.AppDatabase;
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 按内容寻址的图片存储：选择的图片通过 ContentResolver 的输入流复制到应用私有目录，复制的同时计算 SHA-256
+ * 文件名即内容哈希（images/哈希.扩展名），同一张图片无论被多少个物品引用都只保存一份
+ * 引用数 = item_image 中 content_hash 相同的记录数，降为 0 时才删除文件（及其缩略图）
+ * 再次选择同一个 Uri 时（本次运行中或已保存过的记录）直接复用已有文件，不读取也不写入
+ * 复用已有文件（检查存在并记入 SOURCES）与删除文件（检查无引用且不在 SOURCES 中再删除）在 FILE_LOCK 下互斥，
+ * 删除时的引用计数在写事务中进行，计数到删除之间不会有新的图片记录写入
+ */
+public final class ImageStore {
+
+    static final String IMAGE_DIR = "images";
+    private static final String DEFAULT_EXTENSION = "jpg";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // SHA-256 的十六进制长度
+    private static final int HASH_LENGTH = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // 来源 Uri -> 已存入的图片（本次运行中选择过的）
+    private static final LruCache<String, StoredImage> RECENT = new LruCache<>(256);
+    // 已存入的图片路径 -> 来源 Uri（保存图片记录时补上 source_uri）
+    private static final LruCache<String, String> SOURCES = new LruCache<>(256);
+    // 文件的复用与删除互斥（持有期间不访问数据库，避免与写事务互相等待）
+    private static final Object FILE_LOCK = new Object();
+
+    // 复制是顺序读写，单线程依次处理
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-store");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private ImageStore() {
+    }
+
+    /**
+     * 存入结果回调（主线程执行）
+     */
+    public interface Callback {
+        /**
+         * @param image 存入的图片；Uri 无法读取时为 null
+         */
+        void onImported(Uri uri, @Nullable StoredImage image);
+    }
+
+    /**
+     * 存储中的一张图片
+     */
+    public static final class StoredImage {
+        public final String path;
+        public final String contentHash;
+        // true=内容已存在，没有新写入文件
+        public final boolean reused;
+
+        StoredImage(String path, String contentHash, boolean reused) {
+            this.path = path;
+            this.contentHash = contentHash;
+            this.reused = reused;
+        }
+    }
+
+    /**
+     * 后台存入选择的图片（相册返回后调用）
+     * @param callback 主线程回调（调用方自行判断页面是否已销毁）
+     */
+    public static void importAsync(Context context, Uri uri, Callback callback) {
+        Context appContext = context.getApplicationContext();
+        EXECUTOR.execute(() -> {
+            StoredImage image = null;
+            try {
+                image = importFrom(appContext, uri);
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+            StoredImage result = image;
+            MAIN_HANDLER.post(() -> callback.onImported(uri, result));
+        });
+    }
+
+    /**
+     * 存入一张图片：已知的 Uri 直接复用；否则边复制边计算哈希，内容已存在时丢弃临时文件
+     * @throws IOException Uri 无法读取或无法写入存储目录
+     */
+    @WorkerThread
+    public static StoredImage importFrom(Context context, Uri uri) throws IOException {
+        String sourceUri = uri.toString();
+        StoredImage known = findKnown(context, sourceUri);
+        if (known != null) {
+            return known;
+        }
+
+        File dir = imageDir(context);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("无法创建图片目录：" + dir);
+        }
+        ContentResolver resolver = context.getContentResolver();
+        File temp = File.createTempFile("import", ".tmp", dir);
+        String contentHash;
+        try {
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) {
+                    throw new IOException("无法读取图片：" + uri);
+                }
+                contentHash = copyAndHash(in, temp);
+            }
+            File target = new File(dir, contentHash + "." + extensionFor(resolver, uri));
+            synchronized (FILE_LOCK) {
+                boolean reused = target.exists();
+                if (reused) {
+                    temp.delete();
+                } else if (!temp.renameTo(target)) {
+                    throw new IOException("无法保存图片：" + target);
+                }
+                StoredImage image = new StoredImage(target.getAbsolutePath(), contentHash, reused);
+                remember(sourceUri, image);
+                return image;
+            }
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * 为新添加的图片创建记录（尚未关联物品）：补上存储信息，已生成的缩略图直接记录，尚未生成的由 ThumbnailStore 完成后回写
+     * @param path 原图路径
+     */
+    @WorkerThread
+    public static ItemImage newItemImage(Context context, String path) {
+        ItemImage itemImage = new ItemImage();
+        itemImage.setImagePath(path);
+        fillStoreInfo(itemImage);
+        ThumbnailStore.Thumbnails thumbnails = ThumbnailStore.findExisting(context, path);
+        if (thumbnails != null) {
+            itemImage.setThumbSmallPath(thumbnails.smallPath);
+            itemImage.setThumbLargePath(thumbnails.largePath);
+        }
+        return itemImage;
+    }
+
+    /**
+     * 为图片记录补上存储信息（内容哈希、来源 Uri）；不是存储中的图片（如拍摄的照片）保持为 null
+     */
+    public static void fillStoreInfo(ItemImage itemImage) {
+        String path = itemImage.getImagePath();
+        itemImage.setContentHash(contentHashOf(path));
+        itemImage.setSourceUri(path == null ? null : SOURCES.get(path));
+    }
+
+    /**
+     * 从存储中的路径得到内容哈希
+     * @return 不是存储中的图片时为 null
+     */
+    @Nullable
+    public static String contentHashOf(@Nullable String path) {
+        if (path == null) {
+            return null;
+        }
+        File file = new File(path);
+        File parent = file.getParentFile();
+        if (parent == null || !IMAGE_DIR.equals(parent.getName())) {
+            return null;
+        }
+        String name = file.getName();
+        int dot = name.indexOf('.');
+        String hash = dot < 0 ? name : name.substring(0, dot);
+        return isHash(hash) ? hash : null;
+    }
+
+    /**
+     * 引用数降为 0 时删除图片及其缩略图（删除图片记录之后调用）
+     * 本次运行中刚选择过的图片可能还没保存记录，暂不删除，留给之后的清理
+     * 计数和删除在同一个写事务中：事务期间其他线程无法写入引用该图片的记录，计数为 0 到文件删除之间不会失效
+     * @return true=文件已删除
+     */
+    @WorkerThread
+    public static boolean deleteIfUnreferenced(Context context, String contentHash) {
+        if (!isHash(contentHash)) {
+            return false;
+        }
+        AppDatabase db = AppDatabase.getInstance(context);
+        File dir = imageDir(context);
+        return db.runInTransaction(() -> {
+            if (db.itemImageDao().countImagesByContentHash(contentHash) > 0) {
+                return false;
+            }
+            synchronized (FILE_LOCK) {
+                File[] files = dir.listFiles((parent, name) -> name.startsWith(contentHash));
+                if (files == null) {
+                    return false;
+                }
+                for (File file : files) {
+                    if (SOURCES.get(file.getAbsolutePath()) != null) {
+                        return false;
+                    }
+                }
+                boolean deleted = false;
+                for (File file : files) {
+                    deleted |= file.delete();
+                }
+                return deleted;
+            }
+        });
+    }
+
+    /**
+     * 本次运行中存入过的图片（可能还没有保存图片记录，清理时应跳过）
+     */
+    public static boolean isRecentlyImported(String path) {
+        return SOURCES.get(path) != null;
+    }
+
+    public static File imageDir(Context context) {
+        return new File(context.getFilesDir(), IMAGE_DIR);
+    }
+
+    /**
+     * 已知的 Uri：先查本次运行的缓存，再查已保存的图片记录；文件已被删除时视为未知
+     */
+    @Nullable
+    private static StoredImage findKnown(Context context, String sourceUri) {
+        StoredImage recent = RECENT.get(sourceUri);
+        if (recent != null) {
+            StoredImage image = reuseIfExists(sourceUri, recent.path, recent.contentHash);
+            if (image != null) {
+                return image;
+            }
+        }
+        ItemImage saved = AppDatabase.getInstance(context).itemImageDao().queryImageBySourceUri(sourceUri);
+        if (saved != null && saved.getImagePath() != null) {
+            return reuseIfExists(sourceUri, saved.getImagePath(), saved.getContentHash());
+        }
+        return null;
+    }
+
+    /**
+     * 文件仍存在时复用并记入 SOURCES（与 deleteIfUnreferenced 互斥，返回的文件不会随后被删除）
+     */
+    @Nullable
+    private static StoredImage reuseIfExists(String sourceUri, String path, String contentHash) {
+        synchronized (FILE_LOCK) {
+            if (!new File(path).exists()) {
+                return null;
+            }
+            StoredImage image = new StoredImage(path, contentHash, true);
+            remember(sourceUri, image);
+            return image;
+        }
+    }
+
+    private static void remember(String sourceUri, StoredImage image) {
+        RECENT.put(sourceUri, image);
+        SOURCES.put(image.path, sourceUri);
+    }
+
+    /**
+     * 边复制边计算 SHA-256（只读一遍输入流）
+     * @return 十六进制哈希
+     */
+    static String copyAndHash(InputStream in, File target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (FileOutputStream out = new FileOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+            out.getFD().sync();
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String extensionFor(ContentResolver resolver, Uri uri) {
+        String mimeType = resolver.getType(uri);
+        String extension = mimeType == null ? null : MimeTypeMap.getSingleton().getExtensionFromMimeType(mimeType);
+        return extension == null || extension.isEmpty() ? DEFAULT_EXTENSION : extension;
+    }
+
+    private static boolean isHash(@Nullable String value) {
+        if (value == null || value.length() != HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+}
@@ -9,7 +9,9 @@ import androidx.core.content.FileProvider;
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 public class ImageUtils {
@@ -50,6 +52,21 @@ public class ImageUtils {
         }
     }
 
+    /**
+     * 拍摄的照片可能保存的所有目录（不存在的也包含在内；外部存储不可用时不含外部目录）
+     */
+    public static List<File> photoDirs(Context context) {
+        List<File> dirs = new ArrayList<>();
+        File pictures = context.getExternalFilesDir(Environment.DIRECTORY_PICTURES);
+        if (pictures != null) {
+            dirs.add(pictures);
+            dirs.add(new File(pictures, PHOTO_DIR));
+        }
+        dirs.add(new File(context.getFilesDir(), PHOTO_DIR));
+        dirs.add(new File(context.getCacheDir(), PHOTO_DIR));
+        return dirs;
+    }
+
     /**
      * 创建拍摄照片的文件（优化：优先使用应用私有目录，避免权限问题，抛出异常便于排查）
      */
@@ -0,0 +1,336 @@
+package com.example.homeinventorymanager.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.exifinterface.media.ExifInterface;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拍照后的转码：按 EXIF 方向摆正、缩小到最长边 maxEdge、重新编码（WebP/JPEG），原子替换原文件
+ * 相机应用保存的原图通常 4~8MB，转码后约几百KB，之后的解码（缩略图、预览）也随之变快
+ * 只处理应用自己拍摄的照片，相册中选择的图片不做修改
+ * 在 2 个线程的小线程池中执行；排队数量通过 getProgress() 通知界面，积压过多时界面应暂停添加新照片
+ */
+public final class PhotoTranscoder {
+
+    // 工作线程数（每个线程同一时间只持有一张解码后的图片）
+    private static final int WORKER_COUNT = 2;
+    // 排队（含正在处理）的照片达到该数量时提示界面暂停添加
+    static final int MAX_PENDING = 6;
+
+    private static volatile PhotoTranscoder INSTANCE;
+
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MutableLiveData<Progress> progress = new MutableLiveData<>(Progress.IDLE);
+    // 本轮（从空闲到再次空闲）提交、完成、失败的数量（由 this 保护）
+    private int submitted;
+    private int finished;
+    private int failed;
+    private volatile Config config = Config.DEFAULT;
+
+    /**
+     * 转码参数
+     */
+    public static final class Config {
+        // 默认：最长边 1600px、质量 80、WebP
+        public static final Config DEFAULT = new Config(1600, 80, Format.WEBP);
+
+        public final int maxEdge;
+        public final int quality;
+        public final Format format;
+
+        public Config(int maxEdge, int quality, @NonNull Format format) {
+            this.maxEdge = Math.max(1, maxEdge);
+            this.quality = Math.max(0, Math.min(100, quality));
+            this.format = format;
+        }
+    }
+
+    public enum Format {
+        WEBP, JPEG
+    }
+
+    /**
+     * 转码进度（本轮累计；全部完成后回到 IDLE）
+     */
+    public static final class Progress {
+        public static final Progress IDLE = new Progress(0, 0, 0);
+
+        public final int total;
+        public final int finished;
+        public final int failed;
+
+        Progress(int total, int finished, int failed) {
+            this.total = total;
+            this.finished = finished;
+            this.failed = failed;
+        }
+
+        /**
+         * 尚未完成的数量（排队 + 正在处理）
+         */
+        public int pending() {
+            return total - finished;
+        }
+
+        /**
+         * 积压过多：界面应暂停添加新照片，直到回落
+         */
+        public boolean isSaturated() {
+            return pending() >= MAX_PENDING;
+        }
+
+        public boolean isIdle() {
+            return pending() == 0;
+        }
+    }
+
+    /**
+     * 单张照片转码完成回调（主线程执行）
+     */
+    public interface Callback {
+        /**
+         * @param success false=转码失败，原文件保持不变
+         */
+        void onTranscoded(String path, boolean success);
+    }
+
+    private PhotoTranscoder() {
+        executor = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "photo-transcoder");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static PhotoTranscoder getInstance() {
+        if (INSTANCE == null) {
+            synchronized (PhotoTranscoder.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PhotoTranscoder();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    public void setConfig(@NonNull Config config) {
+        this.config = config;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public LiveData<Progress> getProgress() {
+        return progress;
+    }
+
+    /**
+     * 提交一张照片（拍照返回后调用）；积压时不拒绝，只通过 getProgress() 提示界面
+     * @param callback 主线程回调（调用方自行判断页面是否已销毁），可为 null
+     */
+    public void transcodeAsync(String path, @Nullable Callback callback) {
+        onSubmitted();
+        Config current = config;
+        executor.execute(() -> {
+            boolean success = true;
+            try {
+                transcode(new File(path), current);
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                e.printStackTrace();
+                success = false;
+            }
+            onFinished(success);
+            if (callback != null) {
+                boolean result = success;
+                mainHandler.post(() -> callback.onTranscoded(path, result));
+            }
+        });
+    }
+
+    private synchronized void onSubmitted() {
+        submitted++;
+        publishProgress();
+    }
+
+    private synchronized void onFinished(boolean success) {
+        finished++;
+        if (!success) {
+            failed++;
+        }
+        if (finished == submitted) {
+            // 本轮全部完成，计数归零
+            submitted = 0;
+            finished = 0;
+            failed = 0;
+        }
+        publishProgress();
+    }
+
+    /**
+     * 在锁内发布，保证多个线程发布的顺序与计数变化的顺序一致
+     */
+    private void publishProgress() {
+        progress.postValue(submitted == 0 ? Progress.IDLE : new Progress(submitted, finished, failed));
+    }
+
+    /**
+     * 转码单个文件：已经不超过 maxEdge 且方向正常的照片不处理；转码结果反而更大时保留原文件
+     * @return true=文件已被替换
+     * @throws IOException 无法读取或写入
+     */
+    @WorkerThread
+    public static boolean transcode(File file, Config config) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("无法读取图片：" + file);
+        }
+        int orientation = readOrientation(file);
+        int longest = Math.max(options.outWidth, options.outHeight);
+        if (longest <= config.maxEdge && orientation == ExifInterface.ORIENTATION_NORMAL) {
+            return false;
+        }
+
+        options.inSampleSize = sampleSizeFor(longest, config.maxEdge);
+        options.inJustDecodeBounds = false;
+        Bitmap decoded = BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        if (decoded == null) {
+            throw new IOException("无法解码图片：" + file);
+        }
+        Bitmap output = scaleAndRotate(decoded, config.maxEdge, orientation);
+        File temp = new File(file.getParentFile(), file.getName() + ".transcode");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                if (!output.compress(compressFormat(config.format), config.quality, out)) {
+                    throw new IOException("图片编码失败：" + file);
+                }
+                // 先落盘再替换，断电也不会留下损坏的照片
+                out.getFD().sync();
+            }
+        } finally {
+            if (output != decoded) {
+                output.recycle();
+            }
+            decoded.recycle();
+        }
+
+        if (temp.length() >= file.length() && orientation == ExifInterface.ORIENTATION_NORMAL) {
+            temp.delete();
+            return false;
+        }
+        // 同目录改名是原子操作：其他线程读到的要么是原图，要么是完整的新文件
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("无法替换图片：" + file);
+        }
+        return true;
+    }
+
+    /**
+     * 读取 EXIF 方向（无 EXIF 或读取失败时为 NORMAL）
+     */
+    static int readOrientation(File file) {
+        try {
+            int orientation = new ExifInterface(file.getAbsolutePath())
+                    .getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            return orientation == ExifInterface.ORIENTATION_UNDEFINED ? ExifInterface.ORIENTATION_NORMAL : orientation;
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * 缩放到最长边不超过 maxEdge 并按 EXIF 方向摆正（一次 createBitmap 完成，只分配一张新图）
+     * @return 无需变换时返回原图
+     */
+    static Bitmap scaleAndRotate(Bitmap source, int maxEdge, int orientation) {
+        Matrix matrix = new Matrix();
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        if (longest > maxEdge) {
+            float scale = (float) maxEdge / longest;
+            matrix.setScale(scale, scale);
+        }
+        applyOrientation(matrix, orientation);
+        if (matrix.isIdentity()) {
+            return source;
+        }
+        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    /**
+     * 把 EXIF 方向转换为矩阵变换（追加在已有变换之后）
+     */
+    static void applyOrientation(Matrix matrix, int orientation) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 不低于目标尺寸的最大 2 的幂采样率（解码后最长边仍 >= maxEdge，再精确缩放）
+     */
+    static int sampleSizeFor(int longest, int maxEdge) {
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= maxEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat compressFormat(Format format) {
+        if (format == Format.JPEG) {
+            return Bitmap.CompressFormat.JPEG;
+        }
+        // Android 11 起 WEBP 拆分为有损/无损两种，旧版本的 WEBP 在质量 < 100 时即为有损
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.homeinventorymanager.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.example.homeinventorymanager.AppDatabase;
+import com.example.homeinventorymanager.DbExecutor;
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 缩略图存储：拍照/选图后在后台生成按尺寸分档的缩略图（最长边 200px、600px），保存在原图旁边，路径记录到 item_image
+ * 预览控件按显示尺寸选择档位，不再解码原图（1200 万像素的原图完整解码约 48MB）
+ * 原图所在目录不可写时（如相册中的图片），缩略图保存在应用私有目录
+ */
+public final class ThumbnailStore {
+
+    // 小档：预览格子、列表
+    public static final int SIZE_SMALL = 200;
+    // 大档：详情、放大查看
+    public static final int SIZE_LARGE = 600;
+
+    private static final int JPEG_QUALITY = 85;
+    private static final String THUMBNAIL_DIR = "thumbnails";
+
+    // 解码和压缩都很占内存，单线程依次处理
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thumbnail");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private ThumbnailStore() {
+    }
+
+    /**
+     * 缩略图生成结果回调（主线程执行）
+     */
+    public interface Callback {
+        /**
+         * @param thumbnails 生成的缩略图；原图无法读取时为 null
+         */
+        void onThumbnailsReady(String originalPath, @Nullable Thumbnails thumbnails);
+    }
+
+    /**
+     * 一张原图对应的各档缩略图路径
+     */
+    public static final class Thumbnails {
+        public final String smallPath;
+        public final String largePath;
+
+        Thumbnails(String smallPath, String largePath) {
+            this.smallPath = smallPath;
+            this.largePath = largePath;
+        }
+    }
+
+    /**
+     * 后台生成缩略图，并回写到该原图对应的 item_image 记录（拍照/选图后立即调用）
+     * 回写在数据库写线程执行：图片记录无论在生成完成之前还是之后保存，最终都会带上缩略图路径
+     * @param callback 主线程回调（调用方自行判断页面是否已销毁），可为 null
+     */
+    public static void generateAsync(Context context, String originalPath, @Nullable Callback callback) {
+        Context appContext = context.getApplicationContext();
+        EXECUTOR.execute(() -> {
+            Thumbnails thumbnails = null;
+            try {
+                thumbnails = generate(appContext, new File(originalPath));
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+            if (thumbnails != null) {
+                Thumbnails result = thumbnails;
+                DbExecutor.getInstance().execute(null, DbExecutor.Priority.BACKGROUND_WRITE, () ->
+                        AppDatabase.getInstance(appContext).itemImageDao()
+                                .updateThumbnails(originalPath, result.smallPath, result.largePath), null);
+            }
+            if (callback != null) {
+                Thumbnails result = thumbnails;
+                MAIN_HANDLER.post(() -> callback.onThumbnailsReady(originalPath, result));
+            }
+        });
+    }
+
+    /**
+     * 生成缩略图（已存在且比原图新时直接复用）
+     * 原图按采样率只解码一次、按 EXIF 方向摆正得到大档，小档由大档缩放得到
+     * @throws IOException 原图无法读取或缩略图无法写入
+     */
+    @WorkerThread
+    public static Thumbnails generate(Context context, File original) throws IOException {
+        File largeFile = thumbnailFile(context, original, SIZE_LARGE);
+        File smallFile = thumbnailFile(context, original, SIZE_SMALL);
+        if (isUpToDate(largeFile, original) && isUpToDate(smallFile, original)) {
+            return new Thumbnails(smallFile.getAbsolutePath(), largeFile.getAbsolutePath());
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(original.getAbsolutePath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("无法读取图片：" + original);
+        }
+        options.inSampleSize = sampleSizeFor(options.outWidth, options.outHeight, SIZE_LARGE);
+        options.inJustDecodeBounds = false;
+        Bitmap decoded = BitmapFactory.decodeFile(original.getAbsolutePath(), options);
+        if (decoded == null) {
+            throw new IOException("无法解码图片：" + original);
+        }
+
+        // 缩略图不带 EXIF，按原图的方向摆正后保存（相册中未经转码的图片也能正确显示）
+        Bitmap large = PhotoTranscoder.scaleAndRotate(decoded, SIZE_LARGE, PhotoTranscoder.readOrientation(original));
+        Bitmap small = scaleToFit(large, SIZE_SMALL);
+        try {
+            writeJpeg(large, largeFile);
+            writeJpeg(small, smallFile);
+        } finally {
+            recycle(decoded, large, small);
+        }
+        return new Thumbnails(smallFile.getAbsolutePath(), largeFile.getAbsolutePath());
+    }
+
+    /**
+     * 已经生成的缩略图（保存图片记录时调用，尚未生成完成时为 null）
+     */
+    @WorkerThread
+    @Nullable
+    public static Thumbnails findExisting(Context context, String originalPath) {
+        File original = new File(originalPath);
+        File largeFile = thumbnailFile(context, original, SIZE_LARGE);
+        File smallFile = thumbnailFile(context, original, SIZE_SMALL);
+        if (isUpToDate(largeFile, original) && isUpToDate(smallFile, original)) {
+            return new Thumbnails(smallFile.getAbsolutePath(), largeFile.getAbsolutePath());
+        }
+        return null;
+    }
+
+    /**
+     * 按显示尺寸选择要加载的图片：不小于显示尺寸的最小档位；没有缩略图时返回原图
+     * @param displayPx 控件的最长边（像素）
+     */
+    public static String choosePath(ItemImage image, int displayPx) {
+        if (displayPx <= SIZE_SMALL && image.getThumbSmallPath() != null) {
+            return image.getThumbSmallPath();
+        }
+        if (displayPx <= SIZE_LARGE && image.getThumbLargePath() != null) {
+            return image.getThumbLargePath();
+        }
+        return image.getImagePath();
+    }
+
+    /**
+     * 缩略图文件：原图旁边的 "原名_200.jpg"；原图目录不可写时放在应用私有目录，文件名带上原路径的哈希避免重名
+     */
+    static File thumbnailFile(Context context, File original, int size) {
+        String name = original.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        File dir = original.getParentFile();
+        if (dir == null || !dir.canWrite()) {
+            dir = privateThumbnailDir(context);
+            baseName = baseName + "_" + Integer.toHexString(original.getAbsolutePath().hashCode());
+        }
+        return new File(dir, baseName + "_" + size + ".jpg");
+    }
+
+    /**
+     * 原图目录不可写时缩略图的保存目录
+     */
+    public static File privateThumbnailDir(Context context) {
+        return new File(context.getFilesDir(), THUMBNAIL_DIR);
+    }
+
+    /**
+     * 不低于目标尺寸的最大 2 的幂采样率（解码后最长边仍 >= target）
+     */
+    static int sampleSizeFor(int width, int height, int target) {
+        int longest = Math.max(width, height);
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= target) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static Bitmap scaleToFit(Bitmap source, int maxSize) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        if (longest <= maxSize) {
+            return source;
+        }
+        float scale = (float) maxSize / longest;
+        int width = Math.max(1, Math.round(source.getWidth() * scale));
+        int height = Math.max(1, Math.round(source.getHeight() * scale));
+        return Bitmap.createScaledBitmap(source, width, height, true);
+    }
+
+    /**
+     * 先写临时文件再改名，预览不会读到写了一半的文件
+     */
+    private static void writeJpeg(Bitmap bitmap, File target) throws IOException {
+        File dir = target.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("无法创建缩略图目录：" + dir);
+        }
+        File temp = new File(dir, target.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            if (!bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out)) {
+                throw new IOException("缩略图压缩失败：" + target);
+            }
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("无法保存缩略图：" + target);
+        }
+    }
+
+    private static boolean isUpToDate(File thumbnail, File original) {
+        return thumbnail.exists() && thumbnail.lastModified() >= original.lastModified();
+    }
+
+    private static void recycle(Bitmap... bitmaps) {
+        for (Bitmap bitmap : bitmaps) {
+            if (!bitmap.isRecycled()) {
+                bitmap.recycle();
+            }
+        }
+    }
+}
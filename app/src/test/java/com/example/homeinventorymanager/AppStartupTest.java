@@ -0,0 +1,76 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 冷启动预热测试：按顺序记录各阶段、加载分类缓存后发出就绪信号、同名阶段只记录一次
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class AppStartupTest {
+
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.FTS_SYNC_CALLBACK)
+                .build();
+        AppDatabase.setInstanceForTesting(db);
+    }
+
+    @After
+    public void tearDown() {
+        AppDatabase.setInstanceForTesting(null);
+        db.close();
+    }
+
+    @Test
+    public void warmUp_recordsPhasesAndSignalsReady() throws InterruptedException {
+        AppStartup startup = new AppStartup(context, SystemClock.elapsedRealtime());
+        assertFalse(startup.isReady());
+
+        startup.warmUp();
+
+        assertTrue(startup.isReady());
+        assertTrue(startup.awaitReady(0, TimeUnit.MILLISECONDS));
+        assertTrue(TaxonomyRepository.getInstance(context).getSnapshot().loaded);
+        List<String> names = new ArrayList<>();
+        for (AppStartup.Phase phase : startup.getPhases()) {
+            names.add(phase.name);
+            assertTrue(phase.durationMs >= 0);
+        }
+        assertEquals(Arrays.asList("db_built", "db_opened", "taxonomy_loaded", "queries_warmed"), names);
+    }
+
+    @Test
+    public void markPhase_recordsEachNameOnce() {
+        AppStartup startup = new AppStartup(context, SystemClock.elapsedRealtime());
+
+        assertTrue(startup.markPhase("fully_drawn"));
+        assertFalse(startup.markPhase("fully_drawn"));
+        assertEquals(1, startup.getPhases().size());
+    }
+}
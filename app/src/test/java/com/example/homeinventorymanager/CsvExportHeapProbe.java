@@ -0,0 +1,108 @@
+package com.example.homeinventorymanager;
+
+import android.database.Cursor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+/**
+ * CSV 导出内存上限测试的子进程入口（由 InventoryCsvTest 在堆很小的独立 JVM 中启动，不依赖 Robolectric）
+ * 数据不经过数据库：item 表由 Cursor 代理逐行生成 rows 个物品，每行带 DESCRIPTION_LENGTH 字节的描述，
+ * 导出文件远大于子进程的堆，导出器缓存所有行（List<Item>、整个文件的字符串等）时必然 OutOfMemoryError
+ * 参数：物品数；输出一行：导出行数 导出字节数 耗时毫秒
+ */
+public final class CsvExportHeapProbe {
+
+    // 每行描述的长度：行数 × 该长度远大于子进程的堆
+    static final int DESCRIPTION_LENGTH = 400;
+
+    private static final String[] ITEM_COLUMNS = {"id", "itemName", "categoryId", "description", "quantity"};
+
+    private CsvExportHeapProbe() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = Integer.parseInt(args[0]);
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        int exported = InventoryCsv.exportTo(out, table -> itemCursor("item".equals(table) ? rows : 0));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(exported + " " + out.bytes + " " + elapsedMs);
+    }
+
+    /**
+     * 逐行生成物品的 Cursor（只实现导出用到的方法）
+     */
+    private static Cursor itemCursor(int rows) {
+        char[] filler = new char[DESCRIPTION_LENGTH];
+        Arrays.fill(filler, 'x');
+        String description = new String(filler);
+        int[] position = {-1};
+        return (Cursor) Proxy.newProxyInstance(Cursor.class.getClassLoader(), new Class<?>[]{Cursor.class},
+                (proxy, method, methodArgs) -> {
+                    int row = position[0];
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return ITEM_COLUMNS.length;
+                        case "getColumnName":
+                            return ITEM_COLUMNS[(Integer) methodArgs[0]];
+                        case "moveToNext":
+                            return ++position[0] < rows;
+                        case "getType":
+                            return type(row, (Integer) methodArgs[0]);
+                        case "getLong":
+                            return value(row, (Integer) methodArgs[0]);
+                        case "getString":
+                            // 每行新建字符串，与真实 Cursor 一样
+                            return (Integer) methodArgs[0] == 1 ? "物品" + row : description + row;
+                        case "close":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static int type(int row, int column) {
+        switch (column) {
+            case 1:
+            case 3:
+                return Cursor.FIELD_TYPE_STRING;
+            case 2:
+                // 约 1/3 的物品未设置分类
+                return row % 3 == 0 ? Cursor.FIELD_TYPE_NULL : Cursor.FIELD_TYPE_INTEGER;
+            default:
+                return Cursor.FIELD_TYPE_INTEGER;
+        }
+    }
+
+    private static long value(int row, int column) {
+        switch (column) {
+            case 0:
+                return row + 1L;
+            case 2:
+                return 1 + row % 20;
+            default:
+                return row % 10;
+        }
+    }
+
+    /**
+     * 只计数、不保存的输出流
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
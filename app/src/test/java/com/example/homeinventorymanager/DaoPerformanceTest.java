@@ -0,0 +1,624 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+import com.example.homeinventorymanager.dao.ItemImageDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * DAO 性能回归测试：内存数据库中分别写入 1k/10k/100k 个物品（每个物品一张图片）及分类/子分类/位置，
+ * 逐个调用全部 DAO 方法（多条件查询和分页覆盖每种筛选组合），取中位耗时与 dao_latency_budgets.properties 中
+ * 记录的预算比较，超出预算即失败（丢失索引等回退在构建时暴露，而不是在用户手机上）
+ * 每次调用都在回滚的事务中执行，写入方法不会改变数据集，各方法面对的数据量一致
+ * LiveData 监听方法与对应的同步查询是同一条 SQL，不单独计时
+ * 默认的单元测试任务只运行与机器无关的部分：在同样的数据集上截获每个被计时方法执行的 SQL，
+ * 检查 EXPLAIN QUERY PLAN 中随物品数增长的表（item、item_image）没有全表扫描、临时排序和主键范围扫描，
+ * 丢失索引时默认构建即失败；确实需要读取整表等情况列在允许名单中并注明原因
+ * 耗时断言结果取决于机器，默认不运行（见 app/build.gradle）：
+ * ./gradlew testDebugUnitTest -PdaoPerf --tests '*DaoPerformanceTest' 运行并断言；
+ * -PdaoPerf=record 只计时、不断言，报告中给出建议预算，用于重新校准预算文件
+ * 预算按参考全表扫描的耗时换算到当前机器（比记录预算的机器慢时按比例放大），报告写到 build/reports/dao-latency
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DaoPerformanceTest {
+
+    private static final String BUDGET_FILE = "dao_latency_budgets.properties";
+    // 预算文件中的参考全表扫描耗时（记录预算的机器上测得），与预算一起校准
+    private static final String CALIBRATION_KEY = "calibration.fullScan";
+    // 报告目录、是否为校准模式（由 Gradle 的 -PdaoPerf 传入）
+    private static final String REPORT_DIR_PROPERTY = "daoPerf.reportDir";
+    private static final String RECORD_PROPERTY = "daoPerf.record";
+    // 校准模式下建议预算 = 中位耗时 × HEADROOM，且不低于 MIN_BUDGET_MS
+    private static final double HEADROOM = 3;
+    private static final double MIN_BUDGET_MS = 10;
+    // 预算文件中每个方法按顺序给出 1k/10k/100k 的预算
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int CATEGORIES = 20;
+    private static final int SUB_CATEGORIES_PER_CATEGORY = 10;
+    private static final int LOCATIONS = 30;
+    // 名称中含"牛奶"的物品间隔（全文检索和名称筛选的命中率约 1%）
+    private static final int KEYWORD_EVERY = 100;
+    private static final int SEED_BATCH = 1_000;
+    // 每个方法计时次数（另有一次预热），取中位数
+    private static final int RUNS = 5;
+
+    // 只检查随物品数增长的表（分类/子分类/位置在各数据集中行数相同）；
+    // 全表扫描：SCAN item / SCAN item_image 且未使用索引
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?(item|item_image)\\b(?!.*USING (COVERING )?INDEX).*$");
+    // 读取 item / item_image 的计划行，语句含这类行时才检查临时排序
+    private static final Pattern ITEM_TABLE_ACCESS = Pattern.compile("^(SCAN|SEARCH) (TABLE )?(item|item_image)\\b.*$");
+    private static final Pattern TEMP_SORT = Pattern.compile("^USE TEMP B-TREE FOR .*$");
+    private static final Pattern PK_RANGE = Pattern.compile("^SEARCH (TABLE )?(item|item_image) USING INTEGER PRIMARY KEY \\(rowid[<>].*$");
+
+    // 允许全表扫描：本身就要读取或清空整表的方法、整表汇总；前置通配符的名称/描述模糊匹配无法使用索引；
+    // 旧版单图字段 imagePath 和缩略图列没有索引，只在后台图片清理时按批调用（见 ImageGarbageCollector）
+    private static final Set<String> FULL_SCAN_ALLOWED = new HashSet<>(Arrays.asList(
+            "ItemDao.deleteAllItems",
+            "ItemDao.queryAllItems",
+            "ItemDao.queryAllItemDetails",
+            "ItemDao.queryItemsByCondition(全部)",
+            "ItemDao.queryItemsByCondition(名称+全部)",
+            "ItemDao.searchItems(全文检索)",
+            "ItemDao.searchItems(全文检索+分类)",
+            "ItemDao.searchItems(全文检索+分类+位置)",
+            "ItemDao.searchItems(仅模糊匹配)",
+            "ItemDao.queryQuantityTotalsByCategory",
+            "ItemDao.queryQuantityTotalsByLocation",
+            "ItemDao.queryReferencedImagePaths",
+            "ItemImageDao.queryReferencedThumbnailPaths"));
+    // 允许临时排序：按表达式排序/分组（低库存的剩余量、按单位汇总）无法建索引；图片清理的去重/合并只针对一批路径
+    private static final Set<String> TEMP_SORT_ALLOWED = new HashSet<>(Arrays.asList(
+            "ItemDao.queryLowStockItems",
+            "ItemDao.queryQuantityTotalsByCategory",
+            "ItemDao.queryQuantityTotalsByLocation",
+            "ItemDao.queryReferencedImagePaths",
+            "ItemImageDao.queryReferencedThumbnailPaths"));
+    // 允许主键范围扫描：本身就是按 id 区间读取（不带分类/位置条件的分页、图片清理的 id 窗口）
+    private static final Set<String> PK_RANGE_ALLOWED = new HashSet<>(Arrays.asList(
+            "ItemDao.queryItemsPageBefore(全部,首页)",
+            "ItemDao.queryItemsPageBefore(全部,中间)",
+            "ItemDao.queryItemsPageAfter(全部,中间)",
+            "ItemImageDao.queryImageIdWindowEnd",
+            "ItemImageDao.queryOrphanImagesInRange"));
+
+    private final int itemCount;
+    private AppDatabase db;
+    private long today;
+    // true：measure 计时；false：measure 检查查询计划
+    private boolean timing;
+    // 方法名 -> 中位耗时（毫秒）
+    private final Map<String, Double> medians = new LinkedHashMap<>();
+    // 检查过查询计划的方法名、检查的语句数、不符合要求的计划
+    private final Set<String> planChecked = new HashSet<>();
+    private int plannedStatements;
+    private final List<String> planFailures = new ArrayList<>();
+    private final List<DaoQueryPlanTest.CapturedStatement> captured = new ArrayList<>();
+    private boolean capturing = false;
+
+    public DaoPerformanceTest(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0} items")
+    public static Collection<Object[]> sizes() {
+        List<Object[]> sizes = new ArrayList<>();
+        for (int size : SIZES) {
+            sizes.add(new Object[]{size});
+        }
+        return sizes;
+    }
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(AppDatabase.FTS_SYNC_CALLBACK)
+                .setQueryCallback((sqlQuery, bindArgs) -> {
+                    if (capturing) {
+                        captured.add(new DaoQueryPlanTest.CapturedStatement(sqlQuery, bindArgs));
+                    }
+                }, Runnable::run)
+                .build();
+        today = DateUtil.todayEpochDay();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    /**
+     * 与机器无关、默认运行：逐个调用与计时相同的 DAO 方法，检查实际执行的每条语句的查询计划
+     */
+    @Test
+    public void allDaoMethods_useIndexesOnSeededData() {
+        seed();
+        measureItemDao();
+        measureItemImageDao();
+        measureTaxonomyDaos();
+
+        assertTrue("未截获任何SQL", plannedStatements > 0);
+        TreeSet<String> stale = new TreeSet<>(FULL_SCAN_ALLOWED);
+        stale.addAll(TEMP_SORT_ALLOWED);
+        stale.addAll(PK_RANGE_ALLOWED);
+        stale.removeAll(planChecked);
+        for (String name : stale) {
+            planFailures.add(name + "：允许名单中的方法未被检查（已删除或改名）");
+        }
+        if (!planFailures.isEmpty()) {
+            fail(itemCount + " 个物品：\n" + String.join("\n", planFailures));
+        }
+    }
+
+    @Test
+    public void allDaoMethods_withinLatencyBudgets() throws IOException {
+        // 只在 -PdaoPerf 时计时（默认构建和 IDE 中直接运行整个包时跳过）
+        assumeTrue("DAO 耗时测试需 -PdaoPerf 运行", System.getProperty(REPORT_DIR_PROPERTY) != null);
+        timing = true;
+        seed();
+        double referenceScanMs = measureReferenceScan();
+        measureItemDao();
+        measureItemImageDao();
+        measureTaxonomyDaos();
+
+        boolean record = Boolean.getBoolean(RECORD_PROPERTY);
+        Properties properties = loadBudgetFile();
+        Map<String, Double> budgets = budgetColumn(properties);
+        Double recordedScanMs = budgets.remove(CALIBRATION_KEY);
+        assertNotNull(BUDGET_FILE + " 缺少 " + CALIBRATION_KEY, recordedScanMs);
+        // 当前机器比记录预算的机器慢时按比例放大预算；更快时不缩小
+        double scale = Math.max(1, referenceScanMs / recordedScanMs);
+
+        StringBuilder report = new StringBuilder();
+        report.append("DAO 耗时（").append(itemCount).append(" 个物品，中位数 / 预算）\n");
+        report.append(String.format("%-60s %10.2fms / %.2fms（预算放大 %.2f 倍）%n",
+                CALIBRATION_KEY, referenceScanMs, recordedScanMs, scale));
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : medians.entrySet()) {
+            Double budget = budgets.get(entry.getKey());
+            Double scaled = budget == null ? null : budget * scale;
+            report.append(String.format("%-60s %10.2fms / %s", entry.getKey(), entry.getValue(),
+                    scaled == null ? "无预算" : String.format("%.2fms", scaled)));
+            if (record) {
+                report.append(String.format("（建议 %.0fms）", Math.ceil(Math.max(MIN_BUDGET_MS, entry.getValue() * HEADROOM))));
+            }
+            report.append('\n');
+            if (scaled == null) {
+                failures.add(entry.getKey() + "：预算文件中没有该方法");
+            } else if (entry.getValue() > scaled) {
+                failures.add(entry.getKey() + "：" + String.format("%.2f", entry.getValue()) + "ms 超出预算 "
+                        + String.format("%.2f", scaled) + "ms");
+            }
+        }
+        TreeSet<String> stale = new TreeSet<>(budgets.keySet());
+        stale.removeAll(medians.keySet());
+        for (String name : stale) {
+            failures.add(name + "：预算文件中的方法未被计时（已删除或改名）");
+        }
+        File reportFile = writeReport(report.toString());
+        if (!record && !failures.isEmpty()) {
+            fail(itemCount + " 个物品（完整报告：" + reportFile + "）：\n" + String.join("\n", failures));
+        }
+    }
+
+    private void measureItemDao() {
+        ItemDao dao = db.itemDao();
+        int middle = itemCount / 2;
+
+        // ========== 写入 ==========
+        measure("ItemDao.insertItem", () -> dao.insertItem(newItem(itemCount + 1)));
+        measure("ItemDao.insertItems", () -> dao.insertItems(newItems(itemCount + 1, 100)));
+        measure("ItemDao.insertItemWithImages", () -> dao.insertItemWithImages(newItem(itemCount + 1),
+                newImages(0, itemCount + 1, 3)));
+        measure("ItemDao.updateItemWithImages", () -> {
+            ItemDetail item = dao.queryItemDetailById(middle);
+            dao.updateItemWithImages(item, newImages(0, itemCount + 1, 2));
+        });
+        measure("ItemDao.insertItemImageList", () -> dao.insertItemImageList(newImages(middle, itemCount + 1, 3)));
+        measure("ItemDao.deleteItemImagesExcept", () -> dao.deleteItemImagesExcept(middle, Collections.singletonList(0L)));
+        measure("ItemDao.upsertItems", () -> {
+            List<Item> items = newItems(middle, 100);
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).setId(middle + i);
+            }
+            dao.upsertItems(items);
+        });
+        measure("ItemDao.updateItem", () -> dao.updateItem(dao.queryItemById(middle)));
+        measure("ItemDao.deleteItem", () -> dao.deleteItem(dao.queryItemById(middle)));
+        measure("ItemDao.deleteAllItems", dao::deleteAllItems);
+
+        // ========== 单个物品 ==========
+        measure("ItemDao.queryItemById", () -> assertNotNull(dao.queryItemById(middle)));
+        measure("ItemDao.queryItemDetailById", () -> assertNotNull(dao.queryItemDetailById(middle)));
+
+        // ========== 整表读取 ==========
+        measure("ItemDao.queryAllItems", () -> assertEquals(itemCount, dao.queryAllItems().size()));
+        measure("ItemDao.queryAllItemDetails", () -> assertEquals(itemCount, dao.queryAllItemDetails().size()));
+
+        // ========== 多条件查询：名称 × 分类 × 位置 的每种组合 ==========
+        for (String key : new String[]{"", "牛奶"}) {
+            String keyLabel = key.isEmpty() ? "" : "名称+";
+            measure("ItemDao.queryItemsByCondition(" + keyLabel + "全部)", () -> dao.queryItemsByCondition(key, null, null));
+            measure("ItemDao.queryItemsByCondition(" + keyLabel + "分类)", () -> dao.queryItemsByCondition(key, 1, null));
+            measure("ItemDao.queryItemsByCondition(" + keyLabel + "位置)", () -> dao.queryItemsByCondition(key, null, 1));
+            measure("ItemDao.queryItemsByCondition(" + keyLabel + "分类+位置)", () -> dao.queryItemsByCondition(key, 1, 1));
+        }
+
+        // ========== 键集分页：首页、中间页，每种筛选组合 ==========
+        int pageSize = ItemPager.DEFAULT_PAGE_SIZE;
+        Integer[][] filters = {{null, null}, {1, null}, {null, 1}, {1, 1}};
+        String[] filterLabels = {"全部", "分类", "位置", "分类+位置"};
+        for (int f = 0; f < filters.length; f++) {
+            Integer categoryId = filters[f][0];
+            Integer locationId = filters[f][1];
+            measure("ItemDao.queryItemsPageBefore(" + filterLabels[f] + ",首页)",
+                    () -> dao.queryItemsPageBefore(categoryId, locationId, Long.MAX_VALUE, pageSize));
+            measure("ItemDao.queryItemsPageBefore(" + filterLabels[f] + ",中间)",
+                    () -> dao.queryItemsPageBefore(categoryId, locationId, middle, pageSize));
+            measure("ItemDao.queryItemsPageAfter(" + filterLabels[f] + ",中间)",
+                    () -> dao.queryItemsPageAfter(categoryId, locationId, middle, pageSize));
+        }
+
+        // ========== 全文检索 ==========
+        measure("ItemDao.searchItems(全文检索)", () -> dao.searchItems("牛奶", null, null));
+        measure("ItemDao.searchItems(全文检索+分类)", () -> dao.searchItems("牛奶", 1, null));
+        measure("ItemDao.searchItems(全文检索+分类+位置)", () -> dao.searchItems("牛奶", 1, 1));
+        // 词中间的片段全文检索无结果，只有名称/描述模糊匹配的结果
+        measure("ItemDao.searchItems(仅模糊匹配)", () -> dao.searchItems("奶", null, null));
+
+        // ========== 有效期 ==========
+        measure("ItemDao.queryExpiredItems", () -> dao.queryExpiredItems(today));
+        measure("ItemDao.queryItemsExpiringWithin", () -> dao.queryItemsExpiringWithin(ItemDao.EXPIRING_SOON_DAYS));
+        measure("ItemDao.queryItemsExpiringBetween", () -> dao.queryItemsExpiringBetween(today, today + 30));
+        measure("ItemDao.queryItemsExpiringBetweenPage", () -> dao.queryItemsExpiringBetweenPage(
+                today, today + ItemDao.EXPIRING_SOON_DAYS, today - 1, 0, 200));
+        measure("ItemDao.queryItemsSortedByExpiry", () -> assertEquals(itemCount, dao.queryItemsSortedByExpiry().size()));
+        measure("ItemDao.countExpiredItems", () -> dao.countExpiredItems(today));
+        measure("ItemDao.countItemsExpiringBetween", () -> dao.countItemsExpiringBetween(today, today + 30));
+
+        // ========== 数量统计 ==========
+        measure("ItemDao.queryLowStockItems", dao::queryLowStockItems);
+        measure("ItemDao.countLowStockItems", dao::countLowStockItems);
+        measure("ItemDao.queryQuantityTotalsByCategory", dao::queryQuantityTotalsByCategory);
+        measure("ItemDao.queryQuantityTotalsByLocation", dao::queryQuantityTotalsByLocation);
+
+        // ========== 图片清理 ==========
+        measure("ItemDao.queryReferencedImagePaths", () -> dao.queryReferencedImagePaths(imagePaths(itemCount, 500)));
+    }
+
+    private void measureItemImageDao() {
+        ItemImageDao dao = db.itemImageDao();
+        int middle = itemCount / 2;
+        measure("ItemImageDao.queryImagePathsByItemId", () -> dao.queryImagePathsByItemId(middle));
+        measure("ItemImageDao.queryImagesByItemId", () -> dao.queryImagesByItemId(middle));
+        measure("ItemImageDao.updateThumbnails", () -> dao.updateThumbnails(imagePath(middle),
+                imagePath(middle) + "_200", imagePath(middle) + "_600"));
+        measure("ItemImageDao.countImagesByContentHash", () -> dao.countImagesByContentHash(contentHash(middle)));
+        measure("ItemImageDao.queryImageBySourceUri", () -> dao.queryImageBySourceUri(sourceUri(middle)));
+        measure("ItemImageDao.queryImageIdWindowEnd", () -> dao.queryImageIdWindowEnd(middle, 200));
+        measure("ItemImageDao.queryOrphanImagesInRange", () -> dao.queryOrphanImagesInRange(middle, middle + 200));
+        measure("ItemImageDao.queryReferencedImagePaths", () -> dao.queryReferencedImagePaths(imagePaths(itemCount, 500)));
+        measure("ItemImageDao.queryReferencedThumbnailPaths", () -> {
+            List<String> paths = imagePaths(itemCount, 500);
+            for (int i = 0; i < paths.size(); i++) {
+                paths.set(i, paths.get(i) + "_200");
+            }
+            dao.queryReferencedThumbnailPaths(paths);
+        });
+        measure("ItemImageDao.deleteItemImagesByIds", () -> {
+            List<Long> ids = new ArrayList<>(100);
+            for (long id = middle; id < middle + 100; id++) {
+                ids.add(id);
+            }
+            dao.deleteItemImagesByIds(ids);
+        });
+        measure("ItemImageDao.insertItemImage", () -> dao.insertItemImage(newImages(middle, itemCount + 1, 1).get(0)));
+        measure("ItemImageDao.insertItemImageList", () -> dao.insertItemImageList(newImages(middle, itemCount + 1, 10)));
+        measure("ItemImageDao.upsertItemImages", () -> {
+            List<ItemImage> images = newImages(middle, middle, 100);
+            for (int i = 0; i < images.size(); i++) {
+                images.get(i).setId(middle + i);
+            }
+            dao.upsertItemImages(images);
+        });
+        measure("ItemImageDao.deleteItemImageByItemId", () -> dao.deleteItemImageByItemId(middle));
+    }
+
+    private void measureTaxonomyDaos() {
+        CategoryDao categoryDao = db.categoryDao();
+        measure("CategoryDao.insertCategory", () -> categoryDao.insertCategory(new Category("新分类")));
+        measure("CategoryDao.upsertCategories", () -> categoryDao.upsertCategories(categoryDao.queryAllCategories()));
+        measure("CategoryDao.queryAllCategories", categoryDao::queryAllCategories);
+        measure("CategoryDao.queryCategoryIdByName", () -> categoryDao.queryCategoryIdByName("分类" + CATEGORIES));
+        measure("CategoryDao.queryCategoryById", () -> categoryDao.queryCategoryById(1));
+        measure("CategoryDao.getCategoryCount", categoryDao::getCategoryCount);
+        // 删除分类：级联删除子分类，物品的分类/子分类置空（约 1/CATEGORIES 的物品）
+        measure("CategoryDao.deleteCategory", () -> categoryDao.deleteCategory(categoryDao.queryCategoryById(1)));
+
+        SubCategoryDao subCategoryDao = db.subCategoryDao();
+        measure("SubCategoryDao.insertSubCategory", () -> subCategoryDao.insertSubCategory(new SubCategory("新子分类", 1, "分类1")));
+        measure("SubCategoryDao.upsertSubCategories", () -> subCategoryDao.upsertSubCategories(subCategoryDao.queryAllSubCategories()));
+        measure("SubCategoryDao.querySubCategoryByParentId", () -> subCategoryDao.querySubCategoryByParentId(1));
+        measure("SubCategoryDao.querySubCategoryIdByName", () -> subCategoryDao.querySubCategoryIdByName(1, "子分类1-1"));
+        measure("SubCategoryDao.queryAllSubCategories", subCategoryDao::queryAllSubCategories);
+        measure("SubCategoryDao.getSubCategoryCountByParentId", () -> subCategoryDao.getSubCategoryCountByParentId(1));
+        measure("SubCategoryDao.deleteSubCategory", () -> subCategoryDao.deleteSubCategory(subCategoryDao.querySubCategoryByParentId(1).get(0)));
+
+        StorageLocationDao locationDao = db.storageLocationDao();
+        measure("StorageLocationDao.insertStorageLocation", () -> locationDao.insertStorageLocation(new StorageLocation("新位置")));
+        measure("StorageLocationDao.upsertStorageLocations", () -> locationDao.upsertStorageLocations(locationDao.queryAllStorageLocations()));
+        measure("StorageLocationDao.queryAllStorageLocations", locationDao::queryAllStorageLocations);
+        measure("StorageLocationDao.queryLocationIdByName", () -> locationDao.queryLocationIdByName("位置" + LOCATIONS));
+        measure("StorageLocationDao.getStorageLocationCount", locationDao::getStorageLocationCount);
+        // 删除位置：约 1/LOCATIONS 的物品位置置空
+        measure("StorageLocationDao.deleteStorageLocation", () -> locationDao.deleteStorageLocation(locationDao.queryAllStorageLocations().get(0)));
+    }
+
+    /**
+     * 参考全表扫描：item 表逐行比较描述（无索引可用、无命中），用于把预算换算到当前机器
+     */
+    private double measureReferenceScan() {
+        SupportSQLiteDatabase sqLite = db.getOpenHelper().getWritableDatabase();
+        return median(() -> sqLite.query("SELECT COUNT(*) FROM item WHERE description LIKE '%未命中%'").close());
+    }
+
+    /**
+     * 计时模式：预热一次后计时 RUNS 次，记录中位耗时；否则执行一次并检查查询计划
+     * 每次调用都在事务中执行并回滚
+     */
+    private void measure(String name, Runnable daoCall) {
+        if (timing) {
+            medians.put(name, median(daoCall));
+        } else {
+            checkPlan(name, daoCall);
+        }
+    }
+
+    /**
+     * 截获 DAO 调用执行的 SQL，记录 item / item_image 上的全表扫描、临时排序和主键范围扫描（名单内的方法除外）
+     */
+    private void checkPlan(String name, Runnable daoCall) {
+        captured.clear();
+        capturing = true;
+        try {
+            runRolledBack(daoCall);
+        } finally {
+            capturing = false;
+        }
+        planChecked.add(name);
+        for (DaoQueryPlanTest.CapturedStatement statement : captured) {
+            if (!statement.isPlannable()) {
+                continue;
+            }
+            plannedStatements++;
+            List<String> plan = explain(statement);
+            boolean readsItemTables = false;
+            for (String detail : plan) {
+                readsItemTables |= ITEM_TABLE_ACCESS.matcher(detail).matches();
+            }
+            for (String detail : plan) {
+                String problem = null;
+                if (FULL_SCAN.matcher(detail).matches() && !FULL_SCAN_ALLOWED.contains(name)) {
+                    problem = "全表扫描";
+                } else if (readsItemTables && TEMP_SORT.matcher(detail).matches() && !TEMP_SORT_ALLOWED.contains(name)) {
+                    problem = "临时排序";
+                } else if (PK_RANGE.matcher(detail).matches() && !PK_RANGE_ALLOWED.contains(name)) {
+                    problem = "按主键范围扫描后过滤";
+                }
+                if (problem != null) {
+                    planFailures.add(name + "：" + problem + "：" + detail + "\n  SQL：" + statement.sql + "\n  完整计划：" + plan);
+                }
+            }
+        }
+    }
+
+    private List<String> explain(DaoQueryPlanTest.CapturedStatement statement) {
+        List<String> details = new ArrayList<>();
+        SimpleSQLiteQuery query = new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + statement.sql, statement.args);
+        try (Cursor cursor = db.getOpenHelper().getWritableDatabase().query(query)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailIndex));
+            }
+        }
+        return details;
+    }
+
+    private double median(Runnable daoCall) {
+        runRolledBack(daoCall);
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            samples[i] = runRolledBack(daoCall);
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2] / 1_000_000.0;
+    }
+
+    private long runRolledBack(Runnable daoCall) {
+        SupportSQLiteDatabase sqLite = db.getOpenHelper().getWritableDatabase();
+        sqLite.beginTransaction();
+        try {
+            long start = System.nanoTime();
+            daoCall.run();
+            return System.nanoTime() - start;
+        } finally {
+            // 未调用 setTransactionSuccessful，写入全部回滚
+            sqLite.endTransaction();
+        }
+    }
+
+    private Properties loadBudgetFile() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(BUDGET_FILE)) {
+            assertNotNull("缺少 " + BUDGET_FILE, in);
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        return properties;
+    }
+
+    /**
+     * 预算：方法名 = 1k预算,10k预算,100k预算（毫秒），返回当前数据量对应的一列
+     */
+    private Map<String, Double> budgetColumn(Properties properties) {
+        int column = Arrays.binarySearch(SIZES, itemCount);
+        Map<String, Double> budgets = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(name).split(",");
+            assertEquals(name + " 应有 " + SIZES.length + " 个预算", SIZES.length, values.length);
+            budgets.put(name, Double.parseDouble(values[column].trim()));
+        }
+        return budgets;
+    }
+
+    /**
+     * 报告写到 build/reports/dao-latency/dao-latency-<物品数>.txt
+     */
+    private File writeReport(String report) throws IOException {
+        File dir = new File(System.getProperty(REPORT_DIR_PROPERTY));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("无法创建报告目录：" + dir);
+        }
+        File file = new File(dir, "dao-latency-" + itemCount + ".txt");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(report);
+        }
+        return file;
+    }
+
+    // ========== 数据集 ==========
+
+    /**
+     * 写入分类/子分类/位置，itemCount 个物品（每个物品一张图片），分批提交
+     */
+    private void seed() {
+        db.runInTransaction(() -> {
+            for (int c = 1; c <= CATEGORIES; c++) {
+                long categoryId = db.categoryDao().insertCategory(new Category("分类" + c));
+                for (int s = 0; s < SUB_CATEGORIES_PER_CATEGORY; s++) {
+                    db.subCategoryDao().insertSubCategory(new SubCategory("子分类" + c + "-" + s, (int) categoryId, "分类" + c));
+                }
+            }
+            for (int l = 1; l <= LOCATIONS; l++) {
+                db.storageLocationDao().insertStorageLocation(new StorageLocation("位置" + l));
+            }
+        });
+        for (int from = 1; from <= itemCount; from += SEED_BATCH) {
+            int count = Math.min(SEED_BATCH, itemCount - from + 1);
+            int first = from;
+            db.runInTransaction(() -> {
+                List<Long> ids = db.itemDao().insertItems(newItems(first, count));
+                List<ItemImage> images = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    images.addAll(newImages(ids.get(i), first + i, 1));
+                }
+                db.itemDao().insertItemImageList(images);
+            });
+        }
+    }
+
+    /**
+     * 第 index 个物品：分类/位置均匀分布，有效期分布在去年到两年后，约 1/10 设置了低库存阈值
+     */
+    private Item newItem(int index) {
+        int categoryId = 1 + index % CATEGORIES;
+        int subCategoryId = (categoryId - 1) * SUB_CATEGORIES_PER_CATEGORY + 1 + index % SUB_CATEGORIES_PER_CATEGORY;
+        int locationId = 1 + index % LOCATIONS;
+        String name = (index % KEYWORD_EVERY == 0 ? "牛奶 " : "物品 ") + index;
+        Item item = new Item(name, categoryId, subCategoryId, locationId, null, "第" + index + "件", null, index % 10);
+        item.setValidDate(today - 365 + (index * 7L) % 1095);
+        item.setUnit(index % 2 == 0 ? "瓶" : "个");
+        if (index % 10 == 0) {
+            item.setLowStockThreshold(3);
+        }
+        return item;
+    }
+
+    private List<Item> newItems(int first, int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(newItem(first + i));
+        }
+        return items;
+    }
+
+    private static List<ItemImage> newImages(long itemId, int firstIndex, int count) {
+        List<ItemImage> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = firstIndex + i;
+            ItemImage image = new ItemImage();
+            image.setItemId(itemId);
+            image.setImagePath(imagePath(index));
+            image.setThumbSmallPath(imagePath(index) + "_200");
+            image.setThumbLargePath(imagePath(index) + "_600");
+            image.setContentHash(contentHash(index));
+            image.setSourceUri(sourceUri(index));
+            images.add(image);
+        }
+        return images;
+    }
+
+    private static String imagePath(int index) {
+        return "/data/images/img_" + index + ".jpg";
+    }
+
+    private static String contentHash(int index) {
+        return "hash" + index;
+    }
+
+    private static String sourceUri(int index) {
+        return "content://media/external/images/" + index;
+    }
+
+    // 最后 count 个物品的图片路径（图片清理按批查询引用时的典型参数）
+    private static List<String> imagePaths(int last, int count) {
+        List<String> paths = new ArrayList<>(count);
+        for (int i = Math.max(1, last - count + 1); i <= last; i++) {
+            paths.add(imagePath(i));
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * DAO 查询计划测试：通过 Room QueryCallback 截获每个 DAO 方法实际执行的 SQL，
+ * 再执行 EXPLAIN QUERY PLAN，带筛选条件的查询一旦出现以下计划即失败
+ * （仅"查询全部"类方法本身就需要读取整表，不做检查）：
+ * 全表扫描；临时 B 树排序（分页/ORDER BY 必须按索引顺序返回）；按主键范围扫描再过滤其余条件
+ * 确实无法避免的方法列在对应的允许名单中并注明原因，不在测试中省略
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DaoQueryPlanTest {
+
+    // 全表扫描：SCAN item / SCAN TABLE item，且未使用索引（FTS 的 VIRTUAL TABLE INDEX 为 MATCH 检索，不算扫描）
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\w+(?!.*(USING (COVERING )?INDEX|VIRTUAL TABLE INDEX)).*$");
+    // 临时 B 树：ORDER BY / GROUP BY / DISTINCT 没有按索引顺序完成，需要先取出全部命中行再排序
+    private static final Pattern TEMP_SORT = Pattern.compile("^USE TEMP B-TREE FOR .*$");
+    // 主键范围扫描：rowid 的 < / > 区间，带其他筛选条件时会先读出区间内的所有行再逐行过滤
+    private static final Pattern PK_RANGE = Pattern.compile("^SEARCH (TABLE )?\\w+ USING INTEGER PRIMARY KEY \\(rowid[<>].*$");
+
+    // 允许全表扫描的方法：前置通配符的名称子串匹配（LIKE '%关键词%'）无法使用任何索引；
+    // 这两处都只在用户输入了关键词时执行，耗时由 DaoPerformanceTest 的预算约束
+    private static final Set<String> FULL_SCAN_ALLOWED = new HashSet<>(Arrays.asList(
+            "queryItemsByCondition(名称)", "searchItems"));
+    // 允许临时排序的方法：按表达式（数量 - 阈值）排序，无法建索引；只对低库存的少量命中行排序
+    private static final Set<String> TEMP_SORT_ALLOWED = new HashSet<>(Collections.singletonList("queryLowStockItems"));
+    // 允许主键范围扫描的方法：本身就是按 id 区间读取（不带分类/位置条件的分页、孤儿图片的 id 窗口）
+    private static final Set<String> PK_RANGE_ALLOWED = new HashSet<>(Arrays.asList(
+            "queryItemsPageBefore(全部)", "queryItemsPageAfter(全部)", "queryOrphanImagesInRange"));
+
+    private AppDatabase db;
+    private final List<CapturedStatement> captured = new ArrayList<>();
+    private boolean capturing = false;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                // 全文检索同步触发器：种子数据能被检索到
+                .addCallback(AppDatabase.FTS_SYNC_CALLBACK)
+                .setQueryCallback((sqlQuery, bindArgs) -> {
+                    if (capturing) {
+                        captured.add(new CapturedStatement(sqlQuery, bindArgs));
+                    }
+                }, Runnable::run)
+                .build();
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void itemDao_filteredQueries_useIndexes() {
+        ItemDao dao = db.itemDao();
+        assertUsesIndex("queryItemsByCondition(分类+位置)", () -> dao.queryItemsByCondition("", 1, 1));
+        assertUsesIndex("queryItemsByCondition(名称+分类+位置)", () -> dao.queryItemsByCondition("牛奶", 1, 1));
+        assertUsesIndex("queryItemsByCondition(分类)", () -> dao.queryItemsByCondition("", 1, null));
+        assertUsesIndex("queryItemsByCondition(位置)", () -> dao.queryItemsByCondition("", null, 1));
+        assertUsesIndex("queryItemsByCondition(名称)", () -> dao.queryItemsByCondition("牛奶", null, null));
+        assertUsesIndex("queryItemById", () -> dao.queryItemById(1));
+        assertUsesIndex("queryItemDetailById", () -> dao.queryItemDetailById(1));
+        String matchQuery = ItemSearch.toMatchQuery("牛奶");
+        // 含模糊匹配补充（queryItemsBySubstring），见 FULL_SCAN_ALLOWED；全文检索部分单独检查
+        assertUsesIndex("searchItems", () -> dao.searchItems("牛奶", null, null));
+        assertUsesIndex("searchItemsByMatch", () -> dao.searchItemsByMatch(matchQuery, null, null));
+        assertUsesIndex("searchItemsByMatch(分类)", () -> dao.searchItemsByMatch(matchQuery, 1, null));
+
+        assertUsesIndex("queryItemsPageBefore(全部)", () -> dao.queryItemsPageBefore(null, null, Long.MAX_VALUE, 50));
+        assertUsesIndex("queryItemsPageAfter(全部)", () -> dao.queryItemsPageAfter(null, null, 0, 50));
+        assertUsesIndex("queryItemsPageBefore(分类+位置)", () -> dao.queryItemsPageBefore(1, 1, Long.MAX_VALUE, 50));
+        assertUsesIndex("queryItemsPageAfter(分类+位置)", () -> dao.queryItemsPageAfter(1, 1, 0, 50));
+        assertUsesIndex("queryItemsPageBefore(分类)", () -> dao.queryItemsPageBefore(1, null, Long.MAX_VALUE, 50));
+        assertUsesIndex("queryItemsPageAfter(分类)", () -> dao.queryItemsPageAfter(1, null, 0, 50));
+        assertUsesIndex("queryItemsPageBefore(位置)", () -> dao.queryItemsPageBefore(null, 1, Long.MAX_VALUE, 50));
+        assertUsesIndex("queryItemsPageAfter(位置)", () -> dao.queryItemsPageAfter(null, 1, 0, 50));
+
+        long today = DateUtil.todayEpochDay();
+        assertUsesIndex("queryExpiredItems", () -> dao.queryExpiredItems(today));
+        assertUsesIndex("queryItemsExpiringWithin", () -> dao.queryItemsExpiringWithin(ItemDao.EXPIRING_SOON_DAYS));
+        assertUsesIndex("queryItemsSortedByExpiry", dao::queryItemsSortedByExpiry);
+        assertUsesIndex("countExpiredItems", () -> dao.countExpiredItems(today));
+        assertUsesIndex("queryItemsExpiringBetweenPage", () -> dao.queryItemsExpiringBetweenPage(today, today + 7, today - 1, 0, 200));
+        assertUsesIndex("queryLowStockItems", dao::queryLowStockItems);
+        assertUsesIndex("countLowStockItems", dao::countLowStockItems);
+
+        assertUsesIndex("deleteItemImagesExcept", () -> dao.deleteItemImagesExcept(1, Collections.singletonList(1L)));
+
+        Item item = dao.queryItemById(1);
+        assertUsesIndex("updateItem", () -> dao.updateItem(item));
+        assertUsesIndex("deleteItem", () -> dao.deleteItem(item));
+    }
+
+    @Test
+    public void itemImageDao_queries_useIndexes() {
+        assertUsesIndex("queryImagePathsByItemId", () -> db.itemImageDao().queryImagePathsByItemId(1));
+        assertUsesIndex("queryImagesByItemId", () -> db.itemImageDao().queryImagesByItemId(1));
+        assertUsesIndex("updateThumbnails", () -> db.itemImageDao().updateThumbnails("/tmp/milk.jpg", "/tmp/milk_200.jpg", "/tmp/milk_600.jpg"));
+        assertUsesIndex("countImagesByContentHash", () -> db.itemImageDao().countImagesByContentHash("abc"));
+        assertUsesIndex("queryImageBySourceUri", () -> db.itemImageDao().queryImageBySourceUri("content://media/1"));
+        assertUsesIndex("queryOrphanImagesInRange", () -> db.itemImageDao().queryOrphanImagesInRange(0, 200));
+        assertUsesIndex("queryReferencedImagePaths", () -> db.itemImageDao().queryReferencedImagePaths(Collections.singletonList("/tmp/milk.jpg")));
+        assertUsesIndex("deleteItemImagesByIds", () -> db.itemImageDao().deleteItemImagesByIds(Collections.singletonList(999L)));
+        assertUsesIndex("deleteItemImageByItemId", () -> db.itemImageDao().deleteItemImageByItemId(1));
+    }
+
+    @Test
+    public void taxonomyDaos_queries_useIndexes() {
+        assertUsesIndex("queryCategoryById", () -> db.categoryDao().queryCategoryById(1));
+        assertUsesIndex("querySubCategoryByParentId", () -> db.subCategoryDao().querySubCategoryByParentId(1));
+        assertUsesIndex("getSubCategoryCountByParentId", () -> db.subCategoryDao().getSubCategoryCountByParentId(1));
+        assertUsesIndex("querySubCategoryIdByName", () -> db.subCategoryDao().querySubCategoryIdByName(1, "零食"));
+    }
+
+    /**
+     * 执行 DAO 调用，截获其 SQL 并断言查询计划中没有全表扫描、临时排序和主键范围扫描（名单内的方法除外）
+     */
+    private void assertUsesIndex(String name, Runnable daoCall) {
+        captured.clear();
+        capturing = true;
+        try {
+            daoCall.run();
+        } finally {
+            capturing = false;
+        }
+
+        List<CapturedStatement> statements = new ArrayList<>();
+        for (CapturedStatement statement : captured) {
+            if (statement.isPlannable()) {
+                statements.add(statement);
+            }
+        }
+        assertFalse(name + " 未截获任何SQL", statements.isEmpty());
+
+        for (CapturedStatement statement : statements) {
+            List<String> plan = explain(statement);
+            assertTrue(name + " 查询计划为空：" + statement.sql, !plan.isEmpty() || statement.isWriteWithoutWhere());
+            for (String detail : plan) {
+                if (FULL_SCAN.matcher(detail).matches() && !FULL_SCAN_ALLOWED.contains(name)) {
+                    fail(name + " 出现全表扫描：" + detail + "\nSQL：" + statement.sql + "\n完整计划：" + plan);
+                }
+                if (TEMP_SORT.matcher(detail).matches() && !TEMP_SORT_ALLOWED.contains(name)) {
+                    fail(name + " 出现临时排序：" + detail + "\nSQL：" + statement.sql + "\n完整计划：" + plan);
+                }
+                if (PK_RANGE.matcher(detail).matches() && !PK_RANGE_ALLOWED.contains(name)) {
+                    fail(name + " 按主键范围扫描后过滤：" + detail + "\nSQL：" + statement.sql + "\n完整计划：" + plan);
+                }
+            }
+        }
+    }
+
+    private List<String> explain(CapturedStatement statement) {
+        List<String> details = new ArrayList<>();
+        SimpleSQLiteQuery query = new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + statement.sql, statement.args);
+        try (Cursor cursor = db.getOpenHelper().getWritableDatabase().query(query)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailIndex));
+            }
+        }
+        return details;
+    }
+
+    /**
+     * 写入少量种子数据（查询计划不依赖数据量，但保证各条件都有命中）
+     */
+    private void seed() {
+        db.categoryDao().insertCategory(new Category("食品"));
+        db.subCategoryDao().insertSubCategory(new SubCategory("零食", 1, "食品"));
+        db.storageLocationDao().insertStorageLocation(new StorageLocation("冰箱"));
+        long itemId = db.itemDao().insertItem(new Item("牛奶", 1, 1, 1, "2030-01-01", "", null, 1));
+        ItemImage image = new ItemImage();
+        image.setItemId(itemId);
+        image.setImagePath("/tmp/milk.jpg");
+        db.itemImageDao().insertItemImage(image);
+    }
+
+    /**
+     * 截获的SQL语句及其绑定参数（DaoPerformanceTest 检查大数据集上的查询计划时也使用）
+     */
+    static final class CapturedStatement {
+        final String sql;
+        final Object[] args;
+
+        CapturedStatement(String sql, List<Object> bindArgs) {
+            this.sql = sql.trim();
+            this.args = bindArgs == null ? new Object[0] : bindArgs.toArray();
+        }
+
+        boolean isPlannable() {
+            String upper = sql.toUpperCase();
+            return upper.startsWith("SELECT") || upper.startsWith("UPDATE") || upper.startsWith("DELETE");
+        }
+
+        boolean isWriteWithoutWhere() {
+            return !sql.toUpperCase().contains("WHERE");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.homeinventorymanager;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DateUtil 测试：手写解析与 java.time 的结果逐日对比，覆盖闰年、世纪年和非法输入
+ */
+public class DateUtilTest {
+
+    @Test
+    public void parseEpochDay_matchesLocalDate() {
+        LocalDate date = LocalDate.of(1899, 12, 25);
+        LocalDate end = LocalDate.of(2101, 3, 5);
+        while (date.isBefore(end)) {
+            assertEquals(date.toString(), date.toEpochDay(), DateUtil.parseEpochDay(date.toString()));
+            assertEquals(date.toString(), DateUtil.formatEpochDay(date.toEpochDay()));
+            date = date.plusDays(1);
+        }
+    }
+
+    @Test
+    public void parseEpochDay_rejectsInvalidInput() {
+        String[] invalid = {null, "", "   ", "未设置", "2024-3-5", "2024/03/05", "2023-02-29", "1900-02-29",
+                "2024-04-31", "2024-13-01", "2024-00-10", "2024-01-00", "20a4-01-01", "2024-01-011"};
+        for (String text : invalid) {
+            assertEquals(String.valueOf(text), DateUtil.INVALID_DAY, DateUtil.parseEpochDay(text));
+        }
+        assertNull(DateUtil.toEpochDay("未设置"));
+        assertEquals("", DateUtil.formatEpochDay(null));
+    }
+
+    @Test
+    public void parseEpochDay_acceptsLeapDaysAndSurroundingWhitespace() {
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), DateUtil.parseEpochDay("2000-02-29"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), DateUtil.parseEpochDay(" 2024-02-29\n"));
+    }
+
+    @Test
+    public void todayEpochDay_isLocalToday() {
+        assertEquals(LocalDate.now().toEpochDay(), DateUtil.todayEpochDay());
+    }
+
+    @Test
+    public void expiryChecks_useWholeDays() {
+        LocalDate today = LocalDate.now();
+        assertEquals(0, DateUtil.getDayInterval(today.toString()));
+        assertEquals(30, DateUtil.getDayInterval(today.plusDays(30).toString()));
+        assertEquals(-1, DateUtil.getDayInterval("格式错误"));
+
+        assertTrue(DateUtil.isExpired(today.minusDays(1).toString()));
+        assertFalse(DateUtil.isExpired(today.toString()));
+        assertFalse(DateUtil.isExpired(""));
+
+        assertTrue(DateUtil.isWillExpireIn7Days(today.toString()));
+        assertTrue(DateUtil.isWillExpireIn7Days(today.plusDays(7).toString()));
+        assertFalse(DateUtil.isWillExpireIn7Days(today.plusDays(8).toString()));
+        assertFalse(DateUtil.isWillExpireIn7Days(today.minusDays(1).toString()));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.homeinventorymanager;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 数据库任务调度测试：页面销毁时排队的读取被取消、写入照常执行但不回调、结果在主线程回调、
+ * 同一线程池内按优先级再按提交顺序执行、写入戳随写任务变化
+ * 用闩锁占住读/写线程，让被测任务确定地处于排队状态
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DbExecutorTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private final DbExecutor executor = DbExecutor.getInstance();
+
+    @Test
+    public void queuedRead_ownerDestroyed_isCancelledAndNeverRuns() throws InterruptedException {
+        TestOwner owner = new TestOwner();
+        CountDownLatch release = new CountDownLatch(1);
+        occupyReaders(release);
+
+        AtomicBoolean ran = new AtomicBoolean();
+        AtomicBoolean delivered = new AtomicBoolean();
+        DbExecutor.DbCall<Boolean> call = executor.read(owner, () -> {
+            ran.set(true);
+            return true;
+        }, result -> delivered.set(true));
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        assertTrue(call.isCancelled());
+
+        release.countDown();
+        // 之后提交的读取回调完成时，被取消的读取如果还在队列中也早已被取出
+        AtomicBoolean marker = new AtomicBoolean();
+        executor.read(null, () -> true, marker::set);
+        idleMainLooperUntil(marker::get);
+        assertFalse(ran.get());
+        assertFalse(delivered.get());
+    }
+
+    @Test
+    public void queuedWrite_ownerDestroyed_stillRunsWithoutCallback() throws InterruptedException {
+        TestOwner owner = new TestOwner();
+        CountDownLatch release = new CountDownLatch(1);
+        occupyWriter(release);
+
+        CountDownLatch written = new CountDownLatch(1);
+        AtomicBoolean delivered = new AtomicBoolean();
+        DbExecutor.DbCall<Boolean> call = executor.write(owner, () -> {
+            written.countDown();
+            return true;
+        }, result -> delivered.set(true));
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        assertTrue(call.isCancelled());
+
+        release.countDown();
+        assertTrue("销毁后写入仍应执行", written.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        // 写线程串行执行：之后提交的写入回调到达时，前一个写入的回调也已投递（并被丢弃）
+        AtomicBoolean marker = new AtomicBoolean();
+        executor.write(null, () -> true, marker::set);
+        idleMainLooperUntil(marker::get);
+        assertFalse(delivered.get());
+    }
+
+    @Test
+    public void callback_runsOnMainLooper() {
+        AtomicReference<Thread> workThread = new AtomicReference<>();
+        AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        AtomicReference<Integer> value = new AtomicReference<>();
+        executor.read(null, () -> {
+            workThread.set(Thread.currentThread());
+            return 42;
+        }, result -> {
+            callbackThread.set(Thread.currentThread());
+            value.set(result);
+        });
+
+        idleMainLooperUntil(() -> callbackThread.get() != null);
+        assertSame(Looper.getMainLooper().getThread(), callbackThread.get());
+        assertNotSame(Looper.getMainLooper().getThread(), workThread.get());
+        assertEquals(Integer.valueOf(42), value.get());
+    }
+
+    @Test
+    public void writes_runByPriorityThenSubmissionOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        occupyWriter(release);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(5);
+        executor.execute(null, DbExecutor.Priority.BACKGROUND_WRITE, record("后台1", order, done), null);
+        executor.execute(null, DbExecutor.Priority.WRITE, record("写入1", order, done), null);
+        executor.execute(null, DbExecutor.Priority.WRITE, record("写入2", order, done), null);
+        executor.execute(null, DbExecutor.Priority.BACKGROUND_WRITE, record("后台2", order, done), null);
+        executor.execute(null, DbExecutor.Priority.WRITE, record("写入3", order, done), null);
+        release.countDown();
+
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("写入1", "写入2", "写入3", "后台1", "后台2"), order);
+    }
+
+    @Test
+    public void writeStamp_invalidDuringWriteAndChangedAfterWrite() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        occupyWriter(release);
+        assertEquals(-1, executor.writeStamp());
+        assertFalse(executor.isUnchangedSince(-1));
+        release.countDown();
+        AtomicBoolean idle = new AtomicBoolean();
+        executor.write(null, () -> true, idle::set);
+        idleMainLooperUntil(idle::get);
+
+        long stamp = executor.writeStamp();
+        assertTrue(executor.isUnchangedSince(stamp));
+        AtomicBoolean written = new AtomicBoolean();
+        executor.write(null, () -> true, written::set);
+        idleMainLooperUntil(written::get);
+        assertFalse(executor.isUnchangedSince(stamp));
+    }
+
+    /**
+     * 占住全部读线程，直到 release 放行
+     */
+    private void occupyReaders(CountDownLatch release) throws InterruptedException {
+        CountDownLatch busy = new CountDownLatch(DbExecutor.READER_COUNT);
+        for (int i = 0; i < DbExecutor.READER_COUNT; i++) {
+            executor.execute(null, DbExecutor.Priority.UI_READ, () -> {
+                busy.countDown();
+                return release.await(WAIT_SECONDS, TimeUnit.SECONDS);
+            }, null);
+        }
+        assertTrue(busy.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 占住写线程，直到 release 放行
+     */
+    private void occupyWriter(CountDownLatch release) throws InterruptedException {
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(null, DbExecutor.Priority.WRITE, () -> {
+            busy.countDown();
+            return release.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        }, null);
+        assertTrue(busy.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static Callable<Void> record(String name, List<String> order, CountDownLatch done) {
+        return () -> {
+            order.add(name);
+            done.countDown();
+            return null;
+        };
+    }
+
+    /**
+     * 反复执行主线程消息队列，直到条件满足（回调由后台线程投递到主线程）
+     */
+    private static void idleMainLooperUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("等待主线程回调超时");
+    }
+
+    /**
+     * 可手动切换状态的生命周期（模拟页面）
+     */
+    private static final class TestOwner implements LifecycleOwner {
+        final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        TestOwner() {
+            registry.setCurrentState(Lifecycle.State.RESUMED);
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+}
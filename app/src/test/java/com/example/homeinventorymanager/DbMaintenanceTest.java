@@ -0,0 +1,109 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据库维护测试：WAL 参数在打开时设置、optimize 按间隔执行、写线程被占用时读线程池的读取全部同时执行
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DbMaintenanceTest {
+
+    // 等待并发读取的超时（秒），正常情况下立即满足
+    private static final long WAIT_SECONDS = 5;
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(AppDatabase.WAL_CALLBACK)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void open_appliesWalSettings() {
+        assertEquals(AppDatabase.JOURNAL_SIZE_LIMIT_BYTES, pragma("journal_size_limit"));
+        assertEquals(AppDatabase.WAL_AUTOCHECKPOINT_PAGES, pragma("wal_autocheckpoint"));
+    }
+
+    @Test
+    public void runMaintenance_optimizesAtMostOncePerInterval() {
+        DbMaintenance maintenance = new DbMaintenance();
+        long now = 1_000_000L;
+
+        DbMaintenance.Result first = maintenance.runMaintenance(db, now);
+        DbMaintenance.Result second = maintenance.runMaintenance(db, now + DbMaintenance.IDLE_DELAY_MS);
+        DbMaintenance.Result later = maintenance.runMaintenance(db, now + DbMaintenance.OPTIMIZE_INTERVAL_MS);
+
+        assertTrue(first.optimized);
+        assertFalse(second.optimized);
+        assertTrue(later.optimized);
+        assertFalse(later.busy);
+        assertNotNull(maintenance.getLastResult());
+    }
+
+    @Test
+    public void concurrentReads_runTogetherWhileWriterIsBusy() throws InterruptedException {
+        DbExecutor executor = DbExecutor.getInstance();
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        CountDownLatch allReading = new CountDownLatch(DbExecutor.READER_COUNT);
+        CountDownLatch readsDone = new CountDownLatch(DbExecutor.READER_COUNT);
+        AtomicInteger overlapped = new AtomicInteger();
+        // 写线程被一个慢写入占住
+        executor.execute(null, DbExecutor.Priority.BACKGROUND_WRITE,
+                () -> releaseWrite.await(WAIT_SECONDS * 2, TimeUnit.SECONDS), null);
+        try {
+            for (int i = 0; i < DbExecutor.READER_COUNT; i++) {
+                executor.read(null, () -> {
+                    db.categoryDao().queryAllCategories();
+                    allReading.countDown();
+                    // 只有全部读取同时在执行才会放行：读线程不足或读取排在写入之后都会超时
+                    if (allReading.await(WAIT_SECONDS, TimeUnit.SECONDS)) {
+                        overlapped.incrementAndGet();
+                    }
+                    readsDone.countDown();
+                    return null;
+                }, null);
+            }
+            assertTrue(readsDone.await(WAIT_SECONDS * 2, TimeUnit.SECONDS));
+            assertEquals(DbExecutor.READER_COUNT, overlapped.get());
+        } finally {
+            releaseWrite.countDown();
+        }
+    }
+
+    private long pragma(String name) {
+        try (Cursor cursor = db.query("PRAGMA " + name, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.homeinventorymanager;
+
+import android.Manifest;
+import android.app.Application;
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.Configuration;
+import androidx.work.Data;
+import androidx.work.ListenableWorker;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.testing.SynchronousExecutor;
+import androidx.work.testing.TestDriver;
+import androidx.work.testing.TestWorkerBuilder;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 有效期提醒任务测试：WorkManager 测试驱动触发周期任务，检查汇总通知、分批统计和每天一次的调度
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ExpiryReminderWorkerTest {
+
+    // 超过一批（CHUNK_SIZE）的数量，覆盖分批读取
+    private static final int EXPIRING_COUNT = ExpiryReminderWorker.CHUNK_SIZE * 2 + 50;
+
+    private Context context;
+    private AppDatabase db;
+    private NotificationManager notificationManager;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        AppDatabase.setInstanceForTesting(db);
+
+        Configuration configuration = new Configuration.Builder()
+                .setMinimumLoggingLevel(Log.DEBUG)
+                .setExecutor(new SynchronousExecutor())
+                .build();
+        WorkManagerTestInitHelper.initializeTestWorkManager(context, configuration);
+
+        shadowOf((Application) context).grantPermissions(Manifest.permission.POST_NOTIFICATIONS);
+        notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+    }
+
+    @After
+    public void tearDown() {
+        AppDatabase.setInstanceForTesting(null);
+        db.close();
+    }
+
+    @Test
+    public void periodicWork_postsOneGroupedNotification() throws Exception {
+        seed();
+        ExpiryReminderScheduler.schedule(context);
+
+        WorkInfo workInfo = uniqueWork().get(0);
+        TestDriver testDriver = WorkManagerTestInitHelper.getTestDriver(context);
+        testDriver.setAllConstraintsMet(workInfo.getId());
+        testDriver.setInitialDelayMet(workInfo.getId());
+
+        // 周期任务运行后回到排队状态，等待下一天
+        assertEquals(WorkInfo.State.ENQUEUED, WorkManager.getInstance(context).getWorkInfoById(workInfo.getId()).get().getState());
+
+        List<Notification> notifications = shadowOf(notificationManager).getAllNotifications();
+        assertEquals(1, notifications.size());
+        Notification notification = notifications.get(0);
+        assertEquals(EXPIRING_COUNT + " 件物品即将过期", notification.extras.getString(NotificationCompat.EXTRA_TITLE));
+        CharSequence[] lines = notification.extras.getCharSequenceArray(NotificationCompat.EXTRA_TEXT_LINES);
+        assertEquals(ExpiryReminderWorker.MAX_LINES, lines.length);
+        // 最早到期的排在最前
+        assertTrue(lines[0].toString().contains("今天到期"));
+    }
+
+    @Test
+    public void worker_countsOnlyItemsInsideHorizon() throws Exception {
+        seed();
+        assertEquals(EXPIRING_COUNT, runWorker(ExpiryReminderScheduler.DEFAULT_HORIZON_DAYS));
+        // 范围缩小到今天：只统计今天到期的物品
+        assertEquals(expiringOn(0), runWorker(0));
+    }
+
+    @Test
+    public void worker_withNothingExpiring_postsNoNotification() throws Exception {
+        assertEquals(0, runWorker(ExpiryReminderScheduler.DEFAULT_HORIZON_DAYS));
+        assertTrue(shadowOf(notificationManager).getAllNotifications().isEmpty());
+    }
+
+    @Test
+    public void worker_databaseError_failsInsteadOfRetrying() {
+        db.getOpenHelper().getWritableDatabase().execSQL("DROP TABLE item");
+        ExpiryReminderWorker worker = TestWorkerBuilder.from(context, ExpiryReminderWorker.class, Executors.newSingleThreadExecutor())
+                .build();
+        assertTrue(worker.doWork() instanceof ListenableWorker.Result.Failure);
+    }
+
+    @Test
+    public void schedule_keepsSingleDailyWork() throws Exception {
+        ExpiryReminderScheduler.schedule(context);
+        ExpiryReminderScheduler.schedule(context);
+        ExpiryReminderScheduler.setHorizonDays(context, 3);
+
+        List<WorkInfo> infos = uniqueWork();
+        assertEquals(1, infos.size());
+        assertEquals(3, ExpiryReminderScheduler.getHorizonDays(context));
+
+        PeriodicWorkRequest request = ExpiryReminderScheduler.buildRequest(3, ZonedDateTime.now());
+        assertEquals(TimeUnit.DAYS.toMillis(1), request.getWorkSpec().intervalDuration);
+        assertTrue(request.getWorkSpec().constraints.requiresBatteryNotLow());
+    }
+
+    @Test
+    public void delayUntilNextReminder_targetsNextMorning() {
+        ZoneId zone = ZoneId.systemDefault();
+        ZonedDateTime early = LocalDateTime.of(2030, 1, 1, 7, 30).atZone(zone);
+        ZonedDateTime late = LocalDateTime.of(2030, 1, 1, 9, 0).atZone(zone);
+        assertEquals(Duration.ofMinutes(90), ExpiryReminderScheduler.delayUntilNextReminder(early));
+        assertEquals(Duration.ofDays(1), ExpiryReminderScheduler.delayUntilNextReminder(late));
+    }
+
+    @Test
+    public void describe_omitsParenthesesWithoutLocation() {
+        int today = 20_000;
+        ItemDetail item = new ItemDetail();
+        item.setItemName("牛奶");
+        item.setValidDate((long) today + 3);
+        assertEquals("牛奶 3 天后到期", ExpiryReminderWorker.describe(item, today));
+
+        item.setLocationName("冰箱");
+        item.setValidDate((long) today);
+        assertEquals("牛奶（冰箱）今天到期", ExpiryReminderWorker.describe(item, today));
+    }
+
+    private int runWorker(int horizonDays) {
+        ExpiryReminderWorker worker = TestWorkerBuilder.from(context, ExpiryReminderWorker.class, Executors.newSingleThreadExecutor())
+                .setInputData(new Data.Builder().putInt(ExpiryReminderWorker.KEY_HORIZON_DAYS, horizonDays).build())
+                .build();
+        ListenableWorker.Result result = worker.doWork();
+        assertTrue(result instanceof ListenableWorker.Result.Success);
+        return result.getOutputData().getInt(ExpiryReminderWorker.KEY_EXPIRING_COUNT, -1);
+    }
+
+    private List<WorkInfo> uniqueWork() throws Exception {
+        return WorkManager.getInstance(context).getWorkInfosForUniqueWork(ExpiryReminderScheduler.WORK_NAME).get();
+    }
+
+    // 第 i 个即将过期物品在今天之后第 (i % 8) 天到期（0~7 天，都在默认范围内）
+    private static int expiringOn(int daysFromToday) {
+        int count = 0;
+        for (int i = 0; i < EXPIRING_COUNT; i++) {
+            if (i % 8 == daysFromToday) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 即将过期的物品 + 已过期、范围外、未设置有效期的干扰数据
+     */
+    private void seed() {
+        long today = DateUtil.todayEpochDay();
+        db.runInTransaction(() -> {
+            ItemDao dao = db.itemDao();
+            for (int i = 0; i < EXPIRING_COUNT; i++) {
+                dao.insertItem(item("即将过期" + i, today + (i % 8)));
+            }
+            for (int i = 0; i < 20; i++) {
+                dao.insertItem(item("已过期" + i, today - 1 - i));
+                dao.insertItem(item("远期" + i, today + 30 + i));
+                dao.insertItem(item("未设置" + i, null));
+            }
+        });
+    }
+
+    private static Item item(String name, Long validDay) {
+        Item item = new Item(name, null, null, null, "", "", null, 1);
+        item.setValidDate(validDay);
+        return item;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 外键级联删除测试：删除分类/物品时一条 DELETE 语句带走所有子记录；7 -> 8 迁移保留子分类、丢弃孤立图片记录
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ForeignKeyCascadeTest {
+
+    // 子记录数量：验证删除语句数与子记录数无关
+    private static final int DEPENDANT_COUNT = 5_000;
+
+    private Context context;
+    private AppDatabase db;
+    private final List<String> statements = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryCallback((sqlQuery, bindArgs) -> statements.add(sqlQuery.trim()), Runnable::run)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void deleteCategory_removesAllSubCategoriesInOneStatement() {
+        db.categoryDao().insertCategory(new Category("食品"));
+        db.categoryDao().insertCategory(new Category("日用品"));
+        List<SubCategory> subCategories = new ArrayList<>(DEPENDANT_COUNT);
+        for (int i = 0; i < DEPENDANT_COUNT; i++) {
+            subCategories.add(new SubCategory("零食" + i, 1, "食品"));
+        }
+        subCategories.add(new SubCategory("纸巾", 2, "日用品"));
+        db.runInTransaction(() -> db.subCategoryDao().upsertSubCategories(subCategories));
+
+        statements.clear();
+        db.categoryDao().deleteCategory(db.categoryDao().queryCategoryById(1));
+
+        assertEquals(1, countStatements("DELETE"));
+        assertEquals(1, count("SELECT COUNT(*) FROM sub_category"));
+        assertEquals(0, count("SELECT COUNT(*) FROM sub_category WHERE parentCategoryId = 1"));
+    }
+
+    @Test
+    public void deleteItem_removesItsImages() {
+        long milk = db.itemDao().insertItem(new Item("牛奶", null, null, null, null, "", null, 1));
+        long bread = db.itemDao().insertItem(new Item("面包", null, null, null, null, "", null, 1));
+        List<ItemImage> images = new ArrayList<>(DEPENDANT_COUNT);
+        for (int i = 0; i < DEPENDANT_COUNT; i++) {
+            images.add(image(milk, "/tmp/milk_" + i + ".jpg"));
+        }
+        images.add(image(bread, "/tmp/bread.jpg"));
+        db.itemImageDao().insertItemImageList(images);
+
+        statements.clear();
+        db.itemDao().deleteItem(db.itemDao().queryItemById((int) milk));
+
+        assertEquals(1, countStatements("DELETE"));
+        assertEquals(1, count("SELECT COUNT(*) FROM item_image"));
+
+        db.itemDao().deleteAllItems();
+        assertEquals(0, count("SELECT COUNT(*) FROM item_image"));
+    }
+
+    @Test
+    public void migrate7To8_keepsSubCategoriesAndDropsOrphanImages() {
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(null)
+                        .callback(new SupportSQLiteOpenHelper.Callback(7) {
+                            @Override
+                            public void onCreate(SupportSQLiteDatabase database) {
+                                createVersion7Tables(database);
+                            }
+
+                            @Override
+                            public void onUpgrade(SupportSQLiteDatabase database, int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+        SupportSQLiteDatabase database = helper.getWritableDatabase();
+        database.execSQL("INSERT INTO category (id, categoryName) VALUES (1, '食品')");
+        // 关联到已有分类 / 默认分类（ID 为 0，分类表中没有）
+        database.execSQL("INSERT INTO sub_category (id, subCategoryName, parentCategoryId, parentCategoryName) VALUES (1, '零食', 1, '食品')");
+        database.execSQL("INSERT INTO sub_category (id, subCategoryName, parentCategoryId, parentCategoryName) VALUES (2, '口红', 0, '化妆品')");
+        database.execSQL("INSERT INTO item (id, itemName) VALUES (1, '牛奶')");
+        database.execSQL("INSERT INTO item_image (id, item_id, image_path) VALUES (1, 1, '/tmp/milk.jpg')");
+        database.execSQL("INSERT INTO item_image (id, item_id, image_path) VALUES (2, 99, '/tmp/gone.jpg')");
+
+        AppDatabase.MIGRATION_7_8.migrate(database);
+
+        assertEquals(2, count(database, "SELECT COUNT(*) FROM sub_category"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM sub_category s JOIN category c ON c.id = s.parentCategoryId " +
+                "WHERE s.subCategoryName = '口红' AND c.categoryName = '化妆品'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_image"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM pragma_foreign_key_list('item_image') WHERE \"table\" = 'item' AND on_delete = 'CASCADE'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM pragma_foreign_key_list('sub_category') WHERE \"table\" = 'category' AND on_delete = 'CASCADE'"));
+        helper.close();
+    }
+
+    /**
+     * 版本7的建表语句（无外键）
+     */
+    private static void createVersion7Tables(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TABLE `category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `categoryName` TEXT)");
+        database.execSQL("CREATE TABLE `sub_category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `subCategoryName` TEXT, `parentCategoryId` INTEGER NOT NULL, `parentCategoryName` TEXT)");
+        database.execSQL("CREATE INDEX `index_sub_category_parentCategoryId` ON `sub_category` (`parentCategoryId`)");
+        database.execSQL("CREATE TABLE `item` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `itemName` TEXT, `category` TEXT, `subCategory` TEXT, `location` TEXT, `validDate` INTEGER, `description` TEXT, `itemCount` TEXT, `imagePath` TEXT)");
+        database.execSQL("CREATE TABLE `item_image` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `item_id` INTEGER NOT NULL, `image_path` TEXT, `thumb_small_path` TEXT, `thumb_large_path` TEXT, `content_hash` TEXT, `source_uri` TEXT)");
+        database.execSQL("CREATE INDEX `index_item_image_item_id` ON `item_image` (`item_id`)");
+    }
+
+    private static ItemImage image(long itemId, String path) {
+        ItemImage image = new ItemImage();
+        image.setItemId(itemId);
+        image.setImagePath(path);
+        return image;
+    }
+
+    private int countStatements(String prefix) {
+        int count = 0;
+        for (String statement : statements) {
+            if (statement.toUpperCase().startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int count(String sql) {
+        return count(db.getOpenHelper().getWritableDatabase(), sql);
+    }
+
+    private static int count(SupportSQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
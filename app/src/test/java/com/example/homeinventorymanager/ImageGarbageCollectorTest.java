@@ -0,0 +1,182 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Environment;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+import com.example.homeinventorymanager.utils.ImageStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 孤立图片清理测试：分批删除孤立记录和无人引用的文件、进程被杀后从中断处继续、不动外部和新文件
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ImageGarbageCollectorTest {
+
+    // 超过两批，覆盖中断后继续
+    private static final int ORPHAN_ROWS = ImageGarbageCollector.BATCH_SIZE * 2 + 50;
+    private static final String HASH_KEPT = repeat("a1");
+    private static final String HASH_ORPHAN = repeat("b2");
+    private static final String HASH_SHARED = repeat("c3");
+
+    private Context context;
+    private AppDatabase db;
+    private long now;
+    private long oldTime;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        now = System.currentTimeMillis();
+        oldTime = now - ImageGarbageCollector.MIN_FILE_AGE_MS - TimeUnit.HOURS.toMillis(1);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void collect_interruptedMidRun_resumesAndReportsReclaimedBytes() throws IOException {
+        long itemId = db.itemDao().insertItem(new Item("牛奶", null, null, null, null, "", null, 1));
+        File storeDir = ImageStore.imageDir(context);
+        File kept = writeFile(storeDir, HASH_KEPT + ".jpg", 100, oldTime);
+        File orphan = writeFile(storeDir, HASH_ORPHAN + ".jpg", 1000, oldTime);
+        File orphanThumbnail = writeFile(storeDir, HASH_ORPHAN + "_200.jpg", 200, oldTime);
+        File shared = writeFile(storeDir, HASH_SHARED + ".jpg", 300, oldTime);
+
+        List<ItemImage> images = new ArrayList<>();
+        images.add(image(itemId, kept.getAbsolutePath(), null));
+        images.add(image(itemId, shared.getAbsolutePath(), null));
+        images.add(image(9_000, orphan.getAbsolutePath(), orphanThumbnail.getAbsolutePath()));
+        images.add(image(9_001, shared.getAbsolutePath(), null));
+        // 相册中的图片：记录是孤立的，但文件不属于应用，不能删除
+        images.add(image(9_002, "/storage/emulated/0/DCIM/IMG_1.jpg", null));
+        for (int i = images.size(); i < ORPHAN_ROWS + 2; i++) {
+            images.add(image(10_000 + i, null, null));
+        }
+        insertLegacyImages(images);
+
+        File pictures = context.getExternalFilesDir(Environment.DIRECTORY_PICTURES);
+        File strayPhoto = writeFile(pictures, "JPEG_old.jpg", 500, oldTime);
+        File freshPhoto = writeFile(pictures, "JPEG_new.jpg", 400, now);
+        File leftover = writeFile(pictures, "JPEG_old.jpg.transcode", 50, oldTime);
+
+        // 第一次运行只完成两批就被杀
+        ImageGarbageCollector first = new ImageGarbageCollector(context, db, now);
+        assertTrue(first.runBatch());
+        assertTrue(first.runBatch());
+        int remainingAfterKill = count();
+
+        // 重新创建（模拟进程重启），从保存的进度继续
+        ImageGarbageCollector resumed = new ImageGarbageCollector(context, db, now);
+        while (resumed.runBatch()) {
+            assertTrue("已完成的批次不应重做", count() <= remainingAfterKill);
+        }
+        ImageGarbageCollector.Report report = resumed.finish();
+
+        assertEquals(2, count());
+        assertEquals(ORPHAN_ROWS, report.rowsDeleted);
+        assertFalse(orphan.exists());
+        assertFalse(orphanThumbnail.exists());
+        assertFalse(strayPhoto.exists());
+        assertFalse(leftover.exists());
+        assertTrue(kept.exists());
+        assertTrue(shared.exists());
+        assertTrue(freshPhoto.exists());
+        assertEquals(1000 + 200 + 500 + 50, report.bytesReclaimed);
+        assertEquals(4, report.filesDeleted);
+    }
+
+    @Test
+    public void finish_resetsProgressForNextRun() throws IOException {
+        ImageGarbageCollector collector = new ImageGarbageCollector(context, db, now);
+        while (collector.runBatch()) {
+            // 空库：只需推进阶段
+        }
+        collector.finish();
+
+        long itemId = db.itemDao().insertItem(new Item("面包", null, null, null, null, "", null, 1));
+        insertLegacyImages(Collections.singletonList(image(itemId + 1, null, null)));
+        ImageGarbageCollector next = new ImageGarbageCollector(context, db, now);
+        while (next.runBatch()) {
+            // 从头开始，能看到新的孤立记录
+        }
+        assertEquals(1, next.finish().rowsDeleted);
+    }
+
+    /**
+     * 孤立记录只会出现在加外键之前的数据库中：临时关闭外键检查写入
+     */
+    private void insertLegacyImages(List<ItemImage> images) {
+        SupportSQLiteDatabase database = db.getOpenHelper().getWritableDatabase();
+        database.execSQL("PRAGMA foreign_keys = OFF");
+        try {
+            db.itemImageDao().insertItemImageList(images);
+        } finally {
+            database.execSQL("PRAGMA foreign_keys = ON");
+        }
+    }
+
+    private int count() {
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM item_image", null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private static ItemImage image(long itemId, String path, String thumbSmallPath) {
+        ItemImage image = new ItemImage();
+        image.setItemId(itemId);
+        image.setImagePath(path);
+        image.setThumbSmallPath(thumbSmallPath);
+        image.setContentHash(ImageStore.contentHashOf(path));
+        return image;
+    }
+
+    private static File writeFile(File dir, String name, int length, long lastModified) throws IOException {
+        dir.mkdirs();
+        File file = new File(dir, name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[length]);
+        }
+        assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
+
+    private static String repeat(String pair) {
+        StringBuilder builder = new StringBuilder(64);
+        while (builder.length() < 64) {
+            builder.append(pair);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * CSV 备份/恢复测试：10 万条物品的往返与流式写出、小堆子进程中的导出（内存占用与数据量无关）、一致快照导出、特殊字符与 null 的保真、手工编辑文件的兼容
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class InventoryCsvTest {
+
+    private static final int ITEM_COUNT = 100_000;
+    // 每 10 个物品一张图片
+    private static final int IMAGE_EVERY = 10;
+    // 导出子进程的堆上限（兆字节）：远小于导出文件，导出器缓存所有行时必然内存不足
+    private static final int FORKED_HEAP_MB = 16;
+    private static final long FORKED_TIMEOUT_SECONDS = 120;
+    // 10 万条物品往返导出的耗时预算（毫秒，宽松上限）：只在 -PdaoPerf 时断言，与 DAO 延迟预算一起运行
+    private static final long EXPORT_BUDGET_MS = 20_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private AppDatabase source;
+    private AppDatabase target;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        source = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).allowMainThreadQueries().build();
+        target = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).allowMainThreadQueries().build();
+    }
+
+    @After
+    public void tearDown() {
+        source.close();
+        target.close();
+    }
+
+    @Test
+    public void roundTrip_100kItems_streamsInBoundedWrites() throws IOException {
+        seedLarge();
+        File file = temporaryFolder.newFile("backup.csv");
+        int expectedRows = 3 + ITEM_COUNT + ITEM_COUNT / IMAGE_EVERY;
+
+        int exported;
+        WriteRecordingOutputStream recorder;
+        try (OutputStream out = new FileOutputStream(file)) {
+            recorder = new WriteRecordingOutputStream(out);
+            exported = InventoryCsv.exportTo(source, recorder);
+        }
+        int imported;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            imported = InventoryCsv.importFrom(target, in);
+        }
+
+        assertEquals(expectedRows, exported);
+        assertEquals(expectedRows, imported);
+        // 流式写出：输出按缓冲区大小分多次到达，而不是在内存中拼出整个文件后一次写入
+        assertEquals(file.length(), recorder.totalBytes);
+        assertTrue(recorder.totalBytes > 10L * InventoryCsv.OUTPUT_BUFFER_SIZE);
+        assertTrue("单次写入 " + recorder.maxWriteBytes + " 字节，超过缓冲区 " + InventoryCsv.OUTPUT_BUFFER_SIZE,
+                recorder.maxWriteBytes <= InventoryCsv.OUTPUT_BUFFER_SIZE);
+
+        assertEquals(ITEM_COUNT, count(target, "item"));
+        assertEquals(ITEM_COUNT / IMAGE_EVERY, count(target, "item_image"));
+        for (int id : new int[]{1, 2, ITEM_COUNT / 2, ITEM_COUNT}) {
+            assertSameItem(source.itemDao().queryItemById(id), target.itemDao().queryItemById(id));
+        }
+        assertEquals(source.itemImageDao().queryImagePathsByItemId(ITEM_COUNT),
+                target.itemImageDao().queryImagePathsByItemId(ITEM_COUNT));
+    }
+
+    @Test
+    public void export_100kRows_fitsInSmallForkedHeap() throws Exception {
+        File output = temporaryFolder.newFile("probe.txt");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Xmx" + FORKED_HEAP_MB + "m",
+                "-cp", System.getProperty("java.class.path"),
+                CsvExportHeapProbe.class.getName(), String.valueOf(ITEM_COUNT))
+                .redirectErrorStream(true)
+                .redirectOutput(output)
+                .start();
+        assertTrue("导出子进程超时", process.waitFor(FORKED_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertEquals("导出子进程失败：" + lines, 0, process.exitValue());
+
+        String[] result = lines.get(lines.size() - 1).trim().split(" ");
+        assertEquals(ITEM_COUNT, Integer.parseInt(result[0]));
+        // 导出内容是堆上限的数倍：内存占用与数据量无关才能完成
+        long bytes = Long.parseLong(result[1]);
+        assertTrue(bytes + " 字节", bytes > 2L * FORKED_HEAP_MB * 1024 * 1024);
+    }
+
+    @Test
+    public void export_100kItems_withinTimeBudget() throws IOException {
+        assumeTrue("导出耗时预算需 -PdaoPerf 运行", System.getProperty("daoPerf.reportDir") != null);
+        seedLarge();
+        WriteRecordingOutputStream out = new WriteRecordingOutputStream(new ByteArrayOutputStream());
+        long start = System.nanoTime();
+        InventoryCsv.exportTo(source, out);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs + "ms 超出预算 " + EXPORT_BUDGET_MS + "ms", elapsedMs <= EXPORT_BUDGET_MS);
+    }
+
+    @Test
+    public void roundTrip_keepsSpecialCharactersAndNulls() throws IOException {
+        Item tricky = new Item("牛奶, 全脂", null, null, null, "2030-02-28",
+                "第一行\n第二行 \"特浓\"\r\n", null, null);
+        tricky.setUnit("");
+        Item hashName = new Item("#不是分段", null, null, null, null, "", "/tmp/a,b.jpg", 3);
+        long trickyId = source.itemDao().insertItem(tricky);
+        long hashId = source.itemDao().insertItem(hashName);
+
+        assertEquals(2, InventoryCsv.importFrom(target, new ByteArrayInputStream(export(source))));
+
+        assertSameItem(source.itemDao().queryItemById((int) trickyId), target.itemDao().queryItemById((int) trickyId));
+        assertSameItem(source.itemDao().queryItemById((int) hashId), target.itemDao().queryItemById((int) hashId));
+        // null 与空字符串在往返后保持区分
+        assertNull(text(target, "SELECT imagePath FROM item WHERE id = " + trickyId));
+        assertEquals("", text(target, "SELECT unit FROM item WHERE id = " + trickyId));
+        assertNull(text(target, "SELECT quantity FROM item WHERE id = " + trickyId));
+        assertNull(text(target, "SELECT validDate FROM item WHERE id = " + hashId));
+    }
+
+    @Test
+    public void exportSnapshot_matchesDirectExportWithOrWithoutConcurrentWrites() throws Exception {
+        source.itemDao().insertItem(new Item("牛奶", null, null, null, "2030-01-01", "", null, 1));
+        byte[] direct = export(source);
+
+        ByteArrayOutputStream idle = new ByteArrayOutputStream();
+        assertEquals(1, InventoryCsv.exportSnapshotTo(source, temporaryFolder.newFile(), idle));
+        assertArrayEquals(direct, idle.toByteArray());
+
+        // 写线程上有未结束的写任务：每次尝试都不算快照，最后在事务中导出
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DbExecutor.getInstance().write(null, () -> {
+            busy.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }, null);
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        try {
+            assertEquals(-1, DbExecutor.getInstance().writeStamp());
+            ByteArrayOutputStream contended = new ByteArrayOutputStream();
+            assertEquals(1, InventoryCsv.exportSnapshotTo(source, temporaryFolder.newFile(), contended));
+            assertArrayEquals(direct, contended.toByteArray());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void import_existingIds_updatesInsteadOfDuplicating() throws IOException {
+        source.itemDao().insertItem(new Item("牛奶", null, null, null, "2030-01-01", "", null, 1));
+        byte[] backup = export(source);
+        InventoryCsv.importFrom(target, new ByteArrayInputStream(backup));
+        InventoryCsv.importFrom(target, new ByteArrayInputStream(backup));
+        assertEquals(1, count(target, "item"));
+    }
+
+    @Test
+    public void import_handEditedFile_mapsColumnsByName() throws IOException {
+        String csv = "#item\r\n"
+                + "itemName,location,validDate,category,subCategory,itemCount\r\n"
+                + "面包,厨房橱柜,2030-01-05,食品,早餐,2袋\r\n"
+                + "牛奶,厨房橱柜,,食品,暂无子分类,半盒\r\n"
+                + "\r\n"
+                + "#unknown_table\r\n"
+                + "a,b\r\n"
+                + "1,2\r\n";
+        assertEquals(2, InventoryCsv.importFrom(target, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+
+        // 名称列换算为ID：不存在的分类/子分类/位置新建一次，两个物品共用
+        List<ItemDetail> items = target.itemDao().queryAllItemDetails();
+        ItemDetail bread = items.get(1);
+        assertEquals("面包", bread.getItemName());
+        assertEquals("食品", bread.getCategoryName());
+        assertEquals("早餐", bread.getSubCategoryName());
+        assertEquals("厨房橱柜", bread.getLocationName());
+        assertEquals("2030-01-05", bread.getValidDateText());
+        assertEquals("", bread.getDescription());
+        // 旧版文本数量列：数字开头的拆成数量和单位，其余为未设置
+        assertEquals(Integer.valueOf(2), bread.getQuantity());
+        assertEquals("袋", bread.getUnit());
+        ItemDetail milk = items.get(0);
+        assertEquals(bread.getCategoryId(), milk.getCategoryId());
+        assertEquals(bread.getLocationId(), milk.getLocationId());
+        assertNull(milk.getSubCategoryId());
+        assertNull(milk.getQuantity());
+        assertEquals(1, count(target, "category"));
+        assertEquals(1, count(target, "sub_category"));
+        assertEquals(1, count(target, "storage_location"));
+    }
+
+    @Test
+    public void setLegacyCount_keepsNonIntegerCountsAsUnit() {
+        Item bottles = legacyCount("2瓶");
+        assertEquals(Integer.valueOf(2), bottles.getQuantity());
+        assertEquals("瓶", bottles.getUnit());
+        // 与 9 -> 10 迁移一致：小数、千分位不拆分，原文作为单位
+        for (String value : new String[]{"2.5瓶", "1,000", "1/2袋"}) {
+            Item item = legacyCount(" " + value + " ");
+            assertNull(value, item.getQuantity());
+            assertEquals(value, item.getUnit());
+        }
+    }
+
+    @Test
+    public void import_malformedFile_reportsLine() {
+        String csv = "#item\nid,itemName\n1,\"未闭合\n";
+        try {
+            InventoryCsv.importFrom(target, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            fail("格式错误的文件应当导入失败");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("第3行"));
+        }
+    }
+
+    private static Item legacyCount(String itemCount) {
+        Item item = new Item("物品", null, null, null, null, "", null, null);
+        InventoryCsv.setLegacyCount(item, itemCount);
+        return item;
+    }
+
+    private static byte[] export(AppDatabase db) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InventoryCsv.exportTo(db, out);
+        return out.toByteArray();
+    }
+
+    private void seedLarge() {
+        source.categoryDao().insertCategory(new Category("食品"));
+        source.subCategoryDao().insertSubCategory(new SubCategory("零食", 1, "食品"));
+        source.storageLocationDao().insertStorageLocation(new StorageLocation("冰箱"));
+        long today = DateUtil.todayEpochDay();
+        List<Item> batch = new ArrayList<>(InventoryCsv.BATCH_SIZE);
+        List<ItemImage> images = new ArrayList<>();
+        for (int i = 1; i <= ITEM_COUNT; i++) {
+            Item item = new Item("物品" + i, 1, 1, 1, null, "描述," + i, null, i % 5);
+            item.setUnit("个");
+            item.setLowStockThreshold(i % 3 == 0 ? 1 : null);
+            item.setValidDate(i % 3 == 0 ? null : today + i % 400);
+            batch.add(item);
+            if (i % IMAGE_EVERY == 0) {
+                ItemImage image = new ItemImage();
+                image.setItemId(i);
+                image.setImagePath("/data/images/" + i + ".jpg");
+                images.add(image);
+            }
+            if (batch.size() == InventoryCsv.BATCH_SIZE) {
+                flush(batch, images);
+            }
+        }
+        flush(batch, images);
+    }
+
+    private void flush(List<Item> batch, List<ItemImage> images) {
+        source.runInTransaction(() -> {
+            source.itemDao().insertItems(batch);
+            source.itemImageDao().insertItemImageList(images);
+        });
+        batch.clear();
+        images.clear();
+    }
+
+    private static void assertSameItem(Item expected, Item actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getItemName(), actual.getItemName());
+        assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        assertEquals(expected.getSubCategoryId(), actual.getSubCategoryId());
+        assertEquals(expected.getLocationId(), actual.getLocationId());
+        assertEquals(expected.getValidDate(), actual.getValidDate());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getUnit(), actual.getUnit());
+        assertEquals(expected.getLowStockThreshold(), actual.getLowStockThreshold());
+        assertEquals(expected.getImagePath(), actual.getImagePath());
+    }
+
+    private static int count(AppDatabase db, String table) {
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery("SELECT COUNT(*) FROM " + table))) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private static String text(AppDatabase db, String sql) {
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery(sql))) {
+            cursor.moveToFirst();
+            return cursor.isNull(0) ? null : cursor.getString(0);
+        }
+    }
+
+    /**
+     * 记录每次写入大小的输出流（写入原样转发）
+     */
+    private static final class WriteRecordingOutputStream extends FilterOutputStream {
+        long totalBytes;
+        int maxWriteBytes;
+
+        WriteRecordingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            record(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            record(len);
+            out.write(b, off, len);
+        }
+
+        private void record(int len) {
+            totalBytes += len;
+            maxWriteBytes = Math.max(maxWriteBytes, len);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 整数数量测试：低库存查询、按分类/位置的数量汇总在 SQL 中完成；9 -> 10 迁移把文本数量拆成数量和单位；10 -> 11 迁移补充分类分页索引
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ItemQuantityTest {
+
+    private Context context;
+    private AppDatabase db;
+    private int food;
+    private int daily;
+    private int fridge;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        food = (int) db.categoryDao().insertCategory(new Category("食品"));
+        daily = (int) db.categoryDao().insertCategory(new Category("日用品"));
+        fridge = (int) db.storageLocationDao().insertStorageLocation(new StorageLocation("冰箱"));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void queryLowStockItems_returnsOnlyItemsAtOrBelowThreshold() {
+        insert("牛奶", food, fridge, 1, "瓶", 2);
+        insert("鸡蛋", food, fridge, 0, "个", 6);
+        insert("面包", food, null, 3, "袋", 2);
+        insert("纸巾", daily, null, 1, "包", null);
+        insert("洗衣液", daily, null, null, "", 1);
+
+        List<ItemDetail> lowStock = db.itemDao().queryLowStockItems();
+
+        assertEquals(2, lowStock.size());
+        // 缺得最多的在前
+        assertEquals("鸡蛋", lowStock.get(0).getItemName());
+        assertEquals("牛奶", lowStock.get(1).getItemName());
+        assertEquals("冰箱", lowStock.get(1).getLocationName());
+        assertTrue(lowStock.get(1).isLowStock());
+        assertEquals(2, db.itemDao().countLowStockItems());
+    }
+
+    @Test
+    public void quantityTotals_groupByCategoryOrLocationAndUnit() {
+        insert("牛奶", food, fridge, 2, "瓶", null);
+        insert("酸奶", food, fridge, 4, "瓶", null);
+        insert("鸡蛋", food, fridge, 10, "个", null);
+        insert("纸巾", daily, null, 3, "包", null);
+        insert("杂物", null, null, null, null, null);
+
+        List<QuantityTotal> byCategory = db.itemDao().queryQuantityTotalsByCategory();
+        assertEquals(4, byCategory.size());
+        QuantityTotal bottles = find(byCategory, food, "瓶");
+        assertEquals("食品", bottles.name);
+        assertEquals(2, bottles.itemCount);
+        assertEquals(6, bottles.totalQuantity);
+        assertEquals(10, find(byCategory, food, "个").totalQuantity);
+        assertEquals(3, find(byCategory, daily, "包").totalQuantity);
+        QuantityTotal unset = find(byCategory, null, "");
+        assertNull(unset.name);
+        assertEquals(1, unset.itemCount);
+        assertEquals(0, unset.totalQuantity);
+
+        List<QuantityTotal> byLocation = db.itemDao().queryQuantityTotalsByLocation();
+        assertEquals(6, find(byLocation, fridge, "瓶").totalQuantity);
+        assertEquals(2, find(byLocation, null, "").itemCount);
+    }
+
+    @Test
+    public void migrate9To10_splitsTextCountIntoQuantityAndUnit() {
+        SupportSQLiteOpenHelper helper = openVersion9Database();
+        SupportSQLiteDatabase database = helper.getWritableDatabase();
+        database.execSQL("INSERT INTO category (id, categoryName) VALUES (1, '食品')");
+        database.execSQL("INSERT INTO item (id, itemName, categoryId, itemCount) VALUES (1, '牛奶', 1, '3')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (2, '鸡蛋', ' 12 个 ')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (3, '面粉', '半袋')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (4, '纸巾', '')");
+        database.execSQL("INSERT INTO item (id, itemName) VALUES (5, '杂物')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (7, '酱油', '2.5瓶')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (8, '纸杯', '1,000')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (9, '大米', ' 1/2袋 ')");
+        database.execSQL("INSERT INTO item (id, itemName, itemCount) VALUES (10, '苹果', '2-3个')");
+        database.execSQL("INSERT INTO item_image (id, item_id, image_path) VALUES (1, 1, '/tmp/milk.jpg')");
+
+        AppDatabase.MIGRATION_9_10.migrate(database);
+
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 1 AND quantity = 3 AND unit IS NULL AND categoryId = 1"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 2 AND quantity = 12 AND unit = '个'"));
+        assertEquals(3, count(database, "SELECT COUNT(*) FROM item WHERE quantity IS NULL AND unit IS NULL AND lowStockThreshold IS NULL"));
+        // 小数、千分位、分数、范围不是整数数量：不拆成 2 + ".5瓶"，原文保存在单位中
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 7 AND quantity IS NULL AND unit = '2.5瓶'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 8 AND quantity IS NULL AND unit = '1,000'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 9 AND quantity IS NULL AND unit = '1/2袋'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 10 AND quantity IS NULL AND unit = '2-3个'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM pragma_table_info('item') WHERE name = 'quantity' AND type = 'INTEGER'"));
+        assertEquals(0, count(database, "SELECT COUNT(*) FROM pragma_table_info('item') WHERE name = 'itemCount'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_image"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'index_item_lowStockThreshold_quantity'"));
+        // 重建后的全文检索同步触发器仍然生效
+        database.execSQL("UPDATE category SET categoryName = '饮品' WHERE id = 1");
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_fts WHERE item_fts MATCH 'category:饮品'"));
+        database.execSQL("INSERT INTO item (id, itemName) VALUES (6, '咖啡')");
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_fts WHERE item_fts MATCH '咖啡'"));
+        helper.close();
+    }
+
+    @Test
+    public void migrate10To11_addsCategoryPagingIndex() {
+        SupportSQLiteOpenHelper helper = openVersion9Database();
+        SupportSQLiteDatabase database = helper.getWritableDatabase();
+        AppDatabase.MIGRATION_9_10.migrate(database);
+        database.execSQL("INSERT INTO category (id, categoryName) VALUES (1, '食品')");
+        database.execSQL("INSERT INTO item (id, itemName, categoryId, quantity) VALUES (1, '牛奶', 1, 3)");
+
+        AppDatabase.MIGRATION_10_11.migrate(database);
+
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'index_item_categoryId_id'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE categoryId = 1 AND quantity = 3"));
+        // 仅按分类的键集分页按新索引顺序返回，不再需要临时 B 树排序
+        try (Cursor cursor = database.query("EXPLAIN QUERY PLAN SELECT id FROM item WHERE categoryId = 1 AND id < 10 ORDER BY id DESC LIMIT 50")) {
+            StringBuilder plan = new StringBuilder();
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append('\n');
+            }
+            assertTrue(plan.toString(), plan.toString().contains("index_item_categoryId_id"));
+            assertTrue(plan.toString(), !plan.toString().contains("TEMP B-TREE"));
+        }
+        helper.close();
+    }
+
+    /**
+     * 内存中的版本9数据库（版本8建表 + 8 -> 9 迁移）
+     */
+    private SupportSQLiteOpenHelper openVersion9Database() {
+        return new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(null)
+                        .callback(new SupportSQLiteOpenHelper.Callback(9) {
+                            @Override
+                            public void onCreate(SupportSQLiteDatabase database) {
+                                ItemTaxonomyTest.createVersion8Tables(database);
+                                AppDatabase.MIGRATION_8_9.migrate(database);
+                            }
+
+                            @Override
+                            public void onUpgrade(SupportSQLiteDatabase database, int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+    }
+
+    private void insert(String name, Integer categoryId, Integer locationId, Integer quantity, String unit, Integer threshold) {
+        Item item = new Item(name, categoryId, null, locationId, null, "", null, quantity);
+        item.setUnit(unit);
+        item.setLowStockThreshold(threshold);
+        db.itemDao().insertItem(item);
+    }
+
+    private static QuantityTotal find(List<QuantityTotal> totals, Integer groupId, String unit) {
+        for (QuantityTotal total : totals) {
+            if ((groupId == null ? total.groupId == null : groupId.equals(total.groupId)) && unit.equals(total.unit)) {
+                return total;
+            }
+        }
+        throw new AssertionError("缺少汇总行：" + groupId + " / " + unit);
+    }
+
+    private static int count(SupportSQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
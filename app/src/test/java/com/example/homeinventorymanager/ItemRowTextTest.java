@@ -0,0 +1,71 @@
+package com.example.homeinventorymanager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ItemRowText 测试：已过期、即将过期（含边界天数）、正常、未设置有效期四种状态及对应的副标题
+ */
+public class ItemRowTextTest {
+
+    private static final long TODAY = 20_000;
+    private static final int SOON_DAYS = 7;
+
+    @Test
+    public void expired_beforeToday() {
+        ItemDetail item = item(TODAY - 1);
+        int status = ItemRowText.expiryStatus(item.getValidDate(), TODAY, SOON_DAYS);
+
+        assertEquals(ItemRowText.EXPIRED, status);
+        assertEquals(base(item) + " 【已过期】", ItemRowText.subtitle(item, status, SOON_DAYS));
+    }
+
+    @Test
+    public void soon_fromTodayUpToSoonDays() {
+        for (long offset = 0; offset <= SOON_DAYS; offset++) {
+            ItemDetail item = item(TODAY + offset);
+            assertEquals(ItemRowText.EXPIRY_SOON, ItemRowText.expiryStatus(item.getValidDate(), TODAY, SOON_DAYS));
+        }
+        // 提示文字随天数变化，不固定为 7 天
+        ItemDetail item = item(TODAY + 2);
+        int status = ItemRowText.expiryStatus(item.getValidDate(), TODAY, 3);
+        assertEquals(ItemRowText.EXPIRY_SOON, status);
+        assertEquals(base(item) + " 【3天内即将过期】", ItemRowText.subtitle(item, status, 3));
+    }
+
+    @Test
+    public void normal_afterSoonDays() {
+        ItemDetail item = item(TODAY + SOON_DAYS + 1);
+        int status = ItemRowText.expiryStatus(item.getValidDate(), TODAY, SOON_DAYS);
+
+        assertEquals(ItemRowText.EXPIRY_NORMAL, status);
+        assertEquals(base(item), ItemRowText.subtitle(item, status, SOON_DAYS));
+    }
+
+    @Test
+    public void noValidDate_isNormalAndShownAsUnset() {
+        ItemDetail item = item(null);
+        item.setQuantity(1);
+        item.setUnit("瓶");
+        item.setLowStockThreshold(2);
+        int status = ItemRowText.expiryStatus(item.getValidDate(), TODAY, SOON_DAYS);
+
+        assertEquals(ItemRowText.EXPIRY_NORMAL, status);
+        assertEquals("食品 - 冰箱 - 数量：1瓶 - 有效期：未设置 【需补货】",
+                ItemRowText.subtitle(item, status, SOON_DAYS));
+    }
+
+    private static ItemDetail item(Long validDay) {
+        ItemDetail item = new ItemDetail();
+        item.setItemName("牛奶");
+        item.setCategoryName("食品");
+        item.setLocationName("冰箱");
+        item.setValidDate(validDay);
+        return item;
+    }
+
+    private static String base(ItemDetail item) {
+        return "食品 - 冰箱 - 有效期：" + item.getValidDateText();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 物品检索测试：全文检索命中与模糊匹配命中合并返回，结果不取决于其他物品是否命中
+ * （用英文单词：分词结果确定，"milk" 是独立的词，"buttermilk" 中的 milk 只能靠模糊匹配找到）
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ItemSearchTest {
+
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(AppDatabase.FTS_SYNC_CALLBACK)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void searchItems_mergesTokenHitsWithSubstringHits() {
+        long buttermilk = insert("buttermilk", "");
+        long milk = insert("milk", "");
+        insert("butter", "");
+
+        List<ItemDetail> results = db.itemDao().searchItems("milk", null, null);
+
+        // 全文检索命中在前，模糊匹配补充的在后，不重复
+        assertEquals(2, results.size());
+        assertEquals(milk, results.get(0).getId());
+        assertEquals(buttermilk, results.get(1).getId());
+    }
+
+    @Test
+    public void searchItems_substringHitsRespectFiltersAndLimit() {
+        int food = (int) db.categoryDao().insertCategory(new Category("食品"));
+        for (int i = 0; i < ItemDao.SUBSTRING_MATCH_LIMIT + 5; i++) {
+            insert("buttermilk" + i, "");
+        }
+        Item other = new Item("soymilk", food, null, null, null, "", null, 1);
+        long soymilk = db.itemDao().insertItem(other);
+
+        assertEquals(ItemDao.SUBSTRING_MATCH_LIMIT, db.itemDao().searchItems("milk", null, null).size());
+        List<ItemDetail> inFood = db.itemDao().searchItems("milk", food, null);
+        assertEquals(1, inFood.size());
+        assertEquals(soymilk, inFood.get(0).getId());
+    }
+
+    private long insert(String name, String description) {
+        return db.itemDao().insertItem(new Item(name, null, null, null, null, description, null, 1));
+    }
+}
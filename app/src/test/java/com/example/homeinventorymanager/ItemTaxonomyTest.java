@@ -0,0 +1,175 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 物品分类/子分类/位置整数外键测试：改名不改写物品且全文检索同步、删除后物品保留并置空、8 -> 9 迁移按名称换算ID
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ItemTaxonomyTest {
+
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(AppDatabase.FTS_SYNC_CALLBACK)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void renameLocation_updatesDetailsAndSearchWithoutTouchingItems() {
+        long milkId = insertMilk();
+        SupportSQLiteDatabase database = db.getOpenHelper().getWritableDatabase();
+        assertEquals(1, db.itemDao().searchItems("冰箱", null, null).size());
+
+        database.execSQL("UPDATE storage_location SET locationName = '冷藏室' WHERE locationName = '冰箱'");
+
+        ItemDetail milk = db.itemDao().queryItemDetailById(milkId);
+        assertEquals("冷藏室", milk.getLocationName());
+        assertEquals("食品", milk.getCategoryName());
+        assertEquals("零食", milk.getSubCategoryName());
+        assertEquals(1, db.itemDao().searchItems("冷藏室", null, null).size());
+        assertEquals(0, db.itemDao().searchItems("冰箱", null, null).size());
+    }
+
+    @Test
+    public void deleteCategory_keepsItemsAndClearsReferences() {
+        long milkId = insertMilk();
+        Category food = db.categoryDao().queryCategoryById(db.itemDao().queryItemById((int) milkId).getCategoryId());
+
+        db.categoryDao().deleteCategory(food);
+
+        ItemDetail milk = db.itemDao().queryItemDetailById(milkId);
+        assertNotNull(milk);
+        assertNull(milk.getCategoryId());
+        // 子分类随分类级联删除，物品上的子分类ID也被置空
+        assertNull(milk.getSubCategoryId());
+        assertEquals("", milk.getCategoryName());
+        assertEquals("冰箱", milk.getLocationName());
+        assertEquals(0, db.itemDao().searchItems("食品", null, null).size());
+        assertEquals(1, db.itemDao().searchItems("牛奶", null, null).size());
+    }
+
+    @Test
+    public void filters_useIdsAndReturnNames() {
+        long milkId = insertMilk();
+        ItemDetail milk = db.itemDao().queryItemDetailById(milkId);
+
+        List<ItemDetail> byBoth = db.itemDao().queryItemsByCondition("", milk.getCategoryId(), milk.getLocationId());
+        assertEquals(1, byBoth.size());
+        assertEquals("冰箱", byBoth.get(0).getLocationName());
+        assertEquals(0, db.itemDao().queryItemsByCondition("", milk.getCategoryId() + 1, null).size());
+        assertEquals(1, db.itemDao().queryItemsPageBefore(null, milk.getLocationId(), Long.MAX_VALUE, 10).size());
+    }
+
+    @Test
+    public void migrate8To9_convertsNamesToIds() {
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(null)
+                        .callback(new SupportSQLiteOpenHelper.Callback(8) {
+                            @Override
+                            public void onCreate(SupportSQLiteDatabase database) {
+                                createVersion8Tables(database);
+                            }
+
+                            @Override
+                            public void onUpgrade(SupportSQLiteDatabase database, int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+        SupportSQLiteDatabase database = helper.getWritableDatabase();
+        database.execSQL("INSERT INTO category (id, categoryName) VALUES (1, '食品')");
+        database.execSQL("INSERT INTO sub_category (id, subCategoryName, parentCategoryId, parentCategoryName) VALUES (1, '零食', 1, '食品')");
+        database.execSQL("INSERT INTO storage_location (id, locationName) VALUES (1, '冰箱')");
+        database.execSQL("INSERT INTO item (id, itemName, category, subCategory, location) VALUES (1, '牛奶', '食品', '零食', '冰箱')");
+        // 默认选项（表中没有）、占位文本、未设置
+        database.execSQL("INSERT INTO item (id, itemName, category, subCategory, location) VALUES (2, '口红', '化妆品', '口红', '卧室衣柜')");
+        database.execSQL("INSERT INTO item (id, itemName, category, subCategory, location) VALUES (3, '纸巾', '日用品', '暂无子分类', '')");
+        database.execSQL("INSERT INTO item (id, itemName) VALUES (4, '杂物')");
+        database.execSQL("INSERT INTO item_image (id, item_id, image_path) VALUES (1, 1, '/tmp/milk.jpg')");
+
+        AppDatabase.MIGRATION_8_9.migrate(database);
+
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 1 AND categoryId = 1 AND subCategoryId = 1 AND locationId = 1"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item i JOIN category c ON c.id = i.categoryId " +
+                "JOIN sub_category s ON s.id = i.subCategoryId AND s.parentCategoryId = c.id " +
+                "JOIN storage_location l ON l.id = i.locationId " +
+                "WHERE i.id = 2 AND c.categoryName = '化妆品' AND s.subCategoryName = '口红' AND l.locationName = '卧室衣柜'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 3 AND categoryId IS NOT NULL AND subCategoryId IS NULL AND locationId IS NULL"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item WHERE id = 4 AND categoryId IS NULL AND subCategoryId IS NULL AND locationId IS NULL"));
+        assertEquals(0, count(database, "SELECT COUNT(*) FROM sub_category WHERE subCategoryName = '暂无子分类'"));
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_image"));
+        assertEquals(3, count(database, "SELECT COUNT(*) FROM pragma_foreign_key_list('item') WHERE on_delete = 'SET NULL'"));
+        // 全文检索按联表得到的名称重建，之后的改名由触发器同步
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_fts WHERE item_fts MATCH 'location:冰箱'"));
+        database.execSQL("UPDATE category SET categoryName = '化妆用品' WHERE categoryName = '化妆品'");
+        assertEquals(1, count(database, "SELECT COUNT(*) FROM item_fts WHERE item_fts MATCH 'category:化妆用品'"));
+        assertEquals(0, count(database, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name LIKE 'room_fts_content_sync_%'"));
+        helper.close();
+    }
+
+    /**
+     * 写入一个有分类/子分类/位置的物品（名称经 TaxonomyResolver 换算为ID）
+     */
+    private long insertMilk() {
+        return db.runInTransaction(() -> {
+            Item item = new Item("牛奶", null, null, null, null, "", null, 1);
+            new TaxonomyResolver(db).assign(item, "食品", "零食", "冰箱");
+            return db.itemDao().insertItem(item);
+        });
+    }
+
+    /**
+     * 版本8的建表语句（item 中为名称，item_fts 为 item 的外部内容表）
+     */
+    static void createVersion8Tables(SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TABLE `category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `categoryName` TEXT)");
+        database.execSQL("CREATE TABLE `sub_category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `subCategoryName` TEXT, `parentCategoryId` INTEGER NOT NULL, `parentCategoryName` TEXT, " +
+                "FOREIGN KEY(`parentCategoryId`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        database.execSQL("CREATE TABLE `storage_location` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `locationName` TEXT)");
+        database.execSQL("CREATE TABLE `item` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `itemName` TEXT, `category` TEXT, `subCategory` TEXT, `location` TEXT, `validDate` INTEGER, `description` TEXT, `itemCount` TEXT, `imagePath` TEXT)");
+        database.execSQL("CREATE INDEX `index_item_category_location_id` ON `item` (`category`, `location`, `id`)");
+        database.execSQL("CREATE TABLE `item_image` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `item_id` INTEGER NOT NULL, `image_path` TEXT, `thumb_small_path` TEXT, `thumb_large_path` TEXT, `content_hash` TEXT, `source_uri` TEXT, " +
+                "FOREIGN KEY(`item_id`) REFERENCES `item`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        database.execSQL("CREATE VIRTUAL TABLE `item_fts` USING FTS4(`itemName` TEXT, `description` TEXT, `category` TEXT, `subCategory` TEXT, `location` TEXT, tokenize=icu, content=`item`)");
+        AppDatabase.createLegacyItemFtsTriggers(database);
+    }
+
+    private static int count(SupportSQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 物品 + 图片保存测试：通过 Room QueryCallback 统计最外层事务数，新增/修改物品连同全部图片只提交一次，失败时整体回滚
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ItemWithImagesTest {
+
+    private static final int IMAGE_COUNT = 20;
+
+    private AppDatabase db;
+    private final List<String> statements = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryCallback((sqlQuery, bindArgs) -> statements.add(sqlQuery.trim()), Runnable::run)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void insertItemWithImages_commitsOnce() {
+        List<ItemImage> images = images(IMAGE_COUNT, "milk");
+
+        statements.clear();
+        long itemId = db.itemDao().insertItemWithImages(new Item("牛奶", null, null, null, null, "", null, 1), images);
+
+        assertEquals(1, countTransactions());
+        assertEquals(IMAGE_COUNT, db.itemImageDao().queryImagesByItemId(itemId).size());
+        assertEquals(images.get(0).getImagePath(), db.itemImageDao().queryImagePathsByItemId(itemId).get(0));
+    }
+
+    @Test
+    public void insertItemWithImages_failure_rollsBackItem() {
+        long otherId = db.itemDao().insertItem(new Item("面包", null, null, null, null, "", null, 1));
+        List<ItemImage> existing = images(1, "bread");
+        existing.get(0).setItemId(otherId);
+        db.itemImageDao().insertItemImageList(existing);
+        long takenId = db.itemImageDao().queryImagesByItemId(otherId).get(0).getId();
+
+        // 最后一张图片的ID已被占用：插入图片时失败
+        List<ItemImage> images = images(3, "milk");
+        images.get(2).setId(takenId);
+        try {
+            db.itemDao().insertItemWithImages(new Item("牛奶", null, null, null, null, "", null, 1), images);
+            fail("图片写入失败时应抛出异常");
+        } catch (SQLiteConstraintException expected) {
+            // 预期
+        }
+
+        assertEquals(1, db.itemDao().queryAllItems().size());
+        assertEquals(1, db.itemImageDao().queryImagesByItemId(otherId).size());
+    }
+
+    @Test
+    public void updateItemWithImages_keepsSavedAddsNewAndDropsRemovedInOneTransaction() {
+        Item item = new Item("牛奶", null, null, null, null, "", null, 1);
+        long itemId = db.itemDao().insertItemWithImages(item, images(3, "milk"));
+        List<ItemImage> saved = db.itemImageDao().queryImagesByItemId(itemId);
+
+        // 保留前两张、去掉第三张、新增两张
+        List<ItemImage> current = new ArrayList<>(saved.subList(0, 2));
+        current.addAll(images(2, "milk_new"));
+        item.setQuantity(2);
+
+        statements.clear();
+        db.itemDao().updateItemWithImages(item, current);
+
+        assertEquals(1, countTransactions());
+        List<ItemImage> after = db.itemImageDao().queryImagesByItemId(itemId);
+        assertEquals(4, after.size());
+        assertEquals(saved.get(0).getId(), after.get(0).getId());
+        assertEquals(saved.get(1).getId(), after.get(1).getId());
+        assertTrue(after.get(3).getImagePath().startsWith("/tmp/milk_new_"));
+        assertEquals(Integer.valueOf(2), db.itemDao().queryItemById((int) itemId).getQuantity());
+    }
+
+    /**
+     * 最外层事务数（嵌套的 BEGIN 不会单独提交，不计入）
+     */
+    private int countTransactions() {
+        int depth = 0;
+        int count = 0;
+        for (String statement : statements) {
+            String upper = statement.toUpperCase();
+            if (upper.startsWith("BEGIN")) {
+                if (depth == 0) {
+                    count++;
+                }
+                depth++;
+            } else if (upper.startsWith("END TRANSACTION")) {
+                depth--;
+            }
+        }
+        return count;
+    }
+
+    private static List<ItemImage> images(int count, String prefix) {
+        List<ItemImage> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ItemImage image = new ItemImage();
+            image.setImagePath("/tmp/" + prefix + "_" + i + ".jpg");
+            images.add(image);
+        }
+        return images;
+    }
+}
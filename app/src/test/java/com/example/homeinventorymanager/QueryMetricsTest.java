@@ -0,0 +1,137 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SQL 耗时统计测试：按页面 + 语句汇总次数/耗时/行数、任务外的语句不统计、语句数有上限、分位数按直方图计算
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class QueryMetricsTest {
+
+    private static final long MS = 1_000_000L;
+
+    private QueryMetrics metrics;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        metrics = new QueryMetrics();
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryCallback(metrics.queryCallback(), Runnable::run)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void daoQueryInTask_recordedWithScreenAndRows() {
+        db.categoryDao().insertCategory(new Category("食品"));
+        db.categoryDao().insertCategory(new Category("日用品"));
+        // 任务外执行的语句不统计
+        assertTrue(metrics.snapshot().isEmpty());
+
+        for (int i = 0; i < 3; i++) {
+            metrics.beginTask("SettingFragment");
+            List<Category> categories = db.categoryDao().queryAllCategories();
+            metrics.endTask(categories);
+        }
+
+        List<QueryMetrics.Entry> entries = metrics.snapshot();
+        assertEquals(1, entries.size());
+        QueryMetrics.Entry entry = entries.get(0);
+        assertEquals("SettingFragment", entry.screen);
+        assertTrue(entry.sql, entry.sql.startsWith("SELECT * FROM category"));
+        assertEquals(3, entry.count);
+        assertEquals(2.0, entry.avgRows(), 0);
+        assertTrue(entry.p50Ms <= entry.p99Ms && entry.p99Ms <= entry.maxMs());
+    }
+
+    @Test
+    public void statementsInTask_timedUntilNextStatement() {
+        metrics.beginTask(null);
+        metrics.onStatement("SELECT 1", 0);
+        metrics.onStatement("SELECT 2", 5 * MS);
+        metrics.onStatement("SELECT 1", 7 * MS);
+        metrics.onStatement("SELECT 3", 8 * MS);
+        metrics.endTask(null);
+
+        // 最后一条语句计时到任务结束（真实时间），这里只检查前面的语句
+        QueryMetrics.Entry first = find("SELECT 1");
+        assertEquals(QueryMetrics.BACKGROUND_SCREEN, first.screen);
+        assertEquals("SELECT 1", first.sql);
+        assertEquals(2, first.count);
+        assertEquals(6 * MS, first.totalNs);
+        assertEquals(5 * MS, first.maxNs);
+        assertEquals(-1, first.avgRows(), 0);
+        assertEquals(2 * MS, find("SELECT 2").totalNs);
+    }
+
+    @Test
+    public void distinctStatements_boundedAndInListsMerged() {
+        metrics.beginTask("ItemQueryFragment");
+        for (int i = 0; i < QueryMetrics.MAX_STATEMENTS * 2; i++) {
+            metrics.onStatement("SELECT " + i, i);
+        }
+        metrics.onStatement("DELETE FROM item_image WHERE id IN (?,?,?)", 0);
+        metrics.onStatement("DELETE FROM item_image WHERE id IN (?,?)", 0);
+        metrics.endTask(null);
+
+        List<QueryMetrics.Entry> entries = metrics.snapshot();
+        assertTrue(entries.size() <= QueryMetrics.MAX_STATEMENTS + 1);
+        boolean hasOther = false;
+        for (QueryMetrics.Entry entry : entries) {
+            hasOther |= QueryMetrics.OTHER_STATEMENTS.equals(entry.sql);
+        }
+        assertTrue(hasOther);
+        assertEquals("DELETE FROM item_image WHERE id IN (?,...)",
+                QueryMetrics.normalize("DELETE FROM item_image WHERE id IN (?,?,?)"));
+    }
+
+    @Test
+    public void histogram_percentilesWithinBucketError() {
+        long[] buckets = new long[QueryMetrics.LatencyHistogram.BUCKET_COUNT];
+        // 90 次 1ms，10 次 100ms
+        buckets[QueryMetrics.LatencyHistogram.indexOf(1_000)] += 90;
+        buckets[QueryMetrics.LatencyHistogram.indexOf(100_000)] += 10;
+
+        double p50 = QueryMetrics.LatencyHistogram.percentileMs(buckets, 0.50, 100 * MS);
+        double p95 = QueryMetrics.LatencyHistogram.percentileMs(buckets, 0.95, 100 * MS);
+        assertEquals(1.0, p50, 0.125);
+        assertEquals(100.0, p95, 12.5);
+        for (long micros = 1; micros < 1_000_000_000L; micros = micros * 3 + 1) {
+            int index = QueryMetrics.LatencyHistogram.indexOf(micros);
+            assertTrue(QueryMetrics.LatencyHistogram.lowerBound(index) <= micros);
+            assertTrue(micros < QueryMetrics.LatencyHistogram.lowerBound(index + 1));
+        }
+    }
+
+    private QueryMetrics.Entry find(String sql) {
+        for (QueryMetrics.Entry entry : metrics.snapshot()) {
+            if (entry.sql.equals(sql)) {
+                return entry;
+            }
+        }
+        throw new AssertionError("未统计：" + sql);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.homeinventorymanager;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 分类缓存测试：加载后按父分类取子分类、空表时的兜底数据、写时复制不影响旧快照、删除分类时带走子分类、
+ * 重新加载期间穿插的更新不丢失、重新加载已读到的新增不会重复
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class TaxonomyRepositoryTest {
+
+    private AppDatabase db;
+    private TaxonomyRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        repository = new TaxonomyRepository(db);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void reload_groupsSubCategoriesByParent() {
+        int food = (int) db.categoryDao().insertCategory(new Category("食品"));
+        int daily = (int) db.categoryDao().insertCategory(new Category("日用品"));
+        db.subCategoryDao().insertSubCategory(new SubCategory("零食", food, "食品"));
+        db.subCategoryDao().insertSubCategory(new SubCategory("纸巾", daily, "日用品"));
+        db.subCategoryDao().insertSubCategory(new SubCategory("生鲜", food, "食品"));
+        db.storageLocationDao().insertStorageLocation(new StorageLocation("冰箱"));
+
+        TaxonomySnapshot snapshot = repository.reload();
+
+        assertTrue(snapshot.loaded);
+        assertSame(snapshot, repository.getSnapshot());
+        assertEquals(2, snapshot.categories.size());
+        assertEquals(1, snapshot.locations.size());
+        List<SubCategory> foodChildren = snapshot.subCategoriesOf(food);
+        assertEquals(2, foodChildren.size());
+        assertEquals("零食", foodChildren.get(0).getSubCategoryName());
+        assertEquals("生鲜", foodChildren.get(1).getSubCategoryName());
+        assertEquals(1, snapshot.subCategoriesOf(daily).size());
+        assertTrue(snapshot.subCategoriesOf(daily + 1).isEmpty());
+    }
+
+    @Test
+    public void reload_concurrentMutationDuringRead_isNotLost() {
+        Context context = ApplicationProvider.getApplicationContext();
+        AtomicBoolean mutated = new AtomicBoolean();
+        AtomicReference<AppDatabase> racingDb = new AtomicReference<>();
+        AtomicReference<TaxonomyRepository> racing = new AtomicReference<>();
+        racingDb.set(Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                // 读完分类表、读位置表之前，模拟设置页新增分类：写入数据库后更新缓存
+                .setQueryCallback((sql, args) -> {
+                    if (sql.startsWith("SELECT * FROM storage_location") && mutated.compareAndSet(false, true)) {
+                        Category category = new Category("饮品");
+                        category.setId((int) racingDb.get().categoryDao().insertCategory(category));
+                        racing.get().onCategoryAdded(category);
+                    }
+                }, Runnable::run)
+                .build());
+        try {
+            racingDb.get().categoryDao().insertCategory(new Category("食品"));
+            racing.set(new TaxonomyRepository(racingDb.get()));
+
+            TaxonomySnapshot snapshot = racing.get().reload();
+
+            assertTrue(mutated.get());
+            assertEquals(2, snapshot.savedCategories.size());
+            assertSame(snapshot, racing.get().getSnapshot());
+        } finally {
+            racingDb.get().close();
+        }
+    }
+
+    @Test
+    public void reloadBetweenInsertAndAdd_doesNotDuplicate() {
+        // 设置页写入数据库后、调用 onXAdded 之前，启动预热的 reload 已读到新行
+        Category food = new Category("食品");
+        food.setId((int) db.categoryDao().insertCategory(food));
+        SubCategory snack = new SubCategory("零食", food.getId(), "食品");
+        snack.setId((int) db.subCategoryDao().insertSubCategory(snack));
+        StorageLocation fridge = new StorageLocation("冰箱");
+        fridge.setId((int) db.storageLocationDao().insertStorageLocation(fridge));
+        repository.reload();
+
+        repository.onCategoryAdded(food);
+        repository.onSubCategoryAdded(snack);
+        repository.onLocationAdded(fridge);
+
+        TaxonomySnapshot snapshot = repository.getSnapshot();
+        assertEquals(1, snapshot.categories.size());
+        assertEquals(1, snapshot.subCategoriesOf(food.getId()).size());
+        assertEquals(1, snapshot.locations.size());
+        assertSame(food, snapshot.categories.get(0));
+    }
+
+    @Test
+    public void emptyTables_showDefaults() {
+        assertFalse(repository.getSnapshot().loaded);
+
+        TaxonomySnapshot snapshot = repository.reload();
+
+        assertEquals(TaxonomySnapshot.DEFAULT_CATEGORIES.length, snapshot.categories.size());
+        assertEquals(TaxonomySnapshot.DEFAULT_LOCATIONS.length, snapshot.locations.size());
+        // 默认子分类挂在第一个默认分类（ID 为 0）下
+        assertEquals(TaxonomySnapshot.DEFAULT_SUB_CATEGORIES.length, snapshot.subCategoriesOf(0).size());
+        assertTrue(snapshot.savedCategories.isEmpty());
+    }
+
+    @Test
+    public void updates_copyOnWriteAndKeepOldSnapshot() {
+        repository.reload();
+        TaxonomySnapshot before = repository.getSnapshot();
+
+        Category food = new Category("食品");
+        food.setId(1);
+        repository.onCategoryAdded(food);
+        StorageLocation fridge = new StorageLocation("冰箱");
+        fridge.setId(1);
+        repository.onLocationAdded(fridge);
+
+        TaxonomySnapshot after = repository.getSnapshot();
+        assertEquals(1, after.categories.size());
+        assertEquals("食品", after.categories.get(0).getCategoryName());
+        assertEquals(1, after.locations.size());
+        // 旧快照仍是兜底数据，正在使用它的页面不会看到一半的修改
+        assertEquals(TaxonomySnapshot.DEFAULT_CATEGORIES.length, before.categories.size());
+        assertTrue(before.savedCategories.isEmpty());
+
+        repository.onLocationDeleted(1);
+        assertEquals(TaxonomySnapshot.DEFAULT_LOCATIONS.length, repository.getSnapshot().locations.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotLists_areUnmodifiable() {
+        repository.reload().categories.add(new Category("家电"));
+    }
+
+    @Test
+    public void deleteCategory_dropsItsSubCategories() {
+        int food = (int) db.categoryDao().insertCategory(new Category("食品"));
+        int daily = (int) db.categoryDao().insertCategory(new Category("日用品"));
+        db.subCategoryDao().insertSubCategory(new SubCategory("零食", food, "食品"));
+        SubCategory tissue = new SubCategory("纸巾", daily, "日用品");
+        tissue.setId((int) db.subCategoryDao().insertSubCategory(tissue));
+        repository.reload();
+
+        repository.onCategoryDeleted(food);
+
+        TaxonomySnapshot snapshot = repository.getSnapshot();
+        assertEquals(1, snapshot.categories.size());
+        assertTrue(snapshot.subCategoriesOf(food).isEmpty());
+        assertEquals(1, snapshot.subCategories.size());
+
+        repository.onSubCategoryDeleted(tissue.getId());
+        // 表中没有子分类时回到默认子分类（挂在剩下的第一个分类下）
+        assertEquals(TaxonomySnapshot.DEFAULT_SUB_CATEGORIES.length, repository.getSnapshot().subCategoriesOf(daily).size());
+    }
+}
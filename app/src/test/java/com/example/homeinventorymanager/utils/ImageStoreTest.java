@@ -0,0 +1,176 @@
+package com.example.homeinventorymanager.utils;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.AppDatabase;
+import com.example.homeinventorymanager.Item;
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 图片存储测试：按内容去重、已知 Uri 不再读取、引用数为 0 时才删除文件
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ImageStoreTest {
+
+    // 直接放进存储目录的文件使用的哈希（不经过 importFrom）
+    private static final String SAVED_HASH = "ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01ab01";
+
+    private Context context;
+    private AppDatabase db;
+    private final AtomicInteger opens = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        AppDatabase.setInstanceForTesting(db);
+    }
+
+    @After
+    public void tearDown() {
+        AppDatabase.setInstanceForTesting(null);
+        db.close();
+    }
+
+    @Test
+    public void importFrom_sameContentFromDifferentUris_isStoredOnce() throws IOException {
+        Uri first = register("content://media/external/images/1", "milk");
+        Uri second = register("content://media/external/images/2", "milk");
+
+        ImageStore.StoredImage a = ImageStore.importFrom(context, first);
+        ImageStore.StoredImage b = ImageStore.importFrom(context, second);
+
+        assertFalse(a.reused);
+        assertTrue(b.reused);
+        assertEquals(a.path, b.path);
+        assertEquals(a.contentHash, ImageStore.contentHashOf(a.path));
+        assertEquals(1, storedFileCount());
+    }
+
+    @Test
+    public void importFrom_knownUri_doesNotReadAgain() throws IOException {
+        Uri uri = register("content://media/external/images/3", "bread");
+        ImageStore.StoredImage first = ImageStore.importFrom(context, uri);
+        ImageStore.StoredImage again = ImageStore.importFrom(context, uri);
+
+        assertEquals(1, opens.get());
+        assertTrue(again.reused);
+        assertEquals(first.path, again.path);
+    }
+
+    @Test
+    public void importFrom_uriOfSavedImage_isReusedWithoutReading() throws IOException {
+        // 上次运行保存的记录：本次运行的缓存中没有，按 source_uri 找到
+        File file = storeFile(SAVED_HASH + ".jpg");
+        Uri uri = register("content://media/external/images/4", "eggs");
+        ItemImage image = new ItemImage();
+        image.setItemId(insertItem());
+        image.setImagePath(file.getAbsolutePath());
+        image.setContentHash(SAVED_HASH);
+        image.setSourceUri(uri.toString());
+        db.itemImageDao().insertItemImage(image);
+
+        ImageStore.StoredImage stored = ImageStore.importFrom(context, uri);
+
+        assertEquals(0, opens.get());
+        assertTrue(stored.reused);
+        assertEquals(file.getAbsolutePath(), stored.path);
+        assertEquals(SAVED_HASH, stored.contentHash);
+    }
+
+    @Test
+    public void deleteIfUnreferenced_keepsFileUntilLastReferenceIsGone() throws IOException {
+        File file = storeFile(SAVED_HASH + ".jpg");
+        File thumbnail = storeFile(SAVED_HASH + "_200.jpg");
+        long first = insertItem();
+        long second = insertItem();
+        saveImage(first, file.getAbsolutePath());
+        saveImage(second, file.getAbsolutePath());
+        assertEquals(2, db.itemImageDao().countImagesByContentHash(SAVED_HASH));
+
+        db.itemImageDao().deleteItemImageByItemId((int) first);
+        assertFalse(ImageStore.deleteIfUnreferenced(context, SAVED_HASH));
+        assertTrue(file.exists());
+
+        db.itemImageDao().deleteItemImageByItemId((int) second);
+        assertTrue(ImageStore.deleteIfUnreferenced(context, SAVED_HASH));
+        assertFalse(file.exists());
+        assertFalse(thumbnail.exists());
+    }
+
+    @Test
+    public void deleteIfUnreferenced_recentlyPickedImage_isKept() throws IOException {
+        // 刚选择、尚未保存记录的图片不能被删除
+        ImageStore.StoredImage stored = ImageStore.importFrom(context, register("content://media/external/images/5", "rice"));
+        assertFalse(ImageStore.deleteIfUnreferenced(context, stored.contentHash));
+        assertTrue(new File(stored.path).exists());
+    }
+
+    @Test
+    public void contentHashOf_pathOutsideStore_isNull() {
+        assertNull(ImageStore.contentHashOf("/storage/emulated/0/DCIM/IMG_1.jpg"));
+        assertNull(ImageStore.contentHashOf(new File(ImageStore.imageDir(context), "not-a-hash.jpg").getAbsolutePath()));
+        assertNull(ImageStore.contentHashOf(null));
+    }
+
+    private Uri register(String value, String content) {
+        Uri uri = Uri.parse(value);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        shadowOf(context.getContentResolver()).registerInputStreamSupplier(uri, () -> {
+            opens.incrementAndGet();
+            return new ByteArrayInputStream(bytes);
+        });
+        return uri;
+    }
+
+    private long insertItem() {
+        return db.itemDao().insertItem(new Item("牛奶", null, null, null, null, "", null, 1));
+    }
+
+    private void saveImage(long itemId, String path) {
+        ItemImage image = new ItemImage();
+        image.setItemId(itemId);
+        image.setImagePath(path);
+        ImageStore.fillStoreInfo(image);
+        db.itemImageDao().insertItemImage(image);
+    }
+
+    private File storeFile(String name) throws IOException {
+        File dir = ImageStore.imageDir(context);
+        dir.mkdirs();
+        File file = new File(dir, name);
+        assertTrue(file.createNewFile());
+        return file;
+    }
+
+    private int storedFileCount() {
+        File[] files = ImageStore.imageDir(context).listFiles((dir, name) -> !name.endsWith(".tmp"));
+        return files == null ? 0 : files.length;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.homeinventorymanager.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+
+import androidx.exifinterface.media.ExifInterface;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 拍照转码测试：缩小到最长边、按 EXIF 方向摆正、小图不处理、进度状态
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class PhotoTranscoderTest {
+
+    private static final PhotoTranscoder.Config JPEG_800 = new PhotoTranscoder.Config(800, 80, PhotoTranscoder.Format.JPEG);
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        dir = new File(context.getCacheDir(), "camera");
+        dir.mkdirs();
+    }
+
+    @Test
+    public void transcode_largePhoto_isDownscaledInPlace() throws IOException {
+        File photo = new File(dir, "IMG_large.jpg");
+        writeJpeg(2000, 1500, photo);
+
+        assertTrue(PhotoTranscoder.transcode(photo, JPEG_800));
+        assertSize(photo, 800, 600);
+        assertFalse(new File(dir, "IMG_large.jpg.transcode").exists());
+    }
+
+    @Test
+    public void transcode_rotatedPhoto_isUprightAfterwards() throws IOException {
+        File photo = new File(dir, "IMG_rotated.jpg");
+        writeJpeg(1600, 1200, photo);
+        ExifInterface exif = new ExifInterface(photo.getAbsolutePath());
+        exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(ExifInterface.ORIENTATION_ROTATE_90));
+        exif.saveAttributes();
+
+        assertTrue(PhotoTranscoder.transcode(photo, JPEG_800));
+        // 旋转 90 度后宽高互换，新文件不再带方向信息
+        assertSize(photo, 600, 800);
+        assertEquals(ExifInterface.ORIENTATION_NORMAL, PhotoTranscoder.readOrientation(photo));
+    }
+
+    @Test
+    public void transcode_smallUprightPhoto_isLeftUntouched() throws IOException {
+        File photo = new File(dir, "IMG_small.jpg");
+        writeJpeg(640, 480, photo);
+        long length = photo.length();
+
+        assertFalse(PhotoTranscoder.transcode(photo, JPEG_800));
+        assertEquals(length, photo.length());
+    }
+
+    @Test
+    public void progress_saturatesAtMaxPending() {
+        assertTrue(PhotoTranscoder.Progress.IDLE.isIdle());
+        assertFalse(new PhotoTranscoder.Progress(PhotoTranscoder.MAX_PENDING, 1, 0).isSaturated());
+        assertTrue(new PhotoTranscoder.Progress(PhotoTranscoder.MAX_PENDING, 0, 0).isSaturated());
+    }
+
+    @Test
+    public void sampleSize_keepsDecodedImageAtLeastMaxEdge() {
+        assertEquals(2, PhotoTranscoder.sampleSizeFor(4000, 1600));
+        assertEquals(4, PhotoTranscoder.sampleSizeFor(4000, 800));
+        assertEquals(1, PhotoTranscoder.sampleSizeFor(1200, 1600));
+    }
+
+    private static void assertSize(File file, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        assertEquals(file.getName() + " 宽度", width, options.outWidth);
+        assertEquals(file.getName() + " 高度", height, options.outHeight);
+    }
+
+    private static void writeJpeg(int width, int height, File file) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.RED);
+        try (OutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        }
+        bitmap.recycle();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.homeinventorymanager.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.homeinventorymanager.bean.ItemImage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 缩略图存储测试：分档尺寸、保存位置、复用已生成的缩略图、按显示尺寸选择档位
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ThumbnailStoreTest {
+
+    private Context context;
+    private File original;
+
+    @Before
+    public void setUp() throws IOException {
+        context = ApplicationProvider.getApplicationContext();
+        File dir = new File(context.getCacheDir(), "photos");
+        dir.mkdirs();
+        original = new File(dir, "IMG_1.jpg");
+        writeJpeg(1600, 1200, original);
+    }
+
+    @Test
+    public void generate_writesSizeBucketsNextToOriginal() throws IOException {
+        ThumbnailStore.Thumbnails thumbnails = ThumbnailStore.generate(context, original);
+
+        File large = new File(thumbnails.largePath);
+        File small = new File(thumbnails.smallPath);
+        assertEquals(original.getParentFile(), large.getParentFile());
+        assertEquals("IMG_1_600.jpg", large.getName());
+        assertEquals("IMG_1_200.jpg", small.getName());
+        assertSize(large, 600, 450);
+        assertSize(small, 200, 150);
+    }
+
+    @Test
+    public void generate_reusesUpToDateThumbnails() throws IOException {
+        assertNull(ThumbnailStore.findExisting(context, original.getAbsolutePath()));
+        ThumbnailStore.Thumbnails first = ThumbnailStore.generate(context, original);
+        long writtenAt = new File(first.largePath).lastModified();
+
+        assertNotNull(ThumbnailStore.findExisting(context, original.getAbsolutePath()));
+        ThumbnailStore.Thumbnails second = ThumbnailStore.generate(context, original);
+        assertEquals(first.largePath, second.largePath);
+        assertEquals(writtenAt, new File(second.largePath).lastModified());
+    }
+
+    @Test
+    public void generate_smallOriginal_isNotUpscaled() throws IOException {
+        File tiny = new File(original.getParentFile(), "tiny.jpg");
+        writeJpeg(120, 80, tiny);
+        ThumbnailStore.Thumbnails thumbnails = ThumbnailStore.generate(context, tiny);
+        assertSize(new File(thumbnails.largePath), 120, 80);
+        assertSize(new File(thumbnails.smallPath), 120, 80);
+    }
+
+    @Test
+    public void choosePath_picksSmallestBucketCoveringDisplaySize() {
+        ItemImage image = new ItemImage();
+        image.setImagePath("/p/a.jpg");
+        assertEquals("/p/a.jpg", ThumbnailStore.choosePath(image, 100));
+
+        image.setThumbSmallPath("/p/a_200.jpg");
+        image.setThumbLargePath("/p/a_600.jpg");
+        assertEquals("/p/a_200.jpg", ThumbnailStore.choosePath(image, 200));
+        assertEquals("/p/a_600.jpg", ThumbnailStore.choosePath(image, 300));
+        assertEquals("/p/a.jpg", ThumbnailStore.choosePath(image, 1080));
+    }
+
+    @Test
+    public void sampleSize_keepsDecodedImageAtLeastTargetSize() {
+        assertEquals(4, ThumbnailStore.sampleSizeFor(4000, 3000, 600));
+        assertEquals(2, ThumbnailStore.sampleSizeFor(1600, 1200, 600));
+        assertEquals(1, ThumbnailStore.sampleSizeFor(500, 400, 600));
+    }
+
+    private static void assertSize(File file, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        assertEquals(file.getName() + " 宽度", width, options.outWidth);
+        assertEquals(file.getName() + " 高度", height, options.outHeight);
+    }
+
+    private static void writeJpeg(int width, int height, File file) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.RED);
+        try (OutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+        }
+        bitmap.recycle();
+    }
+}
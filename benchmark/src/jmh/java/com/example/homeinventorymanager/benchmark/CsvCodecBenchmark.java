@@ -0,0 +1,75 @@
+package com.example.homeinventorymanager.benchmark;
+
+import com.example.homeinventorymanager.CsvCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 编解码：导出时写一行物品记录、导入时解析整个文件（RECORDS 条记录，约两成字段需要加引号）
+ */
+@State(Scope.Thread)
+public class CsvCodecBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    // 一行物品记录的字段：名称、分类、子分类、位置、有效期、数量、单位、描述
+    private String[][] rows;
+    private String csv;
+    private final StringBuilder line = new StringBuilder(256);
+    private final List<String> fields = new ArrayList<>();
+    private int index;
+
+    @Setup
+    public void setUp() {
+        rows = new String[RECORDS][];
+        StringBuilder sb = new StringBuilder(RECORDS * 64);
+        sb.append(CsvCodec.BOM);
+        for (int i = 0; i < RECORDS; i++) {
+            String description = i % 5 == 0 ? "开封后冷藏，\"尽快\"食用\n第二行" : (i % 2 == 0 ? "" : null);
+            rows[i] = new String[]{"物品" + i, "食品", "零食", "冰箱", "2026-01-" + (10 + i % 20),
+                    String.valueOf(i % 10), "瓶", description};
+            appendRow(sb, rows[i]);
+        }
+        csv = sb.toString();
+    }
+
+    private static void appendRow(StringBuilder out, String[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            CsvCodec.appendField(out, row[i]);
+        }
+        out.append("\r\n");
+    }
+
+    @Benchmark
+    public int writeRecord() {
+        index = (index + 1) % RECORDS;
+        line.setLength(0);
+        appendRow(line, rows[index]);
+        return line.length();
+    }
+
+    /**
+     * 解析整个文件（每次操作 RECORDS 条记录）
+     */
+    @Benchmark
+    public int readFile() throws IOException {
+        int count = 0;
+        try (CsvCodec.RecordReader reader = new CsvCodec.RecordReader(new StringReader(csv))) {
+            while (reader.readRecord(fields)) {
+                count += fields.size();
+            }
+        }
+        return count;
+    }
+}
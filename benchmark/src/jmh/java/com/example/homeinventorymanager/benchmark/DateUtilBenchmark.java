@@ -0,0 +1,80 @@
+package com.example.homeinventorymanager.benchmark;
+
+import com.example.homeinventorymanager.DateUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+
+/**
+ * DateUtil 新旧实现对比：每次操作处理一个有效期字符串
+ * legacy* 为重写前的 SimpleDateFormat 实现，其余为当前实现；配合 gc 分析器对比每次操作的分配字节数
+ */
+@State(Scope.Thread)
+public class DateUtilBenchmark {
+
+    // 与列表中的数据分布类似：已过期、即将过期、远期、未设置
+    private String[] dates;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        dates = new String[]{
+                today.minusDays(30).toString(),
+                today.minusDays(1).toString(),
+                today.toString(),
+                today.plusDays(3).toString(),
+                today.plusDays(7).toString(),
+                today.plusDays(90).toString(),
+                today.plusYears(2).toString(),
+                ""
+        };
+    }
+
+    private String nextDate() {
+        index = (index + 1) & 7;
+        return dates[index];
+    }
+
+    @Benchmark
+    public int legacyGetDayInterval() {
+        return LegacyDateUtil.getDayInterval(nextDate());
+    }
+
+    @Benchmark
+    public int getDayInterval() {
+        return DateUtil.getDayInterval(nextDate());
+    }
+
+    /**
+     * 旧列表绑定一行的开销：isExpired + isWillExpireIn7Days，各自完整解析一次日期和"今天"
+     */
+    @Benchmark
+    public void legacyExpiryStatus(Blackhole blackhole) {
+        String date = nextDate();
+        blackhole.consume(LegacyDateUtil.isExpired(date));
+        blackhole.consume(LegacyDateUtil.isWillExpireIn7Days(date));
+    }
+
+    @Benchmark
+    public void expiryStatus(Blackhole blackhole) {
+        String date = nextDate();
+        blackhole.consume(DateUtil.isExpired(date));
+        blackhole.consume(DateUtil.isWillExpireIn7Days(date));
+    }
+
+    @Benchmark
+    public int parseEpochDay() {
+        return DateUtil.parseEpochDay(nextDate());
+    }
+
+    @Benchmark
+    public int todayEpochDay() {
+        return DateUtil.todayEpochDay();
+    }
+}
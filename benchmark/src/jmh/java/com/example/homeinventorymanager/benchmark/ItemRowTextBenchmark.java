@@ -0,0 +1,69 @@
+package com.example.homeinventorymanager.benchmark;
+
+import com.example.homeinventorymanager.DateUtil;
+import com.example.homeinventorymanager.ItemDetail;
+import com.example.homeinventorymanager.ItemRowText;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 列表绑定一行的文字开销：有效期状态 + 副标题
+ * legacy* 为重写前的字符串 + 拼接，其余为 ItemRowText（一次拼接到同一个 StringBuilder）
+ */
+@State(Scope.Thread)
+public class ItemRowTextBenchmark {
+
+    // 与 ItemDao.EXPIRING_SOON_DAYS 一致
+    private static final int SOON_DAYS = 7;
+
+    // 已过期、即将过期、远期、未设置有效期；有的带数量/补货阈值
+    private ItemDetail[] items;
+    private long today;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        today = DateUtil.todayEpochDay();
+        long[] offsets = {-30, -1, 0, 3, 7, 90, 730, Long.MIN_VALUE};
+        items = new ItemDetail[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            ItemDetail item = new ItemDetail();
+            item.setItemName("物品" + i);
+            item.setCategoryName("食品");
+            item.setLocationName(i % 2 == 0 ? "冰箱" : "厨房橱柜");
+            if (offsets[i] != Long.MIN_VALUE) {
+                item.setValidDate(today + offsets[i]);
+            }
+            if (i % 3 != 0) {
+                item.setQuantity(i);
+                item.setUnit("瓶");
+                item.setLowStockThreshold(2);
+            }
+            items[i] = item;
+        }
+    }
+
+    private ItemDetail nextItem() {
+        index = (index + 1) & 7;
+        return items[index];
+    }
+
+    @Benchmark
+    public String legacySubtitle() {
+        return LegacyItemRowText.subtitle(nextItem(), today, SOON_DAYS);
+    }
+
+    @Benchmark
+    public String subtitle() {
+        ItemDetail item = nextItem();
+        return ItemRowText.subtitle(item, ItemRowText.expiryStatus(item.getValidDate(), today, SOON_DAYS), SOON_DAYS);
+    }
+
+    @Benchmark
+    public int expiryStatus() {
+        return ItemRowText.expiryStatus(nextItem().getValidDate(), today, SOON_DAYS);
+    }
+}
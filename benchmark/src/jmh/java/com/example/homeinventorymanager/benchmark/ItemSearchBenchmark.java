@@ -0,0 +1,70 @@
+package com.example.homeinventorymanager.benchmark;
+
+import com.example.homeinventorymanager.ItemDetail;
+import com.example.homeinventorymanager.ItemSearch;
+import com.example.homeinventorymanager.ItemSearchResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 全文检索辅助：用户输入 -> MATCH 表达式、按 matchinfo 计算相关度并排序（每次操作排序 RESULTS 条检索结果）
+ */
+@State(Scope.Thread)
+public class ItemSearchBenchmark {
+
+    private static final int RESULTS = 200;
+    // 与 ItemFts 的列数一致
+    private static final int COLUMNS = 5;
+    private static final int PHRASES = 2;
+    private static final int ROWS = 10_000;
+
+    private final String[] keywords = {"牛奶", "牛奶 冰箱", "  洗衣液  卫生间 ", "\"a*\" (b) -c", "日用品:纸巾"};
+    private List<ItemSearchResult> results;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        results = new ArrayList<>(RESULTS);
+        for (int i = 0; i < RESULTS; i++) {
+            ItemSearchResult result = new ItemSearchResult();
+            result.item = new ItemDetail();
+            result.item.setId(i + 1);
+            result.matchInfo = matchInfo(random);
+            results.add(result);
+        }
+    }
+
+    /**
+     * 生成 matchinfo(item_fts, 'pcnx') 格式的数据（本机字节序）
+     */
+    private static byte[] matchInfo(Random random) {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + PHRASES * COLUMNS * 12).order(ByteOrder.nativeOrder());
+        buffer.putInt(PHRASES).putInt(COLUMNS).putInt(ROWS);
+        for (int i = 0; i < PHRASES * COLUMNS; i++) {
+            int docsWithHits = 1 + random.nextInt(500);
+            buffer.putInt(random.nextInt(4)).putInt(docsWithHits * 2).putInt(docsWithHits);
+        }
+        return buffer.array();
+    }
+
+    @Benchmark
+    public String toMatchQuery() {
+        index = (index + 1) % keywords.length;
+        return ItemSearch.toMatchQuery(keywords[index]);
+    }
+
+    @Benchmark
+    public List<ItemDetail> rank() {
+        return ItemSearch.rank(results);
+    }
+}
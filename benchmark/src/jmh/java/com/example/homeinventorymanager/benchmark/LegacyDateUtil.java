@@ -0,0 +1,42 @@
+package com.example.homeinventorymanager.benchmark;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * 重写前的 DateUtil 实现（共享 SimpleDateFormat + 毫秒差值换算天数），仅作为基准测试的对照组
+ */
+final class LegacyDateUtil {
+    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA);
+
+    private LegacyDateUtil() {
+    }
+
+    static int getDayInterval(String targetDateStr) {
+        if (targetDateStr == null || targetDateStr.trim().isEmpty() || targetDateStr.equals("未设置")) {
+            return -1;
+        }
+        try {
+            Date targetDate = DATE_FORMAT.parse(targetDateStr);
+            Date currentDate = new Date();
+            String currentDateStr = DATE_FORMAT.format(currentDate);
+            currentDate = DATE_FORMAT.parse(currentDateStr);
+            long timeDiff = targetDate.getTime() - currentDate.getTime();
+            return (int) (timeDiff / (1000 * 60 * 60 * 24));
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    static boolean isExpired(String validDateStr) {
+        int dayInterval = getDayInterval(validDateStr);
+        return dayInterval != -1 && dayInterval < 0;
+    }
+
+    static boolean isWillExpireIn7Days(String validDateStr) {
+        int dayInterval = getDayInterval(validDateStr);
+        return dayInterval != -1 && dayInterval >= 0 && dayInterval <= 7;
+    }
+}
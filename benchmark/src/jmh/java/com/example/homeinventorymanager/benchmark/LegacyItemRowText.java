@@ -0,0 +1,36 @@
+package com.example.homeinventorymanager.benchmark;
+
+import com.example.homeinventorymanager.ItemDetail;
+
+/**
+ * 重写前列表绑定一行时的副标题拼接（先用 + 拼出基础文本，补货/过期提示再各拼接一次），仅作为基准测试的对照组
+ */
+final class LegacyItemRowText {
+
+    private LegacyItemRowText() {
+    }
+
+    static String subtitle(ItemDetail item, long today, int soonDays) {
+        Long validDay = item.getValidDate();
+        String validDate = item.getValidDateText();
+        String category = item.getCategoryName();
+        String location = item.getLocationName();
+        String quantity = item.getQuantityText();
+
+        String subtitle = category + " - " + location +
+                (quantity.isEmpty() ? "" : " - 数量：" + quantity) +
+                " - 有效期：" + (validDate.isEmpty() ? "未设置" : validDate);
+        if (item.isLowStock()) {
+            subtitle += " 【需补货】";
+        }
+        if (validDay != null) {
+            long daysLeft = validDay - today;
+            if (daysLeft < 0) {
+                return subtitle + " 【已过期】";
+            } else if (daysLeft <= soonDays) {
+                return subtitle + " 【" + soonDays + "天内即将过期】";
+            }
+        }
+        return subtitle;
+    }
+}
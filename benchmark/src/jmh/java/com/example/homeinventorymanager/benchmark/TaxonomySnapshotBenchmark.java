@@ -0,0 +1,84 @@
+package com.example.homeinventorymanager.benchmark;
+
+import com.example.homeinventorymanager.Category;
+import com.example.homeinventorymanager.StorageLocation;
+import com.example.homeinventorymanager.SubCategory;
+import com.example.homeinventorymanager.TaxonomySnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分类快照（进程内索引）：选择分类时取子分类（按父分类ID的映射 vs 重写前的线性过滤），以及设置页增删后重建快照
+ */
+@State(Scope.Thread)
+public class TaxonomySnapshotBenchmark {
+
+    private static final int CATEGORIES = 20;
+    private static final int SUB_CATEGORIES_PER_CATEGORY = 15;
+    private static final int LOCATIONS = 30;
+
+    private List<Category> categories;
+    private List<SubCategory> subCategories;
+    private List<StorageLocation> locations;
+    private TaxonomySnapshot snapshot;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        categories = new ArrayList<>(CATEGORIES);
+        subCategories = new ArrayList<>(CATEGORIES * SUB_CATEGORIES_PER_CATEGORY);
+        for (int c = 1; c <= CATEGORIES; c++) {
+            Category category = new Category("分类" + c);
+            category.setId(c);
+            categories.add(category);
+            for (int s = 0; s < SUB_CATEGORIES_PER_CATEGORY; s++) {
+                SubCategory subCategory = new SubCategory("子分类" + c + "-" + s, c, category.getCategoryName());
+                subCategory.setId(subCategories.size() + 1);
+                subCategories.add(subCategory);
+            }
+        }
+        locations = new ArrayList<>(LOCATIONS);
+        for (int l = 1; l <= LOCATIONS; l++) {
+            StorageLocation location = new StorageLocation("位置" + l);
+            location.setId(l);
+            locations.add(location);
+        }
+        snapshot = new TaxonomySnapshot(categories, subCategories, locations, true);
+    }
+
+    private int nextCategoryId() {
+        index = (index + 1) % CATEGORIES;
+        return index + 1;
+    }
+
+    /**
+     * 重写前的做法：每次选择分类都遍历全部子分类并新建列表
+     */
+    @Benchmark
+    public List<SubCategory> legacySubCategoriesOf() {
+        int parentCategoryId = nextCategoryId();
+        List<SubCategory> result = new ArrayList<>();
+        for (SubCategory subCategory : subCategories) {
+            if (subCategory.getParentCategoryId() == parentCategoryId) {
+                result.add(subCategory);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<SubCategory> subCategoriesOf() {
+        return snapshot.subCategoriesOf(nextCategoryId());
+    }
+
+    @Benchmark
+    public TaxonomySnapshot buildSnapshot() {
+        return new TaxonomySnapshot(categories, subCategories, locations, true);
+    }
+}